@@ -0,0 +1,81 @@
+package com.example.bugradar.benchmark;
+
+import com.example.bugradar.dto.BugSummary;
+import com.example.bugradar.dto.CursorPage;
+import com.example.bugradar.entity.Bug;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Citirile de bug-uri: lista completă sortată (findAllByOrderByCreationDateDesc, ca vechiul GET /api/bugs),
+ * o pagină din feed, căutarea după titlu (prin index și prin scanarea colecției) și filtrele pe tag-uri.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class BugQueryBenchmark extends ServiceBenchmarkState {
+
+    // Un cuvânt frecvent, unul rar, două cuvinte și un prefix (search-as-you-type)
+    private static final String[] QUERIES = {"login", "refresh", "dark mode", "notif"};
+
+    private List<String> popularTags;
+    private List<String> rareTags;
+
+    @Override
+    protected void prepare() {
+        List<String> tagIds = fixture.dataset.tagIds();
+        popularTags = tagIds.subList(0, 3);
+        rareTags = tagIds.subList(tagIds.size() - 10, tagIds.size());
+    }
+
+    @Benchmark
+    public List<Bug> findAllByCreationDateDesc() {
+        return fixture.bugRepository.findAllByOrderByCreationDateDesc();
+    }
+
+    @Benchmark
+    public CursorPage<BugSummary> feedFirstPage() {
+        return fixture.bugService.getBugsPage(CursorPage.DEFAULT_SIZE, null);
+    }
+
+    @Benchmark
+    public List<BugSummary> searchByText() {
+        return fixture.bugService.filterBugsByText(QUERIES[ThreadLocalRandom.current().nextInt(QUERIES.length)],
+                CursorPage.DEFAULT_SIZE);
+    }
+
+    /**
+     * Varianta fără index: toată colecția citită și filtrată în memorie
+     */
+    @Benchmark
+    public List<Bug> titleContainsScan() {
+        return fixture.bugRepository.findByTitleContainingIgnoreCase(QUERIES[ThreadLocalRandom.current().nextInt(QUERIES.length)]);
+    }
+
+    @Benchmark
+    public List<BugSummary> filterBySingleTag() {
+        return fixture.bugService.filterBugsByTag(popularTags.get(ThreadLocalRandom.current().nextInt(popularTags.size())));
+    }
+
+    /**
+     * Două tag-uri populare (AND), oricare din cele rare (OR), fără al treilea popular (NOT)
+     */
+    @Benchmark
+    public List<BugSummary> filterByTagExpression() {
+        return fixture.bugService.filterBugsByTags(popularTags.subList(0, 1), rareTags, popularTags.subList(2, 3));
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.bugradar.benchmark;
+
+import com.example.bugradar.dto.BugSummary;
+import com.example.bugradar.dto.CursorPage;
+import com.example.bugradar.entity.Bug;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializarea Jackson a răspunsurilor cu bug-uri, cu ObjectMapper-ul configurat ca în Spring Boot:
+ * toată lista de Bug (vechiul GET /api/bugs) față de o pagină de BugSummary din feed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class BugSerializationBenchmark extends ServiceBenchmarkState {
+
+    private List<Bug> allBugs;
+    private CursorPage<BugSummary> feedPage;
+
+    @Override
+    protected void prepare() {
+        allBugs = fixture.bugRepository.findAllByOrderByCreationDateDesc();
+        feedPage = fixture.bugService.getBugsPage(CursorPage.DEFAULT_SIZE, null);
+    }
+
+    @Benchmark
+    public byte[] serializeAllBugs() throws JsonProcessingException {
+        return fixture.objectMapper.writeValueAsBytes(allBugs);
+    }
+
+    @Benchmark
+    public byte[] serializeFeedPage() throws JsonProcessingException {
+        return fixture.objectMapper.writeValueAsBytes(feedPage);
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.bugradar.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Rulează benchmark-urile pe servicii și scrie rezultatele JMH ca JSON, câte un fișier per rulare
+ * (results/hot-paths-{data}.json), ca rulările succesive să poată fi comparate.
+ *
+ * Acceptă aceleași argumente ca JMH, de exemplu:
+ *   java -cp benchmarks/target/benchmarks.jar com.example.bugradar.benchmark.HotPathBenchmarks \
+ *       -p bugs=1000,100000,1000000 -p latencyMicros=0,2000 VoteBenchmark
+ * Directorul rezultatelor: -DresultsDir=... (implicit results); -rf / -rff au prioritate.
+ */
+public class HotPathBenchmarks {
+
+    private static final String HOT_PATHS = "com\\.example\\.bugradar\\.benchmark\\."
+            + "(VoteBenchmark|ScoreRecalculationBenchmark|BugQueryBenchmark|BugSerializationBenchmark)\\.";
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if (commandLine.getIncludes().isEmpty()) {
+            options.include(HOT_PATHS);
+        }
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            Path directory = Path.of(System.getProperty("resultsDir", "results"));
+            Files.createDirectories(directory);
+            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+            options.result(directory.resolve("hot-paths-" + timestamp + ".json").toString());
+        }
+        new Runner(options.build()).run();
+    }
+}
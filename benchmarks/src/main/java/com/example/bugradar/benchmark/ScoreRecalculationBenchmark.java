@@ -0,0 +1,45 @@
+package com.example.bugradar.benchmark;
+
+import com.example.bugradar.dto.ScoreRecomputeReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Recalcularea tuturor scorurilor prin ScoreRecomputeService (scanările în flux, ScoreAggregator, scrierea
+ * scorurilor schimbate). Prima rulare scrie toate scorurile; următoarele găsesc scorurile deja la zi și doar
+ * compară, ca o recalculare de verificare în producție.
+ *
+ * Dimensiunea țintă (100k utilizatori, 1M bug-uri, 5M voturi) nu e în parametrii impliciți, fiindcă datele cer
+ * mult mai multă memorie: -p users=100000 -p bugs=1000000 -p votesPerBug=5 -jvmArgsAppend -Xmx12g
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ScoreRecalculationBenchmark extends ServiceBenchmarkState {
+
+    @Benchmark
+    public ScoreRecomputeReport recalculateAllUserScores() {
+        ScoreRecomputeReport report = fixture.scoreRecomputeService.start(fixture.moderatorId(), false);
+        // Recalcularea rulează pe thread-ul serviciului; așteptăm raportul final
+        while (report.getStatus() == ScoreRecomputeReport.Status.RUNNING) {
+            LockSupport.parkNanos(50_000);
+        }
+        if (report.getStatus() == ScoreRecomputeReport.Status.FAILED) {
+            throw new IllegalStateException("Score recalculation failed: " + report.getError());
+        }
+        return report;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.bugradar.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Parametrii comuni ai benchmark-urilor pe servicii (suprascriși din linia de comandă, ex. -p bugs=1000000
+ * -p latencyMicros=0,2000). latencyMicros = durata unui round trip Firestore simulat; 0 măsoară doar CPU-ul.
+ * users = 0 înseamnă bug-uri / 10 (cel puțin 100).
+ */
+@State(Scope.Benchmark)
+public abstract class ServiceBenchmarkState {
+
+    @Param({"0"})
+    public int users;
+
+    @Param({"1000", "100000"})
+    public int bugs;
+
+    @Param({"2"})
+    public int commentsPerBug;
+
+    @Param({"3"})
+    public int votesPerBug;
+
+    @Param({"0"})
+    public long latencyMicros;
+
+    ServiceFixture fixture;
+
+    @Setup(Level.Trial)
+    public void createFixture() {
+        fixture = new ServiceFixture(users, bugs, commentsPerBug, votesPerBug, latencyMicros);
+        prepare();
+    }
+
+    /**
+     * Pregătirea specifică fiecărui benchmark, după ce datele există (JMH nu garantează ordinea metodelor @Setup)
+     */
+    protected void prepare() {
+    }
+
+    @TearDown(Level.Trial)
+    public void closeFixture() {
+        fixture.close();
+    }
+}
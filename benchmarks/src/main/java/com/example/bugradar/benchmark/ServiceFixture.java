@@ -0,0 +1,91 @@
+package com.example.bugradar.benchmark;
+
+import com.example.bugradar.benchmark.inmemory.InMemoryBugRepository;
+import com.example.bugradar.benchmark.inmemory.InMemoryCommentRepository;
+import com.example.bugradar.benchmark.inmemory.InMemoryStore;
+import com.example.bugradar.benchmark.inmemory.InMemoryTagRepository;
+import com.example.bugradar.benchmark.inmemory.InMemoryUserRepository;
+import com.example.bugradar.benchmark.inmemory.InMemoryVoteRepository;
+import com.example.bugradar.benchmark.inmemory.SimulatedLatency;
+import com.example.bugradar.benchmark.inmemory.SyntheticDataset;
+import com.example.bugradar.leaderboard.Leaderboard;
+import com.example.bugradar.search.BugSearchIndex;
+import com.example.bugradar.search.BugTagIndex;
+import com.example.bugradar.service.BugService;
+import com.example.bugradar.service.ModeratorService;
+import com.example.bugradar.service.ScoreChangeJournal;
+import com.example.bugradar.service.ScoreRecomputeService;
+import com.example.bugradar.service.TagService;
+import com.example.bugradar.service.UserCache;
+import com.example.bugradar.service.UserScoreService;
+import com.example.bugradar.service.VoteService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Serviciile reale ale aplicației, legate manual (fără context Spring) peste repository-urile din memorie.
+ * Componentele care au nevoie de Firestore (write-behind, numărători sharded, replica, feed-ul live, cache-ul
+ * de token-uri) nu sunt pe căile măsurate și rămân null, ca în configurația implicită în care sunt oprite.
+ */
+final class ServiceFixture implements AutoCloseable {
+
+    final SimulatedLatency latency;
+    final InMemoryStore store;
+    final SyntheticDataset dataset;
+    final InMemoryUserRepository userRepository;
+    final InMemoryBugRepository bugRepository;
+    final InMemoryCommentRepository commentRepository;
+    final InMemoryVoteRepository voteRepository;
+    final UserCache userCache;
+    final Leaderboard leaderboard;
+    final ModeratorService moderatorService;
+    final UserScoreService userScoreService;
+    final VoteService voteService;
+    final BugService bugService;
+    final ScoreRecomputeService scoreRecomputeService;
+    // Configurat ca ObjectMapper-ul din Spring Boot (același builder)
+    final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    ServiceFixture(int users, int bugs, int commentsPerBug, int votesPerBug, long latencyMicros) {
+        latency = new SimulatedLatency(latencyMicros);
+        store = new InMemoryStore(latency);
+        long start = System.nanoTime();
+        dataset = SyntheticDataset.generate(store, users, bugs, commentsPerBug, votesPerBug, 42);
+
+        userRepository = new InMemoryUserRepository(store);
+        bugRepository = new InMemoryBugRepository(store, new BugSearchIndex(), new BugTagIndex());
+        commentRepository = new InMemoryCommentRepository(store);
+        voteRepository = new InMemoryVoteRepository(store, bugRepository, commentRepository, userRepository);
+        bugRepository.warmUpIndexes();
+
+        userCache = new UserCache(userRepository, 10_000, Duration.ofSeconds(30));
+        leaderboard = new Leaderboard();
+        leaderboard.rebuild(userRepository.findAll());
+        TagService tagService = new TagService(new InMemoryTagRepository(store));
+        moderatorService = new ModeratorService(userRepository, bugRepository, commentRepository, tagService, userCache,
+                null, null, null, null, null);
+        ScoreChangeJournal scoreChangeJournal = new ScoreChangeJournal();
+        userScoreService = new UserScoreService(userRepository, voteRepository, bugRepository, commentRepository,
+                userCache, leaderboard, scoreChangeJournal);
+        voteService = new VoteService(voteRepository, bugRepository, commentRepository, userScoreService, moderatorService);
+        bugService = new BugService(bugRepository, tagService, moderatorService);
+        scoreRecomputeService = new ScoreRecomputeService(userRepository, bugRepository, commentRepository, voteRepository,
+                userCache, moderatorService, leaderboard, scoreChangeJournal);
+
+        System.out.printf(Locale.ROOT, "%n# dataset: %,d users, %,d bugs, %,d comments, %,d votes, latency %d us (%.1f s setup)%n",
+                store.userCount(), store.bugCount(), store.commentCount(), store.voteCount(), latencyMicros,
+                (System.nanoTime() - start) / 1e9);
+    }
+
+    String moderatorId() {
+        return dataset.userIds().get(0);
+    }
+
+    @Override
+    public void close() {
+        latency.close();
+    }
+}
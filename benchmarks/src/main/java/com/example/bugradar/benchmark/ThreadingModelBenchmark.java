@@ -0,0 +1,166 @@
+package com.example.bugradar.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compară pool-ul fix de thread-uri de platformă (ca Tomcat, implicit 200) cu thread-uri virtuale
+ * pentru cereri care fac I/O blocant (Firestore ApiFuture.get()), la 1k și 5k clienți concurenți.
+ *
+ * Fiecare "cerere" face roundTrips apeluri blocante de ioLatencyMs (simulate cu sleep, care pe un thread
+ * virtual eliberează purtătorul exact ca park-ul din ApiFuture.get()) plus puțin CPU.
+ *
+ * Parametri (system properties): clients=1000,5000 durationSeconds=10 ioLatencyMs=20 roundTrips=3
+ * cpuMicros=200 platformThreads=200
+ */
+public class ThreadingModelBenchmark {
+
+    private static final int[] CLIENTS = parseInts(System.getProperty("clients", "1000,5000"));
+    private static final int DURATION_SECONDS = Integer.getInteger("durationSeconds", 10);
+    private static final int WARMUP_SECONDS = Integer.getInteger("warmupSeconds", 2);
+    private static final int IO_LATENCY_MS = Integer.getInteger("ioLatencyMs", 20);
+    private static final int ROUND_TRIPS = Integer.getInteger("roundTrips", 3);
+    private static final int CPU_MICROS = Integer.getInteger("cpuMicros", 200);
+    private static final int PLATFORM_THREADS = Integer.getInteger("platformThreads", 200);
+
+    public static void main(String[] args) throws Exception {
+        ExecutorService virtual = newVirtualThreadExecutor();
+        if (virtual == null) {
+            System.out.println("Virtual threads unavailable on JDK " + Runtime.version().feature()
+                    + " (requires 21), running the platform pool only");
+        }
+
+        System.out.printf(Locale.ROOT, "%-10s %8s %12s %10s %10s %10s%n",
+                "mode", "clients", "req/s", "p50 ms", "p99 ms", "max ms");
+        for (int clients : CLIENTS) {
+            ExecutorService platform = Executors.newFixedThreadPool(PLATFORM_THREADS, named("platform-"));
+            try {
+                print("platform", clients, run(platform, clients));
+            } finally {
+                platform.shutdownNow();
+            }
+            if (virtual != null) {
+                print("virtual", clients, run(virtual, clients));
+            }
+        }
+        if (virtual != null) {
+            virtual.shutdownNow();
+        }
+    }
+
+    private static Result run(ExecutorService server, int clients) throws Exception {
+        long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(WARMUP_SECONDS);
+        long end = warmupEnd + TimeUnit.SECONDS.toNanos(DURATION_SECONDS);
+
+        ExecutorService clientThreads = newVirtualThreadExecutor();
+        if (clientThreads == null) {
+            clientThreads = Executors.newFixedThreadPool(clients, named("client-"));
+        }
+
+        List<Future<long[]>> perClient = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            perClient.add(clientThreads.submit(() -> {
+                long[] latencies = new long[1024];
+                int count = 0;
+                while (true) {
+                    long start = System.nanoTime();
+                    if (start >= end) {
+                        break;
+                    }
+                    server.submit(ThreadingModelBenchmark::handleRequest).get();
+                    long finished = System.nanoTime();
+                    if (start >= warmupEnd && finished <= end) {
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+                        latencies[count++] = finished - start;
+                    }
+                }
+                return Arrays.copyOf(latencies, count);
+            }));
+        }
+
+        long[] all = new long[0];
+        for (Future<long[]> future : perClient) {
+            long[] latencies = future.get();
+            int offset = all.length;
+            all = Arrays.copyOf(all, offset + latencies.length);
+            System.arraycopy(latencies, 0, all, offset, latencies.length);
+        }
+        clientThreads.shutdownNow();
+
+        Arrays.sort(all);
+        return new Result(all, DURATION_SECONDS);
+    }
+
+    private static Object handleRequest() throws InterruptedException {
+        for (int i = 0; i < ROUND_TRIPS; i++) {
+            Thread.sleep(IO_LATENCY_MS);
+        }
+        long spinUntil = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(CPU_MICROS);
+        while (System.nanoTime() < spinUntil) {
+            Thread.onSpinWait();
+        }
+        return null;
+    }
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor() prin reflexie, ca modulul să compileze și pe JDK 17
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static ThreadFactory named(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(null, runnable, prefix + counter.incrementAndGet(), 256 * 1024);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static void print(String mode, int clients, Result result) {
+        System.out.printf(Locale.ROOT, "%-10s %8d %12.0f %10.1f %10.1f %10.1f%n",
+                mode, clients, result.throughput(), result.percentileMillis(0.50),
+                result.percentileMillis(0.99), result.percentileMillis(1.0));
+    }
+
+    private static int[] parseInts(String csv) {
+        return Arrays.stream(csv.split(",")).map(String::trim).mapToInt(Integer::parseInt).toArray();
+    }
+
+    private static final class Result {
+        private final long[] sortedLatencies;
+        private final int durationSeconds;
+
+        private Result(long[] sortedLatencies, int durationSeconds) {
+            this.sortedLatencies = sortedLatencies;
+            this.durationSeconds = durationSeconds;
+        }
+
+        private double throughput() {
+            return (double) sortedLatencies.length / durationSeconds;
+        }
+
+        private double percentileMillis(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.min(sortedLatencies.length - 1, Math.ceil(percentile * sortedLatencies.length) - 1);
+            return sortedLatencies[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
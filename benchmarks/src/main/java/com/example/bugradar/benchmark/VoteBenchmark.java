@@ -0,0 +1,133 @@
+package com.example.bugradar.benchmark;
+
+import com.example.bugradar.entity.Vote;
+import com.example.bugradar.repository.VoteCountAggregator;
+import com.example.bugradar.repository.VoteWrite;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calea unui vot: VoteService.voteOnBug / voteOnComment (verificarea de ban, citirile în paralel, commit-ul atomic
+ * cu voteCount și scorurile, apoi cache-ul și clasamentul) și doar partea de scor din UserScoreService.
+ *
+ * Voturile cad pe HOT_TARGETS ținte și VOTERS votanți, cu direcție aleatoare: se amestecă voturi noi, schimbări
+ * de vot și voturi identice (fără scriere), iar numărul de voturi rămâne mărginit oricât rulează benchmark-ul.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class VoteBenchmark extends ServiceBenchmarkState {
+
+    private static final int HOT_TARGETS = 1000;
+    private static final int VOTERS = 100;
+
+    private String[] bugIds;
+    private String[] bugAuthors;
+    private String[] commentIds;
+    private String[] commentAuthors;
+    private String[] voters;
+
+    @Override
+    protected void prepare() {
+        int bugCount = Math.min(HOT_TARGETS, fixture.dataset.bugIds().size());
+        bugIds = new String[bugCount];
+        bugAuthors = new String[bugCount];
+        for (int i = 0; i < bugCount; i++) {
+            bugIds[i] = fixture.dataset.bugIds().get(i);
+            bugAuthors[i] = fixture.bugRepository.findById(bugIds[i]).orElseThrow().getAuthorId();
+        }
+        int commentCount = Math.min(HOT_TARGETS, fixture.dataset.commentIds().size());
+        commentIds = new String[commentCount];
+        commentAuthors = new String[commentCount];
+        for (int i = 0; i < commentCount; i++) {
+            commentIds[i] = fixture.dataset.commentIds().get(i);
+            commentAuthors[i] = fixture.commentRepository.findById(commentIds[i]).orElseThrow().getAuthorId();
+        }
+        // Votanții nu includ moderatorul (utilizatorul 0)
+        List<String> userIds = fixture.dataset.userIds();
+        voters = userIds.subList(1, Math.min(userIds.size(), VOTERS + 1)).toArray(new String[0]);
+    }
+
+    @Benchmark
+    public void voteOnBug() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int target = random.nextInt(bugIds.length);
+        fixture.voteService.voteOnBug(bugIds[target], voter(random, bugAuthors[target]), random.nextBoolean()).join();
+    }
+
+    @Benchmark
+    public void voteOnComment() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int target = random.nextInt(commentIds.length);
+        fixture.voteService.voteOnComment(commentIds[target], voter(random, commentAuthors[target]), random.nextBoolean()).join();
+    }
+
+    /**
+     * Doar deltele de scor pentru un vot nou și actualizarea cache-ului / clasamentului după commit
+     */
+    @Benchmark
+    public VoteWrite scoreChangeForVote() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int target = random.nextInt(bugIds.length);
+        String voterId = voter(random, bugAuthors[target]);
+        boolean isUpvote = random.nextBoolean();
+
+        Vote vote = new Vote();
+        vote.setUserId(voterId);
+        vote.setBugId(bugIds[target]);
+        vote.setUpvote(isUpvote);
+        VoteWrite write = VoteWrite.create(vote);
+        fixture.userScoreService.addScoreChangeForVote(write, bugAuthors[target], voterId, isUpvote, true, true, null);
+        fixture.userScoreService.onScoresChanged(write);
+        return write;
+    }
+
+    /**
+     * Write-behind pe un singur bug viral, din 8 thread-uri: doar acumularea deltei, fără flush către Firestore.
+     * Rulat cu -t 1 dă costul fără contenție.
+     */
+    @Benchmark
+    @Threads(8)
+    public int writeBehindOnHotBug(WriteBehindState state) {
+        state.voteCounts.add(VoteCountAggregator.Target.BUG, WriteBehindState.HOT_BUG,
+                ThreadLocalRandom.current().nextBoolean() ? 1 : -1);
+        return state.voteCounts.pendingDelta(VoteCountAggregator.Target.BUG, WriteBehindState.HOT_BUG);
+    }
+
+    @State(Scope.Benchmark)
+    public static class WriteBehindState {
+
+        static final String HOT_BUG = "hot-bug";
+
+        VoteCountAggregator voteCounts;
+
+        @Setup
+        public void setUp() {
+            // Fără Firestore și fără flush: intrarea bug-ului rămâne în map pe toată durata măsurătorii
+            voteCounts = new VoteCountAggregator(null, true, Duration.ofDays(1), Integer.MAX_VALUE);
+        }
+    }
+
+    // Nimeni nu își poate vota propriul conținut
+    private String voter(ThreadLocalRandom random, String authorId) {
+        int index = random.nextInt(voters.length);
+        return voters[index].equals(authorId) ? voters[(index + 1) % voters.length] : voters[index];
+    }
+}
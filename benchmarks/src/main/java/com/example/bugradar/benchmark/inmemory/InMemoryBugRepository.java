@@ -0,0 +1,316 @@
+package com.example.bugradar.benchmark.inmemory;
+
+import com.example.bugradar.dto.BugSummary;
+import com.example.bugradar.dto.CursorPage;
+import com.example.bugradar.entity.Bug;
+import com.example.bugradar.entity.Tag;
+import com.example.bugradar.repository.BugRepository;
+import com.example.bugradar.repository.ChangeRegistration;
+import com.example.bugradar.repository.ContentVersion;
+import com.example.bugradar.repository.SnapshotChange;
+import com.example.bugradar.repository.VersionedContent;
+import com.example.bugradar.search.BugSearchIndex;
+import com.example.bugradar.search.BugTagIndex;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Bug-urile în memorie, cu aceleași căi ca FirestoreBugRepository fără replică: citirile copiază documentele,
+ * feed-ul merge pe indexul (creationDate, id), iar căutarea și filtrele pe tag-uri folosesc indexurile reale
+ * BugSearchIndex / BugTagIndex, ținute la zi la fiecare scriere.
+ */
+public class InMemoryBugRepository implements BugRepository {
+
+    private static final int SCAN_PAGE_SIZE = 1000;
+
+    private final InMemoryStore store;
+    private final BugSearchIndex searchIndex;
+    private final BugTagIndex tagIndex;
+
+    public InMemoryBugRepository(InMemoryStore store, BugSearchIndex searchIndex, BugTagIndex tagIndex) {
+        this.store = store;
+        this.searchIndex = searchIndex;
+        this.tagIndex = tagIndex;
+    }
+
+    /**
+     * Ca warmUpIndexes din FirestoreBugRepository: o citire completă la pornire
+     */
+    public void warmUpIndexes() {
+        List<Bug> bugs = findAll();
+        searchIndex.rebuild(bugs);
+        tagIndex.rebuild(bugs);
+    }
+
+    @Override
+    public Bug save(Bug bug) {
+        store.latency.roundTrip();
+        return write(bug);
+    }
+
+    @Override
+    public CompletableFuture<Bug> saveAsync(Bug bug) {
+        return store.latency.async(() -> write(bug));
+    }
+
+    private Bug write(Bug bug) {
+        if (bug.getId() == null || bug.getId().isEmpty()) {
+            bug.setId(UUID.randomUUID().toString());
+        }
+        store.putBug(InMemoryStore.copy(bug));
+        searchIndex.index(bug);
+        tagIndex.index(bug);
+        return bug;
+    }
+
+    @Override
+    public Optional<Bug> findById(String id) {
+        store.latency.roundTrip();
+        return find(id);
+    }
+
+    @Override
+    public CompletableFuture<Optional<Bug>> findByIdAsync(String id) {
+        return store.latency.async(() -> find(id));
+    }
+
+    private Optional<Bug> find(String id) {
+        return Optional.ofNullable(store.bugs.get(id)).map(InMemoryStore::copy);
+    }
+
+    @Override
+    public CompletableFuture<Optional<ContentVersion>> findVersionAsync(String id) {
+        return store.latency.async(() -> Optional.ofNullable(store.bugs.get(id)).map(InMemoryBugRepository::version));
+    }
+
+    @Override
+    public CompletableFuture<Optional<VersionedContent<Bug>>> findVersionedByIdAsync(String id) {
+        return store.latency.async(() -> Optional.ofNullable(store.bugs.get(id))
+                .map(bug -> new VersionedContent<>(InMemoryStore.copy(bug), version(bug))));
+    }
+
+    private static ContentVersion version(Bug bug) {
+        return new ContentVersion("\"" + Integer.toHexString(bug.hashCode()) + "\"", ContentVersion.UNKNOWN);
+    }
+
+    @Override
+    public Map<String, Bug> findAllByIds(Collection<String> ids) {
+        store.latency.roundTrip();
+        Map<String, Bug> bugs = new LinkedHashMap<>();
+        for (String id : ids) {
+            Bug bug = store.bugs.get(id);
+            if (bug != null) {
+                bugs.put(id, InMemoryStore.copy(bug));
+            }
+        }
+        return bugs;
+    }
+
+    @Override
+    public List<Bug> findAll() {
+        store.latency.roundTrip();
+        List<Bug> bugs = new ArrayList<>(store.bugs.size());
+        store.bugs.values().forEach(bug -> bugs.add(InMemoryStore.copy(bug)));
+        return bugs;
+    }
+
+    /**
+     * Aceeași sortare în memorie ca FirestoreBugRepository (toată colecția, apoi creationDate descrescător)
+     */
+    @Override
+    public List<Bug> findAllByOrderByCreationDateDesc() {
+        List<Bug> bugs = findAll();
+        Collections.sort(bugs, (bug1, bug2) -> {
+            String date1 = bug1.getCreationDate();
+            String date2 = bug2.getCreationDate();
+
+            if (date1 == null) date1 = "";
+            if (date2 == null) date2 = "";
+
+            return date2.compareTo(date1);
+        });
+        return bugs;
+    }
+
+    @Override
+    public CursorPage<BugSummary> findSummaryPageByCreationDateDesc(int size, String cursor) {
+        return findVersionedSummaryPageByCreationDateDesc(size, cursor).getValue();
+    }
+
+    @Override
+    public VersionedContent<CursorPage<BugSummary>> findVersionedSummaryPageByCreationDateDesc(int size, String cursor) {
+        store.latency.roundTrip();
+        List<Map.Entry<String, String>> page = feedPage(size, cursor);
+        return new VersionedContent<>(summaryPage(page, size), feedVersion(page, size));
+    }
+
+    private CursorPage<BugSummary> summaryPage(List<Map.Entry<String, String>> page, int size) {
+        List<BugSummary> items = new ArrayList<>(size);
+        for (Map.Entry<String, String> entry : page.subList(0, Math.min(size, page.size()))) {
+            Bug bug = store.bugs.get(entry.getValue());
+            if (bug != null) {
+                items.add(BugSummary.from(InMemoryStore.copy(bug)));
+            }
+        }
+        String next = page.size() > size ? encodeCursor(page.get(size - 1).getKey()) : null;
+        return new CursorPage<>(items, next);
+    }
+
+    /**
+     * Hash peste ID-urile din pagină; falsul nu păstrează updateTime-uri
+     */
+    @Override
+    public ContentVersion findFeedPageVersion(int size, String cursor) {
+        store.latency.roundTrip();
+        return feedVersion(feedPage(size, cursor), size);
+    }
+
+    private static ContentVersion feedVersion(List<Map.Entry<String, String>> page, int size) {
+        StringBuilder ids = new StringBuilder();
+        page.stream().limit(size).forEach(entry -> ids.append(entry.getValue()).append('\n'));
+        return new ContentVersion("\"" + Integer.toHexString(ids.toString().hashCode()) + "\"", ContentVersion.UNKNOWN);
+    }
+
+    // size + 1 intrări din index, ca limit(size + 1) din query
+    private List<Map.Entry<String, String>> feedPage(int size, String cursor) {
+        NavigableMap<String, String> descending = store.bugsByCreation.descendingMap();
+        if (cursor != null && !cursor.isBlank()) {
+            descending = descending.tailMap(decodeCursor(cursor), false);
+        }
+        List<Map.Entry<String, String>> page = new ArrayList<>(size + 1);
+        for (Map.Entry<String, String> entry : descending.entrySet()) {
+            page.add(entry);
+            if (page.size() > size) {
+                break;
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public CursorPage<BugSummary> findSummaryPageByVoteCountDesc(int size, String cursor) {
+        store.latency.roundTrip();
+        int offset = cursor == null || cursor.isBlank() ? 0 : Integer.parseInt(decodeCursor(cursor));
+        List<BugSummary> ranked = store.bugs.values().stream()
+                .sorted(Comparator.comparingInt(Bug::getVoteCount).reversed().thenComparing(Bug::getId, Comparator.reverseOrder()))
+                .skip(offset)
+                .limit(size + 1L)
+                .map(bug -> BugSummary.from(InMemoryStore.copy(bug)))
+                .toList();
+        if (ranked.size() <= size) {
+            return new CursorPage<>(ranked, null);
+        }
+        return new CursorPage<>(new ArrayList<>(ranked.subList(0, size)), encodeCursor(Integer.toString(offset + size)));
+    }
+
+    @Override
+    public long forEachAuthorVoteCount(ObjIntConsumer<String> consumer) {
+        long count = 0;
+        for (Bug bug : store.bugs.values()) {
+            if (count++ % SCAN_PAGE_SIZE == 0) {
+                store.latency.roundTrip();
+            }
+            consumer.accept(new String(bug.getAuthorId()), bug.getVoteCount());
+        }
+        return count;
+    }
+
+    @Override
+    public void deleteById(String id) {
+        store.latency.roundTrip();
+        store.removeBug(id);
+        searchIndex.remove(id);
+        tagIndex.remove(id);
+    }
+
+    @Override
+    public List<Bug> findByAuthorId(String authorId) {
+        store.latency.roundTrip();
+        return store.bugs.values().stream()
+                .filter(bug -> authorId.equals(bug.getAuthorId()))
+                .map(InMemoryStore::copy)
+                .toList();
+    }
+
+    @Override
+    public List<BugSummary> findSummariesByAuthorId(String authorId) {
+        return findByAuthorId(authorId).stream().map(BugSummary::from).toList();
+    }
+
+    /**
+     * Ca varianta din Firestore: toată colecția, filtrată în memorie
+     */
+    @Override
+    public List<Bug> findByTitleContainingIgnoreCase(String text) {
+        String needle = text.toLowerCase(Locale.ROOT);
+        return findAll().stream()
+                .filter(bug -> bug.getTitle() != null && bug.getTitle().toLowerCase(Locale.ROOT).contains(needle))
+                .toList();
+    }
+
+    @Override
+    public List<Bug> searchByText(String text, int limit) {
+        if (searchIndex.isReady()) {
+            return searchIndex.search(text, limit);
+        }
+        return findByTitleContainingIgnoreCase(text).stream().limit(limit).toList();
+    }
+
+    @Override
+    public List<Bug> findByTagsContaining(Tag tag) {
+        return findByTags(List.of(tag.getId()), null, null);
+    }
+
+    @Override
+    public List<Bug> findByTags(Collection<String> allOf, Collection<String> anyOf, Collection<String> noneOf) {
+        if (!tagIndex.isReady()) {
+            throw new IllegalStateException("Tag index not built; call warmUpIndexes() first");
+        }
+        return tagIndex.query(allOf, anyOf, noneOf);
+    }
+
+    @Override
+    public ChangeRegistration listenForSummaryChanges(Consumer<List<SnapshotChange<BugSummary>>> onChanges,
+                                                      Consumer<RuntimeException> onError) {
+        throw new UnsupportedOperationException("Snapshot listeners are not simulated");
+    }
+
+    /**
+     * FieldValue.increment pe voteCount în commit-ul votului (apelat sub commitLock), plus indexurile,
+     * ca onVoteCountIncremented din FirestoreBugRepository
+     */
+    void incrementVoteCount(String bugId, int delta) {
+        Bug bug = store.bugs.get(bugId);
+        if (bug == null) {
+            throw new IllegalStateException("Bug not found: " + bugId);
+        }
+        Bug updated = InMemoryStore.copy(bug);
+        updated.setVoteCount(bug.getVoteCount() + delta);
+        store.putBug(updated);
+        searchIndex.index(updated);
+        tagIndex.index(updated);
+    }
+
+    private static String encodeCursor(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor) {
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    }
+}
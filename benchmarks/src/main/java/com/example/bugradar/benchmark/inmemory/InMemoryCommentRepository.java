@@ -0,0 +1,198 @@
+package com.example.bugradar.benchmark.inmemory;
+
+import com.example.bugradar.dto.CursorPage;
+import com.example.bugradar.entity.Comment;
+import com.example.bugradar.repository.ChangeRegistration;
+import com.example.bugradar.repository.CommentRepository;
+import com.example.bugradar.repository.ContentVersion;
+import com.example.bugradar.repository.SnapshotChange;
+import com.example.bugradar.repository.VersionedContent;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Comentariile în memorie. Paginarea discuțiilor nu e pe calea măsurată, deci e un offset simplu.
+ */
+public class InMemoryCommentRepository implements CommentRepository {
+
+    private static final int SCAN_PAGE_SIZE = 1000;
+    private static final Comparator<Comment> THREAD_ORDER = Comparator.comparingInt(Comment::getVoteCount).reversed()
+            .thenComparing(Comment::getCreationDate, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(Comment::getId);
+
+    private final InMemoryStore store;
+
+    public InMemoryCommentRepository(InMemoryStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public Comment save(Comment comment) {
+        store.latency.roundTrip();
+        return write(comment);
+    }
+
+    @Override
+    public CompletableFuture<Comment> saveAsync(Comment comment) {
+        return store.latency.async(() -> write(comment));
+    }
+
+    private Comment write(Comment comment) {
+        if (comment.getId() == null || comment.getId().isEmpty()) {
+            comment.setId(UUID.randomUUID().toString());
+        }
+        store.comments.put(comment.getId(), InMemoryStore.copy(comment));
+        return comment;
+    }
+
+    @Override
+    public Optional<Comment> findById(String id) {
+        store.latency.roundTrip();
+        return find(id);
+    }
+
+    @Override
+    public CompletableFuture<Optional<Comment>> findByIdAsync(String id) {
+        return store.latency.async(() -> find(id));
+    }
+
+    private Optional<Comment> find(String id) {
+        return Optional.ofNullable(store.comments.get(id)).map(InMemoryStore::copy);
+    }
+
+    @Override
+    public Map<String, Comment> findAllByIds(Collection<String> ids) {
+        store.latency.roundTrip();
+        Map<String, Comment> comments = new LinkedHashMap<>();
+        for (String id : ids) {
+            Comment comment = store.comments.get(id);
+            if (comment != null) {
+                comments.put(id, InMemoryStore.copy(comment));
+            }
+        }
+        return comments;
+    }
+
+    @Override
+    public List<Comment> findAll() {
+        store.latency.roundTrip();
+        List<Comment> comments = new ArrayList<>(store.comments.size());
+        store.comments.values().forEach(comment -> comments.add(InMemoryStore.copy(comment)));
+        return comments;
+    }
+
+    @Override
+    public long forEachAuthorVoteCount(ObjIntConsumer<String> consumer) {
+        long count = 0;
+        for (Comment comment : store.comments.values()) {
+            if (count++ % SCAN_PAGE_SIZE == 0) {
+                store.latency.roundTrip();
+            }
+            consumer.accept(new String(comment.getAuthorId()), comment.getVoteCount());
+        }
+        return count;
+    }
+
+    @Override
+    public Map<String, Long> stripEmbeddedBugs() {
+        Map<String, Long> report = new LinkedHashMap<>();
+        report.put("scanned", (long) store.comments.size());
+        report.put("stripped", 0L);
+        report.put("failed", 0L);
+        return report;
+    }
+
+    @Override
+    public void deleteById(String id) {
+        store.latency.roundTrip();
+        store.comments.remove(id);
+    }
+
+    @Override
+    public CursorPage<Comment> findPageByBugId(String bugId, int size, String cursor) {
+        store.latency.roundTrip();
+        return page(bugId, size, cursor);
+    }
+
+    @Override
+    public CompletableFuture<CursorPage<Comment>> findPageByBugIdAsync(String bugId, int size, String cursor) {
+        return store.latency.async(() -> page(bugId, size, cursor));
+    }
+
+    private CursorPage<Comment> page(String bugId, int size, String cursor) {
+        int offset = cursor == null || cursor.isBlank() ? 0 : Integer.parseInt(cursor);
+        List<Comment> thread = store.comments.values().stream()
+                .filter(comment -> bugId.equals(comment.getBugId()) && comment.getCreationDate() != null)
+                .sorted(THREAD_ORDER)
+                .skip(offset)
+                .limit(size + 1L)
+                .map(InMemoryStore::copy)
+                .toList();
+        if (thread.size() <= size) {
+            return new CursorPage<>(thread, null);
+        }
+        return new CursorPage<>(new ArrayList<>(thread.subList(0, size)), Integer.toString(offset + size));
+    }
+
+    @Override
+    public ContentVersion findPageVersionByBugId(String bugId, int size, String cursor) {
+        return version(findPageByBugId(bugId, size, cursor));
+    }
+
+    @Override
+    public VersionedContent<CursorPage<Comment>> findVersionedPageByBugId(String bugId, int size, String cursor) {
+        CursorPage<Comment> page = findPageByBugId(bugId, size, cursor);
+        return new VersionedContent<>(page, version(page));
+    }
+
+    private static ContentVersion version(CursorPage<Comment> page) {
+        return new ContentVersion("\"" + Integer.toHexString(page.getItems().hashCode()) + "\"", ContentVersion.UNKNOWN);
+    }
+
+    @Override
+    public List<Comment> findByAuthorId(String authorId) {
+        store.latency.roundTrip();
+        return store.comments.values().stream()
+                .filter(comment -> authorId.equals(comment.getAuthorId()))
+                .map(InMemoryStore::copy)
+                .toList();
+    }
+
+    @Override
+    public ChangeRegistration listenForChanges(LocalDateTime createdSince,
+                                               Consumer<List<SnapshotChange<Comment>>> onChanges,
+                                               Consumer<RuntimeException> onError) {
+        throw new UnsupportedOperationException("Snapshot listeners are not simulated");
+    }
+
+    @Override
+    public ChangeRegistration listenForThreadChanges(String bugId,
+                                                     Consumer<List<SnapshotChange<Comment>>> onChanges,
+                                                     Consumer<RuntimeException> onError) {
+        throw new UnsupportedOperationException("Snapshot listeners are not simulated");
+    }
+
+    /**
+     * FieldValue.increment pe voteCount în commit-ul votului (apelat sub commitLock)
+     */
+    void incrementVoteCount(String commentId, int delta) {
+        Comment comment = store.comments.get(commentId);
+        if (comment == null) {
+            throw new IllegalStateException("Comment not found: " + commentId);
+        }
+        Comment updated = InMemoryStore.copy(comment);
+        updated.setVoteCount(comment.getVoteCount() + delta);
+        store.comments.put(commentId, updated);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.bugradar.benchmark.inmemory;
+
+import com.example.bugradar.entity.Bug;
+import com.example.bugradar.entity.Comment;
+import com.example.bugradar.entity.Tag;
+import com.example.bugradar.entity.User;
+import com.example.bugradar.entity.Vote;
+import com.example.bugradar.repository.Versioned;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Colecțiile Firestore ținute în memorie, partajate de repository-urile false.
+ * Citirile întorc copii (ca deserializarea documentelor), iar scrierile de voturi trec printr-un singur lock,
+ * ca un commit atomic cu precondiții.
+ */
+public final class InMemoryStore {
+
+    final Map<String, User> users = new ConcurrentHashMap<>();
+    final Map<String, Tag> tags = new ConcurrentHashMap<>();
+    final Map<String, Bug> bugs = new ConcurrentHashMap<>();
+    final Map<String, Comment> comments = new ConcurrentHashMap<>();
+    final Map<String, Versioned<Vote>> votes = new ConcurrentHashMap<>();
+
+    // Indexul (creationDate, id) pe care Firestore îl folosește pentru feed
+    final ConcurrentSkipListMap<String, String> bugsByCreation = new ConcurrentSkipListMap<>();
+
+    final Object commitLock = new Object();
+    final SimulatedLatency latency;
+
+    private final AtomicLong clock = new AtomicLong(System.currentTimeMillis() * 1_000);
+
+    public InMemoryStore(SimulatedLatency latency) {
+        this.latency = latency;
+    }
+
+    /**
+     * updateTime-ul unei scrieri, în microsecunde, strict crescător
+     */
+    long nextVersion() {
+        return clock.incrementAndGet();
+    }
+
+    void putBug(Bug bug) {
+        Bug previous = bugs.put(bug.getId(), bug);
+        if (previous != null) {
+            bugsByCreation.remove(creationKey(previous));
+        }
+        if (bug.getCreationDate() != null) {
+            bugsByCreation.put(creationKey(bug), bug.getId());
+        }
+    }
+
+    void removeBug(String id) {
+        Bug previous = bugs.remove(id);
+        if (previous != null) {
+            bugsByCreation.remove(creationKey(previous));
+        }
+    }
+
+    static String creationKey(Bug bug) {
+        return bug.getCreationDate() + "\n" + bug.getId();
+    }
+
+    public int userCount() {
+        return users.size();
+    }
+
+    public int bugCount() {
+        return bugs.size();
+    }
+
+    public int commentCount() {
+        return comments.size();
+    }
+
+    public int voteCount() {
+        return votes.size();
+    }
+
+    static Bug copy(Bug bug) {
+        List<Tag> tags = new ArrayList<>(bug.getTags() == null ? 0 : bug.getTags().size());
+        if (bug.getTags() != null) {
+            bug.getTags().forEach(tag -> tags.add(copy(tag)));
+        }
+        return new Bug(bug.getId(), bug.getAuthorId(), bug.getTitle(), bug.getDescription(), bug.getCreationDate(),
+                bug.getImageUrl(), bug.getStatus(), tags, bug.getVoteCount());
+    }
+
+    static Tag copy(Tag tag) {
+        return new Tag(tag.getId(), tag.getName());
+    }
+
+    static Comment copy(Comment comment) {
+        return new Comment(comment.getId(), comment.getBugId(), comment.getAuthorId(), comment.getText(),
+                comment.getImageUrl(), comment.getCreationDate(), comment.getVoteCount());
+    }
+
+    static User copy(User user) {
+        return new User(user.getUid(), user.getUsername(), user.getEmail(), user.getScore(), user.isBanned(), user.isModerator());
+    }
+
+    static Vote copy(Vote vote) {
+        return new Vote(vote.getId(), vote.getUserId(), vote.getBugId(), vote.getCommentId(), vote.isUpvote());
+    }
+
+    static Versioned<Vote> copy(Versioned<Vote> vote) {
+        return new Versioned<>(copy(vote.getValue()), vote.getVersion());
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.bugradar.benchmark.inmemory;
+
+import com.example.bugradar.entity.Tag;
+import com.example.bugradar.repository.TagRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public class InMemoryTagRepository implements TagRepository {
+
+    private final InMemoryStore store;
+
+    public InMemoryTagRepository(InMemoryStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public Tag save(Tag tag) {
+        store.latency.roundTrip();
+        if (tag.getId() == null || tag.getId().isEmpty()) {
+            tag.setId(UUID.randomUUID().toString());
+        }
+        store.tags.put(tag.getId(), InMemoryStore.copy(tag));
+        return tag;
+    }
+
+    @Override
+    public Optional<Tag> findById(String id) {
+        store.latency.roundTrip();
+        return Optional.ofNullable(store.tags.get(id)).map(InMemoryStore::copy);
+    }
+
+    @Override
+    public List<Tag> findAll() {
+        store.latency.roundTrip();
+        List<Tag> tags = new ArrayList<>(store.tags.size());
+        store.tags.values().forEach(tag -> tags.add(InMemoryStore.copy(tag)));
+        return tags;
+    }
+
+    @Override
+    public void deleteById(String id) {
+        store.latency.roundTrip();
+        store.tags.remove(id);
+    }
+
+    @Override
+    public Optional<Tag> findByName(String name) {
+        store.latency.roundTrip();
+        return store.tags.values().stream()
+                .filter(tag -> name.equals(tag.getName()))
+                .findFirst()
+                .map(InMemoryStore::copy);
+    }
+}
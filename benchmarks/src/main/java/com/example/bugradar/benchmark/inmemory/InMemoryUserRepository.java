@@ -0,0 +1,158 @@
+package com.example.bugradar.benchmark.inmemory;
+
+import com.example.bugradar.entity.User;
+import com.example.bugradar.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+public class InMemoryUserRepository implements UserRepository {
+
+    // Ca FirestoreScan / incrementScores: un round trip per pagină de 1000 de documente / per batch de 500 de scrieri
+    private static final int SCAN_PAGE_SIZE = 1000;
+    private static final int WRITE_BATCH_SIZE = 500;
+
+    private final InMemoryStore store;
+
+    public InMemoryUserRepository(InMemoryStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public User save(User user) {
+        store.latency.roundTrip();
+        store.users.put(user.getUid(), InMemoryStore.copy(user));
+        return user;
+    }
+
+    @Override
+    public CompletableFuture<User> saveAsync(User user) {
+        return store.latency.async(() -> {
+            store.users.put(user.getUid(), InMemoryStore.copy(user));
+            return user;
+        });
+    }
+
+    @Override
+    public Optional<User> findById(String uid) {
+        store.latency.roundTrip();
+        return find(uid);
+    }
+
+    @Override
+    public CompletableFuture<Optional<User>> findByIdAsync(String uid) {
+        return store.latency.async(() -> find(uid));
+    }
+
+    private Optional<User> find(String uid) {
+        return Optional.ofNullable(store.users.get(uid)).map(InMemoryStore::copy);
+    }
+
+    @Override
+    public CompletableFuture<Map<String, User>> findAllByIdsAsync(Collection<String> uids) {
+        return store.latency.async(() -> {
+            Map<String, User> users = new LinkedHashMap<>();
+            for (String uid : uids) {
+                User user = store.users.get(uid);
+                if (user != null) {
+                    users.put(uid, InMemoryStore.copy(user));
+                }
+            }
+            return users;
+        });
+    }
+
+    @Override
+    public long forEachScore(BiConsumer<String, Double> consumer) {
+        long count = 0;
+        for (User user : store.users.values()) {
+            if (count++ % SCAN_PAGE_SIZE == 0) {
+                store.latency.roundTrip();
+            }
+            consumer.accept(new String(user.getUid()), user.getScore());
+        }
+        return count;
+    }
+
+    @Override
+    public long forEachRanking(Consumer<User> consumer) {
+        long count = 0;
+        for (User user : store.users.values()) {
+            if (count++ % SCAN_PAGE_SIZE == 0) {
+                store.latency.roundTrip();
+            }
+            User ranking = new User();
+            ranking.setUid(user.getUid());
+            ranking.setUsername(user.getUsername());
+            ranking.setScore(user.getScore());
+            consumer.accept(ranking);
+        }
+        return count;
+    }
+
+    @Override
+    public void incrementScores(Map<String, Double> deltas, LongConsumer progress) {
+        long written = 0;
+        for (Map.Entry<String, Double> entry : deltas.entrySet()) {
+            if (written % WRITE_BATCH_SIZE == 0) {
+                store.latency.roundTrip();
+            }
+            store.users.computeIfPresent(entry.getKey(), (uid, user) -> {
+                User updated = InMemoryStore.copy(user);
+                updated.setScore(user.getScore() + entry.getValue());
+                return updated;
+            });
+            if (++written % WRITE_BATCH_SIZE == 0) {
+                progress.accept(written);
+            }
+        }
+        progress.accept(written);
+    }
+
+    @Override
+    public List<User> findAll() {
+        store.latency.roundTrip();
+        List<User> users = new ArrayList<>(store.users.size());
+        store.users.values().forEach(user -> users.add(InMemoryStore.copy(user)));
+        return users;
+    }
+
+    @Override
+    public void deleteById(String uid) {
+        store.latency.roundTrip();
+        store.users.remove(uid);
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        store.latency.roundTrip();
+        return store.users.values().stream()
+                .filter(user -> email.equals(user.getEmail()))
+                .findFirst()
+                .map(InMemoryStore::copy);
+    }
+
+    /**
+     * FieldValue.increment pe scor, în commit-ul votului (apelat sub commitLock)
+     */
+    void incrementScore(String uid, double delta) {
+        if (uid == null || delta == 0) {
+            return;
+        }
+        User user = store.users.get(uid);
+        if (user == null) {
+            throw new IllegalStateException("User not found: " + uid);
+        }
+        User updated = InMemoryStore.copy(user);
+        updated.setScore(user.getScore() + delta);
+        store.users.put(uid, updated);
+    }
+}
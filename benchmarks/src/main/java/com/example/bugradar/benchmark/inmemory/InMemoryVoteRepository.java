@@ -0,0 +1,272 @@
+package com.example.bugradar.benchmark.inmemory;
+
+import com.example.bugradar.entity.Vote;
+import com.example.bugradar.repository.Versioned;
+import com.example.bugradar.repository.VoteRepository;
+import com.example.bugradar.repository.VoteWrite;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Voturile în memorie, cu ID-urile deterministe și commit-ul atomic din FirestoreVoteRepository:
+ * CREATE eșuează dacă votul există, UPDATE / DELETE dacă versiunea s-a schimbat (precondiția updateTime).
+ */
+public class InMemoryVoteRepository implements VoteRepository {
+
+    private static final int SCAN_PAGE_SIZE = 1000;
+
+    private final InMemoryStore store;
+    private final InMemoryBugRepository bugRepository;
+    private final InMemoryCommentRepository commentRepository;
+    private final InMemoryUserRepository userRepository;
+
+    public InMemoryVoteRepository(InMemoryStore store, InMemoryBugRepository bugRepository,
+                                  InMemoryCommentRepository commentRepository, InMemoryUserRepository userRepository) {
+        this.store = store;
+        this.bugRepository = bugRepository;
+        this.commentRepository = commentRepository;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public boolean isConflict(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof VoteConflictException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Vote save(Vote vote) {
+        store.latency.roundTrip();
+        if (vote.getId() == null || vote.getId().isEmpty()) {
+            vote.setId(UUID.randomUUID().toString());
+        }
+        store.votes.put(vote.getId(), new Versioned<>(InMemoryStore.copy(vote), store.nextVersion()));
+        return vote;
+    }
+
+    @Override
+    public CompletableFuture<Vote> saveAsync(Vote vote) {
+        return store.latency.async(() -> {
+            if (vote.getId() == null || vote.getId().isEmpty()) {
+                vote.setId(UUID.randomUUID().toString());
+            }
+            store.votes.put(vote.getId(), new Versioned<>(InMemoryStore.copy(vote), store.nextVersion()));
+            return vote;
+        });
+    }
+
+    @Override
+    public Optional<Vote> findById(String id) {
+        store.latency.roundTrip();
+        return Optional.ofNullable(store.votes.get(id)).map(vote -> InMemoryStore.copy(vote.getValue()));
+    }
+
+    @Override
+    public List<Vote> findAll() {
+        store.latency.roundTrip();
+        List<Vote> votes = new ArrayList<>(store.votes.size());
+        store.votes.values().forEach(vote -> votes.add(InMemoryStore.copy(vote.getValue())));
+        return votes;
+    }
+
+    @Override
+    public long forEachDownvoter(Consumer<String> consumer) {
+        long count = 0;
+        for (Versioned<Vote> vote : store.votes.values()) {
+            if (vote.getValue().isUpvote()) {
+                continue;
+            }
+            if (count++ % SCAN_PAGE_SIZE == 0) {
+                store.latency.roundTrip();
+            }
+            consumer.accept(new String(vote.getValue().getUserId()));
+        }
+        return count;
+    }
+
+    @Override
+    public long countDownvotesByUser(String userId) {
+        store.latency.roundTrip();
+        return store.votes.values().stream()
+                .filter(vote -> !vote.getValue().isUpvote() && userId.equals(vote.getValue().getUserId()))
+                .count();
+    }
+
+    @Override
+    public void deleteById(String id) {
+        store.latency.roundTrip();
+        store.votes.remove(id);
+    }
+
+    @Override
+    public Optional<Versioned<Vote>> findByUserIdAndBugId(String userId, String bugId) {
+        store.latency.roundTrip();
+        return find(VoteRepository.bugVoteId(bugId, userId));
+    }
+
+    @Override
+    public Optional<Versioned<Vote>> findByUserIdAndCommentId(String userId, String commentId) {
+        store.latency.roundTrip();
+        return find(VoteRepository.commentVoteId(commentId, userId));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Versioned<Vote>>> findByUserIdAndBugIdAsync(String userId, String bugId) {
+        return store.latency.async(() -> find(VoteRepository.bugVoteId(bugId, userId)));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Versioned<Vote>>> findByUserIdAndCommentIdAsync(String userId, String commentId) {
+        return store.latency.async(() -> find(VoteRepository.commentVoteId(commentId, userId)));
+    }
+
+    private Optional<Versioned<Vote>> find(String id) {
+        return Optional.ofNullable(store.votes.get(id)).map(InMemoryStore::copy);
+    }
+
+    @Override
+    public Map<String, Versioned<Vote>> findByUserIdAndTargets(String userId, Collection<String> bugIds,
+                                                               Collection<String> commentIds) {
+        store.latency.roundTrip();
+        return findTargets(userId, bugIds, commentIds);
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Versioned<Vote>>> findByUserIdAndTargetsAsync(String userId, Collection<String> bugIds,
+                                                                                      Collection<String> commentIds) {
+        return store.latency.async(() -> findTargets(userId, bugIds, commentIds));
+    }
+
+    private Map<String, Versioned<Vote>> findTargets(String userId, Collection<String> bugIds, Collection<String> commentIds) {
+        Map<String, Versioned<Vote>> votes = new LinkedHashMap<>();
+        bugIds.forEach(bugId -> find(VoteRepository.bugVoteId(bugId, userId)).ifPresent(vote -> votes.put(vote.getValue().getId(), vote)));
+        commentIds.forEach(commentId -> find(VoteRepository.commentVoteId(commentId, userId))
+                .ifPresent(vote -> votes.put(vote.getValue().getId(), vote)));
+        return votes;
+    }
+
+    @Override
+    public void applyVote(VoteWrite write) {
+        store.latency.roundTrip();
+        commit(List.of(write));
+    }
+
+    @Override
+    public CompletableFuture<Void> applyVoteAsync(VoteWrite write) {
+        return store.latency.async(() -> {
+            commit(List.of(write));
+            return null;
+        });
+    }
+
+    @Override
+    public void applyVotes(List<VoteWrite> writes) {
+        if (writes.size() > MAX_VOTES_PER_BATCH) {
+            throw new IllegalStateException("Too many votes in one batch");
+        }
+        store.latency.roundTrip();
+        commit(writes);
+    }
+
+    /**
+     * Precondițiile sunt verificate înainte de orice scriere, deci un conflict nu lasă commit-ul pe jumătate
+     */
+    private void commit(List<VoteWrite> writes) {
+        synchronized (store.commitLock) {
+            for (VoteWrite write : writes) {
+                Vote vote = write.getVote();
+                String id = write.getKind() == VoteWrite.Kind.CREATE ? VoteRepository.idFor(vote) : vote.getId();
+                Versioned<Vote> current = store.votes.get(id);
+                boolean ok = write.getKind() == VoteWrite.Kind.CREATE
+                        ? current == null
+                        : current != null && current.getVersion() == write.getExpectedVersion();
+                if (!ok) {
+                    throw new VoteConflictException(id);
+                }
+            }
+            for (VoteWrite write : writes) {
+                Vote vote = write.getVote();
+                switch (write.getKind()) {
+                    case CREATE -> {
+                        vote.setId(VoteRepository.idFor(vote));
+                        store.votes.put(vote.getId(), new Versioned<>(InMemoryStore.copy(vote), store.nextVersion()));
+                    }
+                    case UPDATE -> store.votes.put(vote.getId(), new Versioned<>(InMemoryStore.copy(vote), store.nextVersion()));
+                    case DELETE -> store.votes.remove(vote.getId());
+                }
+                if (write.getVoteCountDelta() != 0) {
+                    if (vote.getBugId() != null) {
+                        bugRepository.incrementVoteCount(vote.getBugId(), write.getVoteCountDelta());
+                    } else {
+                        commentRepository.incrementVoteCount(vote.getCommentId(), write.getVoteCountDelta());
+                    }
+                }
+                userRepository.incrementScore(write.getAuthorId(), write.getAuthorScoreDelta());
+                userRepository.incrementScore(write.getVoterId(), write.getVoterScoreDelta());
+            }
+        }
+    }
+
+    @Override
+    public long forEachVersioned(Consumer<Versioned<Vote>> consumer) {
+        store.latency.roundTrip();
+        long count = 0;
+        for (Versioned<Vote> vote : store.votes.values()) {
+            consumer.accept(InMemoryStore.copy(vote));
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public List<Versioned<Vote>> findAllVersionedOnSameTarget(Vote vote) {
+        store.latency.roundTrip();
+        List<Versioned<Vote>> votes = new ArrayList<>();
+        for (Versioned<Vote> candidate : store.votes.values()) {
+            Vote value = candidate.getValue();
+            if (Objects.equals(value.getUserId(), vote.getUserId()) && Objects.equals(value.getBugId(), vote.getBugId())
+                    && Objects.equals(value.getCommentId(), vote.getCommentId())) {
+                votes.add(InMemoryStore.copy(candidate));
+            }
+        }
+        return votes;
+    }
+
+    @Override
+    public void moveToDeterministicId(Versioned<Vote> legacy) {
+        store.latency.roundTrip();
+        Vote vote = legacy.getValue();
+        String newId = VoteRepository.idFor(vote);
+        synchronized (store.commitLock) {
+            Versioned<Vote> current = store.votes.get(vote.getId());
+            if (current == null || current.getVersion() != legacy.getVersion() || store.votes.containsKey(newId)) {
+                throw new VoteConflictException(vote.getId());
+            }
+            store.votes.remove(vote.getId());
+            vote.setId(newId);
+            store.votes.put(newId, new Versioned<>(InMemoryStore.copy(vote), store.nextVersion()));
+        }
+    }
+
+    /**
+     * Echivalentul ALREADY_EXISTS / FAILED_PRECONDITION din Firestore
+     */
+    static final class VoteConflictException extends RuntimeException {
+        VoteConflictException(String voteId) {
+            super("Vote " + voteId + " changed concurrently");
+        }
+    }
+}
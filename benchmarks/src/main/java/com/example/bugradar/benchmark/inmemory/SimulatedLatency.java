@@ -0,0 +1,56 @@
+package com.example.bugradar.benchmark.inmemory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Latența unui round trip Firestore, injectată în falsurile din memorie.
+ * Apelurile blocante parchează thread-ul apelantului; cele async se termină pe alt thread după întârziere,
+ * ca ApiFuture-urile clientului gRPC (continuările nu rulează pe thread-ul care a pornit cererea).
+ */
+public final class SimulatedLatency implements AutoCloseable {
+
+    private final long roundTripNanos;
+    private final ExecutorService completions;
+    private final Executor delayed;
+
+    public SimulatedLatency(long roundTripMicros) {
+        this.roundTripNanos = TimeUnit.MICROSECONDS.toNanos(roundTripMicros);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.completions = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "firestore-stub-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.delayed = roundTripNanos == 0
+                ? completions
+                : CompletableFuture.delayedExecutor(roundTripNanos, TimeUnit.NANOSECONDS, completions);
+    }
+
+    /**
+     * Un round trip blocant (get() pe un ApiFuture)
+     */
+    public void roundTrip() {
+        if (roundTripNanos > 0) {
+            LockSupport.parkNanos(roundTripNanos);
+        }
+    }
+
+    /**
+     * Un round trip asincron: operația rulează după întârziere, pe un thread al falsului
+     */
+    public <T> CompletableFuture<T> async(Supplier<T> operation) {
+        return CompletableFuture.supplyAsync(operation, delayed);
+    }
+
+    @Override
+    public void close() {
+        completions.shutdownNow();
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.bugradar.benchmark.inmemory;
+
+import com.example.bugradar.entity.Bug;
+import com.example.bugradar.entity.BugStatus;
+import com.example.bugradar.entity.Comment;
+import com.example.bugradar.entity.Tag;
+import com.example.bugradar.entity.User;
+import com.example.bugradar.entity.Vote;
+import com.example.bugradar.repository.Versioned;
+import com.example.bugradar.repository.VoteRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * Date sintetice, deterministe (seed fix), cu distribuțiile aproximative ale aplicației reale:
+ * utilizatori = bug-uri / 10 (cel puțin 100) dacă nu sunt dați explicit, tag-uri cu popularitate inegală,
+ * titluri din vocabularul de mai jos.
+ * Utilizatorul 0 e moderator.
+ */
+public final class SyntheticDataset {
+
+    public static final int TAGS = 50;
+
+    static final String[] WORDS = {
+            "login", "crash", "button", "page", "error", "timeout", "upload", "image", "profile", "search",
+            "comment", "vote", "tag", "feed", "scroll", "mobile", "android", "ios", "safari", "chrome",
+            "firefox", "dark", "mode", "layout", "broken", "slow", "loading", "spinner", "email", "password",
+            "reset", "token", "session", "expired", "duplicate", "missing", "wrong", "count", "filter", "sort",
+            "notification", "settings", "modal", "overlay", "keyboard", "focus", "offline", "sync", "cache", "refresh"
+    };
+
+    private final List<String> userIds = new ArrayList<>();
+    private final List<String> tagIds = new ArrayList<>();
+    private final List<String> bugIds = new ArrayList<>();
+    private final List<String> commentIds = new ArrayList<>();
+
+    private SyntheticDataset() {
+    }
+
+    /**
+     * users <= 0: bug-uri / 10, cel puțin 100
+     */
+    public static SyntheticDataset generate(InMemoryStore store, int users, int bugs, int commentsPerBug, int votesPerBug,
+                                            long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        SyntheticDataset dataset = new SyntheticDataset();
+        if (users <= 0) {
+            users = Math.max(100, bugs / 10);
+        }
+        LocalDateTime epoch = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        for (int i = 0; i < users; i++) {
+            String uid = String.format(Locale.ROOT, "uid-%08d-firebase", i);
+            store.users.put(uid, new User(uid, "user" + i, "user" + i + "@example.com", 0, false, i == 0));
+            dataset.userIds.add(uid);
+        }
+        for (int i = 0; i < TAGS; i++) {
+            String id = String.format(Locale.ROOT, "tag-%02d", i);
+            store.tags.put(id, new Tag(id, WORDS[i]));
+            dataset.tagIds.add(id);
+        }
+
+        for (int i = 0; i < bugs; i++) {
+            String id = String.format(Locale.ROOT, "bug-%08d", i);
+            List<Tag> tags = new ArrayList<>(3);
+            for (int t = 1 + random.nextInt(3); t > 0; t--) {
+                // Tag-urile cu index mic sunt mult mai populare
+                Tag tag = store.tags.get(dataset.tagIds.get(random.nextInt(1 + random.nextInt(TAGS))));
+                if (!tags.contains(tag)) {
+                    tags.add(InMemoryStore.copy(tag));
+                }
+            }
+            Bug bug = new Bug(id, dataset.userIds.get(random.nextInt(users)), words(random, 4 + random.nextInt(4)),
+                    words(random, 30 + random.nextInt(40)), epoch.plusSeconds(random.nextLong(2L * 365 * 24 * 3600)).toString(),
+                    null, BugStatus.values()[random.nextInt(BugStatus.values().length)], tags, 0);
+            store.putBug(bug);
+            dataset.bugIds.add(id);
+        }
+
+        long comments = (long) bugs * commentsPerBug;
+        for (long i = 0; i < comments; i++) {
+            String id = String.format(Locale.ROOT, "comment-%09d", i);
+            String bugId = dataset.bugIds.get(random.nextInt(bugs));
+            store.comments.put(id, new Comment(id, bugId, dataset.userIds.get(random.nextInt(users)),
+                    words(random, 10 + random.nextInt(20)), null, epoch.plusSeconds(random.nextLong(2L * 365 * 24 * 3600)).toString(), 0));
+            dataset.commentIds.add(id);
+        }
+
+        // Voturile actualizează voteCount-ul țintei, ca datele să fie consistente pentru recalcularea scorurilor
+        long votes = (long) bugs * votesPerBug;
+        for (long i = 0; i < votes; i++) {
+            Vote vote = new Vote();
+            vote.setUserId(dataset.userIds.get(random.nextInt(users)));
+            vote.setUpvote(random.nextDouble() >= 0.3);
+            if (comments == 0 || random.nextBoolean()) {
+                vote.setBugId(dataset.bugIds.get(random.nextInt(bugs)));
+            } else {
+                vote.setCommentId(dataset.commentIds.get(random.nextInt((int) comments)));
+            }
+            vote.setId(VoteRepository.idFor(vote));
+            if (store.votes.putIfAbsent(vote.getId(), new Versioned<>(vote, store.nextVersion())) != null) {
+                continue;
+            }
+            int delta = vote.isUpvote() ? 1 : -1;
+            if (vote.getBugId() != null) {
+                Bug bug = store.bugs.get(vote.getBugId());
+                bug.setVoteCount(bug.getVoteCount() + delta);
+            } else {
+                Comment comment = store.comments.get(vote.getCommentId());
+                comment.setVoteCount(comment.getVoteCount() + delta);
+            }
+        }
+        return dataset;
+    }
+
+    private static String words(SplittableRandom random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            // Distribuție înclinată, ca în textele reale unele cuvinte apar mult mai des
+            text.append(WORDS[random.nextInt(1 + random.nextInt(WORDS.length))]);
+        }
+        return text.toString();
+    }
+
+    public List<String> userIds() {
+        return userIds;
+    }
+
+    public List<String> tagIds() {
+        return tagIds;
+    }
+
+    public List<String> bugIds() {
+        return bugIds;
+    }
+
+    public List<String> commentIds() {
+        return commentIds;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.bugradar.config;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Optional;
+
+/**
+ * Instantaneul utilizatorului autentificat, construit o singură dată de FirebaseTokenFilter și pus în
+ * detaliile autentificării. Serviciile verifică ban/moderator pe el în loc să recitească utilizatorul.
+ * Principalul rămâne uid-ul (String), ca în controllere.
+ */
+public final class AuthenticatedUser {
+
+    private final String uid;
+    private final boolean banned;
+    private final boolean moderator;
+
+    public AuthenticatedUser(String uid, boolean banned, boolean moderator) {
+        this.uid = uid;
+        this.banned = banned;
+        this.moderator = moderator;
+    }
+
+    /**
+     * Instantaneul cererii curente, doar dacă aparține utilizatorului cerut
+     */
+    public static Optional<AuthenticatedUser> current(String uid) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getDetails() instanceof AuthenticatedUser principal)) {
+            return Optional.empty();
+        }
+        return principal.uid.equals(uid) ? Optional.of(principal) : Optional.empty();
+    }
+
+    public String getUid() {
+        return uid;
+    }
+
+    public boolean isBanned() {
+        return banned;
+    }
+
+    public boolean isModerator() {
+        return moderator;
+    }
+}
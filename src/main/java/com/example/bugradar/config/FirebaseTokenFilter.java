@@ -1,9 +1,7 @@
 package com.example.bugradar.config;
 
 import com.example.bugradar.service.ModeratorService;
-import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseAuthException;
-import com.google.firebase.auth.FirebaseToken;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -19,11 +17,11 @@ import java.util.List;
 
 public class FirebaseTokenFilter extends OncePerRequestFilter {
 
-    private final FirebaseAuth firebaseAuth;
+    private final VerifiedTokenCache tokenCache;
     private final ModeratorService moderatorService;
 
-    public FirebaseTokenFilter(FirebaseAuth firebaseAuth, ModeratorService moderatorService) {
-        this.firebaseAuth = firebaseAuth;
+    public FirebaseTokenFilter(VerifiedTokenCache tokenCache, ModeratorService moderatorService) {
+        this.tokenCache = tokenCache;
         this.moderatorService = moderatorService;
     }
 
@@ -36,12 +34,24 @@ public class FirebaseTokenFilter extends OncePerRequestFilter {
         if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
             String idToken = authorizationHeader.substring(7);
 
+            // Verificăm token-ul o singură dată (din cache dacă a mai fost văzut)
+            String uid;
             try {
-                FirebaseToken decodedToken = firebaseAuth.verifyIdToken(idToken);
-                String uid = decodedToken.getUid();
+                uid = tokenCache.verify(idToken).getUid();
+            } catch (FirebaseAuthException e) {
+                SecurityContextHolder.clearContext();
+                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                response.setContentType("application/json");
+                response.getWriter().write("{\"error\": \"Invalid Firebase token\"}");
+                return;
+            }
+
+            try {
+                // Citim utilizatorul o singură dată; serviciile folosesc apoi același instantaneu
+                AuthenticatedUser principal = moderatorService.loadPrincipal(uid);
 
                 // Verificăm dacă utilizatorul este banat
-                if (moderatorService.isBanned(uid)) {
+                if (principal.isBanned()) {
                     response.setStatus(HttpServletResponse.SC_FORBIDDEN);
                     response.setContentType("application/json");
                     response.getWriter().write("{\"error\": \"Your account has been banned. Please contact support.\"}");
@@ -50,38 +60,25 @@ public class FirebaseTokenFilter extends OncePerRequestFilter {
 
                 // Determinăm rolurile utilizatorului
                 List<SimpleGrantedAuthority> authorities = new ArrayList<>();
-                if (moderatorService.isModerator(uid)) {
+                if (principal.isModerator()) {
                     authorities.add(new SimpleGrantedAuthority("MODERATOR"));
                 }
                 authorities.add(new SimpleGrantedAuthority("USER"));
 
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(uid, null, authorities);
+                authentication.setDetails(principal);
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
 
-            } catch (FirebaseAuthException e) {
-                SecurityContextHolder.clearContext();
-                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-                response.setContentType("application/json");
-                response.getWriter().write("{\"error\": \"Invalid Firebase token\"}");
-                return;
             } catch (Exception e) {
                 // Dacă verificarea pentru ban eșuează, continuăm dar logăm eroarea
                 System.err.println("Error checking user ban status: " + e.getMessage());
 
-                try {
-                    // Reluăm token-ul pentru că în catch nu avem acces la decodedToken
-                    FirebaseToken decodedToken = firebaseAuth.verifyIdToken(idToken);
-                    String uid = decodedToken.getUid();
-
-                    // Creăm autentificarea fără verificarea de ban
-                    UsernamePasswordAuthenticationToken authentication =
-                            new UsernamePasswordAuthenticationToken(uid, null, List.of(new SimpleGrantedAuthority("USER")));
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                } catch (FirebaseAuthException ex) {
-                    SecurityContextHolder.clearContext();
-                }
+                // Creăm autentificarea fără verificarea de ban
+                UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(uid, null, List.of(new SimpleGrantedAuthority("USER")));
+                SecurityContextHolder.getContext().setAuthentication(authentication);
             }
         }
 
@@ -0,0 +1,44 @@
+package com.example.bugradar.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.DataSourceInitializer;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Backend-ul JDBC (app.storage.backend=jdbc): schema din schema-jdbc.sql și executorul pe care rulează
+ * variantele *Async ale repository-urilor (JDBC e blocant; Firestore are ApiFuture-uri proprii).
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "jdbc")
+public class JdbcStorageConfig {
+
+    @Bean
+    public DataSourceInitializer jdbcSchemaInitializer(DataSource dataSource) {
+        DataSourceInitializer initializer = new DataSourceInitializer();
+        initializer.setDataSource(dataSource);
+        initializer.setDatabasePopulator(new ResourceDatabasePopulator(new ClassPathResource("schema-jdbc.sql")));
+        return initializer;
+    }
+
+    /**
+     * Cât pool-ul de conexiuni: mai multe thread-uri ar aștepta doar după o conexiune liberă
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService jdbcExecutor(@Value("${app.storage.jdbc.async-threads:10}") int threads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "jdbc-async-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
@@ -1,8 +1,9 @@
 package com.example.bugradar.config;
 
 import com.example.bugradar.service.ModeratorService;
-import com.google.firebase.auth.FirebaseAuth;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
@@ -23,23 +24,34 @@ import java.util.Arrays;
 public class SecurityConfig {
 
     @Autowired
-    private FirebaseAuth firebaseAuth;
+    private VerifiedTokenCache tokenCache;
 
     @Lazy // IMPORTANT: Lazy loading pentru a evita dependențele circulare
     @Autowired
     private ModeratorService moderatorService;
 
+    // Portul intern al actuator-ului (management.server.port); -1 = actuator-ul e pe portul aplicației
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(authz -> authz
+                        // Răspunsurile async (CompletableFuture) revin printr-un dispatch ASYNC; cererea a fost deja autorizată
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // Endpoint-uri publice (doar pentru citire)
                         .requestMatchers(HttpMethod.GET, "/api/bugs/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/users/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/comments/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/stream").permitAll()
                         .requestMatchers(HttpMethod.POST, "/api/users").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/actuator/health").permitAll()
+                        // Metricile sunt publice doar pe portul de management, neexpus public; pe portul aplicației cer autentificare
+                        .requestMatchers(request -> request.getLocalPort() == managementPort).permitAll()
 
                         // Endpoint-uri pentru moderatori - verificarea se face în controller
                         .requestMatchers("/api/moderator/**").authenticated()
@@ -47,7 +59,7 @@ public class SecurityConfig {
                         // Toate celelalte necesită autentificare
                         .anyRequest().authenticated()
                 )
-                .addFilterBefore(new FirebaseTokenFilter(firebaseAuth, moderatorService), UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(new FirebaseTokenFilter(tokenCache, moderatorService), UsernamePasswordAuthenticationFilter.class)
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 );
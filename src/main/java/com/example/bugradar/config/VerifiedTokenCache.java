@@ -0,0 +1,122 @@
+package com.example.bugradar.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseAuthException;
+import com.google.firebase.auth.FirebaseToken;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache pentru token-urile Firebase deja verificate, ca verificarea de semnătură să nu se repete la fiecare cerere.
+ * Cheia este SHA-256 al token-ului (nu ținem token-ul în memorie), intrarea expiră la claim-ul exp al token-ului,
+ * iar dimensiunea e mărginită. La ban, token-urile utilizatorului sunt scoase din cache (invalidateUser).
+ */
+@Component
+public class VerifiedTokenCache {
+
+    @FunctionalInterface
+    public interface TokenVerifier {
+        VerifiedToken verify(String idToken) throws FirebaseAuthException;
+    }
+
+    private final TokenVerifier verifier;
+    private final Cache<String, VerifiedToken> cache;
+
+    @Autowired
+    public VerifiedTokenCache(FirebaseAuth firebaseAuth,
+                              @Value("${app.cache.tokens.max-size:50000}") long maxSize) {
+        this(idToken -> VerifiedToken.from(firebaseAuth.verifyIdToken(idToken)), maxSize);
+    }
+
+    public VerifiedTokenCache(TokenVerifier verifier, long maxSize) {
+        this.verifier = verifier;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+                        long remainingMillis = token.getExpiresAtMillis() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, token, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    public VerifiedToken verify(String idToken) throws FirebaseAuthException {
+        String key = digest(idToken);
+        VerifiedToken cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        VerifiedToken verified = verifier.verify(idToken);
+        cache.put(key, verified);
+        return verified;
+    }
+
+    /**
+     * Scoate din cache toate token-urile unui utilizator (ex. la ban), ca următoarea cerere să fie reverificată
+     */
+    public void invalidateUser(String uid) {
+        cache.asMap().values().removeIf(token -> token.getUid().equals(uid));
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    private static String digest(String idToken) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(idToken.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public static final class VerifiedToken {
+        private final String uid;
+        private final long expiresAtMillis;
+
+        public VerifiedToken(String uid, long expiresAtMillis) {
+            this.uid = uid;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        static VerifiedToken from(FirebaseToken token) {
+            Object exp = token.getClaims().get("exp");
+            // exp este în secunde (epoch); fără exp nu ținem token-ul în cache
+            long expiresAtMillis = exp instanceof Number ? ((Number) exp).longValue() * 1000 : 0;
+            return new VerifiedToken(token.getUid(), expiresAtMillis);
+        }
+
+        public String getUid() {
+            return uid;
+        }
+
+        public long getExpiresAtMillis() {
+            return expiresAtMillis;
+        }
+    }
+}
@@ -1,25 +1,35 @@
 package com.example.bugradar.controller;
 
+import com.example.bugradar.dto.BugDetails;
 import com.example.bugradar.dto.BugDto;
+import com.example.bugradar.dto.BugSummary;
+import com.example.bugradar.dto.CursorPage;
 import com.example.bugradar.entity.Bug;
+import com.example.bugradar.repository.ContentVersion;
+import com.example.bugradar.service.BugDetailsService;
 import com.example.bugradar.service.BugService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/bugs")
 public class BugController {
 
     private final BugService bugService;
+    private final BugDetailsService bugDetailsService;
 
     @Autowired
-    public BugController(BugService bugService) {
+    public BugController(BugService bugService, BugDetailsService bugDetailsService) {
         this.bugService = bugService;
+        this.bugDetailsService = bugDetailsService;
     }
 
     @PostMapping
@@ -29,16 +39,64 @@ public class BugController {
         return new ResponseEntity<>(bug, HttpStatus.CREATED);
     }
 
+    /**
+     * Suportă If-None-Match / If-Modified-Since: dacă bug-ul nu s-a schimbat, răspunsul e 304 fără citirea lui
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<Bug> getBugById(@PathVariable String id) {
-        Bug bug = bugService.getBugById(id);
-        return ResponseEntity.ok(bug);
+    public CompletableFuture<ResponseEntity<Bug>> getBugById(@PathVariable String id, @RequestHeader HttpHeaders headers) {
+        if (!ConditionalGet.isConditional(headers)) {
+            return bugService.getVersionedBugAsync(id).thenApply(ConditionalGet::ok);
+        }
+        return bugService.getBugVersionAsync(id).thenCompose(version -> {
+            if (ConditionalGet.isNotModified(headers, version)) {
+                return CompletableFuture.completedFuture(ConditionalGet.<Bug>notModified(version));
+            }
+            return bugService.getBugByIdAsync(id).thenApply(bug -> ConditionalGet.ok(bug, version));
+        });
     }
 
+    /**
+     * Pagina bug-ului într-o singură cerere: bug-ul, prima pagină de comentarii (?commentsSize=20),
+     * profilurile autorilor și voturile utilizatorului curent (dacă e autentificat)
+     */
+    @GetMapping("/{id}/full")
+    public CompletableFuture<ResponseEntity<BugDetails>> getBugDetails(
+            @PathVariable String id,
+            @RequestParam(required = false) Integer commentsSize,
+            Authentication authentication) {
+        String uid = authentication == null || authentication instanceof AnonymousAuthenticationToken
+                ? null
+                : (String) authentication.getPrincipal();
+        return bugDetailsService.getBugDetailsAsync(id, commentsSize, uid).thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * Feed paginat: ?size=20&cursor=<next din pagina anterioară>; cu If-None-Match răspunde 304 dacă pagina e aceeași
+     */
     @GetMapping
-    public ResponseEntity<List<Bug>> getAllBugs() {
-        List<Bug> bugs = bugService.getAllBugs();
-        return ResponseEntity.ok(bugs);
+    public ResponseEntity<CursorPage<BugSummary>> getAllBugs(
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestHeader HttpHeaders headers) {
+        if (!ConditionalGet.isConditional(headers)) {
+            return ConditionalGet.ok(bugService.getVersionedBugsPage(size, cursor));
+        }
+        ContentVersion version = bugService.getBugsPageVersion(size, cursor);
+        if (ConditionalGet.isNotModified(headers, version)) {
+            return ConditionalGet.notModified(version);
+        }
+        CursorPage<BugSummary> page = bugService.getBugsPage(size, cursor);
+        return ConditionalGet.ok(page, version);
+    }
+
+    /**
+     * Cele mai votate bug-uri, paginat: ?size=20&cursor=<next din pagina anterioară>
+     */
+    @GetMapping("/top")
+    public ResponseEntity<CursorPage<BugSummary>> getTopBugs(
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(bugService.getTopBugsPage(size, cursor));
     }
 
     @PutMapping("/{id}")
@@ -56,27 +114,44 @@ public class BugController {
     }
 
     @GetMapping("/filter/tag/{tagId}")
-    public ResponseEntity<List<Bug>> filterBugsByTag(@PathVariable String tagId) {
-        List<Bug> bugs = bugService.filterBugsByTag(tagId);
+    public ResponseEntity<List<BugSummary>> filterBugsByTag(@PathVariable String tagId) {
+        List<BugSummary> bugs = bugService.filterBugsByTag(tagId);
+        return ResponseEntity.ok(bugs);
+    }
+
+    /**
+     * Filtrare după mai multe tag-uri: ?all=t1,t2&any=t3,t4&none=t5 (cel puțin unul din all / any e obligatoriu)
+     */
+    @GetMapping("/filter/tags")
+    public ResponseEntity<List<BugSummary>> filterBugsByTags(
+            @RequestParam(required = false) List<String> all,
+            @RequestParam(required = false) List<String> any,
+            @RequestParam(required = false) List<String> none) {
+        List<BugSummary> bugs = bugService.filterBugsByTags(all, any, none);
         return ResponseEntity.ok(bugs);
     }
 
+    /**
+     * Căutare full-text, rezultatele cele mai relevante primele
+     */
     @GetMapping("/filter/text/{text}")
-    public ResponseEntity<List<Bug>> filterBugsByText(@PathVariable String text) {
-        List<Bug> bugs = bugService.filterBugsByText(text);
+    public ResponseEntity<List<BugSummary>> filterBugsByText(
+            @PathVariable String text,
+            @RequestParam(required = false) Integer size) {
+        List<BugSummary> bugs = bugService.filterBugsByText(text, size);
         return ResponseEntity.ok(bugs);
     }
 
     @GetMapping("/filter/user/{userId}")
-    public ResponseEntity<List<Bug>> filterBugsByUser(@PathVariable String userId) {
-        List<Bug> bugs = bugService.filterBugsByUser(userId);
+    public ResponseEntity<List<BugSummary>> filterBugsByUser(@PathVariable String userId) {
+        List<BugSummary> bugs = bugService.filterBugsByUser(userId);
         return ResponseEntity.ok(bugs);
     }
 
     @GetMapping("/my-bugs")
-    public ResponseEntity<List<Bug>> getMyBugs(Authentication authentication) {
+    public ResponseEntity<List<BugSummary>> getMyBugs(Authentication authentication) {
         String uid = (String) authentication.getPrincipal();
-        List<Bug> bugs = bugService.getMyBugs(uid);
+        List<BugSummary> bugs = bugService.getMyBugs(uid);
         return ResponseEntity.ok(bugs);
     }
 }
\ No newline at end of file
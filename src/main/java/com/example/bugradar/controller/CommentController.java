@@ -1,16 +1,17 @@
 package com.example.bugradar.controller;
 
 import com.example.bugradar.dto.CommentDto;
+import com.example.bugradar.dto.CursorPage;
 import com.example.bugradar.entity.Comment;
+import com.example.bugradar.repository.ContentVersion;
 import com.example.bugradar.service.CommentService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/bugs/{bugId}/comments")
 public class CommentController {
@@ -38,10 +39,25 @@ public class CommentController {
         return ResponseEntity.ok(comment);
     }
 
+    /**
+     * Comentariile bug-ului, paginat: ?size=20&cursor=<next din pagina anterioară>;
+     * cu If-None-Match răspunde 304 dacă pagina e aceeași
+     */
     @GetMapping
-    public ResponseEntity<List<Comment>> getCommentsByBugId(@PathVariable String bugId) {
-        List<Comment> comments = commentService.getCommentsByBugId(bugId);
-        return ResponseEntity.ok(comments);
+    public ResponseEntity<CursorPage<Comment>> getCommentsByBugId(
+            @PathVariable String bugId,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String cursor,
+            @RequestHeader HttpHeaders headers) {
+        if (!ConditionalGet.isConditional(headers)) {
+            return ConditionalGet.ok(commentService.getVersionedCommentsPage(bugId, size, cursor));
+        }
+        ContentVersion version = commentService.getCommentsPageVersion(bugId, size, cursor);
+        if (ConditionalGet.isNotModified(headers, version)) {
+            return ConditionalGet.notModified(version);
+        }
+        CursorPage<Comment> page = commentService.getCommentsPage(bugId, size, cursor);
+        return ConditionalGet.ok(page, version);
     }
 
     @PutMapping("/{id}")
@@ -0,0 +1,65 @@
+package com.example.bugradar.controller;
+
+import com.example.bugradar.repository.ContentVersion;
+import com.example.bugradar.repository.VersionedContent;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * GET condiționat: versiunea e citită înaintea resursei, iar dacă clientul o are deja răspundem 304
+ * fără să mai încărcăm și serializăm documentele. If-None-Match are prioritate față de If-Modified-Since.
+ * Cererile fără aceste header-e citesc resursa o singură dată, cu versiunea calculată din aceleași documente.
+ */
+final class ConditionalGet {
+
+    private ConditionalGet() {
+    }
+
+    /**
+     * Fără If-None-Match / If-Modified-Since nu avem ce compara: versiunea se ia din aceeași citire ca resursa
+     */
+    static boolean isConditional(HttpHeaders request) {
+        return !request.getIfNoneMatch().isEmpty() || request.getIfModifiedSince() >= 0;
+    }
+
+    static boolean isNotModified(HttpHeaders request, ContentVersion version) {
+        if (!request.getIfNoneMatch().isEmpty()) {
+            for (String etag : request.getIfNoneMatch()) {
+                if ("*".equals(etag) || stripWeak(etag).equals(version.getEtag())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince = request.getIfModifiedSince();
+        // Header-ul are precizie de o secundă
+        return ifModifiedSince >= 0 && version.getLastModified() != ContentVersion.UNKNOWN
+                && version.getLastModified() / 1000 <= ifModifiedSince / 1000;
+    }
+
+    static <T> ResponseEntity<T> notModified(ContentVersion version) {
+        return headers(ResponseEntity.status(HttpStatus.NOT_MODIFIED), version).build();
+    }
+
+    static <T> ResponseEntity<T> ok(T body, ContentVersion version) {
+        return headers(ResponseEntity.ok(), version).body(body);
+    }
+
+    static <T> ResponseEntity<T> ok(VersionedContent<T> content) {
+        return ok(content.getValue(), content.getVersion());
+    }
+
+    private static ResponseEntity.BodyBuilder headers(ResponseEntity.BodyBuilder builder, ContentVersion version) {
+        builder.eTag(version.getEtag()).cacheControl(CacheControl.noCache());
+        if (version.getLastModified() != ContentVersion.UNKNOWN) {
+            builder.lastModified(version.getLastModified());
+        }
+        return builder;
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+}
@@ -1,14 +1,16 @@
 package com.example.bugradar.controller;
 
+import com.example.bugradar.config.VerifiedTokenCache;
 import com.example.bugradar.dto.BugDto;
 import com.example.bugradar.dto.CommentDto;
 import com.example.bugradar.entity.Bug;
 import com.example.bugradar.entity.Comment;
+import com.example.bugradar.service.CommentMigrationService;
 import com.example.bugradar.service.ModeratorService;
+import com.example.bugradar.service.ScoreRecomputeService;
 import com.example.bugradar.service.UserScoreService;
-import com.google.firebase.auth.FirebaseAuth;
+import com.example.bugradar.service.VoteMigrationService;
 import com.google.firebase.auth.FirebaseAuthException;
-import com.google.firebase.auth.FirebaseToken;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -21,16 +23,28 @@ public class ModeratorController {
 
     private final ModeratorService moderatorService;
     private final UserScoreService userScoreService;
+    private final VerifiedTokenCache tokenCache;
+    private final VoteMigrationService voteMigrationService;
+    private final ScoreRecomputeService scoreRecomputeService;
+    private final CommentMigrationService commentMigrationService;
 
     @Autowired
-    public ModeratorController(ModeratorService moderatorService, UserScoreService userScoreService) {
+    public ModeratorController(ModeratorService moderatorService,
+                               UserScoreService userScoreService,
+                               VerifiedTokenCache tokenCache,
+                               VoteMigrationService voteMigrationService,
+                               ScoreRecomputeService scoreRecomputeService,
+                               CommentMigrationService commentMigrationService) {
         this.moderatorService = moderatorService;
         this.userScoreService = userScoreService;
+        this.tokenCache = tokenCache;
+        this.voteMigrationService = voteMigrationService;
+        this.scoreRecomputeService = scoreRecomputeService;
+        this.commentMigrationService = commentMigrationService;
     }
 
     private String getCurrentUserId(String idToken) throws FirebaseAuthException {
-        FirebaseToken decodedToken = FirebaseAuth.getInstance().verifyIdToken(idToken);
-        return decodedToken.getUid();
+        return tokenCache.verify(idToken).getUid();
     }
 
     /**
@@ -195,25 +209,126 @@ public class ModeratorController {
     }
 
     /**
-     * Recalculează scorurile tuturor utilizatorilor
+     * Recalculează scorurile tuturor utilizatorilor, în fundal (dryRun=true doar raportează diferențele)
      */
     @PostMapping("/recalculate-all-scores")
-    public ResponseEntity<String> recalculateAllUserScores(
+    public ResponseEntity<?> recalculateAllUserScores(
+            @RequestParam(defaultValue = "false") boolean dryRun,
             @RequestHeader("Authorization") String idToken) {
         try {
             String moderatorId = getCurrentUserId(idToken.replace("Bearer ", ""));
 
-            if (!moderatorService.isModerator(moderatorId)) {
-                return ResponseEntity.status(403).body("Only moderators can recalculate all scores");
-            }
+            return ResponseEntity.accepted().body(scoreRecomputeService.start(moderatorId, dryRun));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
 
-            userScoreService.recalculateAllUserScores();
-            return ResponseEntity.ok("All user scores recalculated successfully");
+    /**
+     * Progresul / rezultatul ultimei recalculări complete
+     */
+    @GetMapping("/recalculate-all-scores/status")
+    public ResponseEntity<?> getRecalculationStatus(
+            @RequestHeader("Authorization") String idToken) {
+        try {
+            String moderatorId = getCurrentUserId(idToken.replace("Bearer ", ""));
+
+            return ResponseEntity.ok(scoreRecomputeService.status(moderatorId));
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
+    /**
+     * Statistici pentru cache-ul de utilizatori (hit/miss, evicții)
+     */
+    @GetMapping("/stats/user-cache")
+    public ResponseEntity<Map<String, Object>> getUserCacheStats(
+            @RequestHeader("Authorization") String idToken) {
+        try {
+            String moderatorId = getCurrentUserId(idToken.replace("Bearer ", ""));
+
+            return ResponseEntity.ok(moderatorService.getUserCacheStats(moderatorId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Statistici pentru write-behind-ul de voteCount (delte în așteptare, lag, flush-uri)
+     */
+    @GetMapping("/stats/vote-counts")
+    public ResponseEntity<Map<String, Object>> getVoteCountStats(
+            @RequestHeader("Authorization") String idToken) {
+        try {
+            String moderatorId = getCurrentUserId(idToken.replace("Bearer ", ""));
+
+            return ResponseEntity.ok(moderatorService.getVoteCountStats(moderatorId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Statistici pentru /api/stream (abonați, evenimente livrate, clienți lenți deconectați)
+     */
+    @GetMapping("/stats/live-feed")
+    public ResponseEntity<Map<String, Object>> getLiveFeedStats(
+            @RequestHeader("Authorization") String idToken) {
+        try {
+            String moderatorId = getCurrentUserId(idToken.replace("Bearer ", ""));
+
+            return ResponseEntity.ok(moderatorService.getLiveFeedStats(moderatorId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Starea replicii în memorie a bug-urilor (documente, vechimea ultimului snapshot, resincronizări)
+     */
+    @GetMapping("/stats/bug-replica")
+    public ResponseEntity<Map<String, Object>> getBugReplicaStats(
+            @RequestHeader("Authorization") String idToken) {
+        try {
+            String moderatorId = getCurrentUserId(idToken.replace("Bearer ", ""));
+
+            return ResponseEntity.ok(moderatorService.getBugReplicaStats(moderatorId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Migrează voturile pe ID-uri deterministe și unește duplicatele (poate fi rulată de mai multe ori)
+     */
+    @PostMapping("/migrations/vote-ids")
+    public ResponseEntity<Map<String, Object>> migrateVoteIds(
+            @RequestHeader("Authorization") String idToken) {
+        try {
+            String moderatorId = getCurrentUserId(idToken.replace("Bearer ", ""));
+
+            return ResponseEntity.ok(voteMigrationService.migrateVoteIds(moderatorId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+        }
+    }
+
+    /**
+     * Șterge copia bug-ului din comentariile vechi (rămâne doar bugId)
+     */
+    @PostMapping("/migrations/comment-bugs")
+    public ResponseEntity<Map<String, ?>> stripCommentBugs(
+            @RequestHeader("Authorization") String idToken) {
+        try {
+            String moderatorId = getCurrentUserId(idToken.replace("Bearer ", ""));
+
+            return ResponseEntity.ok(commentMigrationService.stripEmbeddedBugs(moderatorId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", String.valueOf(e.getMessage())));
+        }
+    }
+
     /**
      * Verifică dacă utilizatorul curent este moderator
      */
@@ -0,0 +1,42 @@
+package com.example.bugradar.controller;
+
+import com.example.bugradar.stream.LiveFeed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/stream")
+public class StreamController {
+
+    private final LiveFeed liveFeed;
+
+    @Autowired
+    public StreamController(LiveFeed liveFeed) {
+        this.liveFeed = liveFeed;
+    }
+
+    /**
+     * Server-Sent Events cu bug-urile noi, modificările (voturi, status) și comentariile.
+     * Filtre opționale: ?bugId=a&bugId=b și/sau ?tag=ui&tag=backend; fără filtre se primește tot feed-ul.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(
+            @RequestParam(name = "bugId", required = false) List<String> bugIds,
+            @RequestParam(name = "tag", required = false) List<String> tags) {
+        if (!liveFeed.isEnabled()) {
+            return ResponseEntity.notFound().build();
+        }
+        return liveFeed.subscribe(bugIds, tags)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.bugradar.controller;
 
+import com.example.bugradar.dto.CursorPage;
+import com.example.bugradar.dto.LeaderboardEntry;
 import com.example.bugradar.dto.UserDto;
 import com.example.bugradar.entity.User;
 import com.example.bugradar.service.UserService;
@@ -43,12 +45,33 @@ public class UserController {
     }
 
     /**
-     * BONUS 1: Leaderboard - utilizatori sortați după scor
+     * BONUS 1: Leaderboard - utilizatori sortați după scor, paginat după poziție (offset = 0 pentru primul loc)
      */
     @GetMapping("/leaderboard")
-    public ResponseEntity<List<User>> getLeaderboard() {
-        List<User> users = userService.getUsersByScore();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<List<LeaderboardEntry>> getLeaderboard(@RequestParam(defaultValue = "0") int offset,
+                                                                 @RequestParam(required = false) Integer size) {
+        List<LeaderboardEntry> entries = userService.getLeaderboard(offset, CursorPage.normalizeSize(size));
+        return ResponseEntity.ok(entries);
+    }
+
+    /**
+     * Locul utilizatorului curent în clasament
+     */
+    @GetMapping("/leaderboard/me")
+    public ResponseEntity<LeaderboardEntry> getMyRank(Authentication authentication) {
+        String uid = (String) authentication.getPrincipal();
+        return ResponseEntity.ok(userService.getLeaderboardEntry(uid));
+    }
+
+    /**
+     * Utilizatorii din jurul utilizatorului curent în clasament
+     */
+    @GetMapping("/leaderboard/around-me")
+    public ResponseEntity<List<LeaderboardEntry>> getLeaderboardAroundMe(@RequestParam(defaultValue = "5") int radius,
+                                                                         Authentication authentication) {
+        String uid = (String) authentication.getPrincipal();
+        int limitedRadius = Math.max(0, Math.min(radius, CursorPage.MAX_SIZE / 2));
+        return ResponseEntity.ok(userService.getLeaderboardAround(uid, limitedRadius));
     }
 
     /**
@@ -1,5 +1,7 @@
 package com.example.bugradar.controller;
 
+import com.example.bugradar.dto.VoteBatchItem;
+import com.example.bugradar.dto.VoteBatchResult;
 import com.example.bugradar.service.VoteService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -7,6 +9,10 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 @RestController
 @RequestMapping("/api/votes")
 public class VoteController {
@@ -22,34 +28,28 @@ public class VoteController {
      * Votează pe un bug
      */
     @PostMapping("/bug/{bugId}")
-    public ResponseEntity<String> voteOnBug(
+    public CompletableFuture<ResponseEntity<String>> voteOnBug(
             @PathVariable String bugId,
             @RequestParam boolean isUpvote,
             Authentication authentication) {
-        try {
-            String uid = (String) authentication.getPrincipal();
-            voteService.voteOnBug(bugId, uid, isUpvote);
-            return ResponseEntity.ok("Vote registered successfully");
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        }
+        String uid = (String) authentication.getPrincipal();
+        return voteService.voteOnBug(bugId, uid, isUpvote)
+                .thenApply(ignored -> ResponseEntity.ok("Vote registered successfully"))
+                .exceptionally(e -> ResponseEntity.badRequest().body(errorMessage(e)));
     }
 
     /**
      * Votează pe un comentariu
      */
     @PostMapping("/comment/{commentId}")
-    public ResponseEntity<String> voteOnComment(
+    public CompletableFuture<ResponseEntity<String>> voteOnComment(
             @PathVariable String commentId,
             @RequestParam boolean isUpvote,
             Authentication authentication) {
-        try {
-            String uid = (String) authentication.getPrincipal();
-            voteService.voteOnComment(commentId, uid, isUpvote);
-            return ResponseEntity.ok("Vote registered successfully");
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        }
+        String uid = (String) authentication.getPrincipal();
+        return voteService.voteOnComment(commentId, uid, isUpvote)
+                .thenApply(ignored -> ResponseEntity.ok("Vote registered successfully"))
+                .exceptionally(e -> ResponseEntity.badRequest().body(errorMessage(e)));
     }
 
     /**
@@ -83,4 +83,29 @@ public class VoteController {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
+
+    /**
+     * Voturi în bloc (clienți care au votat offline): [{"bugId": "...", "upvote": true}, {"commentId": "...", "upvote": null}, ...]
+     * Răspunsul are câte un rezultat pentru fiecare operație, în aceeași ordine.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> voteBatch(
+            @RequestBody List<VoteBatchItem> items,
+            Authentication authentication) {
+        try {
+            String uid = (String) authentication.getPrincipal();
+            List<VoteBatchResult> results = voteService.applyBatch(uid, items);
+            return ResponseEntity.ok(results);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Erorile din CompletableFuture ajung împachetate în CompletionException
+    private static String errorMessage(Throwable e) {
+        if (e instanceof CompletionException && e.getCause() != null) {
+            return e.getCause().getMessage();
+        }
+        return e.getMessage();
+    }
 }
\ No newline at end of file
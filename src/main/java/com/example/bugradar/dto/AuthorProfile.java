@@ -0,0 +1,23 @@
+package com.example.bugradar.dto;
+
+import com.example.bugradar.entity.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Profilul public al unui autor (fără email și starea de ban)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuthorProfile {
+    private String uid;
+    private String username;
+    private double score;
+    private boolean moderator;
+
+    public static AuthorProfile from(User user) {
+        return new AuthorProfile(user.getUid(), user.getUsername(), user.getScore(), user.isModerator());
+    }
+}
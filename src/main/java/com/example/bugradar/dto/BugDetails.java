@@ -0,0 +1,25 @@
+package com.example.bugradar.dto;
+
+import com.example.bugradar.entity.Bug;
+import com.example.bugradar.entity.Comment;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tot ce trebuie pentru pagina unui bug, într-un singur răspuns (GET /api/bugs/{id}/full)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BugDetails {
+    private Bug bug;
+    private CursorPage<Comment> comments;
+    // uid -> profil, pentru autorul bug-ului și autorii comentariilor din pagină (fără duplicate)
+    private Map<String, AuthorProfile> authors = new LinkedHashMap<>();
+    // ID-ul bug-ului / comentariului -> upvote, doar pentru voturile utilizatorului curent (gol dacă e anonim)
+    private Map<String, Boolean> myVotes = new LinkedHashMap<>();
+}
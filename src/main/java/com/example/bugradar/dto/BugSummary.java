@@ -0,0 +1,42 @@
+package com.example.bugradar.dto;
+
+import com.example.bugradar.entity.Bug;
+import com.example.bugradar.entity.BugStatus;
+import com.example.bugradar.entity.Tag;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bug-ul așa cum apare în liste: fără descriere, imagine și obiectele Tag complete.
+ * Documentul întreg se citește doar pe GET /api/bugs/{id}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BugSummary {
+    private String id;
+    private String authorId;
+    private String title;
+    private BugStatus status;
+    private int voteCount;
+    private String creationDate;
+    private List<String> tagNames = new ArrayList<>();
+
+    /**
+     * Pentru rezultatele venite din indexurile în memorie (au deja bug-ul complet)
+     */
+    public static BugSummary from(Bug bug) {
+        List<String> tagNames = new ArrayList<>();
+        if (bug.getTags() != null) {
+            for (Tag tag : bug.getTags()) {
+                tagNames.add(tag.getName());
+            }
+        }
+        return new BugSummary(bug.getId(), bug.getAuthorId(), bug.getTitle(), bug.getStatus(),
+                bug.getVoteCount(), bug.getCreationDate(), tagNames);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.bugradar.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * O pagină de rezultate + cursorul opac pentru pagina următoare (null dacă nu mai există)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    public static final int DEFAULT_SIZE = 20;
+    public static final int MAX_SIZE = 100;
+
+    private List<T> items = new ArrayList<>();
+    private String next;
+
+    /**
+     * Normalizează dimensiunea cerută de client la intervalul [1, MAX_SIZE]
+     */
+    public static int normalizeSize(Integer requested) {
+        if (requested == null || requested <= 0) {
+            return DEFAULT_SIZE;
+        }
+        return Math.min(requested, MAX_SIZE);
+    }
+}
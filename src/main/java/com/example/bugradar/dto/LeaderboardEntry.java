@@ -0,0 +1,18 @@
+package com.example.bugradar.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Un rând din clasament; rank începe de la 1
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardEntry {
+    private long rank;
+    private String uid;
+    private String username;
+    private double score;
+}
@@ -0,0 +1,19 @@
+package com.example.bugradar.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Datele unui eveniment din /api/stream. type e "bug.added", "bug.modified", "bug.removed",
+ * "comment.added", "comment.modified" sau "comment.removed"; data e BugSummary / Comment (null la ștergere).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LiveEvent {
+    private String type;
+    private String id;
+    private String bugId;
+    private Object data;
+}
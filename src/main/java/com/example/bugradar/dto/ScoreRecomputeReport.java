@@ -0,0 +1,47 @@
+package com.example.bugradar.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.List;
+
+/**
+ * Starea / rezultatul recalculării tuturor scorurilor. Contoarele sunt actualizate pe parcurs (progres).
+ * În dryRun nu se scrie nimic, iar diffs conține primele diferențe găsite.
+ */
+@Data
+public class ScoreRecomputeReport {
+
+    public static final int MAX_DIFFS = 100;
+
+    public enum Status { RUNNING, DONE, FAILED }
+
+    private volatile Status status = Status.RUNNING;
+    private volatile String phase = "users";
+    private boolean dryRun;
+    private String startedAt;
+    private volatile String finishedAt;
+
+    private volatile long users;
+    private volatile long bugs;
+    private volatile long comments;
+    private volatile long downvotes;
+    private volatile long changed;
+    private volatile long written;
+    // Utilizatori cu voturi comise chiar în timpul citirii sau al scanării; nescriși, o nouă rulare îi corectează
+    private volatile long skipped;
+    private volatile String error;
+
+    private List<ScoreDiff> diffs = new CopyOnWriteArrayList<>(); // citită de alte cereri cât timp se completează
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ScoreDiff {
+        private String uid;
+        private double oldScore;
+        private double newScore;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.bugradar.dto;
+
+import lombok.Data;
+
+/**
+ * O operație din POST /api/votes/batch: exact unul dintre bugId / commentId.
+ * upvote true / false votează, null retrage votul existent.
+ */
+@Data
+public class VoteBatchItem {
+    private String bugId;
+    private String commentId;
+    private Boolean upvote;
+}
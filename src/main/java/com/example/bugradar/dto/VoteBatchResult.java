@@ -0,0 +1,25 @@
+package com.example.bugradar.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Rezultatul unei operații din batch, în ordinea din cerere (index)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VoteBatchResult {
+
+    public enum Status {
+        APPLIED,     // votul a fost scris
+        UNCHANGED,   // același vot exista deja / nu era niciun vot de retras
+        SUPERSEDED,  // o operație ulterioară pe aceeași țintă a înlocuit-o
+        FAILED
+    }
+
+    private int index;
+    private Status status;
+    private String error;
+}
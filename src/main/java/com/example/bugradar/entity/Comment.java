@@ -1,18 +1,18 @@
 package com.example.bugradar.entity;
 
+import com.google.cloud.firestore.annotation.IgnoreExtraProperties;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import java.time.LocalDateTime;
-
+// Documentele vechi mai pot avea copia bug-ului ("bug") până rulează migrarea
+@IgnoreExtraProperties
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Comment {
     private String id;
-    private Bug bug;
-    private String bugId; // Referință directă la ID-ul bug-ului
+    private String bugId; // Doar referința; bug-ul se citește separat când e nevoie
     private String authorId;
     private String text;
     private String imageUrl;
@@ -0,0 +1,440 @@
+package com.example.bugradar.leaderboard;
+
+import com.example.bugradar.dto.LeaderboardEntry;
+import com.example.bugradar.entity.User;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Clasamentul utilizatorilor ținut în memorie ca treap cu dimensiunea subarborilor (arbore de statistici de ordine),
+ * ordonat după (scor descrescător, uid). Poziția unui utilizator și utilizatorul de pe o poziție se află în O(log n),
+ * deci paginile, "locul meu" și vecinii din clasament nu fac citiri în Firestore.
+ *
+ * Populat la pornire și reconstruit periodic (UserService), între timp actualizat din aceleași locuri care scriu
+ * scorul: deltele voturilor (UserScoreService.onScoresChanged), recalculările și crearea/ștergerea utilizatorilor.
+ * Modificările primite cât rulează scanarea unei reconstruiri sunt reținute și reaplicate peste ea (Rebuild).
+ */
+@Component
+public class Leaderboard {
+
+    private final Map<String, Node> nodes = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node root;
+    private volatile boolean ready = false;
+    // Modificările primite de la beginRebuild() încoace (null = nu rulează nicio reconstruire)
+    private List<Change> changesDuringRebuild;
+
+    /**
+     * Reconstruiește tot clasamentul dintr-o listă deja citită
+     */
+    public void rebuild(Collection<User> users) {
+        Rebuild rebuild = beginRebuild();
+        users.forEach(rebuild::add);
+        rebuild.commit();
+    }
+
+    /**
+     * Începe o reconstruire: utilizatorii scanați se adaugă cu Rebuild.add, iar Rebuild.commit() îi instalează și
+     * reaplică modificările primite între timp. Clasamentul curent rămâne disponibil până la commit.
+     */
+    public Rebuild beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            changesDuringRebuild = new ArrayList<>();
+            return new Rebuild(changesDuringRebuild);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size(root);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adaugă utilizatorul sau îi înlocuiește numele și scorul
+     */
+    public void put(String uid, String username, double score) {
+        if (uid == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            applyPut(uid, username, score);
+            record(new Change(Change.Type.PUT, uid, username, score));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Schimbă doar numele afișat; poziția nu depinde de el
+     */
+    public void rename(String uid, String username) {
+        lock.writeLock().lock();
+        try {
+            applyRename(uid, username);
+            record(new Change(Change.Type.RENAME, uid, username, 0));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Aplică un increment de scor (același pe care îl primește documentul în Firestore).
+     * Utilizatorii necunoscuți sunt ignorați (apar la următorul put/rebuild), cu excepția celor dintr-o
+     * reconstruire în curs, care primesc delta la commit.
+     */
+    public void adjust(String uid, double delta) {
+        if (uid == null || delta == 0) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            applyAdjust(uid, delta);
+            record(new Change(Change.Type.ADJUST, uid, null, delta));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String uid) {
+        lock.writeLock().lock();
+        try {
+            applyRemove(uid);
+            record(new Change(Change.Type.REMOVE, uid, null, 0));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void record(Change change) {
+        if (changesDuringRebuild != null) {
+            changesDuringRebuild.add(change);
+        }
+    }
+
+    private void applyPut(String uid, String username, double score) {
+        Node existing = nodes.get(uid);
+        if (existing != null) {
+            root = erase(root, existing);
+        }
+        insert(new Node(uid, username, score));
+    }
+
+    private void applyRename(String uid, String username) {
+        Node node = nodes.get(uid);
+        if (node != null) {
+            node.username = username;
+        }
+    }
+
+    private void applyAdjust(String uid, double delta) {
+        Node node = nodes.get(uid);
+        if (node != null) {
+            move(node, node.score + delta);
+        }
+    }
+
+    private void applyRemove(String uid) {
+        Node node = nodes.remove(uid);
+        if (node != null) {
+            root = erase(root, node);
+        }
+    }
+
+    /**
+     * Pagina din clasament care începe la poziția offset (0 = primul loc)
+     */
+    public List<LeaderboardEntry> page(int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            return range(Math.max(0, offset), limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<LeaderboardEntry> find(String uid) {
+        lock.readLock().lock();
+        try {
+            Node node = nodes.get(uid);
+            return node == null ? Optional.empty() : Optional.of(entry(node, rankOf(node)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Utilizatorul și cei aflați cu cel mult radius poziții deasupra și dedesubtul lui
+     */
+    public List<LeaderboardEntry> around(String uid, int radius) {
+        lock.readLock().lock();
+        try {
+            Node node = nodes.get(uid);
+            if (node == null) {
+                return List.of();
+            }
+            int rank = rankOf(node);
+            int from = Math.max(0, rank - radius);
+            return range(from, rank + radius + 1 - from);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<LeaderboardEntry> range(int from, int limit) {
+        int to = Math.min(size(root), from + Math.max(0, limit));
+        List<LeaderboardEntry> result = new ArrayList<>(Math.max(0, to - from));
+        for (int rank = from; rank < to; rank++) {
+            result.add(entry(select(rank), rank));
+        }
+        return result;
+    }
+
+    private static LeaderboardEntry entry(Node node, int rank) {
+        return new LeaderboardEntry(rank + 1L, node.uid, node.username, node.score);
+    }
+
+    /**
+     * O reconstruire în curs. Pentru fiecare utilizator scanat ține minte câte modificări fuseseră reținute când
+     * a sosit rândul lui: un increment reținut înainte e deja în scorul citit (commit-ul lui a precedat citirea),
+     * unul reținut după nu e și se reaplică. Rămâne o fereastră cât latența unei pagini, corectată la
+     * reconstruirea următoare. put/rename/remove sunt absolute și se reaplică toate.
+     */
+    public final class Rebuild {
+
+        private final List<Change> changes;
+        private final List<User> users = new ArrayList<>();
+        private final Map<String, Integer> changesBeforeArrival = new HashMap<>();
+
+        private Rebuild(List<Change> changes) {
+            this.changes = changes;
+        }
+
+        public void add(User user) {
+            if (user.getUid() == null) {
+                return;
+            }
+            lock.readLock().lock();
+            try {
+                users.add(user);
+                changesBeforeArrival.put(user.getUid(), changes.size());
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        public void commit() {
+            lock.writeLock().lock();
+            try {
+                nodes.clear();
+                root = null;
+                for (User user : users) {
+                    insert(new Node(user.getUid(), user.getUsername(), user.getScore()));
+                }
+                for (int i = 0; i < changes.size(); i++) {
+                    Change change = changes.get(i);
+                    switch (change.type) {
+                        case PUT -> applyPut(change.uid, change.username, change.value);
+                        case RENAME -> applyRename(change.uid, change.username);
+                        case REMOVE -> applyRemove(change.uid);
+                        case ADJUST -> {
+                            Integer arrival = changesBeforeArrival.get(change.uid);
+                            if (arrival == null || i >= arrival) {
+                                applyAdjust(change.uid, change.value);
+                            }
+                        }
+                    }
+                }
+                if (changesDuringRebuild == changes) {
+                    changesDuringRebuild = null;
+                }
+                ready = true;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        /**
+         * Scanarea a eșuat: clasamentul curent rămâne cum era
+         */
+        public void cancel() {
+            lock.writeLock().lock();
+            try {
+                if (changesDuringRebuild == changes) {
+                    changesDuringRebuild = null;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private static final class Change {
+
+        private enum Type { PUT, RENAME, ADJUST, REMOVE }
+
+        private final Type type;
+        private final String uid;
+        private final String username;
+        private final double value;
+
+        private Change(Type type, String uid, String username, double value) {
+            this.type = type;
+            this.uid = uid;
+            this.username = username;
+            this.value = value;
+        }
+    }
+
+    // --- treap ---
+
+    private void move(Node node, double score) {
+        root = erase(root, node);
+        insert(new Node(node.uid, node.username, score));
+    }
+
+    private void insert(Node node) {
+        nodes.put(node.uid, node);
+        Node[] parts = split(root, node);
+        root = merge(merge(parts[0], node), parts[1]);
+    }
+
+    /**
+     * Numărul de noduri aflate înaintea lui node în clasament
+     */
+    private int rankOf(Node node) {
+        int rank = 0;
+        Node current = root;
+        while (current != null) {
+            int cmp = compare(node, current);
+            if (cmp == 0) {
+                return rank + size(current.left);
+            }
+            if (cmp < 0) {
+                current = current.left;
+            } else {
+                rank += size(current.left) + 1;
+                current = current.right;
+            }
+        }
+        throw new IllegalStateException("Leaderboard node not found: " + node.uid);
+    }
+
+    private Node select(int rank) {
+        Node current = root;
+        while (current != null) {
+            int leftSize = size(current.left);
+            if (rank < leftSize) {
+                current = current.left;
+            } else if (rank == leftSize) {
+                return current;
+            } else {
+                rank -= leftSize + 1;
+                current = current.right;
+            }
+        }
+        throw new IllegalStateException("Leaderboard rank out of range: " + rank);
+    }
+
+    /**
+     * Împarte subarborele în [noduri înaintea lui key, restul]
+     */
+    private static Node[] split(Node node, Node key) {
+        if (node == null) {
+            return new Node[]{null, null};
+        }
+        if (compare(node, key) < 0) {
+            Node[] parts = split(node.right, key);
+            node.right = parts[0];
+            node.update();
+            return new Node[]{node, parts[1]};
+        }
+        Node[] parts = split(node.left, key);
+        node.left = parts[1];
+        node.update();
+        return new Node[]{parts[0], node};
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            left.update();
+            return left;
+        }
+        right.left = merge(left, right.left);
+        right.update();
+        return right;
+    }
+
+    private static Node erase(Node node, Node target) {
+        if (node == null) {
+            return null;
+        }
+        int cmp = compare(target, node);
+        if (cmp == 0) {
+            return merge(node.left, node.right);
+        }
+        if (cmp < 0) {
+            node.left = erase(node.left, target);
+        } else {
+            node.right = erase(node.right, target);
+        }
+        node.update();
+        return node;
+    }
+
+    private static int compare(Node a, Node b) {
+        int byScore = Double.compare(b.score, a.score);
+        return byScore != 0 ? byScore : a.uid.compareTo(b.uid);
+    }
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static final class Node {
+        private final String uid;
+        private String username;
+        private final double score;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private int size = 1;
+        private Node left;
+        private Node right;
+
+        private Node(String uid, String username, double score) {
+            this.uid = uid;
+            this.username = username;
+            this.score = score;
+        }
+
+        private void update() {
+            size = 1 + size(left) + size(right);
+        }
+    }
+}
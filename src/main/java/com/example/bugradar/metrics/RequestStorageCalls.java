@@ -0,0 +1,74 @@
+package com.example.bugradar.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Apelurile la stocare (și documentele citite / scrise) ale unei cereri HTTP.
+ * Legat de thread-ul cererii de StorageRequestMetricsFilter; StorageMetricsAspect îl găsește prin current().
+ * StorageMetricsAspect termină viitorii întorși de apelurile async cu cererea legată (runBound), deci și apelurile
+ * din continuările lor sincrone (thenCompose, thenApply, ...) sunt atribuite cererii. Nu sunt numărate apelurile
+ * din continuările *Async cu alt executor, nici cele de pe thread-urile de fundal (write-behind, replica, feed-ul live).
+ */
+final class RequestStorageCalls {
+
+    private static final ThreadLocal<RequestStorageCalls> CURRENT = new ThreadLocal<>();
+
+    private final AtomicLong reads = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong documentsRead = new AtomicLong();
+    private final AtomicLong documentsWritten = new AtomicLong();
+
+    static RequestStorageCalls current() {
+        return CURRENT.get();
+    }
+
+    static void bind(RequestStorageCalls calls) {
+        CURRENT.set(calls);
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Rulează action cu calls legat de thread-ul curent, apoi pune înapoi ce era legat înainte
+     */
+    static void runBound(RequestStorageCalls calls, Runnable action) {
+        RequestStorageCalls previous = CURRENT.get();
+        CURRENT.set(calls);
+        try {
+            action.run();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    void call(boolean write) {
+        (write ? writes : reads).incrementAndGet();
+    }
+
+    // Poate veni de pe thread-ul care termină un apel async
+    void documents(boolean write, long count) {
+        (write ? documentsWritten : documentsRead).addAndGet(count);
+    }
+
+    long reads() {
+        return reads.get();
+    }
+
+    long writes() {
+        return writes.get();
+    }
+
+    long documentsRead() {
+        return documentsRead.get();
+    }
+
+    long documentsWritten() {
+        return documentsWritten.get();
+    }
+}
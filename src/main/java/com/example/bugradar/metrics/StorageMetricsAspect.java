@@ -0,0 +1,321 @@
+package com.example.bugradar.metrics;
+
+import com.example.bugradar.dto.CursorPage;
+import com.example.bugradar.repository.VoteWrite;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Măsoară fiecare apel la un repository (Firestore sau JDBC): durata, documentele citite / scrise,
+ * dimensiunea JSON a datelor (doar cu app.metrics.storage.payload-size, serializează fiecare rezultat) și erorile.
+ * Prinde doar apelurile care trec prin proxy-ul Spring, nu și apelurile dintre metodele aceluiași repository.
+ */
+@Aspect
+@Component
+public class StorageMetricsAspect {
+
+    static final String CALLS = "storage.calls";
+    static final String DOCUMENTS = "storage.documents";
+    static final String PAYLOAD = "storage.payload";
+    static final String ERRORS = "storage.errors";
+
+    private final MeterRegistry registry;
+    private final ObjectMapper objectMapper;
+    private final boolean measurePayload;
+    private final Map<Class<?>, Map<String, MethodMeters>> meters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public StorageMetricsAspect(MeterRegistry registry, ObjectMapper objectMapper,
+                                @Value("${app.metrics.storage.payload-size:false}") boolean measurePayload) {
+        this.registry = registry;
+        this.objectMapper = objectMapper;
+        this.measurePayload = measurePayload;
+    }
+
+    // isConflict doar inspectează o excepție, nu face niciun apel
+    @Around("execution(public * com.example.bugradar.repository.*Repository.*(..)) "
+            + "&& !execution(* com.example.bugradar.repository.*Repository.isConflict(..))")
+    public Object measure(ProceedingJoinPoint call) throws Throwable {
+        MethodMeters method = meters.computeIfAbsent(call.getTarget().getClass(), type -> new ConcurrentHashMap<>())
+                .computeIfAbsent(call.getSignature().getName(), name -> new MethodMeters(call.getTarget().getClass(), name));
+        RequestStorageCalls request = method.operation == Operation.LISTEN ? null : RequestStorageCalls.current();
+        if (request != null) {
+            request.call(method.operation == Operation.WRITE);
+        }
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = call.proceed();
+        } catch (Throwable e) {
+            method.failed(start, e);
+            throw e;
+        }
+        if (result instanceof CompletionStage<?> stage) {
+            // Înregistrarea se face când se termină apelul
+            Object[] args = call.getArgs();
+            if (request == null) {
+                stage.whenComplete((value, error) -> {
+                    if (error != null) {
+                        method.failed(start, error);
+                    } else {
+                        method.succeeded(start, args, value, request);
+                    }
+                });
+                return result;
+            }
+            // Continuările (thenCompose, thenApply, ...) puse pe viitorul întors rulează pe thread-ul care îl
+            // termină; îl terminăm cu cererea legată, ca apelurile făcute din ele să fie numărate tot la cerere
+            CompletableFuture<Object> tracked = new CompletableFuture<>();
+            stage.whenComplete((value, error) -> {
+                if (error != null) {
+                    method.failed(start, error);
+                } else {
+                    method.succeeded(start, args, value, request);
+                }
+                RequestStorageCalls.runBound(request, () -> {
+                    if (error != null) {
+                        tracked.completeExceptionally(error);
+                    } else {
+                        tracked.complete(value);
+                    }
+                });
+            });
+            return tracked;
+        } else {
+            method.succeeded(start, call.getArgs(), result, request);
+        }
+        return result;
+    }
+
+    private enum Operation {
+        READ, WRITE, LISTEN;
+
+        static Operation of(String method) {
+            if (method.startsWith("listen")) {
+                return LISTEN;
+            }
+            if (method.startsWith("find") || method.startsWith("forEach") || method.startsWith("count")
+                    || method.startsWith("search")) {
+                return READ;
+            }
+            return WRITE;
+        }
+    }
+
+    /**
+     * Contoarele unei metode dintr-o implementare, create o singură dată
+     */
+    private final class MethodMeters {
+
+        private final String methodName;
+        private final Operation operation;
+        private final Tags tags;
+        private final Timer success;
+        private final Timer error;
+        private final DistributionSummary documents;
+        private final DistributionSummary payload;
+
+        MethodMeters(Class<?> implementation, String methodName) {
+            this.methodName = methodName;
+            this.operation = Operation.of(methodName);
+            String repository = repositoryName(implementation);
+            String type = implementation.getSimpleName();
+            String backend = type.endsWith(repository) && type.length() > repository.length()
+                    ? type.substring(0, type.length() - repository.length()).toLowerCase() : "unknown";
+            this.tags = Tags.of("backend", backend, "repository", repository, "method", methodName,
+                    "operation", operation.name().toLowerCase());
+            this.success = timer("success");
+            this.error = timer("error");
+            this.documents = DistributionSummary.builder(DOCUMENTS)
+                    .description("Documente citite sau scrise de un apel la stocare")
+                    .tags(tags)
+                    .serviceLevelObjectives(1, 10, 20, 50, 100, 500, 1000, 10_000, 100_000)
+                    .register(registry);
+            this.payload = DistributionSummary.builder(PAYLOAD)
+                    .description("Dimensiunea JSON a documentelor citite sau scrise de un apel la stocare")
+                    .baseUnit("bytes")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(64.0)
+                    .maximumExpectedValue(64.0 * 1024 * 1024)
+                    .register(registry);
+        }
+
+        private Timer timer(String outcome) {
+            return Timer.builder(CALLS)
+                    .description("Durata apelurilor la stocare")
+                    .tags(tags)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(Duration.ofMillis(1))
+                    .maximumExpectedValue(Duration.ofSeconds(30))
+                    .register(registry);
+        }
+
+        void succeeded(long start, Object[] args, Object result, RequestStorageCalls request) {
+            success.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (operation == Operation.LISTEN) {
+                return;
+            }
+            boolean write = operation == Operation.WRITE;
+            // Pentru scrieri contează ce am trimis (primul argument), pentru citiri ce am primit
+            Object data = write ? (args.length == 0 ? null : args[0]) : result;
+            // Un count* e o agregare pe server: întoarce un număr, nu documente
+            boolean aggregate = methodName.startsWith("count");
+            long count;
+            if (aggregate) {
+                count = 1;
+            } else if (data instanceof VoteWrite vote) {
+                count = voteDocuments(List.of(vote));
+            } else if (write && data instanceof List<?> list && !list.isEmpty() && list.get(0) instanceof VoteWrite) {
+                @SuppressWarnings("unchecked")
+                List<VoteWrite> votes = (List<VoteWrite>) list;
+                count = voteDocuments(votes);
+            } else if (write && !(data instanceof Collection<?> || data instanceof Map<?, ?>)) {
+                count = args.length == 0 ? 0 : 1;
+            } else {
+                count = documentCount(data);
+            }
+            documents.record(count);
+            if (request != null) {
+                request.documents(write, count);
+            }
+            if (measurePayload && !aggregate && !(data instanceof Number)) {
+                long bytes = payloadSize(data);
+                if (bytes > 0) {
+                    payload.record(bytes);
+                }
+            }
+        }
+
+        void failed(long start, Throwable e) {
+            error.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            Throwable cause = e;
+            while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            Counter.builder(ERRORS)
+                    .description("Apeluri la stocare terminate cu eroare")
+                    .tags(tags)
+                    .tag("exception", cause.getClass().getSimpleName())
+                    .register(registry)
+                    .increment();
+        }
+    }
+
+    // Interfața din pachetul repository implementată de clasă (BugRepository, VoteRepository, ...)
+    private static String repositoryName(Class<?> implementation) {
+        for (Class<?> type = implementation; type != null; type = type.getSuperclass()) {
+            for (Class<?> contract : type.getInterfaces()) {
+                if (contract.getSimpleName().endsWith("Repository")
+                        && contract.getPackageName().equals("com.example.bugradar.repository")) {
+                    return contract.getSimpleName();
+                }
+            }
+        }
+        return implementation.getSimpleName();
+    }
+
+    /**
+     * Documentele scrise de applyVote / applyVotes: votul, voteCount-ul țintei (dacă se schimbă) și scorul fiecărui
+     * utilizator cu deltă nenulă (într-un batch, scorurile aceluiași utilizator sunt o singură scriere)
+     */
+    private static long voteDocuments(List<VoteWrite> votes) {
+        long count = votes.size();
+        Set<String> users = new HashSet<>();
+        for (VoteWrite vote : votes) {
+            if (vote.getVoteCountDelta() != 0) {
+                count++;
+            }
+            if (vote.getAuthorId() != null && vote.getAuthorScoreDelta() != 0) {
+                users.add(vote.getAuthorId());
+            }
+            if (vote.getVoterId() != null && vote.getVoterScoreDelta() != 0) {
+                users.add(vote.getVoterId());
+            }
+        }
+        return count + users.size();
+    }
+
+    private static long documentCount(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        if (result instanceof CursorPage<?> page) {
+            return page.getItems().size();
+        }
+        // forEach* întorc numărul de documente parcurse
+        if (result instanceof Number number) {
+            return number.longValue();
+        }
+        return 1;
+    }
+
+    // Serializăm într-un stream care doar numără octeții; o eroare de serializare nu afectează apelul
+    private long payloadSize(Object data) {
+        if (data == null || data instanceof Optional<?> optional && optional.isEmpty()) {
+            return 0;
+        }
+        CountingOutputStream out = new CountingOutputStream();
+        try {
+            objectMapper.writeValue(out, data instanceof Optional<?> optional ? optional.get() : data);
+        } catch (Exception e) {
+            return 0;
+        }
+        return out.count;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public void close() {
+            // ObjectMapper.writeValue închide stream-ul; nu avem nimic de eliberat
+        }
+    }
+}
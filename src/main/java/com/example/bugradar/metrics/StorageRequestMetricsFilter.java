@@ -0,0 +1,83 @@
+package com.example.bugradar.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Numără apelurile la stocare (și documentele) făcute de fiecare cerere HTTP și le publică lângă
+ * http.server.requests, cu aceleași tag-uri method / uri / status.
+ * Numărătoarea stă într-un atribut al cererii, ca să cuprindă și dispatch-urile async (DeferredResult, SSE).
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class StorageRequestMetricsFilter extends OncePerRequestFilter {
+
+    static final String CALLS = "http.server.requests.storage.calls";
+    static final String DOCUMENTS = "http.server.requests.storage.documents";
+
+    private static final String ATTRIBUTE = StorageRequestMetricsFilter.class.getName() + ".calls";
+
+    private final MeterRegistry registry;
+
+    @Autowired
+    public StorageRequestMetricsFilter(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestStorageCalls calls = (RequestStorageCalls) request.getAttribute(ATTRIBUTE);
+        if (calls == null) {
+            calls = new RequestStorageCalls();
+            request.setAttribute(ATTRIBUTE, calls);
+        }
+        RequestStorageCalls.bind(calls);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            RequestStorageCalls.unbind();
+            // Cererea async se termină în ultimul dispatch; atunci publicăm totalul
+            if (!request.isAsyncStarted()) {
+                record(request, response, calls);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, RequestStorageCalls calls) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Tags tags = Tags.of("method", request.getMethod(), "uri", pattern == null ? "UNKNOWN" : pattern.toString(),
+                "status", String.valueOf(response.getStatus()));
+        summary(CALLS, "Apeluri la stocare per cerere HTTP", tags, "read").record(calls.reads());
+        summary(CALLS, "Apeluri la stocare per cerere HTTP", tags, "write").record(calls.writes());
+        summary(DOCUMENTS, "Documente citite / scrise per cerere HTTP", tags, "read").record(calls.documentsRead());
+        summary(DOCUMENTS, "Documente citite / scrise per cerere HTTP", tags, "write").record(calls.documentsWritten());
+    }
+
+    private DistributionSummary summary(String name, String description, Tags tags, String operation) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .tags(tags)
+                .tag("operation", operation)
+                .serviceLevelObjectives(0, 1, 2, 5, 10, 20, 50, 100, 1000)
+                .register(registry);
+    }
+}
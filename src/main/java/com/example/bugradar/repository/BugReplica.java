@@ -0,0 +1,626 @@
+package com.example.bugradar.repository;
+
+import com.example.bugradar.entity.Bug;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentChange;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.ListenerRegistration;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Replica în memorie a colecției bugs (opțional, app.bugs.replica.enabled). Pornește din primul snapshot al unui
+ * listener pe toată colecția și rămâne la zi din modificările lui; fiecare snapshot e aplicat atomic, deci citirile
+ * văd mereu colecția așa cum era la un anumit readTime. Pe lângă map-ul după ID ține seturi sortate după
+ * creationDate (feed-ul) și după voteCount, plus un index pe autor.
+ *
+ * Scrierile făcute de această instanță sunt aplicate imediat (cu updateTime-ul din WriteResult), ca un client să-și
+ * vadă propriile modificări; versiunile mai vechi decât cele deja aplicate sunt ignorate, oricare ar fi sursa.
+ * După o eroare a listenerului replica nu mai servește citiri până la resincronizare (listener nou, backoff exponențial);
+ * între timp FirestoreBugRepository citește direct din Firestore.
+ *
+ * Modificările primite de listener sunt trimise mai departe (listenForChanges, pentru feed-ul live), ca să nu mai
+ * deschidem încă un listener pe toată colecția; după o resincronizare se trimite diferența față de replica veche.
+ */
+@Component
+public class BugReplica {
+
+    private static final Duration TOMBSTONE_TTL = Duration.ofMinutes(10);
+    private static final Duration MAX_RESYNC_DELAY = Duration.ofMinutes(1);
+
+    // Ordinea din feed-ul Firestore: creationDate desc, apoi ID desc (bug-urile fără creationDate lipsesc)
+    private static final Comparator<Entry> BY_CREATION_DESC = Comparator
+            .comparing((Entry entry) -> entry.bug.getCreationDate(), Comparator.reverseOrder())
+            .thenComparing(entry -> entry.bug.getId(), Comparator.reverseOrder());
+    private static final Comparator<Entry> BY_VOTES_DESC = Comparator
+            .comparingInt((Entry entry) -> entry.bug.getVoteCount()).reversed()
+            .thenComparing(entry -> entry.bug.getId(), Comparator.reverseOrder());
+
+    private final Firestore firestore;
+    private final boolean enabled;
+
+    private final Map<String, Entry> byId = new HashMap<>();
+    private final TreeSet<Entry> byCreation = new TreeSet<>(BY_CREATION_DESC);
+    private final TreeSet<Entry> byVotes = new TreeSet<>(BY_VOTES_DESC);
+    private final Map<String, Set<String>> byAuthor = new HashMap<>();
+    // Momentul ștergerii, ca o scriere locală mai veche să nu readucă documentul
+    private final Map<String, Long> tombstones = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // Ordinea trimiterii către consumatori = ordinea snapshot-urilor; luat înaintea lock-ului
+    private final Object dispatch = new Object();
+    private final List<ChangeConsumer> changeConsumers = new CopyOnWriteArrayList<>();
+    private boolean loaded; // sub dispatch: a fost aplicat cel puțin un snapshot
+
+    private final ScheduledExecutorService resyncScheduler;
+    private ListenerRegistration registration;
+    private volatile boolean live = false;
+    private boolean awaitingInitialSnapshot;
+    private long resyncDelayMillis = 1_000;
+
+    private final AtomicLong lastReadTimeMillis = new AtomicLong();
+    private final AtomicLong lastAppliedAtMillis = new AtomicLong();
+    private final AtomicLong lastLagMillis = new AtomicLong();
+    private final AtomicLong snapshots = new AtomicLong();
+    private final AtomicLong localWrites = new AtomicLong();
+    private final AtomicLong staleWritesIgnored = new AtomicLong();
+    private final AtomicLong listenerErrors = new AtomicLong();
+    private final AtomicLong resyncs = new AtomicLong();
+
+    @Autowired
+    public BugReplica(Firestore firestore,
+                      MeterRegistry registry,
+                      @Value("${app.bugs.replica.enabled:false}") boolean enabled) {
+        this.firestore = firestore;
+        this.enabled = enabled;
+        if (enabled) {
+            resyncScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "bug-replica-resync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            registerMeters(registry);
+        } else {
+            resyncScheduler = null;
+        }
+    }
+
+    /**
+     * Aceleași valori ca stats(), pentru alerte în Prometheus (de ex. replica nu mai e live sau rămâne în urmă)
+     */
+    private void registerMeters(MeterRegistry registry) {
+        Gauge.builder("bugs.replica.live", this, replica -> replica.live ? 1 : 0)
+                .description("1 cât timp replica servește citirile")
+                .register(registry);
+        Gauge.builder("bugs.replica.snapshot.age", this, BugReplica::secondsSinceLastSnapshot)
+                .description("Secunde de la ultimul snapshot aplicat (-1 înainte de primul)")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("bugs.replica.snapshot.lag", lastLagMillis, lag -> lag.get() / 1000.0)
+                .description("Întârzierea ultimului snapshot față de readTime-ul lui")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("bugs.replica.documents", this, BugReplica::documentCount)
+                .register(registry);
+        FunctionCounter.builder("bugs.replica.listener.errors", listenerErrors, AtomicLong::get).register(registry);
+        FunctionCounter.builder("bugs.replica.resyncs", resyncs, AtomicLong::get).register(registry);
+    }
+
+    private double secondsSinceLastSnapshot() {
+        long appliedAt = lastAppliedAtMillis.get();
+        return appliedAt == 0 ? -1 : (System.currentTimeMillis() - appliedAt) / 1000.0;
+    }
+
+    private double documentCount() {
+        lock.readLock().lock();
+        try {
+            return byId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * true după primul snapshot și cât timp listenerul funcționează; doar atunci replica servește citiri
+     */
+    public boolean isLive() {
+        return live;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            listen();
+        }
+    }
+
+    private synchronized void listen() {
+        if (registration != null) {
+            return;
+        }
+        awaitingInitialSnapshot = true;
+        registration = firestore.collection("bugs").addSnapshotListener((snapshot, error) -> {
+            if (error != null) {
+                onListenerError(error);
+            } else {
+                onSnapshot(snapshot);
+            }
+        });
+    }
+
+    private void onSnapshot(QuerySnapshot snapshot) {
+        long readMicros = ContentVersion.micros(snapshot.getReadTime());
+        synchronized (dispatch) {
+            List<SnapshotChange<Bug>> changes;
+            lock.writeLock().lock();
+            try {
+                if (awaitingInitialSnapshot) {
+                    Map<String, Entry> previous = loaded ? new HashMap<>(byId) : Map.of();
+                    clear();
+                    for (QueryDocumentSnapshot document : snapshot.getDocuments()) {
+                        upsert(document.toObject(Bug.class), ContentVersion.micros(document.getUpdateTime()), false);
+                    }
+                    awaitingInitialSnapshot = false;
+                    changes = changesSince(previous);
+                } else {
+                    changes = new ArrayList<>(snapshot.getDocumentChanges().size());
+                    for (DocumentChange change : snapshot.getDocumentChanges()) {
+                        QueryDocumentSnapshot document = change.getDocument();
+                        if (change.getType() == DocumentChange.Type.REMOVED) {
+                            delete(document.getId(), readMicros);
+                            changes.add(new SnapshotChange<>(SnapshotChange.Type.REMOVED, document.getId(), null));
+                            continue;
+                        }
+                        Bug bug = document.toObject(Bug.class);
+                        // Trimitem modificarea și dacă o scriere locală a ajuns deja în replică
+                        changes.add(new SnapshotChange<>(SnapshotChange.typeOf(change), document.getId(), copy(bug)));
+                        if (!upsert(bug, ContentVersion.micros(document.getUpdateTime()), false)) {
+                            staleWritesIgnored.incrementAndGet();
+                        }
+                    }
+                    pruneTombstones(readMicros);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            loaded = true;
+            for (ChangeConsumer consumer : changeConsumers) {
+                consumer.deliver(changes);
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        lastReadTimeMillis.set(readMicros / 1_000);
+        lastAppliedAtMillis.set(now);
+        lastLagMillis.set(Math.max(0, now - readMicros / 1_000));
+        snapshots.incrementAndGet();
+        synchronized (this) {
+            resyncDelayMillis = 1_000;
+        }
+        live = true;
+    }
+
+    private synchronized void onListenerError(Throwable error) {
+        live = false;
+        listenerErrors.incrementAndGet();
+        System.err.println("Bug replica listener failed, resyncing in " + resyncDelayMillis + "ms: " + error.getMessage());
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+        }
+        if (!resyncScheduler.isShutdown()) {
+            resyncScheduler.schedule(() -> {
+                resyncs.incrementAndGet();
+                listen();
+            }, resyncDelayMillis, TimeUnit.MILLISECONDS);
+        }
+        resyncDelayMillis = Math.min(resyncDelayMillis * 2, MAX_RESYNC_DELAY.toMillis());
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        live = false;
+        if (resyncScheduler != null) {
+            resyncScheduler.shutdownNow();
+        }
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+        }
+    }
+
+    // --- consumatorii modificărilor ---
+
+    /**
+     * Modificările colecției, din listenerul replicii. Primul apel conține toate documentele (ADDED), imediat dacă
+     * replica e deja încărcată, altfel la primul snapshot; următoarele doar modificările. Cât timp replica se
+     * resincronizează nu vine nimic; la final vine diferența. Scrierile locale ajung când le confirmă listenerul.
+     */
+    ChangeRegistration listenForChanges(Consumer<List<SnapshotChange<Bug>>> onChanges) {
+        ChangeConsumer consumer = new ChangeConsumer(onChanges);
+        synchronized (dispatch) {
+            if (loaded) {
+                consumer.deliver(List.of());
+            }
+            changeConsumers.add(consumer);
+        }
+        return () -> changeConsumers.remove(consumer);
+    }
+
+    // Sub writeLock: diferența dintre replica dinaintea resincronizării și cea nouă
+    private List<SnapshotChange<Bug>> changesSince(Map<String, Entry> previous) {
+        List<SnapshotChange<Bug>> changes = new ArrayList<>();
+        for (Entry entry : byId.values()) {
+            Entry before = previous.get(entry.bug.getId());
+            if (before == null) {
+                changes.add(new SnapshotChange<>(SnapshotChange.Type.ADDED, entry.bug.getId(), copy(entry.bug)));
+            } else if (before.updateMicros != entry.updateMicros) {
+                changes.add(new SnapshotChange<>(SnapshotChange.Type.MODIFIED, entry.bug.getId(), copy(entry.bug)));
+            }
+        }
+        for (String id : previous.keySet()) {
+            if (!byId.containsKey(id)) {
+                changes.add(new SnapshotChange<>(SnapshotChange.Type.REMOVED, id, null));
+            }
+        }
+        return changes;
+    }
+
+    private List<SnapshotChange<Bug>> allAsAdded() {
+        lock.readLock().lock();
+        try {
+            List<SnapshotChange<Bug>> all = new ArrayList<>(byId.size());
+            for (Entry entry : byId.values()) {
+                all.add(new SnapshotChange<>(SnapshotChange.Type.ADDED, entry.bug.getId(), copy(entry.bug)));
+            }
+            return all;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private final class ChangeConsumer {
+        private final Consumer<List<SnapshotChange<Bug>>> onChanges;
+        private boolean initialized; // sub dispatch
+
+        private ChangeConsumer(Consumer<List<SnapshotChange<Bug>>> onChanges) {
+            this.onChanges = onChanges;
+        }
+
+        // Sub dispatch
+        private void deliver(List<SnapshotChange<Bug>> changes) {
+            List<SnapshotChange<Bug>> batch = changes;
+            if (!initialized) {
+                initialized = true;
+                batch = allAsAdded();
+            } else if (changes.isEmpty()) {
+                return;
+            }
+            try {
+                onChanges.accept(batch);
+            } catch (RuntimeException e) {
+                System.err.println("Bug replica change consumer failed: " + e.getMessage());
+            }
+        }
+    }
+
+    // --- scrieri locale ---
+
+    /**
+     * Documentul exact cum a fost scris, cu updateTime-ul din WriteResult. Un bug existent e scris cu update() fără
+     * voteCount (se schimbă doar prin incremente), deci îl păstrăm pe cel din replică; dacă bug-ul nu e încă în
+     * replică nu știm voteCount-ul și așteptăm snapshot-ul listenerului. Oricum, snapshot-ul cu același updateTime
+     * înlocuiește intrarea locală (are voteCount-ul documentului la acel moment).
+     */
+    void written(Bug stored, Timestamp updateTime, boolean created) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            localWrites.incrementAndGet();
+            Bug bug = copy(stored);
+            if (!created) {
+                Entry existing = byId.get(bug.getId());
+                if (existing == null) {
+                    return;
+                }
+                bug.setVoteCount(existing.bug.getVoteCount());
+            }
+            if (!upsert(bug, ContentVersion.micros(updateTime), true)) {
+                staleWritesIgnored.incrementAndGet();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void deleted(String id, Timestamp deleteTime) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            localWrites.incrementAndGet();
+            delete(id, ContentVersion.micros(deleteTime));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // --- citiri (bug-urile întoarse sunt copii, cu voteCount-ul stocat) ---
+
+    Optional<Bug> find(String id) {
+        return find(id, null);
+    }
+
+    /**
+     * Ca find, plus updateTime-ul documentului pus în updateMicros, citit sub același lock (ETag-ul corespunde bug-ului)
+     */
+    Optional<Bug> find(String id, Map<String, Long> updateMicros) {
+        lock.readLock().lock();
+        try {
+            Entry entry = byId.get(id);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            if (updateMicros != null) {
+                updateMicros.put(id, entry.updateMicros);
+            }
+            return Optional.of(copy(entry.bug));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * updateTime-ul documentului în microsecunde, pentru ETag; Optional gol dacă nu există
+     */
+    Optional<Long> findUpdateMicros(String id) {
+        lock.readLock().lock();
+        try {
+            Entry entry = byId.get(id);
+            return entry == null ? Optional.empty() : Optional.of(entry.updateMicros);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<Bug> findAll() {
+        lock.readLock().lock();
+        try {
+            List<Bug> bugs = new ArrayList<>(byId.size());
+            for (Entry entry : byId.values()) {
+                bugs.add(copy(entry.bug));
+            }
+            return bugs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<Bug> findAllByCreationDesc() {
+        return page(byCreation, null, Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * Cel mult limit bug-uri din feed, după poziția (creationDate, id) din cursor (null = de la început).
+     * Dacă updateMicros nu e null, primește updateTime-ul fiecărui bug din pagină, citit sub același lock.
+     */
+    List<Bug> pageByCreationDesc(String afterCreationDate, String afterId, int limit, Map<String, Long> updateMicros) {
+        Entry after = afterId == null ? null : probe(afterId, afterCreationDate, 0);
+        return page(byCreation, after, limit, updateMicros);
+    }
+
+    List<Bug> pageByVotesDesc(Integer afterVoteCount, String afterId, int limit) {
+        Entry after = afterId == null ? null : probe(afterId, null, afterVoteCount);
+        return page(byVotes, after, limit, null);
+    }
+
+    List<Bug> findByAuthorId(String authorId) {
+        lock.readLock().lock();
+        try {
+            List<Bug> bugs = new ArrayList<>();
+            for (String id : byAuthor.getOrDefault(authorId, Set.of())) {
+                bugs.add(copy(byId.get(id).bug));
+            }
+            return bugs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    List<Bug> filter(Predicate<Bug> predicate) {
+        lock.readLock().lock();
+        try {
+            List<Bug> bugs = new ArrayList<>();
+            for (Entry entry : byCreation) {
+                if (predicate.test(entry.bug)) {
+                    bugs.add(copy(entry.bug));
+                }
+            }
+            return bugs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Bug> page(TreeSet<Entry> index, Entry after, int limit, Map<String, Long> updateMicros) {
+        lock.readLock().lock();
+        try {
+            List<Bug> bugs = new ArrayList<>(Math.min(limit, index.size()));
+            Iterator<Entry> iterator = (after == null ? index : index.tailSet(after, false)).iterator();
+            while (bugs.size() < limit && iterator.hasNext()) {
+                Entry entry = iterator.next();
+                bugs.add(copy(entry.bug));
+                if (updateMicros != null) {
+                    updateMicros.put(entry.bug.getId(), entry.updateMicros);
+                }
+            }
+            return bugs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("live", live);
+        lock.readLock().lock();
+        try {
+            result.put("documents", byId.size());
+            result.put("tombstones", tombstones.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+        long appliedAt = lastAppliedAtMillis.get();
+        // Cât de vechi e ultimul snapshot aplicat; Firestore trimite snapshot-uri doar când se schimbă ceva
+        result.put("lastSnapshotReadTime", lastReadTimeMillis.get());
+        result.put("lastSnapshotLagMillis", lastLagMillis.get());
+        result.put("millisSinceLastSnapshot", appliedAt == 0 ? -1 : System.currentTimeMillis() - appliedAt);
+        result.put("snapshots", snapshots.get());
+        result.put("localWrites", localWrites.get());
+        result.put("staleWritesIgnored", staleWritesIgnored.get());
+        result.put("listenerErrors", listenerErrors.get());
+        result.put("resyncs", resyncs.get());
+        return result;
+    }
+
+    // --- stare internă (sub writeLock) ---
+
+    private boolean upsert(Bug bug, long updateMicros, boolean local) {
+        if (bug == null || bug.getId() == null) {
+            return false;
+        }
+        Entry existing = byId.get(bug.getId());
+        if (existing != null && (existing.updateMicros > updateMicros
+                || existing.updateMicros == updateMicros && (local || !existing.local))) {
+            return false;
+        }
+        Long deletedAt = tombstones.get(bug.getId());
+        if (deletedAt != null) {
+            if (deletedAt >= updateMicros) {
+                return false;
+            }
+            tombstones.remove(bug.getId());
+        }
+        if (existing != null) {
+            unlink(existing);
+        }
+        link(new Entry(bug, updateMicros, local));
+        return true;
+    }
+
+    private void delete(String id, long deleteMicros) {
+        Entry existing = byId.get(id);
+        if (existing != null && existing.updateMicros <= deleteMicros) {
+            unlink(existing);
+        }
+        tombstones.merge(id, deleteMicros, Math::max);
+    }
+
+    private void link(Entry entry) {
+        byId.put(entry.bug.getId(), entry);
+        if (entry.bug.getCreationDate() != null) {
+            byCreation.add(entry);
+        }
+        byVotes.add(entry);
+        if (entry.bug.getAuthorId() != null) {
+            byAuthor.computeIfAbsent(entry.bug.getAuthorId(), key -> new HashSet<>()).add(entry.bug.getId());
+        }
+    }
+
+    private void unlink(Entry entry) {
+        byId.remove(entry.bug.getId());
+        if (entry.bug.getCreationDate() != null) {
+            byCreation.remove(entry);
+        }
+        byVotes.remove(entry);
+        Set<String> ids = byAuthor.get(entry.bug.getAuthorId());
+        if (ids != null) {
+            ids.remove(entry.bug.getId());
+            if (ids.isEmpty()) {
+                byAuthor.remove(entry.bug.getAuthorId());
+            }
+        }
+    }
+
+    private void clear() {
+        byId.clear();
+        byCreation.clear();
+        byVotes.clear();
+        byAuthor.clear();
+        tombstones.clear();
+    }
+
+    private void pruneTombstones(long nowMicros) {
+        long cutoff = nowMicros - TOMBSTONE_TTL.toMillis() * 1_000;
+        tombstones.values().removeIf(deletedAt -> deletedAt < cutoff);
+    }
+
+    private static Entry probe(String id, String creationDate, int voteCount) {
+        Bug bug = new Bug();
+        bug.setId(id);
+        bug.setCreationDate(creationDate);
+        bug.setVoteCount(voteCount);
+        return new Entry(bug, 0, false);
+    }
+
+    /**
+     * Bug e mutabil (toBug adaugă delta la voteCount), deci în replică nu ajung și nu ies referințe partajate
+     */
+    static Bug copy(Bug bug) {
+        return new Bug(bug.getId(), bug.getAuthorId(), bug.getTitle(), bug.getDescription(), bug.getCreationDate(),
+                bug.getImageUrl(), bug.getStatus(), bug.getTags() == null ? null : new ArrayList<>(bug.getTags()),
+                bug.getVoteCount());
+    }
+
+    // Intrările nu se modifică după ce au intrat în seturile sortate
+    private static final class Entry {
+        private final Bug bug;
+        private final long updateMicros;
+        // Din WriteResult-ul unei scrieri locale; snapshot-ul listenerului cu același updateTime o înlocuiește
+        private final boolean local;
+
+        private Entry(Bug bug, long updateMicros, boolean local) {
+            this.bug = bug;
+            this.updateMicros = updateMicros;
+            this.local = local;
+        }
+    }
+}
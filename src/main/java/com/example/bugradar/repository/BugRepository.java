@@ -0,0 +1,89 @@
+package com.example.bugradar.repository;
+
+import com.example.bugradar.dto.BugSummary;
+import com.example.bugradar.dto.CursorPage;
+import com.example.bugradar.entity.Bug;
+import com.example.bugradar.entity.Tag;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Stocarea bug-urilor; implementarea e aleasă cu app.storage.backend (firestore / jdbc)
+ */
+public interface BugRepository {
+
+    Bug save(Bug bug);
+
+    CompletableFuture<Bug> saveAsync(Bug bug);
+
+    Optional<Bug> findById(String id);
+
+    CompletableFuture<Optional<Bug>> findByIdAsync(String id);
+
+    /**
+     * Versiunea bug-ului pentru GET condiționat, fără să citim câmpurile lui; Optional gol dacă nu există
+     */
+    CompletableFuture<Optional<ContentVersion>> findVersionAsync(String id);
+
+    /**
+     * Bug-ul cu versiunea lui din aceeași citire (GET fără header condițional); Optional gol dacă nu există
+     */
+    CompletableFuture<Optional<VersionedContent<Bug>>> findVersionedByIdAsync(String id);
+
+    /**
+     * ID-urile inexistente lipsesc din rezultat
+     */
+    Map<String, Bug> findAllByIds(Collection<String> ids);
+
+    List<Bug> findAll();
+
+    List<Bug> findAllByOrderByCreationDateDesc();
+
+    /**
+     * Feed-ul: creationDate descrescător, apoi ID descrescător; bug-urile fără creationDate nu apar
+     */
+    CursorPage<BugSummary> findSummaryPageByCreationDateDesc(int size, String cursor);
+
+    /**
+     * Aceeași pagină cu versiunea ei (identică cu findFeedPageVersion), dintr-o singură interogare
+     */
+    VersionedContent<CursorPage<BugSummary>> findVersionedSummaryPageByCreationDateDesc(int size, String cursor);
+
+    ContentVersion findFeedPageVersion(int size, String cursor);
+
+    /**
+     * Cele mai votate: voteCount descrescător, apoi ID descrescător
+     */
+    CursorPage<BugSummary> findSummaryPageByVoteCountDesc(int size, String cursor);
+
+    long forEachAuthorVoteCount(ObjIntConsumer<String> consumer);
+
+    void deleteById(String id);
+
+    List<Bug> findByAuthorId(String authorId);
+
+    List<BugSummary> findSummariesByAuthorId(String authorId);
+
+    List<Bug> findByTitleContainingIgnoreCase(String text);
+
+    List<Bug> searchByText(String text, int limit);
+
+    List<Bug> findByTagsContaining(Tag tag);
+
+    /**
+     * Toate tag-urile din allOf, cel puțin unul din anyOf, niciunul din noneOf (ID-uri de tag)
+     */
+    List<Bug> findByTags(Collection<String> allOf, Collection<String> anyOf, Collection<String> noneOf);
+
+    /**
+     * Primul apel conține toate bug-urile existente (ADDED), următoarele doar modificările
+     */
+    ChangeRegistration listenForSummaryChanges(Consumer<List<SnapshotChange<BugSummary>>> onChanges,
+                                               Consumer<RuntimeException> onError);
+}
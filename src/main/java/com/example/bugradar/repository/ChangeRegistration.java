@@ -0,0 +1,9 @@
+package com.example.bugradar.repository;
+
+/**
+ * Abonarea la modificările unei colecții (snapshot listener în Firestore, notificări în proces pe JDBC)
+ */
+public interface ChangeRegistration {
+
+    void remove();
+}
@@ -0,0 +1,78 @@
+package com.example.bugradar.repository;
+
+import com.example.bugradar.dto.CursorPage;
+import com.example.bugradar.entity.Comment;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Stocarea comentariilor; implementarea e aleasă cu app.storage.backend (firestore / jdbc)
+ */
+public interface CommentRepository {
+
+    Comment save(Comment comment);
+
+    CompletableFuture<Comment> saveAsync(Comment comment);
+
+    Optional<Comment> findById(String id);
+
+    CompletableFuture<Optional<Comment>> findByIdAsync(String id);
+
+    /**
+     * ID-urile inexistente lipsesc din rezultat
+     */
+    Map<String, Comment> findAllByIds(Collection<String> ids);
+
+    List<Comment> findAll();
+
+    long forEachAuthorVoteCount(ObjIntConsumer<String> consumer);
+
+    /**
+     * Migrarea comentariilor care mai au copia bug-ului; raportul are scanned / stripped / failed
+     */
+    Map<String, Long> stripEmbeddedBugs();
+
+    void deleteById(String id);
+
+    /**
+     * Comentariile unui bug: voteCount descrescător, apoi creationDate și ID crescător.
+     * Firestore păstrează comentariile cu creationDate null (primele între cele cu același voteCount); JDBC le exclude.
+     */
+    CursorPage<Comment> findPageByBugId(String bugId, int size, String cursor);
+
+    CompletableFuture<CursorPage<Comment>> findPageByBugIdAsync(String bugId, int size, String cursor);
+
+    /**
+     * Aceeași pagină cu versiunea ei (identică cu findPageVersionByBugId), dintr-o singură interogare
+     */
+    VersionedContent<CursorPage<Comment>> findVersionedPageByBugId(String bugId, int size, String cursor);
+
+    ContentVersion findPageVersionByBugId(String bugId, int size, String cursor);
+
+    List<Comment> findByAuthorId(String authorId);
+
+    /**
+     * Modificările comentariilor create începând cu createdSince, fără să citim restul colecției: primul apel
+     * conține doar comentariile create între createdSince și pornirea listenerului (ADDED), următoarele modificările.
+     * Backend-ul JDBC (notificări în proces, fără citiri) trimite modificările tuturor comentariilor.
+     */
+    ChangeRegistration listenForChanges(LocalDateTime createdSince,
+                                        Consumer<List<SnapshotChange<Comment>>> onChanges,
+                                        Consumer<RuntimeException> onError);
+
+    /**
+     * Modificările comentariilor unui bug, oricât de vechi (voturi, editări, ștergeri): primul apel conține
+     * comentariile existente (ADDED), următoarele modificările. Backend-ul JDBC nu trimite nimic, fiindcă
+     * listenForChanges îi trimite deja modificările tuturor comentariilor.
+     */
+    ChangeRegistration listenForThreadChanges(String bugId,
+                                              Consumer<List<SnapshotChange<Comment>>> onChanges,
+                                              Consumer<RuntimeException> onError);
+}
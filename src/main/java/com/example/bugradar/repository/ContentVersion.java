@@ -0,0 +1,90 @@
+package com.example.bugradar.repository;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.DocumentSnapshot;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Versiunea unei resurse pentru GET condiționat (ETag / Last-Modified), calculată din updateTime-urile Firestore
+ * citite fără câmpuri (mască goală / select pe ID), deci fără să încărcăm documentele.
+ * La voteCount se adaugă delta încă nescrisă de write-behind, care nu schimbă updateTime-ul.
+ */
+public final class ContentVersion {
+
+    // Listele nu au Last-Modified: un document șters dintr-o pagină nu mărește nicio dată
+    public static final long UNKNOWN = -1;
+
+    private final String etag;
+    private final long lastModified;
+
+    public ContentVersion(String etag, long lastModified) {
+        this.etag = etag;
+        this.lastModified = lastModified;
+    }
+
+    /**
+     * Un singur document: ETag-ul e chiar updateTime-ul (în microsecunde) plus delta în așteptare
+     */
+    static ContentVersion ofDocument(DocumentSnapshot document, int pendingDelta) {
+        return ofDocument(micros(document.getUpdateTime()), pendingDelta);
+    }
+
+    static ContentVersion ofDocument(long updateMicros, int pendingDelta) {
+        String tag = Long.toString(updateMicros, 36) + (pendingDelta == 0 ? "" : "." + pendingDelta);
+        return new ContentVersion("\"" + tag + "\"", updateMicros / 1_000);
+    }
+
+    /**
+     * O pagină dintr-o listă: rezumat peste (ID, updateTime, delta) ale documentelor, în ordinea din pagină
+     */
+    static ContentVersion ofDocuments(List<? extends DocumentSnapshot> documents, ToIntFunction<String> pendingDelta) {
+        List<String> ids = new ArrayList<>(documents.size());
+        Map<String, Long> updateMicros = new HashMap<>();
+        for (DocumentSnapshot document : documents) {
+            ids.add(document.getId());
+            updateMicros.put(document.getId(), micros(document.getUpdateTime()));
+        }
+        return ofDocuments(ids, updateMicros::get, pendingDelta);
+    }
+
+    static ContentVersion ofDocuments(List<String> ids, ToLongFunction<String> updateMicros, ToIntFunction<String> pendingDelta) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            ByteBuffer numbers = ByteBuffer.allocate(2 * Long.BYTES);
+            for (String id : ids) {
+                digest.update(id.getBytes(StandardCharsets.UTF_8));
+                numbers.clear();
+                numbers.putLong(updateMicros.applyAsLong(id)).putLong(pendingDelta.applyAsInt(id));
+                digest.update(numbers.array());
+            }
+            byte[] hash = digest.digest();
+            String tag = Base64.getUrlEncoder().withoutPadding().encodeToString(hash).substring(0, 22);
+            return new ContentVersion("\"" + tag + "\"", UNKNOWN);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("SHA-256 not available", e);
+        }
+    }
+
+    static long micros(Timestamp timestamp) {
+        return timestamp.getSeconds() * 1_000_000L + timestamp.getNanos() / 1_000;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+}
@@ -1,53 +1,230 @@
 package com.example.bugradar.repository;
 
+import com.example.bugradar.dto.BugSummary;
+import com.example.bugradar.dto.CursorPage;
 import com.example.bugradar.entity.Bug;
+import com.example.bugradar.entity.BugStatus;
 import com.example.bugradar.entity.Tag;
+import com.example.bugradar.search.BugSearchIndex;
+import com.example.bugradar.search.BugTagIndex;
 import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Collectors;
 
 @Repository
-public class FirestoreBugRepository {
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "firestore", matchIfMissing = true)
+public class FirestoreBugRepository implements BugRepository {
+
+    // Câmpurile citite pentru BugSummary (fără description și imageUrl)
+    private static final String[] SUMMARY_FIELDS = {"authorId", "title", "status", "voteCount", "creationDate", "tags"};
 
     private final Firestore firestore;
     private final CollectionReference bugsCollection;
+    private final BugSearchIndex searchIndex;
+    private final BugTagIndex tagIndex;
+    private final VoteCountAggregator voteCounts;
+    private final ShardedVoteCounter shardedCounter;
+    private final BugReplica replica;
 
     @Autowired
-    public FirestoreBugRepository(Firestore firestore) {
+    public FirestoreBugRepository(Firestore firestore, BugSearchIndex searchIndex, BugTagIndex tagIndex,
+                                  VoteCountAggregator voteCounts, ShardedVoteCounter shardedCounter,
+                                  BugReplica replica) {
         this.firestore = firestore;
         this.bugsCollection = firestore.collection("bugs");
+        this.searchIndex = searchIndex;
+        this.tagIndex = tagIndex;
+        this.voteCounts = voteCounts;
+        this.shardedCounter = shardedCounter;
+        this.replica = replica;
+        shardedCounter.onCompacted(VoteCountAggregator.Target.BUG, this::applyToIndexes);
+    }
+
+    /**
+     * Bug-ul din document, cu voturile încă nescrise de write-behind adăugate la voteCount
+     */
+    private Bug toBug(DocumentSnapshot document) {
+        return withPendingVotes(document.toObject(Bug.class));
+    }
+
+    private Bug withPendingVotes(Bug bug) {
+        if (bug != null) {
+            bug.setVoteCount(bug.getVoteCount() + voteCounts.pendingDelta(VoteCountAggregator.Target.BUG, bug.getId()));
+        }
+        return bug;
+    }
+
+    private List<Bug> withPendingVotes(List<Bug> bugs) {
+        bugs.forEach(this::withPendingVotes);
+        return bugs;
     }
 
+    /**
+     * Proiecția pentru liste, din documentul citit cu select(SUMMARY_FIELDS)
+     */
+    private BugSummary toSummary(DocumentSnapshot document) {
+        BugSummary summary = new BugSummary();
+        summary.setId(document.getId());
+        summary.setAuthorId(document.getString("authorId"));
+        summary.setTitle(document.getString("title"));
+        String status = document.getString("status");
+        summary.setStatus(status == null ? null : BugStatus.valueOf(status));
+        Long voteCount = document.getLong("voteCount");
+        summary.setVoteCount((voteCount == null ? 0 : voteCount.intValue())
+                + voteCounts.pendingDelta(VoteCountAggregator.Target.BUG, document.getId()));
+        summary.setCreationDate(document.getString("creationDate"));
+        // Firestore nu poate selecta doar name din elementele unui array, deci tag-urile vin întregi (id + name)
+        if (document.get("tags") instanceof List<?> tags) {
+            for (Object tag : tags) {
+                if (tag instanceof Map<?, ?> fields && fields.get("name") instanceof String name) {
+                    summary.getTagNames().add(name);
+                }
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * Copia care ajunge în replică după scriere: voteCount fără delta încă neconfirmată, ca valoarea din Firestore
+     */
+    private Bug storedCopy(Bug bug) {
+        Bug stored = BugReplica.copy(bug);
+        stored.setVoteCount(bug.getVoteCount() - voteCounts.pendingDelta(VoteCountAggregator.Target.BUG, bug.getId()));
+        return stored;
+    }
+
+    /**
+     * Bug nou: set() pe tot documentul. Bug existent: update() fără voteCount, care se schimbă doar prin incremente
+     * (voturi, flush-ul write-behind, compactarea shard-urilor); un set() cu valoarea citită înainte le-ar pierde.
+     */
+    private ApiFuture<WriteResult> write(Bug stored, boolean created) {
+        DocumentReference docRef = bugsCollection.document(stored.getId());
+        if (created) {
+            return docRef.set(stored);
+        }
+        List<Map<String, Object>> tags = new ArrayList<>();
+        if (stored.getTags() != null) {
+            for (Tag tag : stored.getTags()) {
+                Map<String, Object> fields = new HashMap<>();
+                fields.put("id", tag.getId());
+                fields.put("name", tag.getName());
+                tags.add(fields);
+            }
+        }
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("authorId", stored.getAuthorId());
+        fields.put("title", stored.getTitle());
+        fields.put("description", stored.getDescription());
+        fields.put("creationDate", stored.getCreationDate());
+        fields.put("imageUrl", stored.getImageUrl());
+        fields.put("status", stored.getStatus() == null ? null : stored.getStatus().name());
+        fields.put("tags", tags);
+        return docRef.update(fields);
+    }
+
+    /**
+     * Populăm indexurile (text + tag-uri) dintr-o singură citire la pornire; după asta sunt actualizate din save/deleteById
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpIndexes() {
+        searchIndex.beginRebuild();
+        tagIndex.beginRebuild();
+        try {
+            List<Bug> bugs = findAll();
+            searchIndex.rebuild(bugs);
+            tagIndex.rebuild(bugs);
+        } catch (RuntimeException e) {
+            searchIndex.cancelRebuild();
+            tagIndex.cancelRebuild();
+            System.err.println("Failed to build bug indexes: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Un singur snapshot listener pe toată colecția. Primul apel conține toate documentele existente (ADDED),
+     * următoarele doar modificările; erorile (listener oprit de Firestore) ajung în onError.
+     * Cu replica activă folosim listenerul ei (care se resincronizează singur), nu încă o citire a colecției.
+     */
+    @Override
+    public ChangeRegistration listenForSummaryChanges(Consumer<List<SnapshotChange<BugSummary>>> onChanges,
+                                                        Consumer<RuntimeException> onError) {
+        if (replica.isEnabled()) {
+            return replica.listenForChanges(changes -> {
+                List<SnapshotChange<BugSummary>> summaries = new ArrayList<>(changes.size());
+                for (SnapshotChange<Bug> change : changes) {
+                    summaries.add(new SnapshotChange<>(change.getType(), change.getId(),
+                            change.getValue() == null ? null : BugSummary.from(withPendingVotes(change.getValue()))));
+                }
+                onChanges.accept(summaries);
+            });
+        }
+        ListenerRegistration registration = bugsCollection.addSnapshotListener((snapshot, error) -> {
+            if (error != null) {
+                onError.accept(new RuntimeException("Bug listener failed", error));
+                return;
+            }
+            List<SnapshotChange<BugSummary>> changes = new ArrayList<>(snapshot.getDocumentChanges().size());
+            for (DocumentChange change : snapshot.getDocumentChanges()) {
+                SnapshotChange.Type type = SnapshotChange.typeOf(change);
+                QueryDocumentSnapshot document = change.getDocument();
+                changes.add(new SnapshotChange<>(type, document.getId(),
+                        type == SnapshotChange.Type.REMOVED ? null : toSummary(document)));
+            }
+            onChanges.accept(changes);
+        });
+        return registration::remove;
+    }
+
+    @Override
     public Bug save(Bug bug) {
         try {
             // Dacă bug-ul nu are ID, generăm unul
-            if (bug.getId() == null || bug.getId().isEmpty()) {
-                DocumentReference docRef = bugsCollection.document();
-                bug.setId(docRef.getId());
-                docRef.set(bug).get();
-            } else {
-                bugsCollection.document(bug.getId()).set(bug).get();
+            boolean created = bug.getId() == null || bug.getId().isEmpty();
+            if (created) {
+                bug.setId(bugsCollection.document().getId());
             }
+            Bug stored = storedCopy(bug);
+            WriteResult result = write(stored, created).get();
+            replica.written(stored, result.getUpdateTime(), created);
+            searchIndex.index(bug);
+            tagIndex.index(bug);
             return bug;
         } catch (InterruptedException | ExecutionException e) {
             throw new RuntimeException("Error saving bug", e);
         }
     }
 
+    @Override
     public Optional<Bug> findById(String id) {
+        if (replica.isLive()) {
+            return replica.find(id).map(this::withPendingVotes);
+        }
         try {
             DocumentSnapshot document = bugsCollection.document(id).get().get();
             if (document.exists()) {
-                Bug bug = document.toObject(Bug.class);
+                Bug bug = toBug(document);
                 return Optional.ofNullable(bug);
             } else {
                 return Optional.empty();
@@ -57,13 +234,148 @@ public class FirestoreBugRepository {
         }
     }
 
+    /**
+     * updateTime-ul bug-ului citit cu mască goală (fără câmpuri); Optional gol dacă bug-ul nu există
+     */
+    @Override
+    public CompletableFuture<Optional<ContentVersion>> findVersionAsync(String id) {
+        if (replica.isLive()) {
+            return CompletableFuture.completedFuture(replica.findUpdateMicros(id).map(micros ->
+                    ContentVersion.ofDocument(micros, voteCounts.pendingDelta(VoteCountAggregator.Target.BUG, id))));
+        }
+        DocumentReference[] refs = {bugsCollection.document(id)};
+        return FirestoreFutures.toCompletable(firestore.getAll(refs, FieldMask.of(new FieldPath[0])), "Error finding bug version")
+                .thenApply(documents -> {
+                    DocumentSnapshot document = documents.get(0);
+                    return document.exists()
+                            ? Optional.of(ContentVersion.ofDocument(document,
+                                    voteCounts.pendingDelta(VoteCountAggregator.Target.BUG, id)))
+                            : Optional.empty();
+                });
+    }
+
+    /**
+     * Mai multe bug-uri după ID într-un singur apel (getAll), de ex. părinții unei liste de comentarii.
+     * ID-urile inexistente lipsesc din rezultat.
+     */
+    @Override
+    public Map<String, Bug> findAllByIds(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        if (replica.isLive()) {
+            Map<String, Bug> bugs = new LinkedHashMap<>();
+            for (String id : ids) {
+                replica.find(id).ifPresent(bug -> bugs.put(id, withPendingVotes(bug)));
+            }
+            return bugs;
+        }
+        try {
+            DocumentReference[] refs = ids.stream().distinct().map(bugsCollection::document).toArray(DocumentReference[]::new);
+            Map<String, Bug> bugs = new LinkedHashMap<>();
+            for (DocumentSnapshot document : firestore.getAll(refs).get()) {
+                if (document.exists()) {
+                    bugs.put(document.getId(), toBug(document));
+                }
+            }
+            return bugs;
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Error finding bugs by ids", e);
+        }
+    }
+
+    /**
+     * Variantă non-blocantă a lui save: indexurile sunt actualizate după ce scrierea a reușit
+     */
+    @Override
+    public CompletableFuture<Bug> saveAsync(Bug bug) {
+        boolean created = bug.getId() == null || bug.getId().isEmpty();
+        if (created) {
+            bug.setId(bugsCollection.document().getId());
+        }
+        Bug stored = storedCopy(bug);
+        return FirestoreFutures.toCompletable(write(stored, created), "Error saving bug")
+                .thenApply(result -> {
+                    replica.written(stored, result.getUpdateTime(), created);
+                    searchIndex.index(bug);
+                    tagIndex.index(bug);
+                    return bug;
+                });
+    }
+
+    @Override
+    public CompletableFuture<Optional<Bug>> findByIdAsync(String id) {
+        if (replica.isLive()) {
+            return CompletableFuture.completedFuture(findById(id));
+        }
+        return FirestoreFutures.toCompletable(bugsCollection.document(id).get(), "Error finding bug")
+                .thenApply(document -> document.exists()
+                        ? Optional.ofNullable(toBug(document))
+                        : Optional.empty());
+    }
+
+    /**
+     * Bug-ul și ETag-ul lui din același document citit (același ETag ca findVersionAsync)
+     */
+    @Override
+    public CompletableFuture<Optional<VersionedContent<Bug>>> findVersionedByIdAsync(String id) {
+        if (replica.isLive()) {
+            Map<String, Long> updateMicros = new HashMap<>();
+            return CompletableFuture.completedFuture(replica.find(id, updateMicros).map(bug -> new VersionedContent<>(
+                    withPendingVotes(bug), ContentVersion.ofDocument(updateMicros.get(id),
+                            voteCounts.pendingDelta(VoteCountAggregator.Target.BUG, id)))));
+        }
+        return FirestoreFutures.toCompletable(bugsCollection.document(id).get(), "Error finding bug")
+                .thenApply(document -> document.exists()
+                        ? Optional.of(new VersionedContent<>(toBug(document), ContentVersion.ofDocument(document,
+                                voteCounts.pendingDelta(VoteCountAggregator.Target.BUG, id))))
+                        : Optional.empty());
+    }
+
+    /**
+     * Adaugă în batch incrementul atomic pe voteCount (fără citire; eșuează batch-ul dacă bug-ul nu mai există)
+     */
+    void stageVoteCountIncrement(UpdateBuilder<?> batch, String bugId, int delta) {
+        if (shardedCounter.isEnabled()) {
+            // Shard ales după rata de scriere a bug-ului; voteCount e actualizat la compactare
+            shardedCounter.stageIncrement(batch, VoteCountAggregator.Target.BUG, bugId, delta);
+            return;
+        }
+        batch.update(bugsCollection.document(bugId), "voteCount", FieldValue.increment(delta));
+    }
+
+    /**
+     * Aduce indexurile la zi după un increment aplicat direct în Firestore (nu avem documentul complet).
+     * Cu shard-uri, incrementul ajunge în voteCount abia la compactare; indexul îl primește atunci (indexCompacted).
+     */
+    void onVoteCountIncremented(String bugId, int delta) {
+        if (shardedCounter.isEnabled() && !voteCounts.isEnabled()) {
+            return;
+        }
+        applyToIndexes(bugId, delta);
+    }
+
+    private void applyToIndexes(String bugId, long delta) {
+        searchIndex.find(bugId).ifPresent(indexed -> {
+            Bug updated = new Bug(indexed.getId(), indexed.getAuthorId(), indexed.getTitle(), indexed.getDescription(),
+                    indexed.getCreationDate(), indexed.getImageUrl(), indexed.getStatus(), indexed.getTags(),
+                    indexed.getVoteCount() + (int) delta);
+            searchIndex.index(updated);
+            tagIndex.index(updated);
+        });
+    }
+
+    @Override
     public List<Bug> findAll() {
+        if (replica.isLive()) {
+            return withPendingVotes(replica.findAll());
+        }
         try {
             ApiFuture<QuerySnapshot> future = bugsCollection.get();
             List<QueryDocumentSnapshot> documents = future.get().getDocuments();
             List<Bug> bugs = new ArrayList<>();
             for (QueryDocumentSnapshot document : documents) {
-                Bug bug = document.toObject(Bug.class);
+                Bug bug = toBug(document);
                 bugs.add(bug);
             }
             return bugs;
@@ -72,7 +384,11 @@ public class FirestoreBugRepository {
         }
     }
 
+    @Override
     public List<Bug> findAllByOrderByCreationDateDesc() {
+        if (replica.isLive()) {
+            return withPendingVotes(replica.findAllByCreationDesc());
+        }
         List<Bug> bugs = findAll();
         // Folosim getCreationDate (generat de Lombok), nu getCreationDateTime
         Collections.sort(bugs, (bug1, bug2) -> {
@@ -87,21 +403,192 @@ public class FirestoreBugRepository {
         return bugs;
     }
 
+    /**
+     * Feed paginat după creationDate descrescător (keyset pagination), doar cu câmpurile din BugSummary.
+     * Sortarea și startAfter se fac în Firestore, deci o pagină costă mereu cel mult size + 1 citiri.
+     * Bug-urile fără creationDate nu apar în feed (la fel în replică și în JDBC); BugService o setează mereu.
+     */
+    @Override
+    public CursorPage<BugSummary> findSummaryPageByCreationDateDesc(int size, String cursor) {
+        return findVersionedSummaryPageByCreationDateDesc(size, cursor).getValue();
+    }
+
+    /**
+     * Pagina din feed și ETag-ul ei din aceleași size + 1 documente; fără câmpuri în plus față de pagina simplă,
+     * updateTime-ul vine oricum cu fiecare document
+     */
+    @Override
+    public VersionedContent<CursorPage<BugSummary>> findVersionedSummaryPageByCreationDateDesc(int size, String cursor) {
+        if (replica.isLive()) {
+            String[] after = cursor == null || cursor.isBlank() ? new String[2] : PageCursor.decode(cursor, 2);
+            Map<String, Long> updateMicros = new HashMap<>();
+            List<Bug> bugs = replica.pageByCreationDesc(after[0], after[1], size + 1, updateMicros);
+            List<String> ids = bugs.stream().map(Bug::getId).collect(Collectors.toList());
+            return new VersionedContent<>(
+                    summaryPage(bugs, size, last -> PageCursor.encode(last.getCreationDate(), last.getId())),
+                    ContentVersion.ofDocuments(ids, updateMicros::get,
+                            id -> voteCounts.pendingDelta(VoteCountAggregator.Target.BUG, id)));
+        }
+        try {
+            Query query = feedQuery(size, cursor).select(SUMMARY_FIELDS);
+            List<QueryDocumentSnapshot> documents = query.get().get().getDocuments();
+            List<BugSummary> bugs = new ArrayList<>();
+            for (int i = 0; i < Math.min(size, documents.size()); i++) {
+                bugs.add(toSummary(documents.get(i)));
+            }
+
+            String next = null;
+            if (documents.size() > size) {
+                BugSummary last = bugs.get(bugs.size() - 1);
+                next = PageCursor.encode(last.getCreationDate(), last.getId());
+            }
+            return new VersionedContent<>(new CursorPage<>(bugs, next),
+                    ContentVersion.ofDocuments(documents, id -> voteCounts.pendingDelta(VoteCountAggregator.Target.BUG, id)));
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Error finding bugs page", e);
+        }
+    }
+
+    /**
+     * Versiunea aceleiași pagini din feed, citind doar ID-urile și updateTime-urile (fără câmpuri)
+     */
+    @Override
+    public ContentVersion findFeedPageVersion(int size, String cursor) {
+        if (replica.isLive()) {
+            String[] after = cursor == null || cursor.isBlank() ? new String[2] : PageCursor.decode(cursor, 2);
+            Map<String, Long> updateMicros = new HashMap<>();
+            List<String> ids = replica.pageByCreationDesc(after[0], after[1], size + 1, updateMicros).stream()
+                    .map(Bug::getId).collect(Collectors.toList());
+            return ContentVersion.ofDocuments(ids, updateMicros::get,
+                    id -> voteCounts.pendingDelta(VoteCountAggregator.Target.BUG, id));
+        }
+        try {
+            List<QueryDocumentSnapshot> documents = feedQuery(size, cursor).select(FieldPath.documentId())
+                    .get().get().getDocuments();
+            return ContentVersion.ofDocuments(documents, id -> voteCounts.pendingDelta(VoteCountAggregator.Target.BUG, id));
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Error finding bugs page version", e);
+        }
+    }
+
+    /**
+     * Cele mai votate bug-uri (voteCount desc, apoi ID desc), paginat cu cursor.
+     * Ordinea folosește voteCount-ul stocat; delta write-behind încă nescrisă apare doar în valori.
+     */
+    @Override
+    public CursorPage<BugSummary> findSummaryPageByVoteCountDesc(int size, String cursor) {
+        String[] after = cursor == null || cursor.isBlank() ? null : PageCursor.decode(cursor, 2);
+        int afterVoteCount = 0;
+        if (after != null) {
+            try {
+                afterVoteCount = Integer.parseInt(after[0]);
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Invalid page cursor", e);
+            }
+        }
+        if (replica.isLive()) {
+            List<Bug> bugs = after == null
+                    ? replica.pageByVotesDesc(null, null, size + 1)
+                    : replica.pageByVotesDesc(afterVoteCount, after[1], size + 1);
+            return summaryPage(bugs, size, last -> PageCursor.encode(String.valueOf(last.getVoteCount()), last.getId()));
+        }
+        try {
+            Query query = bugsCollection
+                    .orderBy("voteCount", Query.Direction.DESCENDING)
+                    .orderBy(FieldPath.documentId(), Query.Direction.DESCENDING)
+                    .select(SUMMARY_FIELDS)
+                    .limit(size + 1);
+            if (after != null) {
+                query = query.startAfter((long) afterVoteCount, after[1]);
+            }
+            List<QueryDocumentSnapshot> documents = query.get().get().getDocuments();
+            List<BugSummary> bugs = new ArrayList<>();
+            String next = null;
+            for (int i = 0; i < Math.min(size, documents.size()); i++) {
+                bugs.add(toSummary(documents.get(i)));
+            }
+            if (documents.size() > size) {
+                QueryDocumentSnapshot last = documents.get(size - 1);
+                Long voteCount = last.getLong("voteCount");
+                next = PageCursor.encode(String.valueOf(voteCount == null ? 0 : voteCount), last.getId());
+            }
+            return new CursorPage<>(bugs, next);
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Error finding top bugs page", e);
+        }
+    }
+
+    /**
+     * Pagina de sumar din size + 1 bug-uri citite din replică; cursorul folosește valorile stocate, fără delta
+     */
+    private CursorPage<BugSummary> summaryPage(List<Bug> bugs, int size, Function<Bug, String> cursorOf) {
+        List<BugSummary> summaries = new ArrayList<>(Math.min(size, bugs.size()));
+        for (int i = 0; i < Math.min(size, bugs.size()); i++) {
+            Bug bug = bugs.get(i);
+            BugSummary summary = BugSummary.from(bug);
+            summary.setVoteCount(bug.getVoteCount() + voteCounts.pendingDelta(VoteCountAggregator.Target.BUG, bug.getId()));
+            summaries.add(summary);
+        }
+        String next = bugs.size() > size ? cursorOf.apply(bugs.get(size - 1)) : null;
+        return new CursorPage<>(summaries, next);
+    }
+
+    private Query feedQuery(int size, String cursor) {
+        // Filtrul exclude explicit și creationDate null (orderBy singur exclude doar câmpul lipsă),
+        // ca ultimul bug dintr-o pagină să aibă mereu o valoare de pus în cursor
+        Query query = bugsCollection
+                .whereGreaterThan("creationDate", "")
+                .orderBy("creationDate", Query.Direction.DESCENDING)
+                .orderBy(FieldPath.documentId(), Query.Direction.DESCENDING)
+                .limit(size + 1); // un document în plus ca să știm dacă mai există o pagină
+
+        if (cursor != null && !cursor.isBlank()) {
+            String[] values = PageCursor.decode(cursor, 2);
+            query = query.startAfter(values[0], values[1]);
+        }
+        return query;
+    }
+
+    /**
+     * Parcurge doar autorul și voteCount-ul fiecărui bug (select), pagină cu pagină
+     */
+    @Override
+    public long forEachAuthorVoteCount(ObjIntConsumer<String> consumer) {
+        if (replica.isLive()) {
+            // voteCount stocat, ca scanarea din Firestore
+            List<Bug> bugs = replica.findAll();
+            bugs.forEach(bug -> consumer.accept(bug.getAuthorId(), bug.getVoteCount()));
+            return bugs.size();
+        }
+        return FirestoreScan.forEach(bugsCollection.select("authorId", "voteCount"), "Error scanning bug vote counts", document -> {
+            Long voteCount = document.getLong("voteCount");
+            consumer.accept(document.getString("authorId"), voteCount == null ? 0 : voteCount.intValue());
+        });
+    }
+
+    @Override
     public void deleteById(String id) {
         try {
-            bugsCollection.document(id).delete().get();
+            WriteResult result = bugsCollection.document(id).delete().get();
+            replica.deleted(id, result.getUpdateTime());
+            searchIndex.remove(id);
+            tagIndex.remove(id);
         } catch (InterruptedException | ExecutionException e) {
             throw new RuntimeException("Error deleting bug", e);
         }
     }
 
+    @Override
     public List<Bug> findByAuthorId(String authorId) {
+        if (replica.isLive()) {
+            return withPendingVotes(replica.findByAuthorId(authorId));
+        }
         try {
             ApiFuture<QuerySnapshot> future = bugsCollection.whereEqualTo("authorId", authorId).get();
             List<QueryDocumentSnapshot> documents = future.get().getDocuments();
             List<Bug> bugs = new ArrayList<>();
             for (QueryDocumentSnapshot document : documents) {
-                Bug bug = document.toObject(Bug.class);
+                Bug bug = toBug(document);
                 bugs.add(bug);
             }
             return bugs;
@@ -110,14 +597,37 @@ public class FirestoreBugRepository {
         }
     }
 
+    @Override
+    public List<BugSummary> findSummariesByAuthorId(String authorId) {
+        if (replica.isLive()) {
+            return findByAuthorId(authorId).stream().map(BugSummary::from).collect(Collectors.toList());
+        }
+        try {
+            ApiFuture<QuerySnapshot> future = bugsCollection.whereEqualTo("authorId", authorId).select(SUMMARY_FIELDS).get();
+            List<QueryDocumentSnapshot> documents = future.get().getDocuments();
+            List<BugSummary> bugs = new ArrayList<>(documents.size());
+            for (QueryDocumentSnapshot document : documents) {
+                bugs.add(toSummary(document));
+            }
+            return bugs;
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Error finding bugs by author", e);
+        }
+    }
+
+    @Override
     public List<Bug> findByTitleContainingIgnoreCase(String text) {
+        if (replica.isLive()) {
+            String needle = text.toLowerCase();
+            return withPendingVotes(replica.filter(bug -> bug.getTitle() != null && bug.getTitle().toLowerCase().contains(needle)));
+        }
         try {
             // Firestore nu are operații de căutare text direct, așa că facem o căutare simplificată
             ApiFuture<QuerySnapshot> future = bugsCollection.get();
             List<QueryDocumentSnapshot> documents = future.get().getDocuments();
             List<Bug> bugs = new ArrayList<>();
             for (QueryDocumentSnapshot document : documents) {
-                Bug bug = document.toObject(Bug.class);
+                Bug bug = toBug(document);
                 if (bug.getTitle().toLowerCase().contains(text.toLowerCase())) {
                     bugs.add(bug);
                 }
@@ -128,7 +638,23 @@ public class FirestoreBugRepository {
         }
     }
 
+    /**
+     * Căutare full-text (titlu + descriere) servită din indexul în memorie, ordonată după relevanță.
+     * Până când indexul e construit, cădem pe scanarea veche după titlu.
+     */
+    @Override
+    public List<Bug> searchByText(String text, int limit) {
+        if (searchIndex.isReady()) {
+            return searchIndex.search(text, limit);
+        }
+        return findByTitleContainingIgnoreCase(text).stream().limit(limit).toList();
+    }
+
+    @Override
     public List<Bug> findByTagsContaining(Tag tag) {
+        if (tagIndex.isReady()) {
+            return tagIndex.query(List.of(tag.getId()), null, null);
+        }
         try {
             // În Firestore, căutarea într-o colecție de obiecte e mai complexă
             List<Bug> allBugs = findAll();
@@ -143,4 +669,28 @@ public class FirestoreBugRepository {
             throw new RuntimeException("Error finding bugs by tag", e);
         }
     }
+
+    /**
+     * Filtrare combinată pe tag-uri (AND / OR / NOT) din indexul de bitmap-uri.
+     * Până când indexul e construit, aplicăm aceleași reguli peste findAll().
+     */
+    @Override
+    public List<Bug> findByTags(Collection<String> allOf, Collection<String> anyOf, Collection<String> noneOf) {
+        if (tagIndex.isReady()) {
+            return tagIndex.query(allOf, anyOf, noneOf);
+        }
+        List<Bug> result = new ArrayList<>();
+        for (Bug bug : findAllByOrderByCreationDateDesc()) {
+            Set<String> tagIds = bug.getTags() == null ? Set.of() : bug.getTags().stream()
+                    .map(Tag::getId)
+                    .collect(Collectors.toSet());
+            boolean matches = (allOf == null || tagIds.containsAll(allOf))
+                    && (anyOf == null || anyOf.isEmpty() || anyOf.stream().anyMatch(tagIds::contains))
+                    && (noneOf == null || noneOf.stream().noneMatch(tagIds::contains));
+            if (matches) {
+                result.add(bug);
+            }
+        }
+        return result;
+    }
 }
\ No newline at end of file
@@ -1,68 +1,167 @@
 package com.example.bugradar.repository;
 
 
+import com.example.bugradar.dto.CursorPage;
 import com.example.bugradar.entity.Comment;
 import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
 import com.google.cloud.firestore.*;
+import com.google.common.util.concurrent.MoreExecutors;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
 
 @Repository
-public class FirestoreCommentRepository {
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "firestore", matchIfMissing = true)
+public class FirestoreCommentRepository implements CommentRepository {
 
     private final Firestore firestore;
     private final CollectionReference commentsCollection;
+    private final VoteCountAggregator voteCounts;
+    private final ShardedVoteCounter shardedCounter;
 
     @Autowired
-    public FirestoreCommentRepository(Firestore firestore) {
+    public FirestoreCommentRepository(Firestore firestore, VoteCountAggregator voteCounts,
+                                      ShardedVoteCounter shardedCounter) {
         this.firestore = firestore;
         this.commentsCollection = firestore.collection("comments");
+        this.voteCounts = voteCounts;
+        this.shardedCounter = shardedCounter;
     }
 
-    public Comment save(Comment comment) {
-        try {
-            // Salvăm creationDate ca string
-            if (comment.getCreationDate() != null) {
-                comment.setCreationDateString(comment.getCreationDate().toString());
-            }
+    /**
+     * Comentariul din document, cu voturile încă nescrise de write-behind adăugate la voteCount
+     */
+    private Comment toComment(DocumentSnapshot document) {
+        Comment comment = document.toObject(Comment.class);
+        if (comment != null) {
+            comment.setVoteCount(comment.getVoteCount()
+                    + voteCounts.pendingDelta(VoteCountAggregator.Target.COMMENT, comment.getId()));
+        }
+        return comment;
+    }
 
-            // Setăm explicit bugId din obiectul bug
-            if (comment.getBug() != null && comment.getBug().getId() != null) {
-                comment.setBugId(comment.getBug().getId());
-            }
+    /**
+     * Un singur snapshot listener pe comentariile create din createdSince; cele mai vechi nu sunt citite deloc
+     */
+    @Override
+    public ChangeRegistration listenForChanges(LocalDateTime createdSince,
+                                                 Consumer<List<SnapshotChange<Comment>>> onChanges,
+                                                 Consumer<RuntimeException> onError) {
+        // creationDate e LocalDateTime.toString() (CommentService), deci comparația pe string urmează timpul
+        return listen(commentsCollection.whereGreaterThanOrEqualTo("creationDate", createdSince.toString()),
+                onChanges, onError);
+    }
 
-            // Dacă comentariul nu are ID, generăm unul
-            if (comment.getId() == null || comment.getId().isEmpty()) {
-                DocumentReference docRef = commentsCollection.document();
-                comment.setId(docRef.getId());
-                docRef.set(comment).get();
-            } else {
-                commentsCollection.document(comment.getId()).set(comment).get();
+    /**
+     * Un listener pe thread-ul unui bug; primul snapshot citește tot thread-ul, nu toată colecția
+     */
+    @Override
+    public ChangeRegistration listenForThreadChanges(String bugId,
+                                                       Consumer<List<SnapshotChange<Comment>>> onChanges,
+                                                       Consumer<RuntimeException> onError) {
+        return listen(commentsCollection.whereEqualTo("bugId", bugId), onChanges, onError);
+    }
+
+    private ChangeRegistration listen(Query query, Consumer<List<SnapshotChange<Comment>>> onChanges,
+                                      Consumer<RuntimeException> onError) {
+        ListenerRegistration registration = query.addSnapshotListener((snapshot, error) -> {
+            if (error != null) {
+                onError.accept(new RuntimeException("Comment listener failed", error));
+                return;
+            }
+            List<SnapshotChange<Comment>> changes = new ArrayList<>(snapshot.getDocumentChanges().size());
+            for (DocumentChange change : snapshot.getDocumentChanges()) {
+                SnapshotChange.Type type = SnapshotChange.typeOf(change);
+                QueryDocumentSnapshot document = change.getDocument();
+                changes.add(new SnapshotChange<>(type, document.getId(),
+                        type == SnapshotChange.Type.REMOVED ? null : toComment(document)));
             }
+            onChanges.accept(changes);
+        });
+        return registration::remove;
+    }
+
+    /**
+     * Comentariu nou: set() pe tot documentul. Comentariu existent: update() fără voteCount, care se schimbă doar
+     * prin incremente (ca în FirestoreBugRepository.write)
+     */
+    private ApiFuture<WriteResult> write(DocumentReference docRef, Comment comment, boolean created) {
+        if (created) {
+            return docRef.set(comment);
+        }
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("bugId", comment.getBugId());
+        fields.put("authorId", comment.getAuthorId());
+        fields.put("text", comment.getText());
+        fields.put("imageUrl", comment.getImageUrl());
+        fields.put("creationDate", comment.getCreationDate());
+        fields.put("creationDateString", comment.getCreationDateString());
+        return docRef.update(fields);
+    }
+
+    @Override
+    public Comment save(Comment comment) {
+        try {
+            boolean created = isNew(comment);
+            write(documentFor(comment), comment, created).get();
             return comment;
         } catch (InterruptedException | ExecutionException e) {
             throw new RuntimeException("Error saving comment", e);
         }
     }
 
+    @Override
+    public CompletableFuture<Comment> saveAsync(Comment comment) {
+        boolean created = isNew(comment);
+        return FirestoreFutures.toCompletable(write(documentFor(comment), comment, created), "Error saving comment")
+                .thenApply(result -> comment);
+    }
+
+    private static boolean isNew(Comment comment) {
+        return comment.getId() == null || comment.getId().isEmpty();
+    }
+
+    private DocumentReference documentFor(Comment comment) {
+        // Dacă comentariul nu are ID, generăm unul
+        if (comment.getId() == null || comment.getId().isEmpty()) {
+            DocumentReference docRef = commentsCollection.document();
+            comment.setId(docRef.getId());
+            return docRef;
+        }
+        return commentsCollection.document(comment.getId());
+    }
+
+    void stageVoteCountIncrement(UpdateBuilder<?> batch, String commentId, int delta) {
+        if (shardedCounter.isEnabled()) {
+            // Shard ales după rata de scriere a comentariului; voteCount e actualizat la compactare
+            shardedCounter.stageIncrement(batch, VoteCountAggregator.Target.COMMENT, commentId, delta);
+            return;
+        }
+        batch.update(commentsCollection.document(commentId), "voteCount", FieldValue.increment(delta));
+    }
+
+    @Override
     public Optional<Comment> findById(String id) {
         try {
             DocumentSnapshot document = commentsCollection.document(id).get().get();
             if (document.exists()) {
-                Comment comment = document.toObject(Comment.class);
-                // Convertim creationDateString înapoi la LocalDateTime
-                if (comment != null && comment.getCreationDateString() != null) {
-                    comment.setCreationDate(LocalDateTime.parse(comment.getCreationDateString()).toString());
-                }
-                return Optional.ofNullable(comment);
+                return Optional.ofNullable(toComment(document));
             } else {
                 return Optional.empty();
             }
@@ -71,18 +170,47 @@ public class FirestoreCommentRepository {
         }
     }
 
+    @Override
+    public CompletableFuture<Optional<Comment>> findByIdAsync(String id) {
+        return FirestoreFutures.toCompletable(commentsCollection.document(id).get(), "Error finding comment")
+                .thenApply(document -> {
+                    if (!document.exists()) {
+                        return Optional.empty();
+                    }
+                    return Optional.ofNullable(toComment(document));
+                });
+    }
+
+    /**
+     * Mai multe comentarii după ID într-un singur apel (getAll); ID-urile inexistente lipsesc din rezultat
+     */
+    @Override
+    public Map<String, Comment> findAllByIds(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            DocumentReference[] refs = ids.stream().distinct().map(commentsCollection::document).toArray(DocumentReference[]::new);
+            Map<String, Comment> comments = new LinkedHashMap<>();
+            for (DocumentSnapshot document : firestore.getAll(refs).get()) {
+                if (document.exists()) {
+                    comments.put(document.getId(), toComment(document));
+                }
+            }
+            return comments;
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Error finding comments by ids", e);
+        }
+    }
+
+    @Override
     public List<Comment> findAll() {
         try {
             ApiFuture<QuerySnapshot> future = commentsCollection.get();
             List<QueryDocumentSnapshot> documents = future.get().getDocuments();
             List<Comment> comments = new ArrayList<>();
             for (QueryDocumentSnapshot document : documents) {
-                Comment comment = document.toObject(Comment.class);
-                // Convertim creationDateString înapoi la LocalDateTime
-                if (comment.getCreationDateString() != null) {
-                    comment.setCreationDate(LocalDateTime.parse(comment.getCreationDateString()).toString());
-                }
-                comments.add(comment);
+                comments.add(toComment(document));
             }
             return comments;
         } catch (InterruptedException | ExecutionException e) {
@@ -90,6 +218,61 @@ public class FirestoreCommentRepository {
         }
     }
 
+    /**
+     * Parcurge doar autorul și voteCount-ul fiecărui comentariu (select), pagină cu pagină
+     */
+    @Override
+    public long forEachAuthorVoteCount(ObjIntConsumer<String> consumer) {
+        return FirestoreScan.forEach(commentsCollection.select("authorId", "voteCount"), "Error scanning comment vote counts", document -> {
+            Long voteCount = document.getLong("voteCount");
+            consumer.accept(document.getString("authorId"), voteCount == null ? 0 : voteCount.intValue());
+        });
+    }
+
+    /**
+     * Șterge copia bug-ului ("bug") din comentariile vechi, în flux: citim doar bugId și bug.id, pagină cu pagină,
+     * iar update-urile merg prin BulkWriter. Dacă lipsește bugId, îl completăm din copie.
+     */
+    @Override
+    public Map<String, Long> stripEmbeddedBugs() {
+        BulkWriter writer = firestore.bulkWriter();
+        AtomicLong stripped = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        long scanned = FirestoreScan.forEach(commentsCollection.select("bugId", "bug.id"), "Error scanning comments", document -> {
+            if (!document.contains("bug")) {
+                return;
+            }
+            Map<String, Object> update = new HashMap<>();
+            update.put("bug", FieldValue.delete());
+            if (document.getString("bugId") == null && document.getString("bug.id") != null) {
+                update.put("bugId", document.getString("bug.id"));
+            }
+            ApiFutures.addCallback(writer.update(document.getReference(), update), new ApiFutureCallback<>() {
+                @Override
+                public void onFailure(Throwable error) {
+                    failed.incrementAndGet();
+                    System.err.println("Failed to strip bug from comment " + document.getId() + ": " + error.getMessage());
+                }
+
+                @Override
+                public void onSuccess(WriteResult result) {
+                    stripped.incrementAndGet();
+                }
+            }, MoreExecutors.directExecutor());
+        });
+        try {
+            writer.close(); // așteaptă toate scrierile
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Error stripping embedded bugs", e);
+        }
+        Map<String, Long> report = new LinkedHashMap<>();
+        report.put("scanned", scanned);
+        report.put("stripped", stripped.get());
+        report.put("failed", failed.get());
+        return report;
+    }
+
+    @Override
     public void deleteById(String id) {
         try {
             commentsCollection.document(id).delete().get();
@@ -98,39 +281,100 @@ public class FirestoreCommentRepository {
         }
     }
 
-    public List<Comment> findByBugIdOrderByVoteCountDesc(String bugId) {
+    /**
+     * Comentariile unui bug, cele mai votate primele (la egalitate cele mai vechi), paginat cu cursor.
+     * Sortarea și startAfter se fac în Firestore, deci o pagină costă cel mult size + 1 citiri indiferent
+     * de lungimea discuției. Necesită indexul compus din firestore.indexes.json.
+     */
+    @Override
+    public CursorPage<Comment> findPageByBugId(String bugId, int size, String cursor) {
         try {
-            ApiFuture<QuerySnapshot> future = commentsCollection.whereEqualTo("bugId", bugId).get();
-            List<QueryDocumentSnapshot> documents = future.get().getDocuments();
-            List<Comment> comments = new ArrayList<>();
-            for (QueryDocumentSnapshot document : documents) {
-                Comment comment = document.toObject(Comment.class);
-                // Convertim creationDateString înapoi la LocalDateTime
-                if (comment.getCreationDateString() != null) {
-                    comment.setCreationDate(LocalDateTime.parse(comment.getCreationDateString()).toString());
-                }
-                comments.add(comment);
-            }
-            return comments.stream()
-                    .sorted(Comparator.comparing(Comment::getVoteCount).reversed())
-                    .collect(Collectors.toList());
+            return toPage(pageQuery(bugId, size, cursor).get().get().getDocuments(), size);
         } catch (InterruptedException | ExecutionException e) {
             throw new RuntimeException("Error finding comments by bug id", e);
         }
     }
 
+    @Override
+    public CompletableFuture<CursorPage<Comment>> findPageByBugIdAsync(String bugId, int size, String cursor) {
+        return FirestoreFutures.toCompletable(pageQuery(bugId, size, cursor).get(), "Error finding comments by bug id")
+                .thenApply(snapshot -> toPage(snapshot.getDocuments(), size));
+    }
+
+    /**
+     * Pagina și ETag-ul ei din aceleași size + 1 documente
+     */
+    @Override
+    public VersionedContent<CursorPage<Comment>> findVersionedPageByBugId(String bugId, int size, String cursor) {
+        try {
+            List<QueryDocumentSnapshot> documents = pageQuery(bugId, size, cursor).get().get().getDocuments();
+            return new VersionedContent<>(toPage(documents, size),
+                    ContentVersion.ofDocuments(documents, id -> voteCounts.pendingDelta(VoteCountAggregator.Target.COMMENT, id)));
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Error finding comments by bug id", e);
+        }
+    }
+
+    /**
+     * Versiunea aceleiași pagini de comentarii, citind doar ID-urile și updateTime-urile (fără câmpuri)
+     */
+    @Override
+    public ContentVersion findPageVersionByBugId(String bugId, int size, String cursor) {
+        try {
+            List<QueryDocumentSnapshot> documents = pageQuery(bugId, size, cursor).select(FieldPath.documentId())
+                    .get().get().getDocuments();
+            return ContentVersion.ofDocuments(documents, id -> voteCounts.pendingDelta(VoteCountAggregator.Target.COMMENT, id));
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Error finding comments page version", e);
+        }
+    }
+
+    private Query pageQuery(String bugId, int size, String cursor) {
+        Query query = commentsCollection
+                .whereEqualTo("bugId", bugId)
+                .orderBy("voteCount", Query.Direction.DESCENDING)
+                .orderBy("creationDate", Query.Direction.ASCENDING)
+                .orderBy(FieldPath.documentId(), Query.Direction.ASCENDING)
+                .limit(size + 1); // un document în plus ca să știm dacă mai există o pagină
+
+        if (cursor != null && !cursor.isBlank()) {
+            String[] values = PageCursor.decode(cursor, 3);
+            try {
+                query = query.startAfter(Long.parseLong(values[0]), PageCursor.fromNullable(values[1]), values[2]);
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Invalid page cursor", e);
+            }
+        }
+        return query;
+    }
+
+    private CursorPage<Comment> toPage(List<QueryDocumentSnapshot> documents, int size) {
+        int count = Math.min(size, documents.size());
+        List<Comment> comments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            comments.add(toComment(documents.get(i)));
+        }
+
+        String next = null;
+        if (documents.size() > size) {
+            // Valorile stocate, nu voteCount-ul cu delta write-behind adăugată: cursorul trebuie să urmeze indexul.
+            // orderBy exclude doar câmpul lipsă; un creationDate null explicit rămâne în rezultat, primul între egali
+            QueryDocumentSnapshot last = documents.get(count - 1);
+            Long voteCount = last.getLong("voteCount");
+            next = PageCursor.encode(String.valueOf(voteCount == null ? 0 : voteCount),
+                    PageCursor.nullable(last.getString("creationDate")), last.getId());
+        }
+        return new CursorPage<>(comments, next);
+    }
+
+    @Override
     public List<Comment> findByAuthorId(String authorId) {
         try {
             ApiFuture<QuerySnapshot> future = commentsCollection.whereEqualTo("authorId", authorId).get();
             List<QueryDocumentSnapshot> documents = future.get().getDocuments();
             List<Comment> comments = new ArrayList<>();
             for (QueryDocumentSnapshot document : documents) {
-                Comment comment = document.toObject(Comment.class);
-                // Convertim creationDateString înapoi la LocalDateTime
-                if (comment.getCreationDateString() != null) {
-                    comment.setCreationDate(LocalDateTime.parse(comment.getCreationDateString()).toString());
-                }
-                comments.add(comment);
+                comments.add(toComment(document));
             }
             return comments;
         } catch (InterruptedException | ExecutionException e) {
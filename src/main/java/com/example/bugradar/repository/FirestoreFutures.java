@@ -0,0 +1,37 @@
+package com.example.bugradar.repository;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Transformă ApiFuture-urile Firestore în CompletableFuture fără să blocheze thread-ul apelant.
+ * Callback-ul rulează direct pe thread-ul clientului Firestore, deci etapele compuse după el trebuie să fie scurte.
+ */
+final class FirestoreFutures {
+
+    private FirestoreFutures() {
+    }
+
+    /**
+     * Erorile sunt împachetate ca RuntimeException(message, cauza), la fel ca în variantele sincrone
+     */
+    static <T> CompletableFuture<T> toCompletable(ApiFuture<T> apiFuture, String errorMessage) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        ApiFutures.addCallback(apiFuture, new ApiFutureCallback<T>() {
+            @Override
+            public void onSuccess(T value) {
+                result.complete(value);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                result.completeExceptionally(new RuntimeException(errorMessage, t));
+            }
+        }, MoreExecutors.directExecutor());
+        return result;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.bugradar.repository;
+
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Parcurge rezultatul unui query pagină cu pagină (ordonat după ID), ca o colecție mare să nu fie ținută în memorie.
+ * Query-ul primit poate avea select(...) / where(...), dar nu orderBy sau limit.
+ */
+final class FirestoreScan {
+
+    static final int PAGE_SIZE = 1000;
+
+    private FirestoreScan() {
+    }
+
+    static long forEach(Query query, String errorMessage, Consumer<QueryDocumentSnapshot> consumer) {
+        try {
+            long count = 0;
+            Query ordered = query.orderBy(FieldPath.documentId());
+            QueryDocumentSnapshot last = null;
+            while (true) {
+                Query page = last == null ? ordered.limit(PAGE_SIZE) : ordered.startAfter(last).limit(PAGE_SIZE);
+                List<QueryDocumentSnapshot> documents = page.get().get().getDocuments();
+                for (QueryDocumentSnapshot document : documents) {
+                    consumer.accept(document);
+                }
+                count += documents.size();
+                if (documents.size() < PAGE_SIZE) {
+                    return count;
+                }
+                last = documents.get(documents.size() - 1);
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException(errorMessage, e);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.example.bugradar.entity.Tag;
 import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
@@ -12,7 +13,8 @@ import java.util.Optional;
 import java.util.concurrent.ExecutionException;
 
 @Repository
-public class FirestoreTagRepository {
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "firestore", matchIfMissing = true)
+public class FirestoreTagRepository implements TagRepository {
 
     private final Firestore firestore;
     private final CollectionReference tagsCollection;
@@ -23,6 +25,7 @@ public class FirestoreTagRepository {
         this.tagsCollection = firestore.collection("tags");
     }
 
+    @Override
     public Tag save(Tag tag) {
         try {
             // Dacă tag-ul nu are ID, generăm unul
@@ -39,6 +42,7 @@ public class FirestoreTagRepository {
         }
     }
 
+    @Override
     public Optional<Tag> findById(String id) {
         try {
             DocumentSnapshot document = tagsCollection.document(id).get().get();
@@ -52,6 +56,7 @@ public class FirestoreTagRepository {
         }
     }
 
+    @Override
     public List<Tag> findAll() {
         try {
             ApiFuture<QuerySnapshot> future = tagsCollection.get();
@@ -66,6 +71,7 @@ public class FirestoreTagRepository {
         }
     }
 
+    @Override
     public void deleteById(String id) {
         try {
             tagsCollection.document(id).delete().get();
@@ -74,6 +80,7 @@ public class FirestoreTagRepository {
         }
     }
 
+    @Override
     public Optional<Tag> findByName(String name) {
         try {
             ApiFuture<QuerySnapshot> future = tagsCollection.whereEqualTo("name", name).get();
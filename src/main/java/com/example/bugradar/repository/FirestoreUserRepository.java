@@ -4,15 +4,30 @@ import com.example.bugradar.entity.User;
 import com.google.api.core.ApiFuture;
 import com.google.cloud.firestore.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 
+import com.google.common.util.concurrent.MoreExecutors;
+
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 
 @Repository
-public class FirestoreUserRepository {
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "firestore", matchIfMissing = true)
+public class FirestoreUserRepository implements UserRepository {
+
+    // Numele câmpurilor date de getter-ele din User (isBanned() -> banned)
+    private static final SetOptions PROFILE_FIELDS = SetOptions.mergeFields("username", "email", "banned", "moderator");
 
     private final Firestore firestore;
     private final CollectionReference usersCollection;
@@ -23,15 +38,26 @@ public class FirestoreUserRepository {
         this.usersCollection = firestore.collection("users");
     }
 
+    /**
+     * Profilul (username, email, ban, moderator) scris cu merge: documentul e creat dacă lipsește, iar scorul nu e
+     * atins, fiindcă se schimbă doar prin incremente (voturi, recalculare); un set() cu scorul citit le-ar pierde.
+     * Un utilizator nou nu are câmpul score până la primul increment; se citește ca 0.
+     */
+    private ApiFuture<WriteResult> write(User user) {
+        return usersCollection.document(user.getUid()).set(user, PROFILE_FIELDS);
+    }
+
+    @Override
     public User save(User user) {
         try {
-            usersCollection.document(user.getUid()).set(user).get();
+            write(user).get();
             return user;
         } catch (InterruptedException | ExecutionException e) {
             throw new RuntimeException("Error saving user", e);
         }
     }
 
+    @Override
     public Optional<User> findById(String uid) {
         try {
             DocumentSnapshot document = usersCollection.document(uid).get().get();
@@ -46,6 +72,110 @@ public class FirestoreUserRepository {
         }
     }
 
+    @Override
+    public CompletableFuture<User> saveAsync(User user) {
+        return FirestoreFutures.toCompletable(write(user), "Error saving user")
+                .thenApply(result -> user);
+    }
+
+    @Override
+    public CompletableFuture<Optional<User>> findByIdAsync(String uid) {
+        return FirestoreFutures.toCompletable(usersCollection.document(uid).get(), "Error finding user")
+                .thenApply(document -> document.exists()
+                        ? Optional.ofNullable(document.toObject(User.class))
+                        : Optional.empty());
+    }
+
+    /**
+     * Mai mulți utilizatori după uid într-un singur getAll; uid-urile inexistente lipsesc din rezultat
+     */
+    @Override
+    public CompletableFuture<Map<String, User>> findAllByIdsAsync(Collection<String> uids) {
+        if (uids.isEmpty()) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+        DocumentReference[] refs = uids.stream().distinct().map(usersCollection::document).toArray(DocumentReference[]::new);
+        return FirestoreFutures.toCompletable(firestore.getAll(refs), "Error finding users")
+                .thenApply(documents -> {
+                    Map<String, User> users = new LinkedHashMap<>();
+                    for (DocumentSnapshot document : documents) {
+                        if (document.exists()) {
+                            users.put(document.getId(), document.toObject(User.class));
+                        }
+                    }
+                    return users;
+                });
+    }
+
+    /**
+     * Increment atomic pe scor în batch; update eșuează dacă utilizatorul nu există
+     */
+    void stageScoreIncrement(UpdateBuilder<?> batch, String uid, double delta) {
+        if (delta != 0) {
+            batch.update(usersCollection.document(uid), "score", FieldValue.increment(delta));
+        }
+    }
+
+    /**
+     * Parcurge doar scorurile utilizatorilor (select), pagină cu pagină
+     */
+    @Override
+    public long forEachScore(BiConsumer<String, Double> consumer) {
+        return FirestoreScan.forEach(usersCollection.select("score"), "Error scanning user scores", document -> {
+            Double score = document.getDouble("score");
+            consumer.accept(document.getId(), score == null ? 0 : score);
+        });
+    }
+
+    /**
+     * Parcurge utilizatorii doar cu câmpurile necesare clasamentului (uid, username, score)
+     */
+    @Override
+    public long forEachRanking(Consumer<User> consumer) {
+        return FirestoreScan.forEach(usersCollection.select("username", "score"), "Error scanning user ranking", document -> {
+            User user = new User();
+            user.setUid(document.getId());
+            user.setUsername(document.getString("username"));
+            Double score = document.getDouble("score");
+            user.setScore(score == null ? 0 : score);
+            consumer.accept(user);
+        });
+    }
+
+    /**
+     * Scrie deltele cu BulkWriter (grupează și limitează scrierile singur) ca FieldValue.increment, deci
+     * incrementele din batch-urile de voturi comise între timp rămân; progress primește numărul de scrieri terminate
+     */
+    @Override
+    public void incrementScores(Map<String, Double> deltas, LongConsumer progress) {
+        BulkWriter writer = firestore.bulkWriter();
+        AtomicLong written = new AtomicLong();
+        List<ApiFuture<WriteResult>> results = new ArrayList<>(deltas.size());
+        for (Map.Entry<String, Double> entry : deltas.entrySet()) {
+            ApiFuture<WriteResult> result = writer.update(usersCollection.document(entry.getKey()), "score",
+                    FieldValue.increment(entry.getValue()));
+            result.addListener(() -> progress.accept(written.incrementAndGet()), MoreExecutors.directExecutor());
+            results.add(result);
+        }
+        int failed = 0;
+        try {
+            writer.close(); // așteaptă toate scrierile
+            for (ApiFuture<WriteResult> result : results) {
+                try {
+                    result.get();
+                } catch (ExecutionException e) {
+                    failed++;
+                }
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Error updating user scores", e);
+        }
+        if (failed > 0) {
+            throw new RuntimeException("Failed to update " + failed + " user scores");
+        }
+    }
+
+    @Override
     public List<User> findAll() {
         try {
             ApiFuture<QuerySnapshot> future = usersCollection.get();
@@ -60,6 +190,7 @@ public class FirestoreUserRepository {
         }
     }
 
+    @Override
     public void deleteById(String uid) {
         try {
             usersCollection.document(uid).delete().get();
@@ -68,6 +199,7 @@ public class FirestoreUserRepository {
         }
     }
 
+    @Override
     public Optional<User> findByEmail(String email) {
         try {
             ApiFuture<QuerySnapshot> future = usersCollection.whereEqualTo("email", email).get();
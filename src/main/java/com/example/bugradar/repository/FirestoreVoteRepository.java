@@ -2,43 +2,124 @@ package com.example.bugradar.repository;
 
 import com.example.bugradar.entity.Vote;
 import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
 import com.google.cloud.firestore.*;
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
+import com.google.common.util.concurrent.MoreExecutors;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
 
+/**
+ * Voturile au ID-uri deterministe: b_{bugId}_{userId} și c_{commentId}_{userId} (VoteRepository.idFor).
+ * Căutarea votului unui utilizator e o citire directă de document, iar un vot nou se scrie cu create(),
+ * deci două cereri concurente nu pot crea duplicate. Voturile vechi (ID-uri aleatoare) sunt găsite prin query până rulează migrarea (app.votes.legacy-lookup).
+ */
 @Repository
-public class FirestoreVoteRepository {
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "firestore", matchIfMissing = true)
+public class FirestoreVoteRepository implements VoteRepository {
+
+    // Limita Firestore pentru valorile dintr-un filtru whereIn
+    private static final int IN_LIMIT = 30;
 
     private final Firestore firestore;
     private final CollectionReference votesCollection;
+    private final FirestoreBugRepository bugRepository;
+    private final FirestoreCommentRepository commentRepository;
+    private final FirestoreUserRepository userRepository;
+    private final VoteCountAggregator voteCounts;
+    private final ShardedVoteCounter shardedCounter;
+    private final boolean legacyLookup;
 
     @Autowired
-    public FirestoreVoteRepository(Firestore firestore) {
+    public FirestoreVoteRepository(Firestore firestore,
+                                   FirestoreBugRepository bugRepository,
+                                   FirestoreCommentRepository commentRepository,
+                                   FirestoreUserRepository userRepository,
+                                   VoteCountAggregator voteCounts,
+                                   ShardedVoteCounter shardedCounter,
+                                   @Value("${app.votes.legacy-lookup:true}") boolean legacyLookup) {
         this.firestore = firestore;
         this.votesCollection = firestore.collection("votes");
+        this.bugRepository = bugRepository;
+        this.commentRepository = commentRepository;
+        this.userRepository = userRepository;
+        this.voteCounts = voteCounts;
+        this.shardedCounter = shardedCounter;
+        this.legacyLookup = legacyLookup;
+    }
+
+    /**
+     * Conflict = create() pe un document existent sau precondiția de versiune a votului. FAILED_PRECONDITION
+     * vine și din alte surse (ex. un query fără index), deci contează doar cel marcat de commit-ul votului.
+     */
+    @Override
+    public boolean isConflict(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof VersionConflictException) {
+                return true;
+            }
+        }
+        return statusCode(error) == StatusCode.Code.ALREADY_EXISTS;
+    }
+
+    private static StatusCode.Code statusCode(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof FirestoreException firestoreException && firestoreException.getStatus() != null) {
+                return StatusCode.Code.valueOf(firestoreException.getStatus().getCode().name());
+            }
+            if (t instanceof ApiException apiException) {
+                return apiException.getStatusCode().getCode();
+            }
+        }
+        return null;
     }
 
+    /**
+     * Precondiția de versiune (updatedAt) a unui vot modificat / șters între citire și commit
+     */
+    private static final class VersionConflictException extends RuntimeException {
+        VersionConflictException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    @Override
     public Vote save(Vote vote) {
         try {
-            // Dacă votul nu are ID, generăm unul
+            // Dacă votul nu are ID, folosim ID-ul determinist
             if (vote.getId() == null || vote.getId().isEmpty()) {
-                DocumentReference docRef = votesCollection.document();
-                vote.setId(docRef.getId());
-                docRef.set(vote).get();
-            } else {
-                votesCollection.document(vote.getId()).set(vote).get();
+                vote.setId(VoteRepository.idFor(vote));
             }
+            votesCollection.document(vote.getId()).set(vote).get();
             return vote;
         } catch (InterruptedException | ExecutionException e) {
             throw new RuntimeException("Error saving vote", e);
         }
     }
 
+    @Override
+    public CompletableFuture<Vote> saveAsync(Vote vote) {
+        if (vote.getId() == null || vote.getId().isEmpty()) {
+            vote.setId(VoteRepository.idFor(vote));
+        }
+        return FirestoreFutures.toCompletable(votesCollection.document(vote.getId()).set(vote), "Error saving vote")
+                .thenApply(result -> vote);
+    }
+
+    @Override
     public Optional<Vote> findById(String id) {
         try {
             DocumentSnapshot document = votesCollection.document(id).get().get();
@@ -52,6 +133,7 @@ public class FirestoreVoteRepository {
         }
     }
 
+    @Override
     public List<Vote> findAll() {
         try {
             ApiFuture<QuerySnapshot> future = votesCollection.get();
@@ -66,6 +148,31 @@ public class FirestoreVoteRepository {
         }
     }
 
+    /**
+     * Parcurge votantul fiecărui downvote (doar downvote-urile contează la scor), pagină cu pagină
+     */
+    @Override
+    public long forEachDownvoter(Consumer<String> consumer) {
+        Query downvotes = votesCollection.whereEqualTo("upvote", false).select("userId");
+        return FirestoreScan.forEach(downvotes, "Error scanning downvotes",
+                document -> consumer.accept(document.getString("userId")));
+    }
+
+    @Override
+    public long countDownvotesByUser(String userId) {
+        try {
+            return votesCollection
+                    .whereEqualTo("userId", userId)
+                    .whereEqualTo("upvote", false)
+                    .count()
+                    .get().get()
+                    .getCount();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Error counting downvotes", e);
+        }
+    }
+
+    @Override
     public void deleteById(String id) {
         try {
             votesCollection.document(id).delete().get();
@@ -74,37 +181,358 @@ public class FirestoreVoteRepository {
         }
     }
 
-    public Optional<Vote> findByUserIdAndBugId(String userId, String bugId) {
+    @Override
+    public Optional<Versioned<Vote>> findByUserIdAndBugId(String userId, String bugId) {
         try {
+            DocumentSnapshot document = votesCollection.document(VoteRepository.bugVoteId(bugId, userId)).get().get();
+            if (document.exists() || !legacyLookup) {
+                return versioned(document);
+            }
             ApiFuture<QuerySnapshot> future = votesCollection
                     .whereEqualTo("userId", userId)
                     .whereEqualTo("bugId", bugId)
                     .get();
-            List<QueryDocumentSnapshot> documents = future.get().getDocuments();
-            if (!documents.isEmpty()) {
-                return Optional.of(documents.get(0).toObject(Vote.class));
-            } else {
-                return Optional.empty();
-            }
+            return firstVote(future.get());
         } catch (InterruptedException | ExecutionException e) {
             throw new RuntimeException("Error finding vote by user and bug", e);
         }
     }
 
-    public Optional<Vote> findByUserIdAndCommentId(String userId, String commentId) {
+    @Override
+    public Optional<Versioned<Vote>> findByUserIdAndCommentId(String userId, String commentId) {
         try {
+            DocumentSnapshot document = votesCollection.document(VoteRepository.commentVoteId(commentId, userId)).get().get();
+            if (document.exists() || !legacyLookup) {
+                return versioned(document);
+            }
             ApiFuture<QuerySnapshot> future = votesCollection
                     .whereEqualTo("userId", userId)
                     .whereEqualTo("commentId", commentId)
                     .get();
-            List<QueryDocumentSnapshot> documents = future.get().getDocuments();
-            if (!documents.isEmpty()) {
-                return Optional.of(documents.get(0).toObject(Vote.class));
+            return firstVote(future.get());
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Error finding vote by user and comment", e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Optional<Versioned<Vote>>> findByUserIdAndBugIdAsync(String userId, String bugId) {
+        DocumentReference docRef = votesCollection.document(VoteRepository.bugVoteId(bugId, userId));
+        return FirestoreFutures.toCompletable(docRef.get(), "Error finding vote by user and bug")
+                .thenCompose(document -> {
+                    if (document.exists() || !legacyLookup) {
+                        return CompletableFuture.completedFuture(versioned(document));
+                    }
+                    Query query = votesCollection
+                            .whereEqualTo("userId", userId)
+                            .whereEqualTo("bugId", bugId);
+                    return FirestoreFutures.toCompletable(query.get(), "Error finding vote by user and bug")
+                            .thenApply(FirestoreVoteRepository::firstVote);
+                });
+    }
+
+    @Override
+    public CompletableFuture<Optional<Versioned<Vote>>> findByUserIdAndCommentIdAsync(String userId, String commentId) {
+        DocumentReference docRef = votesCollection.document(VoteRepository.commentVoteId(commentId, userId));
+        return FirestoreFutures.toCompletable(docRef.get(), "Error finding vote by user and comment")
+                .thenCompose(document -> {
+                    if (document.exists() || !legacyLookup) {
+                        return CompletableFuture.completedFuture(versioned(document));
+                    }
+                    Query query = votesCollection
+                            .whereEqualTo("userId", userId)
+                            .whereEqualTo("commentId", commentId);
+                    return FirestoreFutures.toCompletable(query.get(), "Error finding vote by user and comment")
+                            .thenApply(FirestoreVoteRepository::firstVote);
+                });
+    }
+
+    /**
+     * Voturile unui utilizator pe mai multe ținte, cu un singur getAll pe ID-urile deterministe.
+     * Cu legacy-lookup, voturile negăsite sunt căutate cu query-uri whereIn (câte IN_LIMIT ținte odată, în paralel).
+     * Cheia rezultatului e ID-ul determinist (bugVoteId / commentVoteId), chiar și pentru voturile vechi.
+     */
+    @Override
+    public Map<String, Versioned<Vote>> findByUserIdAndTargets(String userId, Collection<String> bugIds,
+                                                               Collection<String> commentIds) {
+        try {
+            return findByUserIdAndTargetsAsync(userId, bugIds, commentIds).get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Error finding votes by user", e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Versioned<Vote>>> findByUserIdAndTargetsAsync(String userId,
+                                                                                     Collection<String> bugIds,
+                                                                                     Collection<String> commentIds) {
+        List<DocumentReference> refs = new ArrayList<>();
+        bugIds.forEach(bugId -> refs.add(votesCollection.document(VoteRepository.bugVoteId(bugId, userId))));
+        commentIds.forEach(commentId -> refs.add(votesCollection.document(VoteRepository.commentVoteId(commentId, userId))));
+        if (refs.isEmpty()) {
+            return CompletableFuture.completedFuture(new LinkedHashMap<>());
+        }
+        return FirestoreFutures.toCompletable(firestore.getAll(refs.toArray(new DocumentReference[0])), "Error finding votes by user")
+                .thenCompose(documents -> {
+                    Map<String, Versioned<Vote>> votes = new LinkedHashMap<>();
+                    for (DocumentSnapshot document : documents) {
+                        versioned(document).ifPresent(vote -> votes.put(document.getId(), vote));
+                    }
+                    if (!legacyLookup) {
+                        return CompletableFuture.completedFuture(votes);
+                    }
+                    List<CompletableFuture<QuerySnapshot>> queries = new ArrayList<>();
+                    queries.addAll(legacyQueries(userId, "bugId",
+                            bugIds.stream().filter(id -> !votes.containsKey(VoteRepository.bugVoteId(id, userId))).toList()));
+                    queries.addAll(legacyQueries(userId, "commentId",
+                            commentIds.stream().filter(id -> !votes.containsKey(VoteRepository.commentVoteId(id, userId))).toList()));
+                    return CompletableFuture.allOf(queries.toArray(new CompletableFuture[0]))
+                            .thenApply(ignored -> {
+                                for (CompletableFuture<QuerySnapshot> query : queries) {
+                                    for (QueryDocumentSnapshot document : query.join().getDocuments()) {
+                                        Vote vote = document.toObject(Vote.class);
+                                        vote.setId(document.getId());
+                                        votes.putIfAbsent(VoteRepository.idFor(vote), Versioned.of(vote, document.getUpdateTime()));
+                                    }
+                                }
+                                return votes;
+                            });
+                });
+    }
+
+    private List<CompletableFuture<QuerySnapshot>> legacyQueries(String userId, String targetField, List<String> targetIds) {
+        List<CompletableFuture<QuerySnapshot>> queries = new ArrayList<>();
+        for (int from = 0; from < targetIds.size(); from += IN_LIMIT) {
+            List<String> chunk = targetIds.subList(from, Math.min(targetIds.size(), from + IN_LIMIT));
+            Query query = votesCollection
+                    .whereEqualTo("userId", userId)
+                    .whereIn(targetField, new ArrayList<>(chunk));
+            queries.add(FirestoreFutures.toCompletable(query.get(), "Error finding votes by user"));
+        }
+        return queries;
+    }
+
+    private static Optional<Versioned<Vote>> versioned(DocumentSnapshot document) {
+        if (!document.exists()) {
+            return Optional.empty();
+        }
+        return Optional.of(Versioned.of(document.toObject(Vote.class), document.getUpdateTime()));
+    }
+
+    private static Optional<Versioned<Vote>> firstVote(QuerySnapshot snapshot) {
+        List<QueryDocumentSnapshot> documents = snapshot.getDocuments();
+        if (documents.isEmpty()) {
+            return Optional.empty();
+        }
+        QueryDocumentSnapshot document = documents.get(0);
+        return Optional.of(Versioned.of(document.toObject(Vote.class), document.getUpdateTime()));
+    }
+
+    /**
+     * Aplică votul într-un singur commit: documentul votului, incrementul pe voteCount și scorurile,
+     * toate cu FieldValue.increment, deci votanții concurenți nu își mai suprascriu numărătorile.
+     * Modificarea / ștergerea unui vot existent e condiționată de versiunea citită; dacă votul s-a schimbat
+     * între timp, commit-ul eșuează și nimic nu se aplică.
+     */
+    @Override
+    public void applyVote(VoteWrite write) {
+        try {
+            commit(List.of(write), batch -> stage(batch, write)).get();
+            afterCommit(write);
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Error applying vote", e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> applyVoteAsync(VoteWrite write) {
+        return FirestoreFutures.toCompletable(commit(List.of(write), batch -> stage(batch, write)), "Error applying vote")
+                .thenRun(() -> afterCommit(write));
+    }
+
+    /**
+     * Mai multe voturi într-un singur commit (cel mult MAX_VOTES_PER_BATCH, ca să rămânem sub limita de 500
+     * de scrieri). Incrementele de scor ale aceluiași utilizator sunt adunate într-o singură scriere.
+     * Commit-ul e atomic: dacă un singur vot e în conflict, nu se aplică niciunul.
+     */
+    @Override
+    public void applyVotes(List<VoteWrite> writes) {
+        if (writes.size() > MAX_VOTES_PER_BATCH) {
+            throw new RuntimeException("Too many votes in one batch");
+        }
+        if (writes.isEmpty()) {
+            return;
+        }
+        Map<String, Double> scoreDeltas = new LinkedHashMap<>();
+        for (VoteWrite write : writes) {
+            if (write.getAuthorId() != null) {
+                scoreDeltas.merge(write.getAuthorId(), write.getAuthorScoreDelta(), Double::sum);
+            }
+            if (write.getVoterId() != null) {
+                scoreDeltas.merge(write.getVoterId(), write.getVoterScoreDelta(), Double::sum);
+            }
+        }
+        try {
+            commit(writes, batch -> {
+                writes.forEach(write -> stageVote(batch, write));
+                scoreDeltas.forEach((uid, delta) -> userRepository.stageScoreIncrement(batch, uid, delta));
+            }).get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Error applying votes", e);
+        }
+        writes.forEach(this::afterCommit);
+    }
+
+    private void stage(UpdateBuilder<?> batch, VoteWrite write) {
+        stageVote(batch, write);
+        userRepository.stageScoreIncrement(batch, write.getAuthorId(), write.getAuthorScoreDelta());
+        userRepository.stageScoreIncrement(batch, write.getVoterId(), write.getVoterScoreDelta());
+    }
+
+    /**
+     * Fără shard-uri și write-behind, incrementul pe voteCount e un update pe țintă, deci commit-ul eșuează dacă
+     * ținta a fost ștearsă între timp. Cu ele, batch-ul nu atinge ținta (e documentul fierbinte pe care îl ocolim),
+     * iar votul și scorurile s-ar comite pentru o țintă ștearsă; atunci commit-ul e o tranzacție care citește întâi
+     * țintele. Citirea nu concurează cu voturile celelalte, iar o ștergere concurentă o face să fie reîncercată.
+     */
+    private ApiFuture<?> commit(List<VoteWrite> writes, Consumer<UpdateBuilder<?>> staging) {
+        DocumentReference[] targets = writes.stream()
+                .filter(write -> write.getVoteCountDelta() != 0)
+                .map(write -> target(write.getVote()))
+                .distinct()
+                .toArray(DocumentReference[]::new);
+        ApiFuture<?> committed;
+        if (targets.length == 0 || !shardedCounter.isEnabled() && !voteCounts.isEnabled()) {
+            WriteBatch batch = firestore.batch();
+            staging.accept(batch);
+            committed = batch.commit();
+        } else {
+            committed = firestore.runTransaction(transaction -> {
+                for (DocumentSnapshot target : transaction.getAll(targets).get()) {
+                    if (!target.exists()) {
+                        throw new RuntimeException("Vote target " + target.getReference().getPath() + " no longer exists");
+                    }
+                }
+                staging.accept(transaction);
+                return null;
+            });
+        }
+        // Singurele precondiții din commit sunt versiunile voturilor modificate / șterse
+        boolean versioned = writes.stream().anyMatch(write -> write.getKind() != VoteWrite.Kind.CREATE);
+        return ApiFutures.catching(committed, Throwable.class, error -> {
+            if (versioned && statusCode(error) == StatusCode.Code.FAILED_PRECONDITION) {
+                throw new VersionConflictException("Vote changed since it was read", error);
+            }
+            throw error instanceof RuntimeException runtime ? runtime : new RuntimeException(error);
+        }, MoreExecutors.directExecutor());
+    }
+
+    private DocumentReference target(Vote vote) {
+        return vote.getBugId() != null
+                ? firestore.collection(VoteCountAggregator.Target.BUG.collection).document(vote.getBugId())
+                : firestore.collection(VoteCountAggregator.Target.COMMENT.collection).document(vote.getCommentId());
+    }
+
+    /**
+     * Documentul votului și incrementul pe voteCount-ul țintei (fără scoruri)
+     */
+    private void stageVote(UpdateBuilder<?> batch, VoteWrite write) {
+        Vote vote = write.getVote();
+
+        switch (write.getKind()) {
+            case CREATE -> {
+                // create() eșuează dacă votul există deja (cerere concurentă), deci nu apar duplicate
+                vote.setId(VoteRepository.idFor(vote));
+                batch.create(votesCollection.document(vote.getId()), vote);
+            }
+            case UPDATE -> batch.update(votesCollection.document(vote.getId()),
+                    Map.of("upvote", vote.isUpvote()),
+                    Precondition.updatedAt(Versioned.toTimestamp(write.getExpectedVersion())));
+            case DELETE -> batch.delete(votesCollection.document(vote.getId()),
+                    Precondition.updatedAt(Versioned.toTimestamp(write.getExpectedVersion())));
+        }
+
+        // Cu write-behind, voteCount e adunat în VoteCountAggregator după commit
+        if (write.getVoteCountDelta() != 0 && !voteCounts.isEnabled()) {
+            if (vote.getBugId() != null) {
+                bugRepository.stageVoteCountIncrement(batch, vote.getBugId(), write.getVoteCountDelta());
             } else {
-                return Optional.empty();
+                commentRepository.stageVoteCountIncrement(batch, vote.getCommentId(), write.getVoteCountDelta());
+            }
+        }
+    }
+
+    private void afterCommit(VoteWrite write) {
+        if (voteCounts.isEnabled()) {
+            if (write.getVote().getBugId() != null) {
+                voteCounts.add(VoteCountAggregator.Target.BUG, write.getVote().getBugId(), write.getVoteCountDelta());
+            } else {
+                voteCounts.add(VoteCountAggregator.Target.COMMENT, write.getVote().getCommentId(), write.getVoteCountDelta());
             }
+        }
+        if (write.getVote().getBugId() != null && write.getVoteCountDelta() != 0) {
+            bugRepository.onVoteCountIncremented(write.getVote().getBugId(), write.getVoteCountDelta());
+        }
+    }
+
+    /**
+     * Toate voturile, cu versiuni, pagină cu pagină după ID (pentru migrare)
+     */
+    @Override
+    public long forEachVersioned(Consumer<Versioned<Vote>> consumer) {
+        return FirestoreScan.forEach(votesCollection, "Error scanning votes", document -> {
+            Vote vote = document.toObject(Vote.class);
+            vote.setId(document.getId());
+            consumer.accept(Versioned.of(vote, document.getUpdateTime()));
+        });
+    }
+
+    /**
+     * Query-ul legacy-lookup: găsește și votul cu ID determinist (are aceleași câmpuri)
+     */
+    @Override
+    public List<Versioned<Vote>> findAllVersionedOnSameTarget(Vote vote) {
+        Query query = vote.getBugId() != null
+                ? votesCollection.whereEqualTo("userId", vote.getUserId()).whereEqualTo("bugId", vote.getBugId())
+                : votesCollection.whereEqualTo("userId", vote.getUserId()).whereEqualTo("commentId", vote.getCommentId());
+        try {
+            List<Versioned<Vote>> votes = new ArrayList<>();
+            for (QueryDocumentSnapshot document : query.get().get().getDocuments()) {
+                Vote found = document.toObject(Vote.class);
+                found.setId(document.getId());
+                votes.add(Versioned.of(found, document.getUpdateTime()));
+            }
+            return votes;
         } catch (InterruptedException | ExecutionException e) {
-            throw new RuntimeException("Error finding vote by user and comment", e);
+            throw new RuntimeException("Error finding votes on the same target", e);
+        }
+    }
+
+    /**
+     * Mută votul pe ID-ul determinist: creează documentul nou și șterge-l pe cel vechi în același commit.
+     * create() nu suprascrie un vot scris între timp pe ID-ul determinist (ALREADY_EXISTS), iar ștergerea
+     * e condiționată de versiune, ca un vot modificat între timp să nu fie pierdut; ambele sunt conflicte.
+     */
+    @Override
+    public void moveToDeterministicId(Versioned<Vote> legacy) {
+        Vote vote = legacy.getValue();
+        String oldId = vote.getId();
+        String newId = VoteRepository.idFor(vote);
+        if (newId.equals(oldId)) {
+            return;
+        }
+        try {
+            WriteBatch batch = firestore.batch();
+            vote.setId(newId);
+            batch.create(votesCollection.document(newId), vote);
+            batch.delete(votesCollection.document(oldId), Precondition.updatedAt(Versioned.toTimestamp(legacy.getVersion())));
+            batch.commit().get();
+        } catch (InterruptedException | ExecutionException e) {
+            vote.setId(oldId);
+            if (statusCode(e) == StatusCode.Code.FAILED_PRECONDITION) {
+                throw new VersionConflictException("Vote " + oldId + " changed since it was read", e);
+            }
+            throw new RuntimeException("Error migrating vote " + oldId, e);
         }
     }
-}
\ No newline at end of file
+}
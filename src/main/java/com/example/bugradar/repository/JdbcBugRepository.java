@@ -0,0 +1,401 @@
+package com.example.bugradar.repository;
+
+import com.example.bugradar.dto.BugSummary;
+import com.example.bugradar.dto.CursorPage;
+import com.example.bugradar.entity.Bug;
+import com.example.bugradar.entity.BugStatus;
+import com.example.bugradar.entity.Tag;
+import com.example.bugradar.search.BugSearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Bug-urile în tabelele bugs + bug_tags (schema-jdbc.sql). Feed-ul și clasamentul după voturi sunt paginate
+ * keyset pe indexurile (creation_date, id) și (vote_count, id); filtrele pe tag-uri sunt interogări pe bug_tags.
+ * Căutarea full-text folosește același BugSearchIndex în memorie ca backend-ul Firestore.
+ */
+@Repository
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "jdbc")
+public class JdbcBugRepository implements BugRepository {
+
+    private static final String COLUMNS = "id, author_id, title, description, creation_date, image_url, status, vote_count";
+    private static final String SUMMARY_COLUMNS = "id, author_id, title, creation_date, status, vote_count";
+
+    private static final RowMapper<Bug> BUG = (rs, rowNum) -> {
+        Bug bug = new Bug();
+        bug.setId(rs.getString("id"));
+        bug.setAuthorId(rs.getString("author_id"));
+        bug.setTitle(rs.getString("title"));
+        bug.setDescription(rs.getString("description"));
+        bug.setCreationDate(rs.getString("creation_date"));
+        bug.setImageUrl(rs.getString("image_url"));
+        String status = rs.getString("status");
+        bug.setStatus(status == null ? null : BugStatus.valueOf(status));
+        bug.setVoteCount(rs.getInt("vote_count"));
+        return bug;
+    };
+
+    private static final RowMapper<BugSummary> SUMMARY = (rs, rowNum) -> {
+        BugSummary summary = new BugSummary();
+        summary.setId(rs.getString("id"));
+        summary.setAuthorId(rs.getString("author_id"));
+        summary.setTitle(rs.getString("title"));
+        summary.setCreationDate(rs.getString("creation_date"));
+        String status = rs.getString("status");
+        summary.setStatus(status == null ? null : BugStatus.valueOf(status));
+        summary.setVoteCount(rs.getInt("vote_count"));
+        return summary;
+    };
+
+    private final JdbcTemplate jdbc;
+    private final NamedParameterJdbcTemplate namedJdbc;
+    private final TransactionTemplate transactions;
+    private final ExecutorService executor;
+    private final BugSearchIndex searchIndex;
+    private final JdbcChangeFeed<BugSummary> changes = new JdbcChangeFeed<>();
+
+    @Autowired
+    public JdbcBugRepository(JdbcTemplate jdbc, NamedParameterJdbcTemplate namedJdbc, TransactionTemplate transactions,
+                             @Qualifier("jdbcExecutor") ExecutorService executor, BugSearchIndex searchIndex) {
+        this.jdbc = jdbc;
+        this.namedJdbc = namedJdbc;
+        this.transactions = transactions;
+        this.executor = executor;
+        this.searchIndex = searchIndex;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpIndexes() {
+        searchIndex.beginRebuild();
+        try {
+            searchIndex.rebuild(findAll());
+        } catch (RuntimeException e) {
+            searchIndex.cancelRebuild();
+            System.err.println("Failed to build bug search index: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public Bug save(Bug bug) {
+        // Dacă bug-ul nu are ID, generăm unul
+        if (bug.getId() == null || bug.getId().isEmpty()) {
+            bug.setId(JdbcSupport.newId());
+        }
+        long version = JdbcSupport.nextVersion();
+        String status = bug.getStatus() == null ? null : bug.getStatus().name();
+        Boolean added = transactions.execute(tx -> {
+            // vote_count e scris doar la creare; după asta se schimbă doar prin incremente (voturile)
+            int updated = jdbc.update("UPDATE bugs SET author_id = ?, title = ?, description = ?, creation_date = ?, "
+                            + "image_url = ?, status = ?, updated_at = ? WHERE id = ?",
+                    bug.getAuthorId(), bug.getTitle(), bug.getDescription(), bug.getCreationDate(), bug.getImageUrl(),
+                    status, version, bug.getId());
+            if (updated == 0) {
+                jdbc.update("INSERT INTO bugs (" + COLUMNS + ", updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                        bug.getId(), bug.getAuthorId(), bug.getTitle(), bug.getDescription(), bug.getCreationDate(),
+                        bug.getImageUrl(), status, bug.getVoteCount(), version);
+            }
+            jdbc.update("DELETE FROM bug_tags WHERE bug_id = ?", bug.getId());
+            List<Tag> tags = bug.getTags() == null ? List.of() : bug.getTags();
+            List<Object[]> rows = new ArrayList<>(tags.size());
+            for (int position = 0; position < tags.size(); position++) {
+                rows.add(new Object[]{bug.getId(), position, tags.get(position).getId(), tags.get(position).getName()});
+            }
+            if (!rows.isEmpty()) {
+                jdbc.batchUpdate("INSERT INTO bug_tags (bug_id, position, tag_id, tag_name) VALUES (?, ?, ?, ?)", rows);
+            }
+            return updated == 0;
+        });
+        searchIndex.index(bug);
+        if (changes.hasListeners()) {
+            changes.publish(List.of(new SnapshotChange<>(Boolean.TRUE.equals(added) ? SnapshotChange.Type.ADDED
+                    : SnapshotChange.Type.MODIFIED, bug.getId(), BugSummary.from(bug))));
+        }
+        return bug;
+    }
+
+    @Override
+    public CompletableFuture<Bug> saveAsync(Bug bug) {
+        return CompletableFuture.supplyAsync(() -> save(bug), executor);
+    }
+
+    @Override
+    public Optional<Bug> findById(String id) {
+        return withTags(jdbc.query("SELECT " + COLUMNS + " FROM bugs WHERE id = ?", BUG, id)).stream().findFirst();
+    }
+
+    @Override
+    public CompletableFuture<Optional<Bug>> findByIdAsync(String id) {
+        return CompletableFuture.supplyAsync(() -> findById(id), executor);
+    }
+
+    @Override
+    public CompletableFuture<Optional<VersionedContent<Bug>>> findVersionedByIdAsync(String id) {
+        return CompletableFuture.supplyAsync(() -> {
+            Map<String, Long> versions = new HashMap<>();
+            List<Bug> bugs = withTags(jdbc.query("SELECT " + COLUMNS + ", updated_at FROM bugs WHERE id = ?",
+                    JdbcSupport.recordingVersions(BUG, versions), id));
+            return bugs.stream().findFirst()
+                    .map(bug -> new VersionedContent<>(bug, ContentVersion.ofDocument(versions.get(bug.getId()), 0)));
+        }, executor);
+    }
+
+    @Override
+    public CompletableFuture<Optional<ContentVersion>> findVersionAsync(String id) {
+        return CompletableFuture.supplyAsync(() -> jdbc.queryForList("SELECT updated_at FROM bugs WHERE id = ?", Long.class, id)
+                .stream().findFirst().map(version -> ContentVersion.ofDocument(version, 0)), executor);
+    }
+
+    @Override
+    public Map<String, Bug> findAllByIds(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, Bug> bugs = new LinkedHashMap<>();
+        for (List<String> chunk : JdbcSupport.chunks(ids)) {
+            withTags(namedJdbc.query("SELECT " + COLUMNS + " FROM bugs WHERE id IN (:ids)",
+                    new MapSqlParameterSource("ids", chunk), BUG)).forEach(bug -> bugs.put(bug.getId(), bug));
+        }
+        return bugs;
+    }
+
+    @Override
+    public List<Bug> findAll() {
+        List<Bug> bugs = jdbc.query("SELECT " + COLUMNS + " FROM bugs", BUG);
+        // Toate tag-urile dintr-o singură interogare, fără IN
+        Map<String, List<Tag>> tags = new HashMap<>();
+        jdbc.query("SELECT bug_id, tag_id, tag_name FROM bug_tags ORDER BY bug_id, position", rs -> {
+            tags.computeIfAbsent(rs.getString("bug_id"), key -> new ArrayList<>())
+                    .add(new Tag(rs.getString("tag_id"), rs.getString("tag_name")));
+        });
+        bugs.forEach(bug -> bug.setTags(tags.getOrDefault(bug.getId(), new ArrayList<>())));
+        return bugs;
+    }
+
+    @Override
+    public List<Bug> findAllByOrderByCreationDateDesc() {
+        return withTags(jdbc.query("SELECT " + COLUMNS + " FROM bugs ORDER BY creation_date DESC NULLS LAST, id DESC", BUG));
+    }
+
+    @Override
+    public CursorPage<BugSummary> findSummaryPageByCreationDateDesc(int size, String cursor) {
+        List<BugSummary> bugs = withTagNames(feedQuery(SUMMARY_COLUMNS, SUMMARY, size, cursor));
+        return page(bugs, size, last -> PageCursor.encode(last.getCreationDate(), last.getId()));
+    }
+
+    @Override
+    public VersionedContent<CursorPage<BugSummary>> findVersionedSummaryPageByCreationDateDesc(int size, String cursor) {
+        Map<String, Long> versions = new LinkedHashMap<>();
+        List<BugSummary> bugs = withTagNames(feedQuery(SUMMARY_COLUMNS + ", updated_at",
+                JdbcSupport.recordingVersions(SUMMARY, versions), size, cursor));
+        return new VersionedContent<>(page(bugs, size, last -> PageCursor.encode(last.getCreationDate(), last.getId())),
+                JdbcSupport.pageVersion(versions));
+    }
+
+    @Override
+    public ContentVersion findFeedPageVersion(int size, String cursor) {
+        Map<String, Long> versions = new LinkedHashMap<>();
+        feedQuery("id, updated_at", JdbcSupport.recordingVersions((rs, rowNum) -> null, versions), size, cursor);
+        return JdbcSupport.pageVersion(versions);
+    }
+
+    private <T> List<T> feedQuery(String columns, RowMapper<T> mapper, int size, String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return jdbc.query("SELECT " + columns + " FROM bugs WHERE creation_date IS NOT NULL "
+                    + "ORDER BY creation_date DESC, id DESC LIMIT ?", mapper, size + 1);
+        }
+        String[] values = PageCursor.decode(cursor, 2);
+        return jdbc.query("SELECT " + columns + " FROM bugs WHERE creation_date < ? OR (creation_date = ? AND id < ?) "
+                + "ORDER BY creation_date DESC, id DESC LIMIT ?", mapper, values[0], values[0], values[1], size + 1);
+    }
+
+    @Override
+    public CursorPage<BugSummary> findSummaryPageByVoteCountDesc(int size, String cursor) {
+        List<BugSummary> bugs;
+        if (cursor == null || cursor.isBlank()) {
+            bugs = jdbc.query("SELECT " + SUMMARY_COLUMNS + " FROM bugs ORDER BY vote_count DESC, id DESC LIMIT ?",
+                    SUMMARY, size + 1);
+        } else {
+            String[] values = PageCursor.decode(cursor, 2);
+            int voteCount;
+            try {
+                voteCount = Integer.parseInt(values[0]);
+            } catch (NumberFormatException e) {
+                throw new RuntimeException("Invalid page cursor", e);
+            }
+            bugs = jdbc.query("SELECT " + SUMMARY_COLUMNS + " FROM bugs WHERE vote_count < ? OR (vote_count = ? AND id < ?) "
+                    + "ORDER BY vote_count DESC, id DESC LIMIT ?", SUMMARY, voteCount, voteCount, values[1], size + 1);
+        }
+        return page(withTagNames(bugs), size, last -> PageCursor.encode(String.valueOf(last.getVoteCount()), last.getId()));
+    }
+
+    private static CursorPage<BugSummary> page(List<BugSummary> rows, int size,
+                                               Function<BugSummary, String> cursorOf) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<BugSummary> items = new ArrayList<>(rows.subList(0, size));
+        return new CursorPage<>(items, cursorOf.apply(items.get(size - 1)));
+    }
+
+    @Override
+    public long forEachAuthorVoteCount(ObjIntConsumer<String> consumer) {
+        AtomicLong count = new AtomicLong();
+        jdbc.query("SELECT author_id, vote_count FROM bugs", rs -> {
+            consumer.accept(rs.getString("author_id"), rs.getInt("vote_count"));
+            count.incrementAndGet();
+        });
+        return count.get();
+    }
+
+    @Override
+    public void deleteById(String id) {
+        transactions.executeWithoutResult(tx -> {
+            jdbc.update("DELETE FROM bug_tags WHERE bug_id = ?", id);
+            jdbc.update("DELETE FROM bugs WHERE id = ?", id);
+        });
+        searchIndex.remove(id);
+        changes.publish(List.of(new SnapshotChange<>(SnapshotChange.Type.REMOVED, id, null)));
+    }
+
+    @Override
+    public List<Bug> findByAuthorId(String authorId) {
+        return withTags(jdbc.query("SELECT " + COLUMNS + " FROM bugs WHERE author_id = ?", BUG, authorId));
+    }
+
+    @Override
+    public List<BugSummary> findSummariesByAuthorId(String authorId) {
+        return withTagNames(jdbc.query("SELECT " + SUMMARY_COLUMNS + " FROM bugs WHERE author_id = ?", SUMMARY, authorId));
+    }
+
+    @Override
+    public List<Bug> findByTitleContainingIgnoreCase(String text) {
+        return withTags(jdbc.query("SELECT " + COLUMNS + " FROM bugs WHERE LOWER(title) LIKE ? ESCAPE '\\'",
+                BUG, JdbcSupport.likePattern(text)));
+    }
+
+    @Override
+    public List<Bug> searchByText(String text, int limit) {
+        if (searchIndex.isReady()) {
+            return searchIndex.search(text, limit);
+        }
+        return findByTitleContainingIgnoreCase(text).stream().limit(limit).toList();
+    }
+
+    @Override
+    public List<Bug> findByTagsContaining(Tag tag) {
+        return findByTags(List.of(tag.getId()), null, null);
+    }
+
+    /**
+     * AND / OR / NOT pe tag-uri ca subinterogări pe indexul (tag_id, bug_id), cele mai noi primele (ca BugTagIndex)
+     */
+    @Override
+    public List<Bug> findByTags(Collection<String> allOf, Collection<String> anyOf, Collection<String> noneOf) {
+        StringBuilder sql = new StringBuilder("SELECT " + COLUMNS + " FROM bugs b WHERE 1 = 1");
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        if (allOf != null && !allOf.isEmpty()) {
+            List<String> distinct = allOf.stream().distinct().collect(Collectors.toList());
+            sql.append(" AND b.id IN (SELECT bug_id FROM bug_tags WHERE tag_id IN (:allOf)"
+                    + " GROUP BY bug_id HAVING COUNT(DISTINCT tag_id) = :allOfCount)");
+            params.addValue("allOf", distinct).addValue("allOfCount", distinct.size());
+        }
+        if (anyOf != null && !anyOf.isEmpty()) {
+            sql.append(" AND EXISTS (SELECT 1 FROM bug_tags t WHERE t.bug_id = b.id AND t.tag_id IN (:anyOf))");
+            params.addValue("anyOf", new ArrayList<>(anyOf));
+        }
+        if (noneOf != null && !noneOf.isEmpty()) {
+            sql.append(" AND NOT EXISTS (SELECT 1 FROM bug_tags t WHERE t.bug_id = b.id AND t.tag_id IN (:noneOf))");
+            params.addValue("noneOf", new ArrayList<>(noneOf));
+        }
+        sql.append(" ORDER BY b.creation_date DESC NULLS LAST, b.id DESC");
+        return withTags(namedJdbc.query(sql.toString(), params, BUG));
+    }
+
+    @Override
+    public ChangeRegistration listenForSummaryChanges(Consumer<List<SnapshotChange<BugSummary>>> onChanges,
+                                                      Consumer<RuntimeException> onError) {
+        return changes.register(() -> withTagNames(jdbc.query("SELECT " + SUMMARY_COLUMNS + " FROM bugs", SUMMARY)).stream()
+                .map(summary -> new SnapshotChange<>(SnapshotChange.Type.ADDED, summary.getId(), summary))
+                .collect(Collectors.toList()), onChanges);
+    }
+
+    /**
+     * Increment pe voteCount în tranzacția votului; ca update-ul din Firestore, eșuează dacă bug-ul nu există
+     */
+    void incrementVoteCount(String bugId, int delta) {
+        if (jdbc.update("UPDATE bugs SET vote_count = vote_count + ?, updated_at = ? WHERE id = ?",
+                delta, JdbcSupport.nextVersion(), bugId) == 0) {
+            throw new RuntimeException("Bug not found: " + bugId);
+        }
+    }
+
+    /**
+     * După commit-ul voturilor: indexul de căutare și ascultătorii văd noul voteCount
+     */
+    void onVoteCountsChanged(Collection<String> bugIds) {
+        if (bugIds.isEmpty()) {
+            return;
+        }
+        List<SnapshotChange<BugSummary>> modified = new ArrayList<>();
+        for (Bug bug : findAllByIds(bugIds).values()) {
+            searchIndex.index(bug);
+            modified.add(new SnapshotChange<>(SnapshotChange.Type.MODIFIED, bug.getId(), BugSummary.from(bug)));
+        }
+        changes.publish(modified);
+    }
+
+    private List<Bug> withTags(List<Bug> bugs) {
+        if (bugs.isEmpty()) {
+            return bugs;
+        }
+        Map<String, List<Tag>> tags = new HashMap<>();
+        for (List<String> chunk : JdbcSupport.chunks(bugs.stream().map(Bug::getId).collect(Collectors.toList()))) {
+            namedJdbc.query("SELECT bug_id, tag_id, tag_name FROM bug_tags WHERE bug_id IN (:ids) ORDER BY bug_id, position",
+                    new MapSqlParameterSource("ids", chunk), rs -> {
+                        tags.computeIfAbsent(rs.getString("bug_id"), key -> new ArrayList<>())
+                                .add(new Tag(rs.getString("tag_id"), rs.getString("tag_name")));
+                    });
+        }
+        bugs.forEach(bug -> bug.setTags(tags.getOrDefault(bug.getId(), new ArrayList<>())));
+        return bugs;
+    }
+
+    private List<BugSummary> withTagNames(List<BugSummary> summaries) {
+        if (summaries.isEmpty()) {
+            return summaries;
+        }
+        Map<String, List<String>> names = new HashMap<>();
+        for (List<String> chunk : JdbcSupport.chunks(summaries.stream().map(BugSummary::getId).collect(Collectors.toList()))) {
+            namedJdbc.query("SELECT bug_id, tag_name FROM bug_tags WHERE bug_id IN (:ids) ORDER BY bug_id, position",
+                    new MapSqlParameterSource("ids", chunk), rs -> {
+                        names.computeIfAbsent(rs.getString("bug_id"), key -> new ArrayList<>()).add(rs.getString("tag_name"));
+                    });
+        }
+        summaries.forEach(summary -> summary.setTagNames(names.getOrDefault(summary.getId(), new ArrayList<>())));
+        return summaries;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.bugradar.repository;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Notificările de modificări pentru backend-ul JDBC, în proces: ascultătorii văd doar scrierile acestei instanțe
+ * (în Firestore, snapshot listener-ul vede și scrierile altor instanțe).
+ */
+final class JdbcChangeFeed<T> {
+
+    private final List<Consumer<List<SnapshotChange<T>>>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Primul apel primește starea curentă (toate rândurile ca ADDED), ca la un snapshot listener.
+     * Sincronizat cu publish, ca nicio modificare să nu cadă între starea inițială și abonare.
+     */
+    synchronized ChangeRegistration register(Supplier<List<SnapshotChange<T>>> initial, Consumer<List<SnapshotChange<T>>> onChanges) {
+        onChanges.accept(initial.get());
+        listeners.add(onChanges);
+        return () -> listeners.remove(onChanges);
+    }
+
+    boolean hasListeners() {
+        return !listeners.isEmpty();
+    }
+
+    synchronized void publish(List<SnapshotChange<T>> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        for (Consumer<List<SnapshotChange<T>>> listener : listeners) {
+            try {
+                listener.accept(changes);
+            } catch (RuntimeException e) {
+                System.err.println("Change listener failed: " + e.getMessage());
+            }
+        }
+    }
+}
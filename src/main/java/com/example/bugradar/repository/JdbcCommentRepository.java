@@ -0,0 +1,236 @@
+package com.example.bugradar.repository;
+
+import com.example.bugradar.dto.CursorPage;
+import com.example.bugradar.entity.Comment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Comentariile în tabela comments; pagina unei discuții e o interogare keyset pe indexul
+ * (bug_id, vote_count DESC, creation_date, id), deci costă size + 1 rânduri indiferent de lungimea discuției.
+ */
+@Repository
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "jdbc")
+public class JdbcCommentRepository implements CommentRepository {
+
+    private static final String COLUMNS = "id, bug_id, author_id, text, image_url, creation_date, vote_count";
+    private static final String PAGE_ORDER = " ORDER BY vote_count DESC, creation_date ASC, id ASC LIMIT ?";
+
+    private static final RowMapper<Comment> COMMENT = (rs, rowNum) -> new Comment(rs.getString("id"),
+            rs.getString("bug_id"), rs.getString("author_id"), rs.getString("text"), rs.getString("image_url"),
+            rs.getString("creation_date"), rs.getInt("vote_count"));
+
+    private final JdbcTemplate jdbc;
+    private final NamedParameterJdbcTemplate namedJdbc;
+    private final ExecutorService executor;
+    private final JdbcChangeFeed<Comment> changes = new JdbcChangeFeed<>();
+
+    @Autowired
+    public JdbcCommentRepository(JdbcTemplate jdbc, NamedParameterJdbcTemplate namedJdbc,
+                                 @Qualifier("jdbcExecutor") ExecutorService executor) {
+        this.jdbc = jdbc;
+        this.namedJdbc = namedJdbc;
+        this.executor = executor;
+    }
+
+    @Override
+    public Comment save(Comment comment) {
+        // Dacă comentariul nu are ID, generăm unul
+        if (comment.getId() == null || comment.getId().isEmpty()) {
+            comment.setId(JdbcSupport.newId());
+        }
+        long version = JdbcSupport.nextVersion();
+        // vote_count e scris doar la creare; după asta se schimbă doar prin incremente (voturile)
+        int updated = jdbc.update("UPDATE comments SET bug_id = ?, author_id = ?, text = ?, image_url = ?, creation_date = ?, "
+                        + "updated_at = ? WHERE id = ?",
+                comment.getBugId(), comment.getAuthorId(), comment.getText(), comment.getImageUrl(),
+                comment.getCreationDate(), version, comment.getId());
+        if (updated == 0) {
+            jdbc.update("INSERT INTO comments (" + COLUMNS + ", updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)",
+                    comment.getId(), comment.getBugId(), comment.getAuthorId(), comment.getText(), comment.getImageUrl(),
+                    comment.getCreationDate(), comment.getVoteCount(), version);
+        }
+        if (changes.hasListeners()) {
+            changes.publish(List.of(new SnapshotChange<>(updated == 0 ? SnapshotChange.Type.ADDED : SnapshotChange.Type.MODIFIED,
+                    comment.getId(), comment)));
+        }
+        return comment;
+    }
+
+    @Override
+    public CompletableFuture<Comment> saveAsync(Comment comment) {
+        return CompletableFuture.supplyAsync(() -> save(comment), executor);
+    }
+
+    @Override
+    public Optional<Comment> findById(String id) {
+        return jdbc.query("SELECT " + COLUMNS + " FROM comments WHERE id = ?", COMMENT, id).stream().findFirst();
+    }
+
+    @Override
+    public CompletableFuture<Optional<Comment>> findByIdAsync(String id) {
+        return CompletableFuture.supplyAsync(() -> findById(id), executor);
+    }
+
+    @Override
+    public Map<String, Comment> findAllByIds(Collection<String> ids) {
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, Comment> comments = new LinkedHashMap<>();
+        for (List<String> chunk : JdbcSupport.chunks(ids)) {
+            namedJdbc.query("SELECT " + COLUMNS + " FROM comments WHERE id IN (:ids)", new MapSqlParameterSource("ids", chunk),
+                    COMMENT).forEach(comment -> comments.put(comment.getId(), comment));
+        }
+        return comments;
+    }
+
+    @Override
+    public List<Comment> findAll() {
+        return jdbc.query("SELECT " + COLUMNS + " FROM comments", COMMENT);
+    }
+
+    @Override
+    public long forEachAuthorVoteCount(ObjIntConsumer<String> consumer) {
+        AtomicLong count = new AtomicLong();
+        jdbc.query("SELECT author_id, vote_count FROM comments", rs -> {
+            consumer.accept(rs.getString("author_id"), rs.getInt("vote_count"));
+            count.incrementAndGet();
+        });
+        return count.get();
+    }
+
+    /**
+     * Rândurile din comments n-au avut niciodată copia bug-ului; raportul păstrează forma celui din Firestore
+     */
+    @Override
+    public Map<String, Long> stripEmbeddedBugs() {
+        Long scanned = jdbc.queryForObject("SELECT COUNT(*) FROM comments", Long.class);
+        Map<String, Long> report = new LinkedHashMap<>();
+        report.put("scanned", scanned == null ? 0 : scanned);
+        report.put("stripped", 0L);
+        report.put("failed", 0L);
+        return report;
+    }
+
+    @Override
+    public void deleteById(String id) {
+        jdbc.update("DELETE FROM comments WHERE id = ?", id);
+        changes.publish(List.of(new SnapshotChange<>(SnapshotChange.Type.REMOVED, id, null)));
+    }
+
+    @Override
+    public CursorPage<Comment> findPageByBugId(String bugId, int size, String cursor) {
+        return toPage(pageQuery(COLUMNS, COMMENT, bugId, size, cursor), size);
+    }
+
+    private static CursorPage<Comment> toPage(List<Comment> rows, int size) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<Comment> comments = new ArrayList<>(rows.subList(0, size));
+        Comment last = comments.get(size - 1);
+        return new CursorPage<>(comments,
+                PageCursor.encode(String.valueOf(last.getVoteCount()), last.getCreationDate(), last.getId()));
+    }
+
+    @Override
+    public CompletableFuture<CursorPage<Comment>> findPageByBugIdAsync(String bugId, int size, String cursor) {
+        return CompletableFuture.supplyAsync(() -> findPageByBugId(bugId, size, cursor), executor);
+    }
+
+    @Override
+    public VersionedContent<CursorPage<Comment>> findVersionedPageByBugId(String bugId, int size, String cursor) {
+        Map<String, Long> versions = new LinkedHashMap<>();
+        List<Comment> rows = pageQuery(COLUMNS + ", updated_at", JdbcSupport.recordingVersions(COMMENT, versions),
+                bugId, size, cursor);
+        return new VersionedContent<>(toPage(rows, size), JdbcSupport.pageVersion(versions));
+    }
+
+    @Override
+    public ContentVersion findPageVersionByBugId(String bugId, int size, String cursor) {
+        Map<String, Long> versions = new LinkedHashMap<>();
+        pageQuery("id, updated_at", JdbcSupport.recordingVersions((rs, rowNum) -> null, versions), bugId, size, cursor);
+        return JdbcSupport.pageVersion(versions);
+    }
+
+    private <T> List<T> pageQuery(String columns, RowMapper<T> mapper, String bugId, int size, String cursor) {
+        String sql = "SELECT " + columns + " FROM comments WHERE bug_id = ? AND creation_date IS NOT NULL";
+        if (cursor == null || cursor.isBlank()) {
+            return jdbc.query(sql + PAGE_ORDER, mapper, bugId, size + 1);
+        }
+        String[] values = PageCursor.decode(cursor, 3);
+        long voteCount;
+        try {
+            voteCount = Long.parseLong(values[0]);
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid page cursor", e);
+        }
+        return jdbc.query(sql + " AND (vote_count < ? OR (vote_count = ? AND (creation_date > ? "
+                        + "OR (creation_date = ? AND id > ?))))" + PAGE_ORDER,
+                mapper, bugId, voteCount, voteCount, values[1], values[1], values[2], size + 1);
+    }
+
+    @Override
+    public List<Comment> findByAuthorId(String authorId) {
+        return jdbc.query("SELECT " + COLUMNS + " FROM comments WHERE author_id = ?", COMMENT, authorId);
+    }
+
+    @Override
+    public ChangeRegistration listenForChanges(LocalDateTime createdSince,
+                                               Consumer<List<SnapshotChange<Comment>>> onChanges,
+                                               Consumer<RuntimeException> onError) {
+        // Scrierile de după createdSince trec toate prin publish, deci starea inițială e goală
+        return changes.register(List::of, onChanges);
+    }
+
+    @Override
+    public ChangeRegistration listenForThreadChanges(String bugId,
+                                                     Consumer<List<SnapshotChange<Comment>>> onChanges,
+                                                     Consumer<RuntimeException> onError) {
+        // listenForChanges primește deja toate scrierile, oricât de vechi ar fi comentariul
+        return () -> { };
+    }
+
+    /**
+     * Increment pe voteCount în tranzacția votului; ca update-ul din Firestore, eșuează dacă comentariul nu există
+     */
+    void incrementVoteCount(String commentId, int delta) {
+        if (jdbc.update("UPDATE comments SET vote_count = vote_count + ?, updated_at = ? WHERE id = ?",
+                delta, JdbcSupport.nextVersion(), commentId) == 0) {
+            throw new RuntimeException("Comment not found: " + commentId);
+        }
+    }
+
+    /**
+     * După commit-ul voturilor: ascultătorii văd noul voteCount
+     */
+    void onVoteCountsChanged(Collection<String> commentIds) {
+        if (commentIds.isEmpty() || !changes.hasListeners()) {
+            return;
+        }
+        changes.publish(findAllByIds(commentIds).values().stream()
+                .map(comment -> new SnapshotChange<>(SnapshotChange.Type.MODIFIED, comment.getId(), comment))
+                .collect(Collectors.toList()));
+    }
+}
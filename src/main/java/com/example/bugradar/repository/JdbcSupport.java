@@ -0,0 +1,75 @@
+package com.example.bugradar.repository;
+
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Utilitare comune repository-urilor JDBC
+ */
+final class JdbcSupport {
+
+    // Listele IN mai mari sunt împărțite, ca planul de execuție să rămână pe index
+    static final int IN_CHUNK = 500;
+
+    private static final AtomicLong lastVersion = new AtomicLong();
+
+    private JdbcSupport() {
+    }
+
+    /**
+     * ID nou pentru un rând (echivalentul document() fără argument din Firestore)
+     */
+    static String newId() {
+        return UUID.randomUUID().toString().replace("-", "");
+    }
+
+    /**
+     * Versiunea unei scrieri (updated_at): microsecunde, strict crescătoare în proces
+     */
+    static long nextVersion() {
+        long now = ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now());
+        return lastVersion.updateAndGet(last -> Math.max(last + 1, now));
+    }
+
+    /**
+     * Mapper-ul dat, care pune și updated_at-ul fiecărui rând în versions (după id, în ordinea rândurilor);
+     * interogarea trebuie să selecteze coloanele id și updated_at
+     */
+    static <T> RowMapper<T> recordingVersions(RowMapper<T> mapper, Map<String, Long> versions) {
+        return (rs, rowNum) -> {
+            versions.put(rs.getString("id"), rs.getLong("updated_at"));
+            return mapper.mapRow(rs, rowNum);
+        };
+    }
+
+    /**
+     * Versiunea rândurilor înregistrate de recordingVersions, la fel ca pentru o pagină din Firestore
+     */
+    static ContentVersion pageVersion(Map<String, Long> versions) {
+        return ContentVersion.ofDocuments(new ArrayList<>(versions.keySet()), versions::get, id -> 0);
+    }
+
+    static <T> List<List<T>> chunks(Collection<T> values) {
+        List<T> all = new ArrayList<>(values);
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += IN_CHUNK) {
+            chunks.add(all.subList(from, Math.min(all.size(), from + IN_CHUNK)));
+        }
+        return chunks;
+    }
+
+    /**
+     * Pentru LIKE: % și _ din textul căutat sunt literale
+     */
+    static String likePattern(String text) {
+        return "%" + text.toLowerCase().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.bugradar.repository;
+
+import com.example.bugradar.entity.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "jdbc")
+public class JdbcTagRepository implements TagRepository {
+
+    private static final RowMapper<Tag> TAG = (rs, rowNum) -> new Tag(rs.getString("id"), rs.getString("name"));
+
+    private final JdbcTemplate jdbc;
+
+    @Autowired
+    public JdbcTagRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    @Override
+    public Tag save(Tag tag) {
+        // Dacă tag-ul nu are ID, generăm unul
+        if (tag.getId() == null || tag.getId().isEmpty()) {
+            tag.setId(JdbcSupport.newId());
+        }
+        if (jdbc.update("UPDATE tags SET name = ? WHERE id = ?", tag.getName(), tag.getId()) == 0) {
+            jdbc.update("INSERT INTO tags (id, name) VALUES (?, ?)", tag.getId(), tag.getName());
+        }
+        return tag;
+    }
+
+    @Override
+    public Optional<Tag> findById(String id) {
+        return jdbc.query("SELECT id, name FROM tags WHERE id = ?", TAG, id).stream().findFirst();
+    }
+
+    @Override
+    public List<Tag> findAll() {
+        return jdbc.query("SELECT id, name FROM tags", TAG);
+    }
+
+    @Override
+    public void deleteById(String id) {
+        jdbc.update("DELETE FROM tags WHERE id = ?", id);
+    }
+
+    @Override
+    public Optional<Tag> findByName(String name) {
+        return jdbc.query("SELECT id, name FROM tags WHERE name = ?", TAG, name).stream().findFirst();
+    }
+}
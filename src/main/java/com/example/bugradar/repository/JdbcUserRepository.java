@@ -0,0 +1,171 @@
+package com.example.bugradar.repository;
+
+import com.example.bugradar.entity.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+@Repository
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "jdbc")
+public class JdbcUserRepository implements UserRepository {
+
+    private static final String COLUMNS = "uid, username, email, score, banned, moderator";
+    private static final int UPDATE_BATCH_SIZE = 500;
+
+    private static final RowMapper<User> USER = (rs, rowNum) -> new User(rs.getString("uid"), rs.getString("username"),
+            rs.getString("email"), rs.getDouble("score"), rs.getBoolean("banned"), rs.getBoolean("moderator"));
+
+    private final JdbcTemplate jdbc;
+    private final NamedParameterJdbcTemplate namedJdbc;
+    private final ExecutorService executor;
+
+    @Autowired
+    public JdbcUserRepository(JdbcTemplate jdbc, NamedParameterJdbcTemplate namedJdbc,
+                              @Qualifier("jdbcExecutor") ExecutorService executor) {
+        this.jdbc = jdbc;
+        this.namedJdbc = namedJdbc;
+        this.executor = executor;
+    }
+
+    /**
+     * Scorul e scris doar la creare; după asta se schimbă doar prin incremente (ca în FirestoreUserRepository.save)
+     */
+    @Override
+    public User save(User user) {
+        long version = JdbcSupport.nextVersion();
+        int updated = jdbc.update("UPDATE users SET username = ?, email = ?, banned = ?, moderator = ?, updated_at = ? "
+                        + "WHERE uid = ?",
+                user.getUsername(), user.getEmail(), user.isBanned(), user.isModerator(), version, user.getUid());
+        if (updated == 0) {
+            jdbc.update("INSERT INTO users (" + COLUMNS + ", updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)",
+                    user.getUid(), user.getUsername(), user.getEmail(), user.getScore(), user.isBanned(), user.isModerator(), version);
+        }
+        return user;
+    }
+
+    @Override
+    public CompletableFuture<User> saveAsync(User user) {
+        return CompletableFuture.supplyAsync(() -> save(user), executor);
+    }
+
+    @Override
+    public Optional<User> findById(String uid) {
+        return jdbc.query("SELECT " + COLUMNS + " FROM users WHERE uid = ?", USER, uid).stream().findFirst();
+    }
+
+    @Override
+    public CompletableFuture<Optional<User>> findByIdAsync(String uid) {
+        return CompletableFuture.supplyAsync(() -> findById(uid), executor);
+    }
+
+    @Override
+    public CompletableFuture<Map<String, User>> findAllByIdsAsync(Collection<String> uids) {
+        if (uids.isEmpty()) {
+            return CompletableFuture.completedFuture(Map.of());
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            Map<String, User> users = new LinkedHashMap<>();
+            for (List<String> chunk : JdbcSupport.chunks(uids)) {
+                namedJdbc.query("SELECT " + COLUMNS + " FROM users WHERE uid IN (:uids)",
+                                new MapSqlParameterSource("uids", chunk), USER)
+                        .forEach(user -> users.put(user.getUid(), user));
+            }
+            return users;
+        }, executor);
+    }
+
+    @Override
+    public long forEachScore(BiConsumer<String, Double> consumer) {
+        AtomicLong count = new AtomicLong();
+        jdbc.query("SELECT uid, score FROM users", rs -> {
+            consumer.accept(rs.getString("uid"), rs.getDouble("score"));
+            count.incrementAndGet();
+        });
+        return count.get();
+    }
+
+    @Override
+    public long forEachRanking(Consumer<User> consumer) {
+        AtomicLong count = new AtomicLong();
+        jdbc.query("SELECT uid, username, score FROM users", rs -> {
+            User user = new User();
+            user.setUid(rs.getString("uid"));
+            user.setUsername(rs.getString("username"));
+            user.setScore(rs.getDouble("score"));
+            consumer.accept(user);
+            count.incrementAndGet();
+        });
+        return count.get();
+    }
+
+    /**
+     * batchUpdate în grupuri de UPDATE_BATCH_SIZE; progress e raportat după fiecare grup
+     */
+    @Override
+    public void incrementScores(Map<String, Double> deltas, LongConsumer progress) {
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((uid, delta) -> rows.add(new Object[]{delta, uid}));
+        long written = 0;
+        int failed = 0;
+        for (int from = 0; from < rows.size(); from += UPDATE_BATCH_SIZE) {
+            List<Object[]> batch = rows.subList(from, Math.min(rows.size(), from + UPDATE_BATCH_SIZE));
+            int[] counts = jdbc.batchUpdate("UPDATE users SET score = score + ?, updated_at = " + JdbcSupport.nextVersion()
+                    + " WHERE uid = ?", batch);
+            for (int count : counts) {
+                if (count == 0) {
+                    failed++;
+                }
+            }
+            written += batch.size();
+            progress.accept(written);
+        }
+        if (failed > 0) {
+            throw new RuntimeException("Failed to update " + failed + " user scores");
+        }
+    }
+
+    @Override
+    public List<User> findAll() {
+        return jdbc.query("SELECT " + COLUMNS + " FROM users", USER);
+    }
+
+    @Override
+    public void deleteById(String uid) {
+        jdbc.update("DELETE FROM users WHERE uid = ?", uid);
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return jdbc.query("SELECT " + COLUMNS + " FROM users WHERE email = ?", USER, email).stream().findFirst();
+    }
+
+    /**
+     * Increment pe scor în tranzacția votului; ca update-ul din Firestore, eșuează dacă utilizatorul nu există
+     */
+    void incrementScore(String uid, double delta) {
+        if (uid == null || delta == 0) {
+            return;
+        }
+        if (jdbc.update("UPDATE users SET score = score + ?, updated_at = ? WHERE uid = ?", delta, JdbcSupport.nextVersion(), uid) == 0) {
+            throw new RuntimeException("User not found: " + uid);
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.example.bugradar.repository;
+
+import com.example.bugradar.entity.Vote;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Voturile în tabela votes, cu ID-urile deterministe din VoteRepository. Votul, voteCount-ul țintei și scorurile
+ * se scriu într-o singură tranzacție; updated_at joacă rolul updateTime-ului din Firestore, deci UPDATE / DELETE
+ * sunt condiționate de versiunea citită (0 rânduri = conflict, ca o precondiție eșuată).
+ */
+@Repository
+@ConditionalOnProperty(name = "app.storage.backend", havingValue = "jdbc")
+public class JdbcVoteRepository implements VoteRepository {
+
+    private static final String COLUMNS = "id, user_id, bug_id, comment_id, upvote";
+
+    private static final RowMapper<Vote> VOTE = (rs, rowNum) -> new Vote(rs.getString("id"), rs.getString("user_id"),
+            rs.getString("bug_id"), rs.getString("comment_id"), rs.getBoolean("upvote"));
+
+    private static final RowMapper<Versioned<Vote>> VERSIONED_VOTE = (rs, rowNum) ->
+            new Versioned<>(VOTE.mapRow(rs, rowNum), rs.getLong("updated_at"));
+
+    private final JdbcTemplate jdbc;
+    private final NamedParameterJdbcTemplate namedJdbc;
+    private final TransactionTemplate transactions;
+    private final ExecutorService executor;
+    private final JdbcBugRepository bugRepository;
+    private final JdbcCommentRepository commentRepository;
+    private final JdbcUserRepository userRepository;
+
+    @Autowired
+    public JdbcVoteRepository(JdbcTemplate jdbc, NamedParameterJdbcTemplate namedJdbc, TransactionTemplate transactions,
+                              @Qualifier("jdbcExecutor") ExecutorService executor, JdbcBugRepository bugRepository,
+                              JdbcCommentRepository commentRepository, JdbcUserRepository userRepository) {
+        this.jdbc = jdbc;
+        this.namedJdbc = namedJdbc;
+        this.transactions = transactions;
+        this.executor = executor;
+        this.bugRepository = bugRepository;
+        this.commentRepository = commentRepository;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public boolean isConflict(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DuplicateKeyException || cause instanceof OptimisticLockingFailureException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Vote save(Vote vote) {
+        // Dacă votul nu are ID, generăm unul
+        if (vote.getId() == null || vote.getId().isEmpty()) {
+            vote.setId(JdbcSupport.newId());
+        }
+        long version = JdbcSupport.nextVersion();
+        int updated = jdbc.update("UPDATE votes SET user_id = ?, bug_id = ?, comment_id = ?, upvote = ?, updated_at = ? WHERE id = ?",
+                vote.getUserId(), vote.getBugId(), vote.getCommentId(), vote.isUpvote(), version, vote.getId());
+        if (updated == 0) {
+            jdbc.update("INSERT INTO votes (" + COLUMNS + ", updated_at) VALUES (?, ?, ?, ?, ?, ?)",
+                    vote.getId(), vote.getUserId(), vote.getBugId(), vote.getCommentId(), vote.isUpvote(), version);
+        }
+        return vote;
+    }
+
+    @Override
+    public CompletableFuture<Vote> saveAsync(Vote vote) {
+        return CompletableFuture.supplyAsync(() -> save(vote), executor);
+    }
+
+    @Override
+    public Optional<Vote> findById(String id) {
+        return jdbc.query("SELECT " + COLUMNS + " FROM votes WHERE id = ?", VOTE, id).stream().findFirst();
+    }
+
+    @Override
+    public List<Vote> findAll() {
+        return jdbc.query("SELECT " + COLUMNS + " FROM votes", VOTE);
+    }
+
+    @Override
+    public long forEachDownvoter(Consumer<String> consumer) {
+        AtomicLong count = new AtomicLong();
+        jdbc.query("SELECT user_id FROM votes WHERE upvote = FALSE", rs -> {
+            consumer.accept(rs.getString("user_id"));
+            count.incrementAndGet();
+        });
+        return count.get();
+    }
+
+    @Override
+    public long countDownvotesByUser(String userId) {
+        Long count = jdbc.queryForObject("SELECT COUNT(*) FROM votes WHERE user_id = ? AND upvote = FALSE", Long.class, userId);
+        return count == null ? 0 : count;
+    }
+
+    @Override
+    public void deleteById(String id) {
+        jdbc.update("DELETE FROM votes WHERE id = ?", id);
+    }
+
+    @Override
+    public Optional<Versioned<Vote>> findByUserIdAndBugId(String userId, String bugId) {
+        return findVersioned(VoteRepository.bugVoteId(bugId, userId));
+    }
+
+    @Override
+    public Optional<Versioned<Vote>> findByUserIdAndCommentId(String userId, String commentId) {
+        return findVersioned(VoteRepository.commentVoteId(commentId, userId));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Versioned<Vote>>> findByUserIdAndBugIdAsync(String userId, String bugId) {
+        return CompletableFuture.supplyAsync(() -> findByUserIdAndBugId(userId, bugId), executor);
+    }
+
+    @Override
+    public CompletableFuture<Optional<Versioned<Vote>>> findByUserIdAndCommentIdAsync(String userId, String commentId) {
+        return CompletableFuture.supplyAsync(() -> findByUserIdAndCommentId(userId, commentId), executor);
+    }
+
+    private Optional<Versioned<Vote>> findVersioned(String id) {
+        return jdbc.query("SELECT " + COLUMNS + ", updated_at FROM votes WHERE id = ?", VERSIONED_VOTE, id)
+                .stream().findFirst();
+    }
+
+    @Override
+    public Map<String, Versioned<Vote>> findByUserIdAndTargets(String userId, Collection<String> bugIds,
+                                                               Collection<String> commentIds) {
+        Set<String> ids = new LinkedHashSet<>();
+        bugIds.forEach(bugId -> ids.add(VoteRepository.bugVoteId(bugId, userId)));
+        commentIds.forEach(commentId -> ids.add(VoteRepository.commentVoteId(commentId, userId)));
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, Versioned<Vote>> votes = new LinkedHashMap<>();
+        for (List<String> chunk : JdbcSupport.chunks(ids)) {
+            namedJdbc.query("SELECT " + COLUMNS + ", updated_at FROM votes WHERE id IN (:ids)",
+                    new MapSqlParameterSource("ids", chunk), VERSIONED_VOTE)
+                    .forEach(vote -> votes.put(vote.getValue().getId(), vote));
+        }
+        return votes;
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Versioned<Vote>>> findByUserIdAndTargetsAsync(String userId, Collection<String> bugIds,
+                                                                                      Collection<String> commentIds) {
+        return CompletableFuture.supplyAsync(() -> findByUserIdAndTargets(userId, bugIds, commentIds), executor);
+    }
+
+    @Override
+    public void applyVote(VoteWrite write) {
+        applyVotes(List.of(write), false);
+    }
+
+    @Override
+    public CompletableFuture<Void> applyVoteAsync(VoteWrite write) {
+        return CompletableFuture.runAsync(() -> applyVote(write), executor);
+    }
+
+    /**
+     * Toate voturile într-o singură tranzacție; incrementele de scor ale aceluiași utilizator sunt adunate
+     */
+    @Override
+    public void applyVotes(List<VoteWrite> writes) {
+        if (writes.size() > MAX_VOTES_PER_BATCH) {
+            throw new RuntimeException("Too many votes in one batch");
+        }
+        applyVotes(writes, true);
+    }
+
+    private void applyVotes(List<VoteWrite> writes, boolean batch) {
+        if (writes.isEmpty()) {
+            return;
+        }
+        Set<String> bugIds = new LinkedHashSet<>();
+        Set<String> commentIds = new LinkedHashSet<>();
+        try {
+            transactions.executeWithoutResult(tx -> {
+                Map<String, Double> scoreDeltas = new LinkedHashMap<>();
+                for (VoteWrite write : writes) {
+                    writeVote(write);
+                    if (write.getAuthorId() != null) {
+                        scoreDeltas.merge(write.getAuthorId(), write.getAuthorScoreDelta(), Double::sum);
+                    }
+                    if (write.getVoterId() != null) {
+                        scoreDeltas.merge(write.getVoterId(), write.getVoterScoreDelta(), Double::sum);
+                    }
+                }
+                scoreDeltas.forEach(userRepository::incrementScore);
+            });
+        } catch (RuntimeException e) {
+            if (isConflict(e)) {
+                throw e;
+            }
+            throw new RuntimeException(batch ? "Error applying votes" : "Error applying vote", e);
+        }
+        for (VoteWrite write : writes) {
+            if (write.getVoteCountDelta() == 0) {
+                continue;
+            }
+            if (write.getVote().getBugId() != null) {
+                bugIds.add(write.getVote().getBugId());
+            } else {
+                commentIds.add(write.getVote().getCommentId());
+            }
+        }
+        bugRepository.onVoteCountsChanged(bugIds);
+        commentRepository.onVoteCountsChanged(commentIds);
+    }
+
+    /**
+     * Rândul votului și incrementul pe voteCount-ul țintei (fără scoruri)
+     */
+    private void writeVote(VoteWrite write) {
+        Vote vote = write.getVote();
+        long version = JdbcSupport.nextVersion();
+
+        switch (write.getKind()) {
+            case CREATE -> {
+                // Cheia primară respinge un vot creat între timp de o cerere concurentă (DuplicateKeyException)
+                vote.setId(VoteRepository.idFor(vote));
+                jdbc.update("INSERT INTO votes (" + COLUMNS + ", updated_at) VALUES (?, ?, ?, ?, ?, ?)",
+                        vote.getId(), vote.getUserId(), vote.getBugId(), vote.getCommentId(), vote.isUpvote(), version);
+            }
+            case UPDATE -> requireVersion(jdbc.update("UPDATE votes SET upvote = ?, updated_at = ? WHERE id = ? AND updated_at = ?",
+                    vote.isUpvote(), version, vote.getId(), write.getExpectedVersion()), vote.getId());
+            case DELETE -> requireVersion(jdbc.update("DELETE FROM votes WHERE id = ? AND updated_at = ?",
+                    vote.getId(), write.getExpectedVersion()), vote.getId());
+        }
+
+        if (write.getVoteCountDelta() != 0) {
+            if (vote.getBugId() != null) {
+                bugRepository.incrementVoteCount(vote.getBugId(), write.getVoteCountDelta());
+            } else {
+                commentRepository.incrementVoteCount(vote.getCommentId(), write.getVoteCountDelta());
+            }
+        }
+    }
+
+    private static void requireVersion(int updated, String voteId) {
+        if (updated == 0) {
+            throw new OptimisticLockingFailureException("Vote " + voteId + " changed since it was read");
+        }
+    }
+
+    @Override
+    public long forEachVersioned(Consumer<Versioned<Vote>> consumer) {
+        AtomicLong count = new AtomicLong();
+        jdbc.query("SELECT " + COLUMNS + ", updated_at FROM votes ORDER BY id", rs -> {
+            consumer.accept(VERSIONED_VOTE.mapRow(rs, rs.getRow()));
+            count.incrementAndGet();
+        });
+        return count.get();
+    }
+
+    @Override
+    public List<Versioned<Vote>> findAllVersionedOnSameTarget(Vote vote) {
+        return vote.getBugId() != null
+                ? jdbc.query("SELECT " + COLUMNS + ", updated_at FROM votes WHERE user_id = ? AND bug_id = ?",
+                        VERSIONED_VOTE, vote.getUserId(), vote.getBugId())
+                : jdbc.query("SELECT " + COLUMNS + ", updated_at FROM votes WHERE user_id = ? AND comment_id = ?",
+                        VERSIONED_VOTE, vote.getUserId(), vote.getCommentId());
+    }
+
+    /**
+     * Mută votul pe ID-ul determinist; ștergerea rândului vechi e condiționată de versiune, în aceeași tranzacție.
+     * INSERT (nu save) ca un vot existent pe ID-ul determinist să nu fie suprascris (DuplicateKeyException)
+     */
+    @Override
+    public void moveToDeterministicId(Versioned<Vote> legacy) {
+        Vote vote = legacy.getValue();
+        String oldId = vote.getId();
+        String newId = VoteRepository.idFor(vote);
+        if (newId.equals(oldId)) {
+            return;
+        }
+        try {
+            transactions.executeWithoutResult(tx -> {
+                requireVersion(jdbc.update("DELETE FROM votes WHERE id = ? AND updated_at = ?", oldId, legacy.getVersion()), oldId);
+                vote.setId(newId);
+                jdbc.update("INSERT INTO votes (" + COLUMNS + ", updated_at) VALUES (?, ?, ?, ?, ?, ?)",
+                        newId, vote.getUserId(), vote.getBugId(), vote.getCommentId(), vote.isUpvote(), JdbcSupport.nextVersion());
+            });
+        } catch (RuntimeException e) {
+            vote.setId(oldId);
+            throw new RuntimeException("Error migrating vote " + oldId, e);
+        }
+    }
+}
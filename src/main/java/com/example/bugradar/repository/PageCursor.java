@@ -0,0 +1,56 @@
+package com.example.bugradar.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Codifică valorile ultimului document dintr-o pagină într-un cursor opac pentru client.
+ * Valorile sunt exact cele folosite în orderBy(...) + startAfter(...).
+ */
+final class PageCursor {
+
+    private static final String SEPARATOR = "\n";
+    // creationDate e LocalDateTime.toString(), deci nu conține niciodată caracterul NUL
+    private static final String NULL_MARKER = "\u0000";
+
+    private PageCursor() {
+    }
+
+    /**
+     * Valorile null nu au o poziție bine definită în startAfter (ar deveni textul "null"), așa că le respingem
+     */
+    static String encode(String... values) {
+        for (String value : values) {
+            if (value == null) {
+                throw new RuntimeException("Cannot encode a null page cursor value");
+            }
+        }
+        String raw = String.join(SEPARATOR, values);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Pentru câmpurile care pot fi null explicit și rămân în rezultatul unui orderBy (Firestore pune null
+     * înaintea oricărui string): null devine un marcaj în cursor, iar fromNullable îl face înapoi null pentru startAfter
+     */
+    static String nullable(String value) {
+        return value == null ? NULL_MARKER : value;
+    }
+
+    static String fromNullable(String value) {
+        return NULL_MARKER.equals(value) ? null : value;
+    }
+
+    static String[] decode(String cursor, int expectedValues) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] values = raw.split(SEPARATOR, -1);
+            if (values.length != expectedValues) {
+                throw new RuntimeException("Invalid page cursor");
+            }
+            return values;
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid page cursor", e);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.bugradar.repository;
+
+import com.example.bugradar.repository.VoteCountAggregator.Target;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.UpdateBuilder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Numărători sharded pentru voteCount (opțional, app.votes.sharded.enabled). Incrementul unui vot merge pe un shard
+ * aleator din bugs/{id}/voteShards/{n} (sau comments/...), deci voturile pe același bug se împart pe mai multe documente.
+ *
+ * Numărul de shard-uri e ales per document după rata de scriere observată (medie exponențială): un bug liniștit
+ * scrie pe un singur shard, unul viral pe până la max-shards. Citirile nu depind de N: compactarea periodică adună
+ * toate shard-urile existente într-o tranzacție, le adaugă la voteCount-ul documentului principal și le șterge.
+ * Toate citirile (findById, feed-urile, ETag-urile, indexul de căutare) folosesc deci totalul compactat, întârziat
+ * cu cel mult compact-interval; indexul primește delta abia după compactare, ca să nu arate alt număr decât restul.
+ */
+@Component
+public class ShardedVoteCounter {
+
+    static final String SHARDS_COLLECTION = "voteShards";
+
+    // Firestore susține aproximativ o scriere pe secundă per document
+    private static final double WRITES_PER_SHARD_PER_SECOND = 1.0;
+    private static final double RATE_WINDOW_SECONDS = 10.0;
+
+    private final Firestore firestore;
+    private final boolean enabled;
+    private final int maxShards;
+    private final Cache<String, WriteRate> rates;
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final Map<Target, ObjLongConsumer<String>> compactionListeners = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicLong shardWrites = new AtomicLong();
+    private final AtomicLong compactions = new AtomicLong();
+    private final AtomicLong compactionFailures = new AtomicLong();
+    private final AtomicLong lastCompactionMillis = new AtomicLong();
+
+    @Autowired
+    public ShardedVoteCounter(Firestore firestore,
+                              @Value("${app.votes.sharded.enabled:false}") boolean enabled,
+                              @Value("${app.votes.sharded.max-shards:16}") int maxShards,
+                              @Value("${app.votes.sharded.compact-interval:30s}") Duration compactInterval) {
+        this.firestore = firestore;
+        this.enabled = enabled;
+        this.maxShards = maxShards;
+        this.rates = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .maximumSize(100_000)
+                .build();
+
+        if (enabled) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "vote-shard-compactor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long millis = compactInterval.toMillis();
+            scheduler.scheduleWithFixedDelay(this::compactQuietly, millis, millis, TimeUnit.MILLISECONDS);
+        } else {
+            scheduler = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Adaugă în batch incrementul pe un shard aleator (documentul shard-ului e creat la prima scriere).
+     * Scrierea nu verifică documentul principal; FirestoreVoteRepository comite atunci votul într-o tranzacție
+     * care citește ținta, ca un vot pe un bug șters să nu fie comis cu deltele lui de scor.
+     */
+    void stageIncrement(UpdateBuilder<?> batch, Target target, String id, int delta) {
+        int shards = shardCount(target, id);
+        DocumentReference shard = parent(target, id)
+                .collection(SHARDS_COLLECTION)
+                .document(String.valueOf(ThreadLocalRandom.current().nextInt(shards)));
+        batch.set(shard, Map.of("count", FieldValue.increment(delta)), SetOptions.merge());
+        shardWrites.incrementAndGet();
+        dirty.add(key(target, id));
+    }
+
+    /**
+     * Apelat după fiecare compactare reușită cu delta adăugată la voteCount-ul documentului principal
+     */
+    void onCompacted(Target target, ObjLongConsumer<String> listener) {
+        compactionListeners.put(target, listener);
+    }
+
+    /**
+     * Numărul de shard-uri pentru documentul dat, după rata lui de scriere (înregistrează și scrierea curentă)
+     */
+    int shardCount(Target target, String id) {
+        double rate = rates.get(key(target, id), key -> new WriteRate()).record();
+        int shards = (int) Math.ceil(rate / WRITES_PER_SHARD_PER_SECOND);
+        return Math.max(1, Math.min(maxShards, shards));
+    }
+
+    /**
+     * Shard-urile rămase de la o rulare anterioară (dirty se pierde la restart) sunt găsite cu o interogare collection group
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void findUncompactedShards() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            for (QueryDocumentSnapshot shard : firestore.collectionGroup(SHARDS_COLLECTION).get().get().getDocuments()) {
+                DocumentReference parent = shard.getReference().getParent().getParent();
+                if (parent != null) {
+                    Target target = Target.BUG.collection.equals(parent.getParent().getId()) ? Target.BUG : Target.COMMENT;
+                    dirty.add(key(target, parent.getId()));
+                }
+            }
+        } catch (InterruptedException | ExecutionException e) {
+            System.err.println("Failed to find vote shards: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Adună shard-urile documentelor scrise de la ultima compactare în voteCount-ul principal
+     */
+    public void compact() {
+        long startedAt = System.currentTimeMillis();
+        List<String> keys = new ArrayList<>(dirty);
+        for (String key : keys) {
+            dirty.remove(key);
+            int separator = key.indexOf('/');
+            Target target = Target.valueOf(key.substring(0, separator));
+            String id = key.substring(separator + 1);
+            try {
+                long total = compact(target, id);
+                compactions.incrementAndGet();
+                ObjLongConsumer<String> listener = compactionListeners.get(target);
+                if (total != 0 && listener != null) {
+                    listener.accept(id, total);
+                }
+            } catch (RuntimeException e) {
+                dirty.add(key);
+                compactionFailures.incrementAndGet();
+                System.err.println("Failed to compact vote shards for " + id + ": " + e.getMessage());
+            }
+        }
+        lastCompactionMillis.set(System.currentTimeMillis() - startedAt);
+    }
+
+    /**
+     * Tranzacția citește shard-urile, deci un increment concurent pe un shard o face să fie reîncercată
+     * și nu se pierde nimic la ștergere. Întoarce delta adăugată la voteCount (0 dacă documentul nu mai există).
+     */
+    private long compact(Target target, String id) {
+        DocumentReference parentRef = parent(target, id);
+        try {
+            return firestore.runTransaction(transaction -> {
+                List<QueryDocumentSnapshot> shards = transaction.get(parentRef.collection(SHARDS_COLLECTION)).get().getDocuments();
+                DocumentSnapshot parent = transaction.get(parentRef).get();
+
+                long total = 0;
+                for (QueryDocumentSnapshot shard : shards) {
+                    Long count = shard.getLong("count");
+                    total += count == null ? 0 : count;
+                }
+                // Documentul principal a fost șters: shard-urile nu mai au unde să fie adunate
+                if (!parent.exists()) {
+                    total = 0;
+                } else if (total != 0) {
+                    transaction.update(parentRef, "voteCount", FieldValue.increment(total));
+                }
+                for (QueryDocumentSnapshot shard : shards) {
+                    transaction.delete(shard.getReference());
+                }
+                return total;
+            }).get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new RuntimeException("Error compacting vote shards", e);
+        }
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (RuntimeException e) {
+            System.err.println("Vote shard compaction failed: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        scheduler.shutdown();
+        compactQuietly();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("maxShards", maxShards);
+        result.put("uncompactedDocuments", dirty.size());
+        result.put("shardWrites", shardWrites.get());
+        result.put("compactions", compactions.get());
+        result.put("compactionFailures", compactionFailures.get());
+        result.put("lastCompactionMillis", lastCompactionMillis.get());
+        result.put("trackedWriteRates", rates.estimatedSize());
+        return result;
+    }
+
+    private DocumentReference parent(Target target, String id) {
+        return firestore.collection(target.collection).document(id);
+    }
+
+    private static String key(Target target, String id) {
+        return target.name() + "/" + id;
+    }
+
+    /**
+     * Rata de scriere (scrieri/secundă) ca medie exponențială pe o fereastră de RATE_WINDOW_SECONDS
+     */
+    private static final class WriteRate {
+        private double rate;
+        private long lastNanos = System.nanoTime();
+
+        synchronized double record() {
+            long now = System.nanoTime();
+            double elapsedSeconds = (now - lastNanos) / 1e9;
+            lastNanos = now;
+            rate = rate * Math.exp(-elapsedSeconds / RATE_WINDOW_SECONDS) + 1.0 / RATE_WINDOW_SECONDS;
+            return rate;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.bugradar.repository;
+
+import com.google.cloud.firestore.DocumentChange;
+
+/**
+ * O modificare primită de la un snapshot listener; value e null pentru documentele șterse.
+ */
+public final class SnapshotChange<T> {
+
+    public enum Type {
+        ADDED, MODIFIED, REMOVED
+    }
+
+    private final Type type;
+    private final String id;
+    private final T value;
+
+    public SnapshotChange(Type type, String id, T value) {
+        this.type = type;
+        this.id = id;
+        this.value = value;
+    }
+
+    static Type typeOf(DocumentChange change) {
+        switch (change.getType()) {
+            case ADDED:
+                return Type.ADDED;
+            case REMOVED:
+                return Type.REMOVED;
+            default:
+                return Type.MODIFIED;
+        }
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public T getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.bugradar.repository;
+
+import com.example.bugradar.entity.Tag;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Stocarea tag-urilor; implementarea e aleasă cu app.storage.backend (firestore / jdbc)
+ */
+public interface TagRepository {
+
+    Tag save(Tag tag);
+
+    Optional<Tag> findById(String id);
+
+    List<Tag> findAll();
+
+    void deleteById(String id);
+
+    Optional<Tag> findByName(String name);
+}
@@ -0,0 +1,50 @@
+package com.example.bugradar.repository;
+
+import com.example.bugradar.entity.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Stocarea utilizatorilor; implementarea e aleasă cu app.storage.backend (firestore / jdbc)
+ */
+public interface UserRepository {
+
+    User save(User user);
+
+    CompletableFuture<User> saveAsync(User user);
+
+    Optional<User> findById(String uid);
+
+    CompletableFuture<Optional<User>> findByIdAsync(String uid);
+
+    /**
+     * uid-urile inexistente lipsesc din rezultat
+     */
+    CompletableFuture<Map<String, User>> findAllByIdsAsync(Collection<String> uids);
+
+    long forEachScore(BiConsumer<String, Double> consumer);
+
+    /**
+     * Utilizatorii doar cu uid, username și score (clasamentul)
+     */
+    long forEachRanking(Consumer<User> consumer);
+
+    /**
+     * Adună deltele la scorurile stocate (increment, nu valoare absolută), ca modificările de scor făcute
+     * între timp de voturi să nu fie suprascrise; progress primește numărul de scrieri terminate
+     */
+    void incrementScores(Map<String, Double> deltas, LongConsumer progress);
+
+    List<User> findAll();
+
+    void deleteById(String uid);
+
+    Optional<User> findByEmail(String email);
+}
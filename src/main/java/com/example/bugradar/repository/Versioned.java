@@ -0,0 +1,35 @@
+package com.example.bugradar.repository;
+
+import com.google.cloud.Timestamp;
+
+/**
+ * Un document citit împreună cu updateTime-ul lui (în microsecunde, precizia Firestore),
+ * ca scrierea ulterioară să poată fi condiționată de faptul că documentul nu s-a schimbat între timp.
+ */
+public final class Versioned<T> {
+
+    private final T value;
+    private final long version;
+
+    public Versioned(T value, long version) {
+        this.value = value;
+        this.version = version;
+    }
+
+    static <T> Versioned<T> of(T value, Timestamp updateTime) {
+        long micros = updateTime.getSeconds() * 1_000_000L + updateTime.getNanos() / 1_000;
+        return new Versioned<>(value, micros);
+    }
+
+    static Timestamp toTimestamp(long version) {
+        return Timestamp.ofTimeMicroseconds(version);
+    }
+
+    public T getValue() {
+        return value;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.bugradar.repository;
+
+/**
+ * O resursă împreună cu versiunea ei pentru GET condiționat (ETag / Last-Modified), calculată din aceeași citire;
+ * pentru cererile fără If-None-Match / If-Modified-Since, care n-au nevoie de citirea separată a versiunii
+ */
+public final class VersionedContent<T> {
+
+    private final T value;
+    private final ContentVersion version;
+
+    public VersionedContent(T value, ContentVersion version) {
+        this.value = value;
+        this.version = version;
+    }
+
+    public T getValue() {
+        return value;
+    }
+
+    public ContentVersion getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,323 @@
+package com.example.bugradar.repository;
+
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind pentru voteCount (opțional, app.votes.write-behind.enabled). Un bug viral primește sute de voturi
+ * pe secundă pe același document, iar Firestore acceptă aproximativ o scriere pe secundă per document; aici
+ * deltele se adună per bug/comentariu și sunt scrise periodic ca un singur FieldValue.increment.
+ *
+ * Documentul votului și scorurile rămân în commit-ul atomic al votului; doar voteCount devine eventual consistent
+ * (întârziere de cel mult un interval de flush). Citirile din repository adaugă deltele încă neconfirmate (pending);
+ * cât write-behind e activ, save() nu scrie voteCount pe documentele existente.
+ *
+ * add() nu ia niciun lock: deltele intră în LongAdder-e pe intrarea documentului, deci voturile pe același bug
+ * viral nu se mai serializează pe bin-ul din ConcurrentHashMap (măsurat în VoteBenchmark.writeBehindOnHotBug).
+ * Intrările inactive sunt scoase doar de flush, care se asigură că niciun add() nu mai scrie în ele.
+ */
+@Component
+public class VoteCountAggregator {
+
+    public enum Target {
+        BUG("bugs"), COMMENT("comments");
+
+        final String collection;
+
+        Target(String collection) {
+            this.collection = collection;
+        }
+    }
+
+    private final Firestore firestore;
+    private final boolean enabled;
+    private final Duration flushInterval;
+    private final int maxPendingDocuments;
+
+    // Per document: delta neconfirmată de Firestore (se vede la citire) și partea ei încă netrimisă
+    private final Map<Target, ConcurrentHashMap<String, DocumentDelta>> pending = new LinkedHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final AtomicBoolean flushing = new AtomicBoolean(false);
+
+    private final AtomicLong oldestPendingSince = new AtomicLong(0);
+    private final LongAdder enqueuedVotes = new LongAdder();
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong flushedWrites = new AtomicLong();
+    private final AtomicLong failedWrites = new AtomicLong();
+    private final AtomicLong lastFlushMillis = new AtomicLong();
+    private final AtomicLong lastFlushLagMillis = new AtomicLong();
+
+    @Autowired
+    public VoteCountAggregator(Firestore firestore,
+                               @Value("${app.votes.write-behind.enabled:false}") boolean enabled,
+                               @Value("${app.votes.write-behind.flush-interval:500ms}") Duration flushInterval,
+                               @Value("${app.votes.write-behind.max-pending:1000}") int maxPendingDocuments) {
+        this.firestore = firestore;
+        this.enabled = enabled;
+        this.flushInterval = flushInterval;
+        this.maxPendingDocuments = maxPendingDocuments;
+        for (Target target : Target.values()) {
+            pending.put(target, new ConcurrentHashMap<>());
+        }
+
+        if (enabled) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "vote-count-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long millis = flushInterval.toMillis();
+            scheduler.scheduleWithFixedDelay(this::flushQuietly, millis, millis, TimeUnit.MILLISECONDS);
+        } else {
+            scheduler = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void add(Target target, String id, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        enqueue(target, id, delta);
+        enqueuedVotes.increment();
+
+        // Prea multe documente în așteptare: nu mai așteptăm intervalul
+        if (pending.get(target).size() >= maxPendingDocuments && !flushing.get() && !scheduler.isShutdown()) {
+            scheduler.execute(this::flushQuietly);
+        }
+    }
+
+    private void enqueue(Target target, String id, long delta) {
+        ConcurrentHashMap<String, DocumentDelta> deltas = pending.get(target);
+        while (true) {
+            DocumentDelta state = deltas.get(id);
+            if (state == null) {
+                state = deltas.computeIfAbsent(id, key -> new DocumentDelta());
+            }
+            if (state.tryAdd(delta)) {
+                break;
+            }
+            // Intrarea e scoasă chiar acum de flush; următorul get vede map-ul după
+            Thread.onSpinWait();
+        }
+        // Un CAS pe fiecare vot ar bloca din nou linia de cache comună
+        if (oldestPendingSince.get() == 0) {
+            oldestPendingSince.compareAndSet(0, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Delta încă neconfirmată de Firestore pentru un document (0 dacă write-behind e dezactivat).
+     * O delta rămâne aici până aflăm rezultatul scrierii ei, deci citirile nu o pierd niciodată; o citire făcută
+     * chiar între aplicarea incrementului în Firestore și confirmarea lui o poate număra de două ori (cât durează
+     * răspunsul la scriere).
+     */
+    public int pendingDelta(Target target, String id) {
+        if (!enabled || id == null) {
+            return 0;
+        }
+        DocumentDelta state = pending.get(target).get(id);
+        return state == null ? 0 : (int) state.unconfirmed.sum();
+    }
+
+    /**
+     * Scrie toate deltele acumulate, câte un increment per document. Scrierile eșuate sunt puse înapoi,
+     * cu excepția documentelor șterse între timp.
+     */
+    public void flush() {
+        if (!enabled || !flushing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long startedAt = System.currentTimeMillis();
+            long since = oldestPendingSince.getAndSet(0);
+
+            List<CompletableFuture<Void>> writes = new ArrayList<>();
+            for (Map.Entry<Target, ConcurrentHashMap<String, DocumentDelta>> entry : pending.entrySet()) {
+                Target target = entry.getKey();
+                for (Map.Entry<String, DocumentDelta> document : entry.getValue().entrySet()) {
+                    DocumentDelta state = document.getValue();
+                    // Scădem exact cât am citit, deci un add() concurent rămâne în netrimis pentru flush-ul următor;
+                    // delta trimisă rămâne în unconfirmed până la rezultat
+                    long sending = state.unsent.sum();
+                    if (sending != 0) {
+                        state.writesInFlight.incrementAndGet();
+                        state.unsent.add(-sending);
+                        writes.add(write(target, document.getKey(), state, sending));
+                    } else {
+                        entry.getValue().computeIfPresent(document.getKey(), (key, current) -> current.tryRetire() ? null : current);
+                    }
+                }
+            }
+            CompletableFuture.allOf(writes.toArray(new CompletableFuture[0])).join();
+
+            flushes.incrementAndGet();
+            lastFlushMillis.set(System.currentTimeMillis() - startedAt);
+            if (since != 0) {
+                lastFlushLagMillis.set(System.currentTimeMillis() - since);
+            }
+        } finally {
+            flushing.set(false);
+        }
+    }
+
+    private CompletableFuture<Void> write(Target target, String id, DocumentDelta state, long delta) {
+        CollectionReference collection = firestore.collection(target.collection);
+        return FirestoreFutures.toCompletable(
+                        collection.document(id).update("voteCount", FieldValue.increment(delta)),
+                        "Error flushing vote count")
+                .handle((result, error) -> {
+                    // Documentul șters între timp: delta nu mai are unde ajunge, o renunțăm
+                    boolean retry = error != null && !isNotFound(error);
+                    if (error == null) {
+                        flushedWrites.incrementAndGet();
+                    } else if (retry) {
+                        failedWrites.incrementAndGet();
+                        System.err.println("Failed to flush vote count for " + id + ": " + error.getMessage());
+                    }
+                    // Intrarea nu poate fi scoasă cât are o scriere în zbor; rezultatul e aplicat înainte de decrement
+                    if (retry) {
+                        // Înapoi în netrimis; a rămas tot timpul în unconfirmed, deci nu e numărată din nou
+                        state.unsent.add(delta);
+                    } else {
+                        state.unconfirmed.add(-delta);
+                    }
+                    state.writesInFlight.decrementAndGet();
+                    if (retry) {
+                        oldestPendingSince.compareAndSet(0, System.currentTimeMillis());
+                    }
+                    return null;
+                });
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            System.err.println("Vote count flush failed: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void drain() {
+        if (!enabled) {
+            return;
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(flushInterval.toMillis() * 2, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Ultimul flush; al doilea reîncearcă o dată scrierile eșuate
+        flush();
+        flush();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        int pendingDocuments = 0;
+        long pendingVotes = 0;
+        for (ConcurrentHashMap<String, DocumentDelta> deltas : pending.values()) {
+            for (DocumentDelta state : deltas.values()) {
+                long delta = state.unconfirmed.sum();
+                if (delta != 0) {
+                    pendingDocuments++;
+                    pendingVotes += Math.abs(delta);
+                }
+            }
+        }
+        long since = oldestPendingSince.get();
+        result.put("pendingDocuments", pendingDocuments);
+        result.put("pendingDelta", pendingVotes);
+        result.put("lagMillis", since == 0 ? 0 : System.currentTimeMillis() - since);
+        result.put("lastFlushLagMillis", lastFlushLagMillis.get());
+        result.put("lastFlushMillis", lastFlushMillis.get());
+        result.put("flushes", flushes.get());
+        result.put("enqueuedVotes", enqueuedVotes.sum());
+        result.put("flushedWrites", flushedWrites.get());
+        result.put("failedWrites", failedWrites.get());
+        return result;
+    }
+
+    private static boolean isNotFound(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof ApiException apiException) {
+                return apiException.getStatusCode().getCode() == StatusCode.Code.NOT_FOUND;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Deltele unui document. started / finished numără add()-urile care au intrat, respectiv au ieșit, și sunt
+     * doar crescătoare, ca flush-ul să poată verifica fără lock că nu mai e niciun add() în curs.
+     */
+    private static final class DocumentDelta {
+        private final LongAdder unconfirmed = new LongAdder();
+        private final LongAdder unsent = new LongAdder();
+        private final AtomicInteger writesInFlight = new AtomicInteger();
+        private final LongAdder started = new LongAdder();
+        private final LongAdder finished = new LongAdder();
+        private volatile boolean retired;
+
+        private boolean tryAdd(long delta) {
+            started.increment();
+            try {
+                if (retired) {
+                    return false;
+                }
+                // Întâi în unconfirmed: o delta trimisă și confirmată înainte să apară acolo ar lipsi temporar din citiri
+                unconfirmed.add(delta);
+                unsent.add(delta);
+                return true;
+            } finally {
+                finished.increment();
+            }
+        }
+
+        /**
+         * Doar din flush, sub compute pe intrare. Un add() care a văzut retired == false e numărat în started
+         * înainte ca flush-ul să citească started, deci fie încă nu a ieșit (started > finished), fie delta lui
+         * se vede în sumele citite după; finished se citește primul, ca ieșirile numărate să aibă intrarea numărată.
+         */
+        private boolean tryRetire() {
+            if (writesInFlight.get() != 0 || unsent.sum() != 0 || unconfirmed.sum() != 0) {
+                return false;
+            }
+            retired = true;
+            long left = finished.sum();
+            if (left == started.sum() && unsent.sum() == 0 && unconfirmed.sum() == 0) {
+                return true;
+            }
+            retired = false;
+            return false;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.bugradar.repository;
+
+import com.example.bugradar.entity.Vote;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Stocarea voturilor; implementarea e aleasă cu app.storage.backend (firestore / jdbc).
+ * Voturile au ID-uri deterministe (b_{bugId}_{userId}, c_{commentId}_{userId}), deci un utilizator are cel mult
+ * un vot pe o țintă, iar versiunea din Versioned condiționează modificarea / ștergerea votului.
+ */
+public interface VoteRepository {
+
+    // Vot + voteCount per vot, plus scorurile (cel mult un autor per vot și votantul): 3 × 150 + 1 < 500 (limita Firestore)
+    int MAX_VOTES_PER_BATCH = 150;
+
+    static String bugVoteId(String bugId, String userId) {
+        return "b_" + bugId + "_" + userId;
+    }
+
+    static String commentVoteId(String commentId, String userId) {
+        return "c_" + commentId + "_" + userId;
+    }
+
+    /**
+     * ID-ul determinist al votului, după ținta lui (bug sau comentariu)
+     */
+    static String idFor(Vote vote) {
+        return vote.getBugId() != null
+                ? bugVoteId(vote.getBugId(), vote.getUserId())
+                : commentVoteId(vote.getCommentId(), vote.getUserId());
+    }
+
+    /**
+     * Adevărat dacă scrierea a eșuat pentru că votul a fost creat / modificat de o cerere concurentă;
+     * merită recitit și reîncercat
+     */
+    boolean isConflict(Throwable error);
+
+    Vote save(Vote vote);
+
+    CompletableFuture<Vote> saveAsync(Vote vote);
+
+    Optional<Vote> findById(String id);
+
+    List<Vote> findAll();
+
+    long forEachDownvoter(Consumer<String> consumer);
+
+    long countDownvotesByUser(String userId);
+
+    void deleteById(String id);
+
+    Optional<Versioned<Vote>> findByUserIdAndBugId(String userId, String bugId);
+
+    Optional<Versioned<Vote>> findByUserIdAndCommentId(String userId, String commentId);
+
+    CompletableFuture<Optional<Versioned<Vote>>> findByUserIdAndBugIdAsync(String userId, String bugId);
+
+    CompletableFuture<Optional<Versioned<Vote>>> findByUserIdAndCommentIdAsync(String userId, String commentId);
+
+    /**
+     * Cheia rezultatului e ID-ul determinist al votului
+     */
+    Map<String, Versioned<Vote>> findByUserIdAndTargets(String userId, Collection<String> bugIds, Collection<String> commentIds);
+
+    CompletableFuture<Map<String, Versioned<Vote>>> findByUserIdAndTargetsAsync(String userId, Collection<String> bugIds,
+                                                                               Collection<String> commentIds);
+
+    /**
+     * Aplică atomic votul, incrementul pe voteCount-ul țintei și deltele de scor
+     */
+    void applyVote(VoteWrite write);
+
+    CompletableFuture<Void> applyVoteAsync(VoteWrite write);
+
+    /**
+     * Cel mult MAX_VOTES_PER_BATCH voturi, atomic: dacă unul e în conflict, nu se aplică niciunul
+     */
+    void applyVotes(List<VoteWrite> writes);
+
+    /**
+     * Parcurge toate voturile, cu versiuni, fără să le țină în memorie (pentru migrare)
+     */
+    long forEachVersioned(Consumer<Versioned<Vote>> consumer);
+
+    /**
+     * Toate voturile utilizatorului pe ținta votului dat: cel cu ID determinist și cele vechi (pentru migrare)
+     */
+    List<Versioned<Vote>> findAllVersionedOnSameTarget(Vote vote);
+
+    /**
+     * Mută votul pe ID-ul determinist, condiționat de versiunea citită. Un vot existent pe ID-ul determinist
+     * nu e suprascris: mutarea eșuează cu un conflict (isConflict)
+     */
+    void moveToDeterministicId(Versioned<Vote> legacy);
+}
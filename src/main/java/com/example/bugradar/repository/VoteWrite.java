@@ -0,0 +1,46 @@
+package com.example.bugradar.repository;
+
+import com.example.bugradar.entity.Vote;
+import lombok.Data;
+
+/**
+ * Tot ce schimbă un vot, aplicat atomic de FirestoreVoteRepository.applyVote: documentul votului,
+ * incrementul pe voteCount-ul țintei (bug sau comentariu, după câmpurile votului) și deltele de scor.
+ */
+@Data
+public class VoteWrite {
+
+    public enum Kind { CREATE, UPDATE, DELETE }
+
+    private Kind kind;
+    private Vote vote;
+    private long expectedVersion;   // versiunea votului citit, pentru UPDATE / DELETE
+    private int voteCountDelta;
+    private String authorId;
+    private double authorScoreDelta;
+    private String voterId;
+    private double voterScoreDelta;
+
+    public static VoteWrite create(Vote vote) {
+        VoteWrite write = new VoteWrite();
+        write.setKind(Kind.CREATE);
+        write.setVote(vote);
+        return write;
+    }
+
+    public static VoteWrite update(Versioned<Vote> existing) {
+        VoteWrite write = new VoteWrite();
+        write.setKind(Kind.UPDATE);
+        write.setVote(existing.getValue());
+        write.setExpectedVersion(existing.getVersion());
+        return write;
+    }
+
+    public static VoteWrite delete(Versioned<Vote> existing) {
+        VoteWrite write = new VoteWrite();
+        write.setKind(Kind.DELETE);
+        write.setVote(existing.getValue());
+        write.setExpectedVersion(existing.getVersion());
+        return write;
+    }
+}
@@ -0,0 +1,347 @@
+package com.example.bugradar.search;
+
+import com.example.bugradar.entity.Bug;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Index inversat în memorie peste titlul și descrierea bug-urilor.
+ * Actualizat incremental de FirestoreBugRepository la save/deleteById, deci căutarea nu face citiri în Firestore.
+ * Scorul este BM25 (titlul contează dublu) înmulțit cu un boost logaritmic după voteCount.
+ */
+@Component
+public class BugSearchIndex {
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private static final float TITLE_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double PREFIX_MATCH_WEIGHT = 0.7;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final double VOTE_BOOST = 0.1;
+
+    // termen -> (bugId -> frecvența ponderată a termenului în bug)
+    private final NavigableMap<String, Map<String, Float>> postings = new TreeMap<>();
+    private final Map<String, IndexedBug> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private double totalLength = 0;
+    private volatile boolean ready = false;
+    // Scrierile primite între beginRebuild() și rebuild(...), reaplicate peste scanare (null = nu rulează o reconstruire)
+    private List<Write> writesDuringRebuild;
+
+    /**
+     * Se apelează înainte de citirea colecției pentru rebuild: scrierile de după acest moment sunt reținute
+     * și reaplicate după înlocuire, ca scanarea (mai veche) să nu le suprascrie.
+     */
+    public void beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            writesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Scanarea a eșuat: renunțăm la scrierile reținute, indexul curent rămâne cum era
+     */
+    public void cancelRebuild() {
+        lock.writeLock().lock();
+        try {
+            writesDuringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reconstruiește tot indexul (la pornire, dintr-o singură citire a colecției), apoi reaplică
+     * scrierile primite de la beginRebuild() încoace
+     */
+    public void rebuild(Collection<Bug> bugs) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            totalLength = 0;
+            for (Bug bug : bugs) {
+                add(bug);
+            }
+            if (writesDuringRebuild != null) {
+                for (Write write : writesDuringRebuild) {
+                    removeInternal(write.bugId);
+                    if (write.bug != null) {
+                        add(write.bug);
+                    }
+                }
+                writesDuringRebuild = null;
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(Bug bug) {
+        if (bug == null || bug.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeInternal(bug.getId());
+            add(bug);
+            if (writesDuringRebuild != null) {
+                writesDuringRebuild.add(new Write(bug.getId(), bug));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Optional<Bug> find(String bugId) {
+        lock.readLock().lock();
+        try {
+            IndexedBug indexed = documents.get(bugId);
+            return indexed == null ? Optional.empty() : Optional.of(indexed.bug);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void remove(String bugId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(bugId);
+            if (writesDuringRebuild != null) {
+                writesDuringRebuild.add(new Write(bugId, null));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Toți termenii din query trebuie să apară (exact sau ca prefix) în titlu sau descriere.
+     */
+    public List<Bug> search(String text, int limit) {
+        List<String> queryTerms = tokenize(text);
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            if (documentCount == 0) {
+                return new ArrayList<>();
+            }
+            double averageLength = totalLength / documentCount;
+
+            List<List<Expansion>> terms = new ArrayList<>(queryTerms.size());
+            for (String queryTerm : queryTerms) {
+                List<Expansion> expansions = expand(queryTerm, documentCount);
+                if (expansions.isEmpty()) {
+                    return new ArrayList<>();
+                }
+                terms.add(expansions);
+            }
+            // Pornim de la termenul cel mai selectiv; pentru ceilalți doar verificăm candidații rămași
+            terms.sort(Comparator.comparingInt(BugSearchIndex::postingCount));
+
+            Map<String, Double> scores = new HashMap<>();
+            for (Expansion expansion : terms.get(0)) {
+                for (Map.Entry<String, Float> doc : expansion.docs.entrySet()) {
+                    scores.merge(doc.getKey(), expansion.score(doc.getValue(), lengthOf(doc.getKey()), averageLength), Math::max);
+                }
+            }
+            for (int i = 1; i < terms.size() && !scores.isEmpty(); i++) {
+                List<Expansion> expansions = terms.get(i);
+                Iterator<Map.Entry<String, Double>> candidates = scores.entrySet().iterator();
+                while (candidates.hasNext()) {
+                    Map.Entry<String, Double> candidate = candidates.next();
+                    double best = 0;
+                    for (Expansion expansion : expansions) {
+                        Float tf = expansion.docs.get(candidate.getKey());
+                        if (tf != null) {
+                            best = Math.max(best, expansion.score(tf, lengthOf(candidate.getKey()), averageLength));
+                        }
+                    }
+                    if (best == 0) {
+                        candidates.remove(); // AND: bug-ul nu conține termenul curent
+                    } else {
+                        candidate.setValue(candidate.getValue() + best);
+                    }
+                }
+            }
+
+            // Top-k cu un heap mic în loc să sortăm toți candidații
+            PriorityQueue<Map.Entry<String, Double>> top = new PriorityQueue<>(Map.Entry.comparingByValue());
+            for (Map.Entry<String, Double> entry : scores.entrySet()) {
+                Bug bug = documents.get(entry.getKey()).bug;
+                double boost = 1 + VOTE_BOOST * Math.log1p(Math.max(0, bug.getVoteCount()));
+                entry.setValue(entry.getValue() * boost);
+                if (top.size() < limit) {
+                    top.add(entry);
+                } else if (top.peek().getValue() < entry.getValue()) {
+                    top.poll();
+                    top.add(entry);
+                }
+            }
+
+            List<Bug> result = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                result.add(documents.get(top.poll().getKey()).bug);
+            }
+            Collections.reverse(result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Prefix query: "crash" găsește și "crashes", "crashing" (cu pondere mai mică decât potrivirea exactă)
+     */
+    private List<Expansion> expand(String queryTerm, int documentCount) {
+        List<Expansion> expansions = new ArrayList<>();
+        NavigableMap<String, Map<String, Float>> matches =
+                postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false);
+        for (Map.Entry<String, Map<String, Float>> posting : matches.entrySet()) {
+            if (expansions.size() >= MAX_PREFIX_EXPANSIONS) {
+                break;
+            }
+            Map<String, Float> docs = posting.getValue();
+            double idf = Math.log(1 + (documentCount - docs.size() + 0.5) / (docs.size() + 0.5));
+            double matchWeight = posting.getKey().equals(queryTerm) ? 1.0 : PREFIX_MATCH_WEIGHT;
+            expansions.add(new Expansion(docs, matchWeight * idf));
+        }
+        return expansions;
+    }
+
+    private static int postingCount(List<Expansion> expansions) {
+        int count = 0;
+        for (Expansion expansion : expansions) {
+            count += expansion.docs.size();
+        }
+        return count;
+    }
+
+    private float lengthOf(String bugId) {
+        return documents.get(bugId).length;
+    }
+
+    private void add(Bug bug) {
+        Map<String, Float> termFrequencies = new HashMap<>();
+        float length = 0;
+        for (String term : tokenize(bug.getTitle())) {
+            termFrequencies.merge(term, TITLE_WEIGHT, Float::sum);
+            length += TITLE_WEIGHT;
+        }
+        for (String term : tokenize(bug.getDescription())) {
+            termFrequencies.merge(term, DESCRIPTION_WEIGHT, Float::sum);
+            length += DESCRIPTION_WEIGHT;
+        }
+
+        for (Map.Entry<String, Float> entry : termFrequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), t -> new HashMap<>()).put(bug.getId(), entry.getValue());
+        }
+        documents.put(bug.getId(), new IndexedBug(bug, termFrequencies.keySet(), length));
+        totalLength += length;
+    }
+
+    private void removeInternal(String bugId) {
+        IndexedBug previous = documents.remove(bugId);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.terms) {
+            Map<String, Float> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(bugId);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalLength -= previous.length;
+    }
+
+    /**
+     * Lowercase + fără diacritice ("Eroare la Încărcare" -> [eroare, la, incarcare])
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        for (String token : NON_WORD.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private static final class Expansion {
+        private final Map<String, Float> docs;
+        private final double weightedIdf;
+
+        private Expansion(Map<String, Float> docs, double weightedIdf) {
+            this.docs = docs;
+            this.weightedIdf = weightedIdf;
+        }
+
+        private double score(double tf, double length, double averageLength) {
+            return weightedIdf * (tf * (K1 + 1)) / (tf + K1 * (1 - B + B * length / averageLength));
+        }
+    }
+
+    // O scriere reținută în timpul unui rebuild; bug null = ștergere (folosită și de BugTagIndex)
+    static final class Write {
+        final String bugId;
+        final Bug bug;
+
+        Write(String bugId, Bug bug) {
+            this.bugId = bugId;
+            this.bug = bug;
+        }
+    }
+
+    private static final class IndexedBug {
+        private final Bug bug;
+        private final Collection<String> terms;
+        private final float length;
+
+        private IndexedBug(Bug bug, Collection<String> terms, float length) {
+            this.bug = bug;
+            this.terms = terms;
+            this.length = length;
+        }
+    }
+}
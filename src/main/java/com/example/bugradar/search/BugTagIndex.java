@@ -0,0 +1,220 @@
+package com.example.bugradar.search;
+
+import com.example.bugradar.entity.Bug;
+import com.example.bugradar.entity.Tag;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Index tag -> bug-uri ținut în memorie ca bitmap-uri Roaring comprimate.
+ * Fiecare bug primește un ordinal int; filtrele AND/OR/NOT pe tag-uri devin operații pe bitmap-uri.
+ * Actualizat de FirestoreBugRepository la save/deleteById, la fel ca BugSearchIndex, inclusiv reaplicarea
+ * scrierilor primite în timpul unui rebuild (beginRebuild / cancelRebuild).
+ */
+@Component
+public class BugTagIndex {
+
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final List<Bug> bugsByOrdinal = new ArrayList<>();
+    // Tag-urile cu care a fost indexat fiecare ordinal (Bug e mutabil, nu ne bazăm pe getTags() la ștergere)
+    private final List<List<String>> tagIdsByOrdinal = new ArrayList<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final Map<String, RoaringBitmap> postings = new HashMap<>();
+    private final RoaringBitmap live = new RoaringBitmap();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean ready = false;
+    // Scrierile primite între beginRebuild() și rebuild(...), ca în BugSearchIndex (null = nu rulează o reconstruire)
+    private List<BugSearchIndex.Write> writesDuringRebuild;
+
+    /**
+     * Înainte de citirea colecției pentru rebuild: scrierile de după acest moment sunt reaplicate peste scanare
+     */
+    public void beginRebuild() {
+        lock.writeLock().lock();
+        try {
+            writesDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void cancelRebuild() {
+        lock.writeLock().lock();
+        try {
+            writesDuringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void rebuild(Collection<Bug> bugs) {
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            bugsByOrdinal.clear();
+            tagIdsByOrdinal.clear();
+            freeOrdinals.clear();
+            postings.clear();
+            live.clear();
+            for (Bug bug : bugs) {
+                add(bug);
+            }
+            if (writesDuringRebuild != null) {
+                for (BugSearchIndex.Write write : writesDuringRebuild) {
+                    removeInternal(write.bugId);
+                    if (write.bug != null) {
+                        add(write.bug);
+                    }
+                }
+                writesDuringRebuild = null;
+            }
+            for (RoaringBitmap bitmap : postings.values()) {
+                bitmap.runOptimize();
+            }
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(Bug bug) {
+        if (bug == null || bug.getId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            removeInternal(bug.getId());
+            add(bug);
+            if (writesDuringRebuild != null) {
+                writesDuringRebuild.add(new BugSearchIndex.Write(bug.getId(), bug));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String bugId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(bugId);
+            if (writesDuringRebuild != null) {
+                writesDuringRebuild.add(new BugSearchIndex.Write(bugId, null));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Bug-urile care au toate tag-urile din allOf, cel puțin unul din anyOf și niciunul din noneOf.
+     * Listele goale/null sunt ignorate. Rezultatul e ordonat după creationDate descrescător.
+     */
+    public List<Bug> query(Collection<String> allOf, Collection<String> anyOf, Collection<String> noneOf) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = null;
+
+            if (allOf != null && !allOf.isEmpty()) {
+                for (String tagId : allOf) {
+                    RoaringBitmap bitmap = postings.get(tagId);
+                    if (bitmap == null) {
+                        return new ArrayList<>();
+                    }
+                    result = result == null ? bitmap.clone() : RoaringBitmap.and(result, bitmap);
+                }
+            }
+
+            if (anyOf != null && !anyOf.isEmpty()) {
+                RoaringBitmap union = new RoaringBitmap();
+                for (String tagId : anyOf) {
+                    RoaringBitmap bitmap = postings.get(tagId);
+                    if (bitmap != null) {
+                        union.or(bitmap);
+                    }
+                }
+                result = result == null ? union : RoaringBitmap.and(result, union);
+            }
+
+            if (result == null) {
+                result = live.clone();
+            }
+
+            if (noneOf != null) {
+                for (String tagId : noneOf) {
+                    RoaringBitmap bitmap = postings.get(tagId);
+                    if (bitmap != null) {
+                        result.andNot(bitmap);
+                    }
+                }
+            }
+
+            List<Bug> bugs = new ArrayList<>(result.getCardinality());
+            result.forEach((int ordinal) -> bugs.add(bugsByOrdinal.get(ordinal)));
+            bugs.sort(Comparator.comparing(Bug::getCreationDate, Comparator.nullsLast(Comparator.reverseOrder())));
+            return bugs;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(Bug bug) {
+        List<String> tagIds = new ArrayList<>();
+        if (bug.getTags() != null) {
+            for (Tag tag : bug.getTags()) {
+                if (tag != null && tag.getId() != null) {
+                    tagIds.add(tag.getId());
+                }
+            }
+        }
+
+        Integer ordinal = freeOrdinals.poll();
+        if (ordinal == null) {
+            ordinal = bugsByOrdinal.size();
+            bugsByOrdinal.add(bug);
+            tagIdsByOrdinal.add(tagIds);
+        } else {
+            bugsByOrdinal.set(ordinal, bug);
+            tagIdsByOrdinal.set(ordinal, tagIds);
+        }
+        ordinals.put(bug.getId(), ordinal);
+        live.add(ordinal);
+
+        for (String tagId : tagIds) {
+            postings.computeIfAbsent(tagId, id -> new RoaringBitmap()).add(ordinal);
+        }
+    }
+
+    private void removeInternal(String bugId) {
+        Integer ordinal = ordinals.remove(bugId);
+        if (ordinal == null) {
+            return;
+        }
+        bugsByOrdinal.set(ordinal, null);
+        for (String tagId : tagIdsByOrdinal.set(ordinal, null)) {
+            RoaringBitmap bitmap = postings.get(tagId);
+            if (bitmap != null) {
+                bitmap.remove(ordinal);
+                if (bitmap.isEmpty()) {
+                    postings.remove(tagId);
+                }
+            }
+        }
+        live.remove(ordinal);
+        freeOrdinals.push(ordinal);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.bugradar.service;
+
+import com.example.bugradar.dto.AuthorProfile;
+import com.example.bugradar.dto.BugDetails;
+import com.example.bugradar.dto.CursorPage;
+import com.example.bugradar.entity.Bug;
+import com.example.bugradar.entity.Comment;
+import com.example.bugradar.entity.Vote;
+import com.example.bugradar.repository.BugRepository;
+import com.example.bugradar.repository.CommentRepository;
+import com.example.bugradar.repository.VoteRepository;
+import com.example.bugradar.repository.Versioned;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Pagina unui bug dintr-o singură cerere. Bug-ul și prima pagină de comentarii se citesc în paralel;
+ * imediat ce sosesc, pornesc tot în paralel profilurile autorilor (un getAll doar pentru cei lipsă din UserCache)
+ * și voturile utilizatorului curent (un getAll pe ID-urile deterministe). Deci cel mult două RTT-uri Firestore,
+ * față de 5+ cereri HTTP secvențiale din client.
+ */
+@Service
+public class BugDetailsService {
+
+    private final BugRepository bugRepository;
+    private final CommentRepository commentRepository;
+    private final VoteRepository voteRepository;
+    private final UserCache userCache;
+
+    @Autowired
+    public BugDetailsService(BugRepository bugRepository,
+                             CommentRepository commentRepository,
+                             VoteRepository voteRepository,
+                             UserCache userCache) {
+        this.bugRepository = bugRepository;
+        this.commentRepository = commentRepository;
+        this.voteRepository = voteRepository;
+        this.userCache = userCache;
+    }
+
+    /**
+     * currentUserId poate fi null (cerere anonimă): atunci myVotes rămâne gol
+     */
+    public CompletableFuture<BugDetails> getBugDetailsAsync(String bugId, Integer commentsSize, String currentUserId) {
+        CompletableFuture<Bug> bugFuture = bugRepository.findByIdAsync(bugId)
+                .thenApply(bug -> bug.orElseThrow(() -> new RuntimeException("Bug not found")));
+        CompletableFuture<CursorPage<Comment>> commentsFuture =
+                commentRepository.findPageByBugIdAsync(bugId, CursorPage.normalizeSize(commentsSize), null);
+
+        CompletableFuture<Map<String, Boolean>> votesFuture = currentUserId == null
+                ? CompletableFuture.completedFuture(Map.of())
+                : commentsFuture.thenCompose(comments -> myVotes(bugId, comments.getItems(), currentUserId));
+
+        CompletableFuture<Map<String, AuthorProfile>> authorsFuture = bugFuture
+                .thenCombine(commentsFuture, BugDetailsService::authorIds)
+                .thenCompose(userCache::getAllAsync)
+                .thenApply(users -> {
+                    Map<String, AuthorProfile> authors = new LinkedHashMap<>();
+                    users.forEach((uid, user) -> authors.put(uid, AuthorProfile.from(user)));
+                    return authors;
+                });
+
+        return bugFuture.thenCombine(commentsFuture, (bug, comments) -> new BugDetails(bug, comments, null, null))
+                .thenCombine(authorsFuture, (details, authors) -> {
+                    details.setAuthors(authors);
+                    return details;
+                })
+                .thenCombine(votesFuture, (details, votes) -> {
+                    details.setMyVotes(votes);
+                    return details;
+                });
+    }
+
+    private CompletableFuture<Map<String, Boolean>> myVotes(String bugId, List<Comment> comments, String userId) {
+        List<String> commentIds = comments.stream().map(Comment::getId).toList();
+        return voteRepository.findByUserIdAndTargetsAsync(userId, List.of(bugId), commentIds)
+                .thenApply(votes -> {
+                    Map<String, Boolean> result = new LinkedHashMap<>();
+                    for (Versioned<Vote> versioned : votes.values()) {
+                        Vote vote = versioned.getValue();
+                        result.put(vote.getBugId() != null ? vote.getBugId() : vote.getCommentId(), vote.isUpvote());
+                    }
+                    return result;
+                });
+    }
+
+    private static Set<String> authorIds(Bug bug, CursorPage<Comment> comments) {
+        Set<String> authorIds = new LinkedHashSet<>();
+        if (bug.getAuthorId() != null) {
+            authorIds.add(bug.getAuthorId());
+        }
+        for (Comment comment : comments.getItems()) {
+            if (comment.getAuthorId() != null) {
+                authorIds.add(comment.getAuthorId());
+            }
+        }
+        return authorIds;
+    }
+}
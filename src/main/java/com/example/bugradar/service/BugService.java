@@ -1,27 +1,32 @@
 package com.example.bugradar.service;
 
 import com.example.bugradar.dto.BugDto;
+import com.example.bugradar.dto.BugSummary;
+import com.example.bugradar.dto.CursorPage;
 import com.example.bugradar.entity.Bug;
 import com.example.bugradar.entity.BugStatus;
 import com.example.bugradar.entity.Tag;
-import com.example.bugradar.repository.FirestoreBugRepository;
+import com.example.bugradar.repository.ContentVersion;
+import com.example.bugradar.repository.BugRepository;
+import com.example.bugradar.repository.VersionedContent;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
 public class BugService {
 
-    private final FirestoreBugRepository bugRepository;
+    private final BugRepository bugRepository;
     private final TagService tagService;
     private final ModeratorService moderatorService;
 
     @Autowired
-    public BugService(FirestoreBugRepository bugRepository,
+    public BugService(BugRepository bugRepository,
                       TagService tagService,
                       ModeratorService moderatorService) {
         this.bugRepository = bugRepository;
@@ -58,8 +63,44 @@ public class BugService {
                 .orElseThrow(() -> new RuntimeException("Bug not found"));
     }
 
-    public List<Bug> getAllBugs() {
-        return bugRepository.findAllByOrderByCreationDateDesc();
+    public CompletableFuture<Bug> getBugByIdAsync(String id) {
+        return bugRepository.findByIdAsync(id)
+                .thenApply(bug -> bug.orElseThrow(() -> new RuntimeException("Bug not found")));
+    }
+
+    /**
+     * Versiunea bug-ului pentru GET condiționat, fără să citim câmpurile documentului
+     */
+    public CompletableFuture<ContentVersion> getBugVersionAsync(String id) {
+        return bugRepository.findVersionAsync(id)
+                .thenApply(version -> version.orElseThrow(() -> new RuntimeException("Bug not found")));
+    }
+
+    /**
+     * Bug-ul cu versiunea lui dintr-o singură citire, pentru GET-urile fără header condițional
+     */
+    public CompletableFuture<VersionedContent<Bug>> getVersionedBugAsync(String id) {
+        return bugRepository.findVersionedByIdAsync(id)
+                .thenApply(bug -> bug.orElseThrow(() -> new RuntimeException("Bug not found")));
+    }
+
+    public VersionedContent<CursorPage<BugSummary>> getVersionedBugsPage(Integer size, String cursor) {
+        return bugRepository.findVersionedSummaryPageByCreationDateDesc(CursorPage.normalizeSize(size), cursor);
+    }
+
+    public ContentVersion getBugsPageVersion(Integer size, String cursor) {
+        return bugRepository.findFeedPageVersion(CursorPage.normalizeSize(size), cursor);
+    }
+
+    /**
+     * Feed-ul de bug-uri, cele mai noi primele, paginat cu cursor
+     */
+    public CursorPage<BugSummary> getBugsPage(Integer size, String cursor) {
+        return bugRepository.findSummaryPageByCreationDateDesc(CursorPage.normalizeSize(size), cursor);
+    }
+
+    public CursorPage<BugSummary> getTopBugsPage(Integer size, String cursor) {
+        return bugRepository.findSummaryPageByVoteCountDesc(CursorPage.normalizeSize(size), cursor);
     }
 
     public Bug updateBug(String id, BugDto bugDto, String currentUserId) {
@@ -102,23 +143,44 @@ public class BugService {
         bugRepository.deleteById(id);
     }
 
-    public List<Bug> filterBugsByTag(String tagId) {
-        Tag tag = tagService.getTagById(tagId);
-        return bugRepository.findByTagsContaining(tag);
+    public List<BugSummary> filterBugsByTag(String tagId) {
+        // Indexul de tag-uri lucrează doar cu ID-ul; citim tag-ul doar când nu găsim nimic,
+        // ca un ID necunoscut să dea în continuare "Tag not found", nu o listă goală
+        List<Bug> bugs = bugRepository.findByTags(List.of(tagId), null, null);
+        if (bugs.isEmpty()) {
+            tagService.getTagById(tagId);
+        }
+        return summaries(bugs);
     }
 
-    public List<Bug> filterBugsByText(String text) {
-        return bugRepository.findByTitleContainingIgnoreCase(text);
+    /**
+     * Filtrare combinată: toate tag-urile din allOf, cel puțin unul din anyOf, niciunul din noneOf.
+     * Cel puțin un tag în allOf sau anyOf e obligatoriu, altfel rezultatul ar fi toată colecția.
+     */
+    public List<BugSummary> filterBugsByTags(List<String> allOf, List<String> anyOf, List<String> noneOf) {
+        if ((allOf == null || allOf.isEmpty()) && (anyOf == null || anyOf.isEmpty())) {
+            throw new RuntimeException("At least one tag in all or any is required");
+        }
+        return summaries(bugRepository.findByTags(allOf, anyOf, noneOf));
     }
 
-    public List<Bug> filterBugsByUser(String userId) {
-        return bugRepository.findByAuthorId(userId);
+    public List<BugSummary> filterBugsByText(String text, Integer size) {
+        return summaries(bugRepository.searchByText(text, CursorPage.normalizeSize(size)));
     }
 
-    public List<Bug> getMyBugs(String currentUserId) {
+    public List<BugSummary> filterBugsByUser(String userId) {
+        return bugRepository.findSummariesByAuthorId(userId);
+    }
+
+    public List<BugSummary> getMyBugs(String currentUserId) {
         // Verificăm dacă utilizatorul este banat
         moderatorService.checkUserAccess(currentUserId);
 
-        return bugRepository.findByAuthorId(currentUserId);
+        return bugRepository.findSummariesByAuthorId(currentUserId);
+    }
+
+    // Rezultatele din indexuri sunt deja în memorie; doar micșorăm răspunsul
+    private static List<BugSummary> summaries(List<Bug> bugs) {
+        return bugs.stream().map(BugSummary::from).collect(Collectors.toList());
     }
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.example.bugradar.service;
+
+import com.example.bugradar.repository.CommentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+/**
+ * Migrarea comentariilor vechi care conțin o copie întreagă a bug-ului (câmpul "bug").
+ * Comentariile noi păstrează doar bugId; migrarea poate fi rulată de mai multe ori.
+ */
+@Service
+public class CommentMigrationService {
+
+    private final CommentRepository commentRepository;
+    private final ModeratorService moderatorService;
+
+    @Autowired
+    public CommentMigrationService(CommentRepository commentRepository, ModeratorService moderatorService) {
+        this.commentRepository = commentRepository;
+        this.moderatorService = moderatorService;
+    }
+
+    public Map<String, Long> stripEmbeddedBugs(String moderatorId) {
+        if (!moderatorService.isModerator(moderatorId)) {
+            throw new RuntimeException("Only moderators can run migrations");
+        }
+        return commentRepository.stripEmbeddedBugs();
+    }
+}
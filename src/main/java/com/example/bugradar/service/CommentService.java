@@ -1,27 +1,29 @@
 package com.example.bugradar.service;
 
 import com.example.bugradar.dto.CommentDto;
+import com.example.bugradar.dto.CursorPage;
 import com.example.bugradar.entity.Bug;
 import com.example.bugradar.entity.BugStatus;
 import com.example.bugradar.entity.Comment;
-import com.example.bugradar.repository.FirestoreBugRepository;
-import com.example.bugradar.repository.FirestoreCommentRepository;
+import com.example.bugradar.repository.ContentVersion;
+import com.example.bugradar.repository.BugRepository;
+import com.example.bugradar.repository.CommentRepository;
+import com.example.bugradar.repository.VersionedContent;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.List;
 
 @Service
 public class CommentService {
 
-    private final FirestoreCommentRepository commentRepository;
-    private final FirestoreBugRepository bugRepository;
+    private final CommentRepository commentRepository;
+    private final BugRepository bugRepository;
     private final ModeratorService moderatorService;
 
     @Autowired
-    public CommentService(FirestoreCommentRepository commentRepository,
-                          FirestoreBugRepository bugRepository,
+    public CommentService(CommentRepository commentRepository,
+                          BugRepository bugRepository,
                           ModeratorService moderatorService) {
         this.commentRepository = commentRepository;
         this.bugRepository = bugRepository;
@@ -47,7 +49,6 @@ public class CommentService {
         }
 
         Comment comment = new Comment();
-        comment.setBug(bug);
         comment.setBugId(bugId);
         comment.setAuthorId(authorId);
         comment.setText(commentDto.getText());
@@ -62,8 +63,19 @@ public class CommentService {
                 .orElseThrow(() -> new RuntimeException("Comment not found"));
     }
 
-    public List<Comment> getCommentsByBugId(String bugId) {
-        return commentRepository.findByBugIdOrderByVoteCountDesc(bugId);
+    /**
+     * Comentariile unui bug, cele mai votate primele, paginat cu cursor
+     */
+    public CursorPage<Comment> getCommentsPage(String bugId, Integer size, String cursor) {
+        return commentRepository.findPageByBugId(bugId, CursorPage.normalizeSize(size), cursor);
+    }
+
+    public VersionedContent<CursorPage<Comment>> getVersionedCommentsPage(String bugId, Integer size, String cursor) {
+        return commentRepository.findVersionedPageByBugId(bugId, CursorPage.normalizeSize(size), cursor);
+    }
+
+    public ContentVersion getCommentsPageVersion(String bugId, Integer size, String cursor) {
+        return commentRepository.findPageVersionByBugId(bugId, CursorPage.normalizeSize(size), cursor);
     }
 
     public Comment updateComment(String id, CommentDto commentDto, String currentUserId) {
@@ -1,24 +1,41 @@
 package com.example.bugradar.service;
 
+import com.example.bugradar.config.AuthenticatedUser;
+import com.example.bugradar.config.VerifiedTokenCache;
 import com.example.bugradar.dto.BugDto;
 import com.example.bugradar.dto.CommentDto;
 import com.example.bugradar.entity.Bug;
 import com.example.bugradar.entity.Comment;
 import com.example.bugradar.entity.User;
-import com.example.bugradar.repository.FirestoreBugRepository;
-import com.example.bugradar.repository.FirestoreCommentRepository;
-import com.example.bugradar.repository.FirestoreUserRepository;
+import com.example.bugradar.repository.BugReplica;
+import com.example.bugradar.repository.BugRepository;
+import com.example.bugradar.repository.CommentRepository;
+import com.example.bugradar.repository.UserRepository;
+import com.example.bugradar.repository.ShardedVoteCounter;
+import com.example.bugradar.repository.VoteCountAggregator;
+import com.example.bugradar.stream.LiveFeed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class ModeratorService {
 
-    private final FirestoreUserRepository userRepository;
-    private final FirestoreBugRepository bugRepository;
-    private final FirestoreCommentRepository commentRepository;
+    private final UserRepository userRepository;
+    private final BugRepository bugRepository;
+    private final CommentRepository commentRepository;
     private final TagService tagService;
+    private final UserCache userCache;
+    private final VerifiedTokenCache tokenCache;
+    private final VoteCountAggregator voteCounts;
+    private final ShardedVoteCounter shardedCounter;
+    private final LiveFeed liveFeed;
+    private final BugReplica bugReplica;
 
     // Lazy loading pentru a evita dependențele circulare
     @Lazy
@@ -30,20 +47,46 @@ public class ModeratorService {
     private SmsService smsService;
 
     @Autowired
-    public ModeratorService(FirestoreUserRepository userRepository,
-                            FirestoreBugRepository bugRepository,
-                            FirestoreCommentRepository commentRepository,
-                            TagService tagService) {
+    public ModeratorService(UserRepository userRepository,
+                            BugRepository bugRepository,
+                            CommentRepository commentRepository,
+                            TagService tagService,
+                            UserCache userCache,
+                            VerifiedTokenCache tokenCache,
+                            VoteCountAggregator voteCounts,
+                            ShardedVoteCounter shardedCounter,
+                            LiveFeed liveFeed,
+                            BugReplica bugReplica) {
         this.userRepository = userRepository;
         this.bugRepository = bugRepository;
         this.commentRepository = commentRepository;
         this.tagService = tagService;
+        this.userCache = userCache;
+        this.tokenCache = tokenCache;
+        this.voteCounts = voteCounts;
+        this.shardedCounter = shardedCounter;
+        this.liveFeed = liveFeed;
+        this.bugReplica = bugReplica;
+    }
+
+    /**
+     * Construiește instantaneul folosit de FirebaseTokenFilter pentru toată cererea (o singură citire)
+     */
+    public AuthenticatedUser loadPrincipal(String uid) {
+        User user = userCache.get(uid).orElse(null);
+        return user == null
+                ? new AuthenticatedUser(uid, false, false)
+                : new AuthenticatedUser(uid, user.isBanned(), user.isModerator());
     }
 
     // Restul metodelor rămân la fel...
     public boolean isModerator(String userId) {
+        Optional<AuthenticatedUser> principal = AuthenticatedUser.current(userId);
+        if (principal.isPresent()) {
+            return principal.get().isModerator();
+        }
         try {
-            User user = userRepository.findById(userId)
+            User user = userCache.get(userId)
                     .orElse(null);
             return user != null && user.isModerator();
         } catch (Exception e) {
@@ -52,8 +95,12 @@ public class ModeratorService {
     }
 
     public boolean isBanned(String userId) {
+        Optional<AuthenticatedUser> principal = AuthenticatedUser.current(userId);
+        if (principal.isPresent()) {
+            return principal.get().isBanned();
+        }
         try {
-            User user = userRepository.findById(userId)
+            User user = userCache.get(userId)
                     .orElse(null);
             return user != null && user.isBanned();
         } catch (Exception e) {
@@ -75,6 +122,8 @@ public class ModeratorService {
 
         userToBan.setBanned(true);
         userRepository.save(userToBan);
+        userCache.invalidate(userId);
+        tokenCache.invalidateUser(userId); // token-urile deja verificate nu mai trec fără reverificare
 
         // Trimitem notificări (cu lazy loading)
         try {
@@ -99,6 +148,7 @@ public class ModeratorService {
 
         userToUnban.setBanned(false);
         userRepository.save(userToUnban);
+        userCache.invalidate(userId);
 
         try {
             if (emailService != null) {
@@ -170,6 +220,7 @@ public class ModeratorService {
 
         userToPromote.setModerator(true);
         userRepository.save(userToPromote);
+        userCache.invalidate(userId);
     }
 
     public void demoteFromModerator(String userId, String moderatorId) {
@@ -182,6 +233,37 @@ public class ModeratorService {
 
         userToDemote.setModerator(false);
         userRepository.save(userToDemote);
+        userCache.invalidate(userId);
+    }
+
+    public Map<String, Object> getUserCacheStats(String moderatorId) {
+        if (!isModerator(moderatorId)) {
+            throw new RuntimeException("Only moderators can view cache statistics");
+        }
+        return userCache.stats();
+    }
+
+    public Map<String, Object> getVoteCountStats(String moderatorId) {
+        if (!isModerator(moderatorId)) {
+            throw new RuntimeException("Only moderators can view vote count statistics");
+        }
+        Map<String, Object> stats = new LinkedHashMap<>(voteCounts.stats());
+        stats.put("sharded", shardedCounter.stats());
+        return stats;
+    }
+
+    public Map<String, Object> getLiveFeedStats(String moderatorId) {
+        if (!isModerator(moderatorId)) {
+            throw new RuntimeException("Only moderators can view live feed statistics");
+        }
+        return liveFeed.stats();
+    }
+
+    public Map<String, Object> getBugReplicaStats(String moderatorId) {
+        if (!isModerator(moderatorId)) {
+            throw new RuntimeException("Only moderators can view bug replica statistics");
+        }
+        return bugReplica.stats();
     }
 
     public void checkUserAccess(String userId) {
@@ -189,4 +271,23 @@ public class ModeratorService {
             throw new RuntimeException("User is banned from the application");
         }
     }
+
+    /**
+     * Varianta non-blocantă a lui checkUserAccess (erorile de citire sunt tratate ca "nu e banat", ca în isBanned)
+     */
+    public CompletableFuture<Void> checkUserAccessAsync(String userId) {
+        Optional<AuthenticatedUser> principal = AuthenticatedUser.current(userId);
+        if (principal.isPresent()) {
+            return principal.get().isBanned()
+                    ? CompletableFuture.failedFuture(new RuntimeException("User is banned from the application"))
+                    : CompletableFuture.completedFuture(null);
+        }
+        return userCache.getAsync(userId)
+                .handle((user, e) -> e == null && user.isPresent() && user.get().isBanned())
+                .thenAccept(banned -> {
+                    if (banned) {
+                        throw new RuntimeException("User is banned from the application");
+                    }
+                });
+    }
 }
\ No newline at end of file
@@ -0,0 +1,149 @@
+package com.example.bugradar.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Calculul scorurilor pentru toți utilizatorii dintr-o singură trecere peste bug-uri, comentarii și downvote-uri.
+ * Nu depinde de Firestore: primește rândurile pe rând (autor / votant + voteCount) și le ține pe coloane de int-uri,
+ * cu utilizatorii transformați în ordinale; la final sumele per utilizator sunt calculate în paralel (fork-join).
+ *
+ * Formula e cea din UserScoreService.recalculateUserScore:
+ * voteCount-ul bug-urilor × 2.5 + voteCount-ul comentariilor × 5 − downvote-urile date × 1.5.
+ */
+public final class ScoreAggregator {
+
+    static final double BUG_WEIGHT = 2.5;
+    static final double COMMENT_WEIGHT = 5.0;
+    static final double DOWNVOTE_PENALTY = 1.5;
+
+    private static final int MIN_LEAF_ROWS = 1 << 15;
+
+    private final List<String> userIds;
+    private final Map<String, Integer> ordinals;
+
+    private final IntColumn bugAuthors = new IntColumn();
+    private final IntColumn bugVotes = new IntColumn();
+    private final IntColumn commentAuthors = new IntColumn();
+    private final IntColumn commentVotes = new IntColumn();
+    private final IntColumn downvoters = new IntColumn();
+
+    public ScoreAggregator(List<String> userIds) {
+        this.userIds = List.copyOf(userIds);
+        this.ordinals = new HashMap<>(userIds.size() * 2);
+        for (int i = 0; i < this.userIds.size(); i++) {
+            ordinals.put(this.userIds.get(i), i);
+        }
+    }
+
+    public List<String> getUserIds() {
+        return userIds;
+    }
+
+    /**
+     * Rândurile ale căror autori nu mai există ca utilizatori sunt ignorate
+     */
+    public void addBug(String authorId, int voteCount) {
+        Integer ordinal = authorId == null ? null : ordinals.get(authorId);
+        if (ordinal != null) {
+            bugAuthors.add(ordinal);
+            bugVotes.add(voteCount);
+        }
+    }
+
+    public void addComment(String authorId, int voteCount) {
+        Integer ordinal = authorId == null ? null : ordinals.get(authorId);
+        if (ordinal != null) {
+            commentAuthors.add(ordinal);
+            commentVotes.add(voteCount);
+        }
+    }
+
+    public void addDownvote(String voterId) {
+        Integer ordinal = voterId == null ? null : ordinals.get(voterId);
+        if (ordinal != null) {
+            downvoters.add(ordinal);
+        }
+    }
+
+    /**
+     * Scorul calculat pentru fiecare utilizator, în ordinea din getUserIds()
+     */
+    public double[] scores(ForkJoinPool pool) {
+        double[] scores = new double[userIds.size()];
+        add(scores, pool.invoke(task(bugAuthors, bugVotes, BUG_WEIGHT, pool)));
+        add(scores, pool.invoke(task(commentAuthors, commentVotes, COMMENT_WEIGHT, pool)));
+        add(scores, pool.invoke(task(downvoters, null, -DOWNVOTE_PENALTY, pool)));
+        return scores;
+    }
+
+    private FoldTask task(IntColumn owners, IntColumn values, double weight, ForkJoinPool pool) {
+        // Frunze destul de mari ca sumele parțiale (câte un double[] per frunză) să nu coste mai mult decât adunarea
+        int leafRows = Math.max(MIN_LEAF_ROWS, owners.size / (pool.getParallelism() * 4) + 1);
+        return new FoldTask(owners.values, values == null ? null : values.values, weight,
+                0, owners.size, leafRows, userIds.size());
+    }
+
+    private static void add(double[] target, double[] partial) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] += partial[i];
+        }
+    }
+
+    private static final class FoldTask extends RecursiveTask<double[]> {
+        private final int[] owners;
+        private final int[] values;   // null: fiecare rând contează 1 (downvote-uri)
+        private final double weight;
+        private final int from;
+        private final int to;
+        private final int leafRows;
+        private final int userCount;
+
+        private FoldTask(int[] owners, int[] values, double weight, int from, int to, int leafRows, int userCount) {
+            this.owners = owners;
+            this.values = values;
+            this.weight = weight;
+            this.from = from;
+            this.to = to;
+            this.leafRows = leafRows;
+            this.userCount = userCount;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from <= leafRows) {
+                double[] sums = new double[userCount];
+                for (int i = from; i < to; i++) {
+                    sums[owners[i]] += values == null ? 1 : values[i];
+                }
+                for (int i = 0; i < sums.length; i++) {
+                    sums[i] *= weight;
+                }
+                return sums;
+            }
+            int middle = (from + to) >>> 1;
+            FoldTask left = new FoldTask(owners, values, weight, from, middle, leafRows, userCount);
+            FoldTask right = new FoldTask(owners, values, weight, middle, to, leafRows, userCount);
+            left.fork();
+            double[] result = right.compute();
+            add(result, left.join());
+            return result;
+        }
+    }
+
+    private static final class IntColumn {
+        private int[] values = new int[1024];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.bugradar.service;
+
+import com.example.bugradar.repository.VoteWrite;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Jurnalul voturilor comise cât rulează o recalculare de scor. Recalcularea citește scorul stocat, apoi scanează
+ * bug-urile, comentariile și voturile și scrie diferența ca increment; un vot comis după citirea scorului, dar
+ * văzut de scanare, ar fi numărat de două ori (o dată prin incrementul lui, o dată prin diferență).
+ *
+ * Fiecare vot primește un număr de ordine înainte de commit (begin) și unul după (committed), din același contor
+ * ca momentele marcate de recalculare (mark), deci pentru fiecare parte a votului știm dacă a fost comisă sigur
+ * înainte, sigur după sau posibil în timpul unei citiri. Presupune că voteCount e vizibil scanărilor la commit.
+ */
+@Component
+public class ScoreChangeJournal {
+
+    private long sequence;
+    // Voturile începute și încă neterminate, după identitate
+    private final Map<VoteWrite, Entry> inFlight = new IdentityHashMap<>();
+    private final List<Recording> recordings = new ArrayList<>();
+
+    /**
+     * Înainte de commit-ul votului; după el vine committed sau failed
+     */
+    public synchronized void begin(VoteWrite write) {
+        Entry entry = new Entry(write, ++sequence);
+        inFlight.put(write, entry);
+        recordings.forEach(recording -> recording.entries.add(entry));
+    }
+
+    public synchronized void committed(VoteWrite write) {
+        Entry entry = inFlight.remove(write);
+        if (entry != null) {
+            entry.end = ++sequence;
+        }
+    }
+
+    public synchronized void failed(VoteWrite write) {
+        Entry entry = inFlight.remove(write);
+        if (entry != null) {
+            entry.failed = true;
+        }
+    }
+
+    /**
+     * Un moment din recalculare, ordonat față de începutul și sfârșitul voturilor
+     */
+    public synchronized long mark() {
+        return ++sequence;
+    }
+
+    /**
+     * Intervalul în care a rulat o scanare
+     */
+    public Window scan(Runnable scan) {
+        long start = mark();
+        scan.run();
+        return new Window(start, mark());
+    }
+
+    /**
+     * Începe înregistrarea voturilor (inclusiv a celor deja în zbor); se închide la sfârșitul recalculării
+     */
+    public synchronized Recording startRecording() {
+        Recording recording = new Recording();
+        recording.entries.addAll(inFlight.values());
+        recordings.add(recording);
+        return recording;
+    }
+
+    public static final class Window {
+
+        private final long start;
+        private final long end;
+
+        public Window(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    public final class Recording implements AutoCloseable {
+
+        private final List<Entry> entries = new ArrayList<>();
+
+        private Recording() {
+        }
+
+        /**
+         * Corecțiile pentru utilizatorii citiți în intervalele reads: deltele voturilor comise după citirea scorului
+         * și văzute de scanarea fazei lor (autorul în bugs / comments, votantul în votes) se scad din diferență.
+         * Un vot care nu poate fi ordonat față de citire sau de scanare face utilizatorul nesigur.
+         */
+        public Corrections corrections(Map<String, Window> reads, Window bugs, Window comments, Window votes) {
+            List<Entry> snapshot;
+            synchronized (ScoreChangeJournal.this) {
+                snapshot = new ArrayList<>(entries);
+            }
+            Corrections corrections = new Corrections();
+            for (Entry entry : snapshot) {
+                if (entry.failed) {
+                    continue;
+                }
+                VoteWrite write = entry.write;
+                Window target = write.getVote().getBugId() != null ? bugs : comments;
+                corrections.add(entry, write.getAuthorId(), write.getAuthorScoreDelta(), reads, target);
+                corrections.add(entry, write.getVoterId(), write.getVoterScoreDelta(), reads, votes);
+            }
+            return corrections;
+        }
+
+        @Override
+        public void close() {
+            synchronized (ScoreChangeJournal.this) {
+                recordings.remove(this);
+            }
+        }
+    }
+
+    public static final class Corrections {
+
+        private final Map<String, Double> observed = new HashMap<>();
+        private final Set<String> uncertain = new HashSet<>();
+
+        private void add(Entry entry, String uid, double delta, Map<String, Window> reads, Window scan) {
+            Window read = uid == null || delta == 0 ? null : reads.get(uid);
+            if (read == null) {
+                return;
+            }
+            // Neterminat încă: poate fi comis oricând de acum încolo
+            long end = entry.end == 0 ? Long.MAX_VALUE : entry.end;
+            if (end < read.start || entry.start > scan.end) {
+                return; // inclus în scorul citit, respectiv nevăzut de scanare: diferența e corectă
+            }
+            if (entry.start > read.end && end < scan.start) {
+                observed.merge(uid, delta, Double::sum);
+            } else {
+                uncertain.add(uid);
+            }
+        }
+
+        /**
+         * Suma deltelor numărate și de scorul stocat (după citire), și de scanare
+         */
+        public double observed(String uid) {
+            return observed.getOrDefault(uid, 0.0);
+        }
+
+        public boolean isUncertain(String uid) {
+            return uncertain.contains(uid);
+        }
+    }
+
+    private static final class Entry {
+
+        private final VoteWrite write;
+        private final long start;
+        private volatile long end;
+        private volatile boolean failed;
+
+        private Entry(VoteWrite write, long start) {
+            this.write = write;
+            this.start = start;
+        }
+    }
+}
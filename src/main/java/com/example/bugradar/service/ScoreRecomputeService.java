@@ -0,0 +1,191 @@
+package com.example.bugradar.service;
+
+import com.example.bugradar.dto.ScoreRecomputeReport;
+import com.example.bugradar.leaderboard.Leaderboard;
+import com.example.bugradar.repository.BugRepository;
+import com.example.bugradar.repository.CommentRepository;
+import com.example.bugradar.repository.UserRepository;
+import com.example.bugradar.repository.VoteRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Recalcularea tuturor scorurilor într-o singură trecere: utilizatorii, bug-urile, comentariile și downvote-urile
+ * sunt citite o singură dată fiecare (paginat, doar câmpurile necesare), sumele se fac în ScoreAggregator,
+ * iar diferențele față de scorurile stocate sunt scrise ca incremente cu BulkWriter.
+ * Înainte costul era O(utilizatori × voturi) citiri.
+ *
+ * Voturile comise în timpul rulării sunt înregistrate în ScoreChangeJournal: cele comise după citirea scorului
+ * unui utilizator și văzute deja de scanare sunt scăzute din diferență (altfel ar fi numărate de două ori), iar
+ * utilizatorii cu voturi comise chiar în timpul citirii sau al scanării fazei lor nu sunt scriși (skipped).
+ * Jurnalul presupune că voteCount ajunge în scanare la commit; cu write-behind (VoteCountAggregator), shard-uri
+ * sau replica, voteCount-ul unui vot recent ajunge mai târziu (un flush, o compactare, un snapshot al listener-ului),
+ * deci recalcularea trebuie rulată fără voturi în ultimele secunde dinainte și din timpul ei.
+ *
+ * Rulează pe un thread separat (o singură recalculare odată); progresul se citește din ultimul raport.
+ */
+@Service
+public class ScoreRecomputeService {
+
+    private static final double EPSILON = 1e-9;
+
+    private final UserRepository userRepository;
+    private final BugRepository bugRepository;
+    private final CommentRepository commentRepository;
+    private final VoteRepository voteRepository;
+    private final UserCache userCache;
+    private final ModeratorService moderatorService;
+    private final Leaderboard leaderboard;
+    private final ScoreChangeJournal journal;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "score-recompute");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicReference<ScoreRecomputeReport> current = new AtomicReference<>();
+
+    @Autowired
+    public ScoreRecomputeService(UserRepository userRepository,
+                                 BugRepository bugRepository,
+                                 CommentRepository commentRepository,
+                                 VoteRepository voteRepository,
+                                 UserCache userCache,
+                                 ModeratorService moderatorService,
+                                 Leaderboard leaderboard,
+                                 ScoreChangeJournal journal) {
+        this.userRepository = userRepository;
+        this.bugRepository = bugRepository;
+        this.commentRepository = commentRepository;
+        this.voteRepository = voteRepository;
+        this.userCache = userCache;
+        this.moderatorService = moderatorService;
+        this.leaderboard = leaderboard;
+        this.journal = journal;
+    }
+
+    /**
+     * Pornește recalcularea în fundal și întoarce raportul (actualizat pe parcurs)
+     */
+    public ScoreRecomputeReport start(String moderatorId, boolean dryRun) {
+        if (!moderatorService.isModerator(moderatorId)) {
+            throw new RuntimeException("Only moderators can recalculate all scores");
+        }
+
+        ScoreRecomputeReport report = new ScoreRecomputeReport();
+        report.setDryRun(dryRun);
+        report.setStartedAt(LocalDateTime.now().toString());
+
+        ScoreRecomputeReport previous = current.get();
+        boolean running = previous != null && previous.getStatus() == ScoreRecomputeReport.Status.RUNNING;
+        if (running || !current.compareAndSet(previous, report)) {
+            throw new RuntimeException("A score recalculation is already running");
+        }
+        executor.execute(() -> run(report));
+        return report;
+    }
+
+    public ScoreRecomputeReport status(String moderatorId) {
+        if (!moderatorService.isModerator(moderatorId)) {
+            throw new RuntimeException("Only moderators can view score recalculation status");
+        }
+        ScoreRecomputeReport report = current.get();
+        if (report == null) {
+            throw new RuntimeException("No score recalculation has been started");
+        }
+        return report;
+    }
+
+    void run(ScoreRecomputeReport report) {
+        try (ScoreChangeJournal.Recording votes = journal.startRecording()) {
+            List<String> userIds = new ArrayList<>();
+            Map<String, Double> storedScores = new LinkedHashMap<>();
+            // Scorul fiecărui utilizator e citit între începutul scanării și momentul în care îl primim
+            long usersStart = journal.mark();
+            Map<String, ScoreChangeJournal.Window> reads = new HashMap<>();
+            userRepository.forEachScore((uid, score) -> {
+                userIds.add(uid);
+                storedScores.put(uid, score);
+                reads.put(uid, new ScoreChangeJournal.Window(usersStart, journal.mark()));
+                report.setUsers(userIds.size());
+            });
+
+            ScoreAggregator aggregator = new ScoreAggregator(userIds);
+
+            report.setPhase("bugs");
+            long[] counter = new long[1];
+            ScoreChangeJournal.Window bugs = journal.scan(() -> bugRepository.forEachAuthorVoteCount((authorId, voteCount) -> {
+                aggregator.addBug(authorId, voteCount);
+                report.setBugs(++counter[0]);
+            }));
+
+            report.setPhase("comments");
+            counter[0] = 0;
+            ScoreChangeJournal.Window comments = journal.scan(() -> commentRepository.forEachAuthorVoteCount((authorId, voteCount) -> {
+                aggregator.addComment(authorId, voteCount);
+                report.setComments(++counter[0]);
+            }));
+
+            report.setPhase("votes");
+            counter[0] = 0;
+            ScoreChangeJournal.Window downvotes = journal.scan(() -> voteRepository.forEachDownvoter(voterId -> {
+                aggregator.addDownvote(voterId);
+                report.setDownvotes(++counter[0]);
+            }));
+
+            report.setPhase("aggregate");
+            double[] scores = aggregator.scores(ForkJoinPool.commonPool());
+            ScoreChangeJournal.Corrections corrections = votes.corrections(reads, bugs, comments, downvotes);
+
+            // Scriem diferența față de scorul citit, ca increment, ca voturile comise după scanare să nu se piardă.
+            // Voturile comise între citirea scorului și scanare sunt deja în ambele: incrementul lor e în scorul
+            // stocat, iar voteCount-ul lor în scanare, deci le scădem o dată din diferență.
+            Map<String, Double> scoreDeltas = new LinkedHashMap<>();
+            long skipped = 0;
+            for (int i = 0; i < scores.length; i++) {
+                String uid = userIds.get(i);
+                if (corrections.isUncertain(uid)) {
+                    skipped++;
+                    continue;
+                }
+                double oldScore = storedScores.get(uid);
+                double newScore = scores[i] - corrections.observed(uid);
+                if (Math.abs(oldScore - newScore) > EPSILON) {
+                    scoreDeltas.put(uid, newScore - oldScore);
+                    if (report.getDiffs().size() < ScoreRecomputeReport.MAX_DIFFS) {
+                        report.getDiffs().add(new ScoreRecomputeReport.ScoreDiff(uid, oldScore, newScore));
+                    }
+                }
+            }
+            report.setChanged(scoreDeltas.size());
+            report.setSkipped(skipped);
+
+            if (!report.isDryRun()) {
+                report.setPhase("write");
+                userRepository.incrementScores(scoreDeltas, report::setWritten);
+                scoreDeltas.keySet().forEach(userCache::invalidate);
+                scoreDeltas.forEach(leaderboard::adjust);
+            }
+
+            report.setPhase("done");
+            report.setStatus(ScoreRecomputeReport.Status.DONE);
+        } catch (RuntimeException e) {
+            System.err.println("Score recalculation failed: " + e.getMessage());
+            report.setError(e.getMessage());
+            report.setStatus(ScoreRecomputeReport.Status.FAILED);
+        } finally {
+            report.setFinishedAt(LocalDateTime.now().toString());
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package com.example.bugradar.service;
 
 import com.example.bugradar.entity.Tag;
-import com.example.bugradar.repository.FirestoreTagRepository;
+import com.example.bugradar.repository.TagRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -10,10 +10,10 @@ import java.util.Optional;
 @Service
 public class TagService {
 
-    private final FirestoreTagRepository tagRepository;
+    private final TagRepository tagRepository;
 
     @Autowired
-    public TagService(FirestoreTagRepository tagRepository) {
+    public TagService(TagRepository tagRepository) {
         this.tagRepository = tagRepository;
     }
 
@@ -0,0 +1,95 @@
+package com.example.bugradar.service;
+
+import com.example.bugradar.entity.User;
+import com.example.bugradar.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Cache read-through pentru utilizatori, folosit de verificările de ban/moderator și de UserService.
+ * Mărginit ca dimensiune și cu TTL; orice scriere pe un utilizator trebuie să apeleze invalidate(uid).
+ * Returnează mereu copii, ca modificările făcute de apelanți să nu ajungă în cache.
+ */
+@Component
+public class UserCache {
+
+    private final UserRepository userRepository;
+    private final AsyncCache<String, Optional<User>> cache;
+
+    @Autowired
+    public UserCache(UserRepository userRepository,
+                     @Value("${app.cache.users.max-size:10000}") long maxSize,
+                     @Value("${app.cache.users.ttl:30s}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .executor(Runnable::run) // încărcările sincrone rulează pe thread-ul apelantului
+                .buildAsync();
+    }
+
+    public Optional<User> get(String uid) {
+        return cache.synchronous().get(uid, userRepository::findById).map(UserCache::copy);
+    }
+
+    /**
+     * La miss citirea pornește non-blocant; citirile eșuate nu rămân în cache
+     */
+    public CompletableFuture<Optional<User>> getAsync(String uid) {
+        return cache.get(uid, (key, executor) -> userRepository.findByIdAsync(key))
+                .thenApply(user -> user.map(UserCache::copy));
+    }
+
+    /**
+     * Mai mulți utilizatori odată: cei lipsă din cache sunt citiți cu un singur getAll
+     */
+    public CompletableFuture<Map<String, User>> getAllAsync(Collection<String> uids) {
+        return cache.getAll(uids, (missing, executor) -> userRepository.findAllByIdsAsync(List.copyOf(missing))
+                        .thenApply(found -> {
+                            Map<String, Optional<User>> loaded = new LinkedHashMap<>();
+                            for (String uid : missing) {
+                                loaded.put(uid, Optional.ofNullable(found.get(uid)));
+                            }
+                            return loaded;
+                        }))
+                .thenApply(users -> {
+                    Map<String, User> result = new LinkedHashMap<>();
+                    users.forEach((uid, user) -> user.ifPresent(found -> result.put(uid, copy(found))));
+                    return result;
+                });
+    }
+
+    public void invalidate(String uid) {
+        cache.synchronous().invalidate(uid);
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.synchronous().stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cache.synchronous().estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        result.put("loadFailures", stats.loadFailureCount());
+        return result;
+    }
+
+    private static User copy(User user) {
+        return new User(user.getUid(), user.getUsername(), user.getEmail(),
+                user.getScore(), user.isBanned(), user.isModerator());
+    }
+}
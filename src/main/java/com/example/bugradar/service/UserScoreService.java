@@ -1,49 +1,126 @@
 package com.example.bugradar.service;
 
 import com.example.bugradar.entity.User;
-import com.example.bugradar.entity.Vote;
-import com.example.bugradar.repository.FirestoreBugRepository;
-import com.example.bugradar.repository.FirestoreCommentRepository;
-import com.example.bugradar.repository.FirestoreUserRepository;
-import com.example.bugradar.repository.FirestoreVoteRepository;
+import com.example.bugradar.leaderboard.Leaderboard;
+import com.example.bugradar.repository.BugRepository;
+import com.example.bugradar.repository.CommentRepository;
+import com.example.bugradar.repository.UserRepository;
+import com.example.bugradar.repository.VoteRepository;
+import com.example.bugradar.repository.VoteWrite;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
 
 @Service
 public class UserScoreService {
 
-    private final FirestoreUserRepository userRepository;
-    private final FirestoreVoteRepository voteRepository;
-    private final FirestoreBugRepository bugRepository;
-    private final FirestoreCommentRepository commentRepository;
+    private final UserRepository userRepository;
+    private final VoteRepository voteRepository;
+    private final BugRepository bugRepository;
+    private final CommentRepository commentRepository;
+    private final UserCache userCache;
+    private final Leaderboard leaderboard;
+    private final ScoreChangeJournal journal;
 
     @Autowired
-    public UserScoreService(FirestoreUserRepository userRepository,
-                            FirestoreVoteRepository voteRepository,
-                            FirestoreBugRepository bugRepository,
-                            FirestoreCommentRepository commentRepository) {
+    public UserScoreService(UserRepository userRepository,
+                            VoteRepository voteRepository,
+                            BugRepository bugRepository,
+                            CommentRepository commentRepository,
+                            UserCache userCache,
+                            Leaderboard leaderboard,
+                            ScoreChangeJournal journal) {
         this.userRepository = userRepository;
         this.voteRepository = voteRepository;
         this.bugRepository = bugRepository;
         this.commentRepository = commentRepository;
+        this.userCache = userCache;
+        this.leaderboard = leaderboard;
+        this.journal = journal;
     }
 
     /**
-     * Actualizează scorul unui utilizator bazat pe un vot nou/modificat
-     * Apelată din VoteService când se votează
+     * Completează deltele de scor (autor + votant) pentru un vot nou sau modificat.
+     * Scorurile sunt aplicate ca incremente în același commit cu votul (VoteRepository.applyVote).
      */
-    public void updateUserScoreForVote(String contentAuthorId, String voterId, boolean isUpvote,
-                                       boolean isBug, boolean isNewVote, Boolean previousVoteValue) {
+    public void addScoreChangeForVote(VoteWrite write, String contentAuthorId, String voterId, boolean isUpvote,
+                                      boolean isBug, boolean isNewVote, Boolean previousVoteValue) {
+        ScoreChange change = calculateScoreChange(isUpvote, isBug, isNewVote, previousVoteValue);
+        write.setAuthorId(contentAuthorId);
+        write.setAuthorScoreDelta(change.authorScoreChange);
+        write.setVoterId(voterId);
+        write.setVoterScoreDelta(change.voterScoreChange);
+    }
 
-        User contentAuthor = userRepository.findById(contentAuthorId)
-                .orElseThrow(() -> new RuntimeException("Content author not found"));
+    /**
+     * Retragerea unui vot anulează doar efectul lui (fără a aplica votul opus)
+     */
+    public void addScoreChangeForRemoval(VoteWrite write, String contentAuthorId, String voterId,
+                                         boolean isBug, boolean wasUpvote) {
+        write.setAuthorId(contentAuthorId);
+        write.setVoterId(voterId);
+        if (wasUpvote) {
+            write.setAuthorScoreDelta(isBug ? -2.5 : -5.0);
+            write.setVoterScoreDelta(0);
+        } else {
+            write.setAuthorScoreDelta(isBug ? 1.5 : 2.5);
+            write.setVoterScoreDelta(1.5); // Recuperează penalizarea pentru downvote
+        }
+    }
 
-        User voter = userRepository.findById(voterId)
-                .orElseThrow(() -> new RuntimeException("Voter not found"));
+    /**
+     * Commit-ul voturilor (applyVote / applyVotes), înregistrat în ScoreChangeJournal pentru recalculările
+     * care rulează în paralel; după commit urmează onScoresChanged
+     */
+    public void commit(List<VoteWrite> writes, Runnable commit) {
+        writes.forEach(journal::begin);
+        try {
+            commit.run();
+        } catch (RuntimeException e) {
+            writes.forEach(journal::failed);
+            throw e;
+        }
+        writes.forEach(this::onScoresChanged);
+    }
+
+    public CompletableFuture<Void> commitAsync(VoteWrite write, Supplier<CompletableFuture<Void>> commit) {
+        journal.begin(write);
+        CompletableFuture<Void> future;
+        try {
+            future = commit.get();
+        } catch (RuntimeException e) {
+            journal.failed(write);
+            throw e;
+        }
+        return future.whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        journal.failed(write);
+                    }
+                })
+                .thenRun(() -> onScoresChanged(write));
+    }
 
+    /**
+     * Apelată după commit: scorurile din cache sunt vechi, iar clasamentul primește aceleași incremente
+     */
+    public void onScoresChanged(VoteWrite write) {
+        journal.committed(write);
+        if (write.getAuthorId() != null) {
+            userCache.invalidate(write.getAuthorId());
+            leaderboard.adjust(write.getAuthorId(), write.getAuthorScoreDelta());
+        }
+        if (write.getVoterScoreDelta() != 0) {
+            userCache.invalidate(write.getVoterId());
+            leaderboard.adjust(write.getVoterId(), write.getVoterScoreDelta());
+        }
+    }
+
+    private ScoreChange calculateScoreChange(boolean isUpvote, boolean isBug, boolean isNewVote, Boolean previousVoteValue) {
         double authorScoreChange = 0;
         double voterScoreChange = 0;
 
@@ -81,57 +158,54 @@ public class UserScoreService {
             }
         }
 
-        // Actualizăm scorurile
-        contentAuthor.setScore(contentAuthor.getScore() + authorScoreChange);
-        userRepository.save(contentAuthor);
+        return new ScoreChange(authorScoreChange, voterScoreChange);
+    }
+
+    private static final class ScoreChange {
+        private final double authorScoreChange;
+        private final double voterScoreChange;
 
-        if (voterScoreChange != 0) {
-            voter.setScore(voter.getScore() + voterScoreChange);
-            userRepository.save(voter);
+        private ScoreChange(double authorScoreChange, double voterScoreChange) {
+            this.authorScoreChange = authorScoreChange;
+            this.voterScoreChange = voterScoreChange;
         }
     }
 
     /**
      * Recalculează complet scorul unui utilizator pe baza tuturor voturilor
-     * Util pentru migrare sau verificări de consistență
+     * Util pentru migrare sau verificări de consistență.
+     * Scrie diferența ca increment (ca recalcularea completă), deci voturile comise între timp nu se pierd;
+     * cele comise în timpul citirilor sunt scăzute prin ScoreChangeJournal.
      */
     public void recalculateUserScore(String userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        // Folosim AtomicReference pentru a putea modifica în lambda
-        AtomicReference<Double> totalScore = new AtomicReference<>(0.0);
-
-        // Calculăm punctele din bug-urile utilizatorului
-        bugRepository.findByAuthorId(userId).forEach(bug -> {
-            totalScore.updateAndGet(score -> score + (bug.getVoteCount() * 2.5));
-        });
-
-        // Calculăm punctele din comentariile utilizatorului
-        commentRepository.findByAuthorId(userId).forEach(comment -> {
-            totalScore.updateAndGet(score -> score + (comment.getVoteCount() * 5.0));
-        });
-
-        // Calculăm penalizările pentru downvote-urile date de utilizator
-        List<Vote> userDownvotes = voteRepository.findAll().stream()
-                .filter(vote -> vote.getUserId().equals(userId) && !vote.isUpvote())
-                .toList();
-
-        // Aplicăm penalizarea pentru downvote-uri
-        double downvotePenalty = userDownvotes.size() * 1.5;
-        totalScore.updateAndGet(score -> score - downvotePenalty);
-
-        user.setScore(totalScore.get());
-        userRepository.save(user);
-    }
-
-    /**
-     * Recalculează scorurile tuturor utilizatorilor
-     */
-    public void recalculateAllUserScores() {
-        List<User> allUsers = userRepository.findAll();
-        for (User user : allUsers) {
-            recalculateUserScore(user.getUid());
+        try (ScoreChangeJournal.Recording votes = journal.startRecording()) {
+            long readStart = journal.mark();
+            User user = userRepository.findById(userId)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+            ScoreChangeJournal.Window read = new ScoreChangeJournal.Window(readStart, journal.mark());
+
+            // Aceeași formulă ca recalcularea completă (ScoreAggregator)
+            ScoreAggregator aggregator = new ScoreAggregator(List.of(userId));
+            ScoreChangeJournal.Window bugs = journal.scan(() -> bugRepository.findSummariesByAuthorId(userId)
+                    .forEach(bug -> aggregator.addBug(userId, bug.getVoteCount())));
+            ScoreChangeJournal.Window comments = journal.scan(() -> commentRepository.findByAuthorId(userId)
+                    .forEach(comment -> aggregator.addComment(userId, comment.getVoteCount())));
+
+            // Doar downvote-urile utilizatorului, numărate de Firestore (nu mai citim toate voturile)
+            long[] downvotes = new long[1];
+            ScoreChangeJournal.Window downvoteScan = journal.scan(() -> downvotes[0] = voteRepository.countDownvotesByUser(userId));
+
+            ScoreChangeJournal.Corrections corrections = votes.corrections(Map.of(userId, read), bugs, comments, downvoteScan);
+            if (corrections.isUncertain(userId)) {
+                throw new RuntimeException("Votes were applied during the recalculation, please retry");
+            }
+            double score = aggregator.scores(ForkJoinPool.commonPool())[0] - downvotes[0] * ScoreAggregator.DOWNVOTE_PENALTY;
+            double delta = score - user.getScore() - corrections.observed(userId);
+            if (Math.abs(delta) > 1e-9) {
+                userRepository.incrementScores(Map.of(userId, delta), written -> { });
+                leaderboard.adjust(userId, delta);
+            }
+            userCache.invalidate(userId);
         }
     }
-}
\ No newline at end of file
+}
@@ -1,23 +1,84 @@
 package com.example.bugradar.service;
 
+import com.example.bugradar.dto.LeaderboardEntry;
 import com.example.bugradar.dto.UserDto;
 import com.example.bugradar.entity.User;
-import com.example.bugradar.repository.FirestoreUserRepository;
+import com.example.bugradar.leaderboard.Leaderboard;
+import com.example.bugradar.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 public class UserService {
 
-    private final FirestoreUserRepository userRepository;
+    // După o reconstruire eșuată, cererile nu mai pornesc alta timp de LEADERBOARD_RETRY_MILLIS
+    private static final long LEADERBOARD_RETRY_MILLIS = 30_000;
+
+    private final UserRepository userRepository;
     private final ModeratorService moderatorService;
+    private final UserCache userCache;
+    private final Leaderboard leaderboard;
+
+    private final ReentrantLock leaderboardRebuild = new ReentrantLock();
+    private volatile long lastFailedRebuildMillis = 0;
 
     @Autowired
-    public UserService(FirestoreUserRepository userRepository, ModeratorService moderatorService) {
+    public UserService(UserRepository userRepository, ModeratorService moderatorService, UserCache userCache,
+                       Leaderboard leaderboard,
+                       @Value("${app.leaderboard.reconcile-interval:10m}") Duration reconcileInterval) {
         this.userRepository = userRepository;
         this.moderatorService = moderatorService;
+        this.userCache = userCache;
+        this.leaderboard = leaderboard;
+
+        // Reconstruirea periodică aduce clasamentul la zi cu scorurile scrise de alte instanțe (sau pierdute)
+        if (!reconcileInterval.isZero() && !reconcileInterval.isNegative()) {
+            ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "leaderboard-reconcile");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long millis = reconcileInterval.toMillis();
+            scheduler.scheduleWithFixedDelay(this::rebuildLeaderboard, millis, millis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Populăm clasamentul dintr-o singură citire la pornire (doar username și score)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpLeaderboard() {
+        rebuildLeaderboard();
+    }
+
+    /**
+     * O singură reconstruire odată; modificările primite în timpul scanării sunt reaplicate de Leaderboard.Rebuild
+     */
+    private void rebuildLeaderboard() {
+        leaderboardRebuild.lock();
+        try {
+            Leaderboard.Rebuild rebuild = leaderboard.beginRebuild();
+            try {
+                userRepository.forEachRanking(rebuild::add);
+                rebuild.commit();
+            } catch (RuntimeException e) {
+                rebuild.cancel();
+                lastFailedRebuildMillis = System.currentTimeMillis();
+                System.err.println("Failed to build leaderboard: " + e.getMessage());
+            }
+        } finally {
+            leaderboardRebuild.unlock();
+        }
     }
 
     public User createUser(String uid, UserDto userDto) {
@@ -28,11 +89,14 @@ public class UserService {
         user.setScore(0); // Scor inițial
         user.setBanned(false);
         user.setModerator(false);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userCache.invalidate(uid); // poate exista un "not found" în cache
+        leaderboard.put(uid, saved.getUsername(), saved.getScore());
+        return saved;
     }
 
     public User getUserById(String uid) {
-        return userRepository.findById(uid)
+        return userCache.get(uid)
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
@@ -49,11 +113,16 @@ public class UserService {
             throw new RuntimeException("Not authorized to update this user");
         }
 
-        User user = getUserById(uid);
+        // Citim direct din Firestore: nu scriem înapoi o versiune din cache (scor/ban posibil expirate)
+        User user = userRepository.findById(uid)
+                .orElseThrow(() -> new RuntimeException("User not found"));
         user.setUsername(userDto.getUsername());
         user.setEmail(userDto.getEmail());
         // Nu permitem modificarea scorului, isBanned sau isModerator prin această metodă
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        userCache.invalidate(uid);
+        leaderboard.rename(uid, saved.getUsername());
+        return saved;
     }
 
     public void deleteUser(String uid, String currentUserId) {
@@ -66,6 +135,8 @@ public class UserService {
         }
 
         userRepository.deleteById(uid);
+        userCache.invalidate(uid);
+        leaderboard.remove(uid);
     }
 
     /**
@@ -78,13 +149,51 @@ public class UserService {
     }
 
     /**
-     * Obține toți utilizatorii sortați după scor (leaderboard)
+     * O pagină din clasament (leaderboard), servită din memorie
      */
-    public List<User> getUsersByScore() {
-        List<User> users = userRepository.findAll();
-        // Sortăm descrescător după scor
-        users.sort((u1, u2) -> Double.compare(u2.getScore(), u1.getScore()));
-        return users;
+    public List<LeaderboardEntry> getLeaderboard(int offset, int size) {
+        ensureLeaderboard();
+        return leaderboard.page(offset, size);
+    }
+
+    /**
+     * Poziția utilizatorului în clasament
+     */
+    public LeaderboardEntry getLeaderboardEntry(String uid) {
+        ensureLeaderboard();
+        return leaderboard.find(uid)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    /**
+     * Utilizatorul și vecinii lui din clasament (radius poziții în fiecare direcție)
+     */
+    public List<LeaderboardEntry> getLeaderboardAround(String uid, int radius) {
+        ensureLeaderboard();
+        List<LeaderboardEntry> entries = leaderboard.around(uid, radius);
+        if (entries.isEmpty()) {
+            throw new RuntimeException("User not found");
+        }
+        return entries;
+    }
+
+    // Dacă popularea de la pornire a eșuat, mai încercăm la o cerere; cererile concurente așteaptă aceeași încercare
+    private void ensureLeaderboard() {
+        if (leaderboard.isReady()) {
+            return;
+        }
+        leaderboardRebuild.lock();
+        try {
+            if (!leaderboard.isReady()
+                    && System.currentTimeMillis() - lastFailedRebuildMillis >= LEADERBOARD_RETRY_MILLIS) {
+                rebuildLeaderboard();
+            }
+        } finally {
+            leaderboardRebuild.unlock();
+        }
+        if (!leaderboard.isReady()) {
+            throw new RuntimeException("Leaderboard is not available");
+        }
     }
 
     /**
@@ -0,0 +1,132 @@
+package com.example.bugradar.service;
+
+import com.example.bugradar.entity.Bug;
+import com.example.bugradar.entity.Comment;
+import com.example.bugradar.entity.Vote;
+import com.example.bugradar.repository.BugRepository;
+import com.example.bugradar.repository.CommentRepository;
+import com.example.bugradar.repository.VoteRepository;
+import com.example.bugradar.repository.Versioned;
+import com.example.bugradar.repository.VoteWrite;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Migrarea voturilor vechi (ID-uri aleatoare) pe ID-urile deterministe b_{bugId}_{userId} / c_{commentId}_{userId}.
+ * Duplicatele aceluiași utilizator pe aceeași țintă sunt unite: rămâne votul modificat cel mai recent, iar
+ * efectul celorlalte (voteCount + scoruri) este anulat. Poate fi rulată de mai multe ori; după ce raportul
+ * nu mai găsește nimic de migrat se poate seta app.votes.legacy-lookup=false.
+ */
+@Service
+public class VoteMigrationService {
+
+    private final VoteRepository voteRepository;
+    private final BugRepository bugRepository;
+    private final CommentRepository commentRepository;
+    private final UserScoreService userScoreService;
+    private final ModeratorService moderatorService;
+
+    @Autowired
+    public VoteMigrationService(VoteRepository voteRepository,
+                                BugRepository bugRepository,
+                                CommentRepository commentRepository,
+                                UserScoreService userScoreService,
+                                ModeratorService moderatorService) {
+        this.voteRepository = voteRepository;
+        this.bugRepository = bugRepository;
+        this.commentRepository = commentRepository;
+        this.userScoreService = userScoreService;
+        this.moderatorService = moderatorService;
+    }
+
+    /**
+     * Voturile sunt parcurse pagină cu pagină; pentru fiecare vot vechi se recitesc toate voturile utilizatorului
+     * pe aceeași țintă, deci duplicatele sunt găsite indiferent de pagina pe care se află
+     */
+    public Map<String, Object> migrateVoteIds(String moderatorId) {
+        if (!moderatorService.isModerator(moderatorId)) {
+            throw new RuntimeException("Only moderators can run migrations");
+        }
+
+        Progress progress = new Progress();
+        long scanned = voteRepository.forEachVersioned(versioned -> {
+            Vote vote = versioned.getValue();
+            if (vote.getUserId() == null || (vote.getBugId() == null && vote.getCommentId() == null)
+                    || VoteRepository.idFor(vote).equals(vote.getId())) {
+                return;
+            }
+            try {
+                migrateTarget(vote, progress);
+            } catch (RuntimeException e) {
+                // Un vot scris între timp pe aceeași țintă: recitim voturile ei o singură dată
+                try {
+                    if (!voteRepository.isConflict(e)) {
+                        throw e;
+                    }
+                    migrateTarget(vote, progress);
+                } catch (RuntimeException again) {
+                    System.err.println("Failed to migrate votes for " + VoteRepository.idFor(vote) + ": " + again.getMessage());
+                    progress.failed++;
+                }
+            }
+        });
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("scanned", scanned);
+        report.put("moved", progress.moved);
+        report.put("duplicatesRemoved", progress.duplicatesRemoved);
+        report.put("failed", progress.failed);
+        return report;
+    }
+
+    private void migrateTarget(Vote vote, Progress progress) {
+        String id = VoteRepository.idFor(vote);
+        List<Versioned<Vote>> group = new ArrayList<>(voteRepository.findAllVersionedOnSameTarget(vote));
+        // Migrată deja (de la un vot vechi de pe o pagină anterioară)
+        if (group.isEmpty() || group.size() == 1 && id.equals(group.get(0).getValue().getId())) {
+            return;
+        }
+
+        // Păstrăm votul cel mai recent; celelalte sunt șterse împreună cu efectul lor
+        group.sort(Comparator.comparingLong(Versioned::getVersion));
+        Versioned<Vote> kept = group.get(group.size() - 1);
+        for (Versioned<Vote> duplicate : group.subList(0, group.size() - 1)) {
+            VoteWrite removal = removalOf(duplicate);
+            userScoreService.commit(List.of(removal), () -> voteRepository.applyVote(removal));
+            progress.duplicatesRemoved++;
+        }
+        if (!id.equals(kept.getValue().getId())) {
+            voteRepository.moveToDeterministicId(kept);
+            progress.moved++;
+        }
+    }
+
+    private static final class Progress {
+        private int moved;
+        private int duplicatesRemoved;
+        private int failed;
+    }
+
+    private VoteWrite removalOf(Versioned<Vote> duplicate) {
+        Vote vote = duplicate.getValue();
+        boolean isBug = vote.getBugId() != null;
+        VoteWrite write = VoteWrite.delete(duplicate);
+
+        // Dacă ținta nu mai există, ștergem doar votul
+        Optional<String> authorId = isBug
+                ? bugRepository.findById(vote.getBugId()).map(Bug::getAuthorId)
+                : commentRepository.findById(vote.getCommentId()).map(Comment::getAuthorId);
+        if (authorId.isPresent()) {
+            write.setVoteCountDelta(vote.isUpvote() ? -1 : 1);
+            userScoreService.addScoreChangeForRemoval(write, authorId.get(), vote.getUserId(), isBug, vote.isUpvote());
+        }
+        return write;
+    }
+}
@@ -1,29 +1,45 @@
 package com.example.bugradar.service;
 
+import com.example.bugradar.dto.VoteBatchItem;
+import com.example.bugradar.dto.VoteBatchResult;
 import com.example.bugradar.entity.Bug;
 import com.example.bugradar.entity.Comment;
 import com.example.bugradar.entity.Vote;
-import com.example.bugradar.repository.FirestoreBugRepository;
-import com.example.bugradar.repository.FirestoreCommentRepository;
-import com.example.bugradar.repository.FirestoreVoteRepository;
+import com.example.bugradar.repository.BugRepository;
+import com.example.bugradar.repository.CommentRepository;
+import com.example.bugradar.repository.VoteRepository;
+import com.example.bugradar.repository.Versioned;
+import com.example.bugradar.repository.VoteWrite;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 
 @Service
 public class VoteService {
 
-    private final FirestoreVoteRepository voteRepository;
-    private final FirestoreBugRepository bugRepository;
-    private final FirestoreCommentRepository commentRepository;
+    public static final int MAX_BATCH_OPERATIONS = 500;
+
+    private final VoteRepository voteRepository;
+    private final BugRepository bugRepository;
+    private final CommentRepository commentRepository;
     private final UserScoreService userScoreService;
     private final ModeratorService moderatorService;
 
     @Autowired
-    public VoteService(FirestoreVoteRepository voteRepository,
-                       FirestoreBugRepository bugRepository,
-                       FirestoreCommentRepository commentRepository,
+    public VoteService(VoteRepository voteRepository,
+                       BugRepository bugRepository,
+                       CommentRepository commentRepository,
                        UserScoreService userScoreService,
                        ModeratorService moderatorService) {
         this.voteRepository = voteRepository;
@@ -33,116 +49,134 @@ public class VoteService {
         this.moderatorService = moderatorService;
     }
 
-    public void voteOnBug(String bugId, String userId, boolean isUpvote) {
-        // Verificăm dacă utilizatorul este banat
-        moderatorService.checkUserAccess(userId);
+    /**
+     * Verificarea de ban, citirea bug-ului și căutarea votului existent pornesc în paralel;
+     * apoi votul, voteCount-ul și scorurile sunt scrise într-un singur commit atomic.
+     */
+    public CompletableFuture<Void> voteOnBug(String bugId, String userId, boolean isUpvote) {
+        return retryOnConflict(() -> attemptBugVote(bugId, userId, isUpvote));
+    }
 
-        Bug bug = bugRepository.findById(bugId)
-                .orElseThrow(() -> new RuntimeException("Bug not found"));
+    private CompletableFuture<Void> attemptBugVote(String bugId, String userId, boolean isUpvote) {
+        CompletableFuture<Void> access = moderatorService.checkUserAccessAsync(userId);
+        CompletableFuture<Bug> bugFuture = bugRepository.findByIdAsync(bugId)
+                .thenApply(bug -> bug.orElseThrow(() -> new RuntimeException("Bug not found")));
+        CompletableFuture<Optional<Versioned<Vote>>> voteFuture = voteRepository.findByUserIdAndBugIdAsync(userId, bugId);
+
+        // thenCombine păstrează ordinea erorilor: ban > bug inexistent > eroare la citirea votului
+        return access
+                .thenCombine(bugFuture, (ignored, bug) -> bug)
+                .thenCombine(voteFuture, (bug, existingVote) -> prepareBugVote(bug, existingVote, userId, isUpvote))
+                .thenCompose(this::applyVote);
+    }
 
+    private VoteWrite prepareBugVote(Bug bug, Optional<Versioned<Vote>> existingVote, String userId, boolean isUpvote) {
         // Verificăm dacă utilizatorul este autorul (nu poate vota propriul bug)
         if (bug.getAuthorId().equals(userId)) {
             throw new RuntimeException("Cannot vote on your own bug");
         }
 
-        Optional<Vote> existingVote = voteRepository.findByUserIdAndBugId(userId, bugId);
-        boolean isNewVote = existingVote.isEmpty();
-        Boolean previousVoteValue = existingVote.map(Vote::isUpvote).orElse(null);
-
+        VoteWrite write;
         if (existingVote.isPresent()) {
-            Vote vote = existingVote.get();
+            Vote vote = existingVote.get().getValue();
             // Dacă votul este același, nu facem nimic
             if (vote.isUpvote() == isUpvote) {
-                return;
+                return null;
             }
 
             // Actualizăm votul existent
             vote.setUpvote(isUpvote);
-            voteRepository.save(vote);
-
-            // Actualizăm numărul de voturi pentru bug
-            int voteChange = isUpvote ? 2 : -2; // +2 pentru schimbare de la down la up, -2 pentru schimbare de la up la down
-            bug.setVoteCount(bug.getVoteCount() + voteChange);
+            write = VoteWrite.update(existingVote.get());
+            write.setVoteCountDelta(isUpvote ? 2 : -2); // +2 pentru schimbare de la down la up, -2 invers
         } else {
             // Creăm un vot nou
             Vote vote = new Vote();
             vote.setUserId(userId);
-            vote.setBugId(bugId);
+            vote.setBugId(bug.getId());
             vote.setUpvote(isUpvote);
-            voteRepository.save(vote);
-
-            // Actualizăm numărul de voturi pentru bug
-            int voteChange = isUpvote ? 1 : -1;
-            bug.setVoteCount(bug.getVoteCount() + voteChange);
+            write = VoteWrite.create(vote);
+            write.setVoteCountDelta(isUpvote ? 1 : -1);
         }
 
-        bugRepository.save(bug);
-
-        // BONUS 1: Actualizăm scorul utilizatorilor
-        userScoreService.updateUserScoreForVote(
-                bug.getAuthorId(),
-                userId,
-                isUpvote,
-                true, // este bug
-                isNewVote,
-                previousVoteValue
-        );
+        // BONUS 1: scorurile utilizatorilor intră în același commit
+        userScoreService.addScoreChangeForVote(write, bug.getAuthorId(), userId, isUpvote, true,
+                existingVote.isEmpty(), existingVote.map(v -> !isUpvote).orElse(null));
+        return write;
     }
 
-    public void voteOnComment(String commentId, String userId, boolean isUpvote) {
-        // Verificăm dacă utilizatorul este banat
-        moderatorService.checkUserAccess(userId);
+    public CompletableFuture<Void> voteOnComment(String commentId, String userId, boolean isUpvote) {
+        return retryOnConflict(() -> attemptCommentVote(commentId, userId, isUpvote));
+    }
 
-        Comment comment = commentRepository.findById(commentId)
-                .orElseThrow(() -> new RuntimeException("Comment not found"));
+    private CompletableFuture<Void> attemptCommentVote(String commentId, String userId, boolean isUpvote) {
+        CompletableFuture<Void> access = moderatorService.checkUserAccessAsync(userId);
+        CompletableFuture<Comment> commentFuture = commentRepository.findByIdAsync(commentId)
+                .thenApply(comment -> comment.orElseThrow(() -> new RuntimeException("Comment not found")));
+        CompletableFuture<Optional<Versioned<Vote>>> voteFuture =
+                voteRepository.findByUserIdAndCommentIdAsync(userId, commentId);
+
+        return access
+                .thenCombine(commentFuture, (ignored, comment) -> comment)
+                .thenCombine(voteFuture, (comment, existingVote) -> prepareCommentVote(comment, existingVote, userId, isUpvote))
+                .thenCompose(this::applyVote);
+    }
 
+    private VoteWrite prepareCommentVote(Comment comment, Optional<Versioned<Vote>> existingVote, String userId, boolean isUpvote) {
         // Verificăm dacă utilizatorul este autorul (nu poate vota propriul comentariu)
         if (comment.getAuthorId().equals(userId)) {
             throw new RuntimeException("Cannot vote on your own comment");
         }
 
-        Optional<Vote> existingVote = voteRepository.findByUserIdAndCommentId(userId, commentId);
-        boolean isNewVote = existingVote.isEmpty();
-        Boolean previousVoteValue = existingVote.map(Vote::isUpvote).orElse(null);
-
+        VoteWrite write;
         if (existingVote.isPresent()) {
-            Vote vote = existingVote.get();
+            Vote vote = existingVote.get().getValue();
             // Dacă votul este același, nu facem nimic
             if (vote.isUpvote() == isUpvote) {
-                return;
+                return null;
             }
 
             // Actualizăm votul existent
             vote.setUpvote(isUpvote);
-            voteRepository.save(vote);
-
-            // Actualizăm numărul de voturi pentru comentariu
-            int voteChange = isUpvote ? 2 : -2;
-            comment.setVoteCount(comment.getVoteCount() + voteChange);
+            write = VoteWrite.update(existingVote.get());
+            write.setVoteCountDelta(isUpvote ? 2 : -2);
         } else {
             // Creăm un vot nou
             Vote vote = new Vote();
             vote.setUserId(userId);
-            vote.setCommentId(commentId);
+            vote.setCommentId(comment.getId());
             vote.setUpvote(isUpvote);
-            voteRepository.save(vote);
-
-            // Actualizăm numărul de voturi pentru comentariu
-            int voteChange = isUpvote ? 1 : -1;
-            comment.setVoteCount(comment.getVoteCount() + voteChange);
+            write = VoteWrite.create(vote);
+            write.setVoteCountDelta(isUpvote ? 1 : -1);
         }
 
-        commentRepository.save(comment);
+        // BONUS 1: scorurile utilizatorilor intră în același commit
+        userScoreService.addScoreChangeForVote(write, comment.getAuthorId(), userId, isUpvote, false,
+                existingVote.isEmpty(), existingVote.map(v -> !isUpvote).orElse(null));
+        return write;
+    }
+
+    /**
+     * O cerere concurentă a aceluiași utilizator a scris votul între citire și commit; recitim o singură dată,
+     * iar a doua încercare vede votul existent și aplică doar diferența (sau nimic, dacă e același vot)
+     */
+    private CompletableFuture<Void> retryOnConflict(Supplier<CompletableFuture<Void>> attempt) {
+        return attempt.get()
+                .handle((ignored, error) -> {
+                    if (error == null) {
+                        return CompletableFuture.<Void>completedFuture(null);
+                    }
+                    return voteRepository.isConflict(error)
+                            ? attempt.get()
+                            : CompletableFuture.<Void>failedFuture(error);
+                })
+                .thenCompose(next -> next);
+    }
 
-        // BONUS 1: Actualizăm scorul utilizatorilor
-        userScoreService.updateUserScoreForVote(
-                comment.getAuthorId(),
-                userId,
-                isUpvote,
-                false, // este comentariu
-                isNewVote,
-                previousVoteValue
-        );
+    private CompletableFuture<Void> applyVote(VoteWrite write) {
+        if (write == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return userScoreService.commitAsync(write, () -> voteRepository.applyVoteAsync(write));
     }
 
     /**
@@ -151,56 +185,164 @@ public class VoteService {
     public void removeVoteOnBug(String bugId, String userId) {
         moderatorService.checkUserAccess(userId);
 
-        Optional<Vote> vote = voteRepository.findByUserIdAndBugId(userId, bugId);
+        Optional<Versioned<Vote>> vote = voteRepository.findByUserIdAndBugId(userId, bugId);
         if (vote.isPresent()) {
             Bug bug = bugRepository.findById(bugId)
                     .orElseThrow(() -> new RuntimeException("Bug not found"));
 
-            // Actualizăm numărul de voturi
-            int voteChange = vote.get().isUpvote() ? -1 : 1;
-            bug.setVoteCount(bug.getVoteCount() + voteChange);
-            bugRepository.save(bug);
-
-            // Ștergem votul
-            voteRepository.deleteById(vote.get().getId());
-
-            // Actualizăm scorurile (inversăm efectul votului)
-            userScoreService.updateUserScoreForVote(
-                    bug.getAuthorId(),
-                    userId,
-                    !vote.get().isUpvote(), // inversăm votul pentru a-l anula
-                    true,
-                    false,
-                    vote.get().isUpvote()
-            );
+            VoteWrite write = removalOf(vote.get(), bug.getAuthorId(), userId, true);
+            userScoreService.commit(List.of(write), () -> voteRepository.applyVote(write));
         }
     }
 
     public void removeVoteOnComment(String commentId, String userId) {
         moderatorService.checkUserAccess(userId);
 
-        Optional<Vote> vote = voteRepository.findByUserIdAndCommentId(userId, commentId);
+        Optional<Versioned<Vote>> vote = voteRepository.findByUserIdAndCommentId(userId, commentId);
         if (vote.isPresent()) {
             Comment comment = commentRepository.findById(commentId)
                     .orElseThrow(() -> new RuntimeException("Comment not found"));
 
-            // Actualizăm numărul de voturi
-            int voteChange = vote.get().isUpvote() ? -1 : 1;
-            comment.setVoteCount(comment.getVoteCount() + voteChange);
-            commentRepository.save(comment);
-
-            // Ștergem votul
-            voteRepository.deleteById(vote.get().getId());
-
-            // Actualizăm scorurile
-            userScoreService.updateUserScoreForVote(
-                    comment.getAuthorId(),
-                    userId,
-                    !vote.get().isUpvote(),
-                    false,
-                    false,
-                    vote.get().isUpvote()
-            );
+            VoteWrite write = removalOf(vote.get(), comment.getAuthorId(), userId, false);
+            userScoreService.commit(List.of(write), () -> voteRepository.applyVote(write));
         }
     }
-}
\ No newline at end of file
+
+    private VoteWrite removalOf(Versioned<Vote> vote, String contentAuthorId, String userId, boolean isBug) {
+        boolean wasUpvote = vote.getValue().isUpvote();
+        VoteWrite write = VoteWrite.delete(vote);
+        write.setVoteCountDelta(wasUpvote ? -1 : 1);
+        userScoreService.addScoreChangeForRemoval(write, contentAuthorId, userId, isBug, wasUpvote);
+        return write;
+    }
+
+    /**
+     * Voturi trimise în bloc de clienții care au votat offline. Pe fiecare țintă contează doar ultima operație;
+     * bug-urile, comentariile și voturile existente sunt citite cu câte un getAll, iar scrierile merg în commit-uri
+     * de cel mult VoteRepository.MAX_VOTES_PER_BATCH voturi. Un commit eșuat (de obicei un conflict cu
+     * o cerere concurentă) nu aplică nimic și e reluat vot cu vot pe calea obișnuită.
+     */
+    public List<VoteBatchResult> applyBatch(String userId, List<VoteBatchItem> items) {
+        if (items.size() > MAX_BATCH_OPERATIONS) {
+            throw new RuntimeException("Too many operations in one batch (max " + MAX_BATCH_OPERATIONS + ")");
+        }
+        moderatorService.checkUserAccess(userId);
+
+        VoteBatchResult[] results = new VoteBatchResult[items.size()];
+        // ID-ul determinist al votului -> indexul ultimei operații pe ținta respectivă
+        Map<String, Integer> latest = new LinkedHashMap<>();
+        Set<String> bugIds = new LinkedHashSet<>();
+        Set<String> commentIds = new LinkedHashSet<>();
+        for (int index = 0; index < items.size(); index++) {
+            VoteBatchItem item = items.get(index);
+            if ((item.getBugId() == null) == (item.getCommentId() == null)) {
+                results[index] = failed(index, "Exactly one of bugId and commentId is required");
+                continue;
+            }
+            String voteId;
+            if (item.getBugId() != null) {
+                voteId = VoteRepository.bugVoteId(item.getBugId(), userId);
+                bugIds.add(item.getBugId());
+            } else {
+                voteId = VoteRepository.commentVoteId(item.getCommentId(), userId);
+                commentIds.add(item.getCommentId());
+            }
+            Integer previous = latest.put(voteId, index);
+            if (previous != null) {
+                results[previous] = new VoteBatchResult(previous, VoteBatchResult.Status.SUPERSEDED, null);
+            }
+        }
+
+        Map<String, Bug> bugs = bugRepository.findAllByIds(bugIds);
+        Map<String, Comment> comments = commentRepository.findAllByIds(commentIds);
+        Map<String, Versioned<Vote>> existingVotes = voteRepository.findByUserIdAndTargets(userId, bugIds, commentIds);
+
+        List<Integer> indexes = new ArrayList<>();
+        List<VoteWrite> writes = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : latest.entrySet()) {
+            int index = entry.getValue();
+            try {
+                VoteWrite write = prepareBatchItem(items.get(index), userId, bugs, comments,
+                        Optional.ofNullable(existingVotes.get(entry.getKey())));
+                if (write == null) {
+                    results[index] = new VoteBatchResult(index, VoteBatchResult.Status.UNCHANGED, null);
+                } else {
+                    indexes.add(index);
+                    writes.add(write);
+                }
+            } catch (RuntimeException e) {
+                results[index] = failed(index, e.getMessage());
+            }
+        }
+
+        for (int from = 0; from < writes.size(); from += VoteRepository.MAX_VOTES_PER_BATCH) {
+            int to = Math.min(writes.size(), from + VoteRepository.MAX_VOTES_PER_BATCH);
+            List<VoteWrite> chunk = writes.subList(from, to);
+            try {
+                userScoreService.commit(chunk, () -> voteRepository.applyVotes(chunk));
+                for (int i = from; i < to; i++) {
+                    results[indexes.get(i)] = new VoteBatchResult(indexes.get(i), VoteBatchResult.Status.APPLIED, null);
+                }
+            } catch (RuntimeException e) {
+                for (int i = from; i < to; i++) {
+                    int index = indexes.get(i);
+                    results[index] = applySingle(index, items.get(index), userId);
+                }
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private VoteWrite prepareBatchItem(VoteBatchItem item, String userId, Map<String, Bug> bugs,
+                                       Map<String, Comment> comments, Optional<Versioned<Vote>> existingVote) {
+        if (item.getUpvote() == null && existingVote.isEmpty()) {
+            return null; // nimic de retras
+        }
+        if (item.getBugId() != null) {
+            Bug bug = bugs.get(item.getBugId());
+            if (bug == null) {
+                throw new RuntimeException("Bug not found");
+            }
+            return item.getUpvote() == null
+                    ? removalOf(existingVote.get(), bug.getAuthorId(), userId, true)
+                    : prepareBugVote(bug, existingVote, userId, item.getUpvote());
+        }
+        Comment comment = comments.get(item.getCommentId());
+        if (comment == null) {
+            throw new RuntimeException("Comment not found");
+        }
+        return item.getUpvote() == null
+                ? removalOf(existingVote.get(), comment.getAuthorId(), userId, false)
+                : prepareCommentVote(comment, existingVote, userId, item.getUpvote());
+    }
+
+    /**
+     * Calea obișnuită (cu recitire și reîncercare la conflict) pentru un vot din batch
+     */
+    private VoteBatchResult applySingle(int index, VoteBatchItem item, String userId) {
+        try {
+            if (item.getBugId() != null) {
+                if (item.getUpvote() == null) {
+                    removeVoteOnBug(item.getBugId(), userId);
+                } else {
+                    voteOnBug(item.getBugId(), userId, item.getUpvote()).join();
+                }
+            } else {
+                if (item.getUpvote() == null) {
+                    removeVoteOnComment(item.getCommentId(), userId);
+                } else {
+                    voteOnComment(item.getCommentId(), userId, item.getUpvote()).join();
+                }
+            }
+            return new VoteBatchResult(index, VoteBatchResult.Status.APPLIED, null);
+        } catch (CompletionException e) {
+            return failed(index, e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+        } catch (RuntimeException e) {
+            return failed(index, e.getMessage());
+        }
+    }
+
+    private static VoteBatchResult failed(int index, String error) {
+        return new VoteBatchResult(index, VoteBatchResult.Status.FAILED, error);
+    }
+}
@@ -0,0 +1,590 @@
+package com.example.bugradar.stream;
+
+import com.example.bugradar.dto.BugSummary;
+import com.example.bugradar.dto.LiveEvent;
+import com.example.bugradar.entity.Comment;
+import com.example.bugradar.repository.BugRepository;
+import com.example.bugradar.repository.CommentRepository;
+import com.example.bugradar.repository.ChangeRegistration;
+import com.example.bugradar.repository.SnapshotChange;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Feed-ul live din /api/stream. Un singur listener per colecție (bugs, comments), pornit la primul abonat,
+ * alimentează toți clienții SSE: fiecare eveniment e serializat o singură dată și pus în coada fiecărui abonat
+ * interesat (filtre pe bugId / tag). Cu replica bug-urilor activă, modificările bug-urilor vin din listenerul ei.
+ *
+ * Listenerul de comentarii ascultă doar comentariile create de la pornirea lui (fără citirea întregii colecții).
+ * Pentru bug-urile urmărite explicit (filtrul bugId) mai pornim câte un listener pe thread-ul lor, care trimite
+ * modificările comentariilor mai vechi (voturi, editări, ștergeri); cel mult app.stream.max-thread-listeners.
+ * Abonații fără filtru pe bugId (toate bug-urile sau filtru pe tag) primesc doar modificările comentariilor noi.
+ *
+ * Cozile sunt mărginite (app.stream.buffer-size); un client care nu mai ține pasul și își umple coada e deconectat,
+ * ca să nu țină în memorie evenimente pentru totdeauna și să nu încetinească ceilalți abonați. Clientul reconectat
+ * reîncarcă pagina prin REST și primește din nou doar modificările.
+ *
+ * send() pe SseEmitter blochează cât socket-ul clientului e plin. Cu spring.threads.virtual.enabled fiecare golire
+ * de coadă rulează pe un thread virtual propriu; altfel pe pool-ul app.stream.sender-threads, unde un client blocat
+ * ține ocupat un thread până la timeout-ul de scriere al Tomcat. Un abonat blocat într-un send mai mult de
+ * app.stream.write-timeout e deconectat la următorul heartbeat. Listenerele sunt oprite când nu mai e niciun abonat.
+ */
+@Component
+public class LiveFeed {
+
+    private static final Set<DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("ping").build();
+
+    private final BugRepository bugRepository;
+    private final CommentRepository commentRepository;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final Duration timeout;
+    private final long writeTimeoutNanos;
+    private final int maxThreadListeners;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // Tag-urile (nume, lowercase) fiecărui bug, din listener; comentariile au doar bugId
+    private final Map<String, List<String>> tagsByBug = new ConcurrentHashMap<>();
+    private final Executor senders;
+    private final ScheduledExecutorService heartbeats;
+
+    private ChangeRegistration bugListener;
+    private ChangeRegistration commentListener;
+    // creationDate de la care listenerul de comentarii acoperă comentariile; cele mai vechi vin din threadListeners
+    private volatile String recentCommentsSince;
+    // Listenerele pe thread-urile urmărite, după bugId; lock separat, luat și din Subscriber.close()
+    private final Object threadLock = new Object();
+    private final Map<String, ThreadListener> threadListeners = new HashMap<>();
+    // Primul snapshot al listenerului de bug-uri conține toată colecția, nu modificări
+    private volatile boolean bugsLoaded;
+    // Listenerul de comentarii pornește de aici: la repornirea după o eroare, de la momentul erorii
+    private LocalDateTime commentsSince;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong writeTimeouts = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong listenerErrors = new AtomicLong();
+    private final AtomicLong threadListenersRejected = new AtomicLong();
+
+    @Autowired
+    public LiveFeed(BugRepository bugRepository,
+                    CommentRepository commentRepository,
+                    ObjectMapper objectMapper,
+                    @Value("${app.stream.enabled:true}") boolean enabled,
+                    @Value("${app.stream.buffer-size:256}") int bufferSize,
+                    @Value("${app.stream.max-subscribers:10000}") int maxSubscribers,
+                    @Value("${app.stream.sender-threads:8}") int senderThreads,
+                    @Value("${app.stream.heartbeat:15s}") Duration heartbeat,
+                    @Value("${app.stream.timeout:30m}") Duration timeout,
+                    @Value("${app.stream.write-timeout:10s}") Duration writeTimeout,
+                    @Value("${app.stream.max-thread-listeners:1000}") int maxThreadListeners,
+                    @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.bugRepository = bugRepository;
+        this.commentRepository = commentRepository;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeout = timeout;
+        this.writeTimeoutNanos = writeTimeout.toNanos();
+        this.maxThreadListeners = maxThreadListeners;
+
+        if (virtualThreads) {
+            // Un thread virtual per golire: un client blocat în send() nu ține ocupat un thread de platformă
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("live-feed-sender-");
+            executor.setVirtualThreads(true);
+            senders = executor;
+        } else {
+            AtomicInteger threadNumber = new AtomicInteger();
+            senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+                Thread thread = new Thread(runnable, "live-feed-sender-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "live-feed-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = heartbeat.toMillis();
+        heartbeats.scheduleWithFixedDelay(this::tick, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Un abonat nou; filtrele goale înseamnă tot feed-ul. Optional.empty() dacă s-a atins app.stream.max-subscribers.
+     */
+    public Optional<SseEmitter> subscribe(Collection<String> bugIds, Collection<String> tags) {
+        if (!enabled) {
+            throw new RuntimeException("Live feed is disabled");
+        }
+        if (subscribers.size() >= maxSubscribers) {
+            rejected.incrementAndGet();
+            return Optional.empty();
+        }
+
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter,
+                bugIds == null ? Set.of() : Set.copyOf(bugIds),
+                tags == null ? Set.of() : tags.stream().map(LiveFeed::normalizeTag).collect(Collectors.toUnmodifiableSet()));
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        subscribers.add(subscriber);
+        // După add: stopListeningIfIdle verifică abonații sub același lock, deci nu poate opri listenerele acestui abonat
+        try {
+            ensureListening();
+            watchThreads(subscriber);
+        } catch (RuntimeException e) {
+            subscriber.close();
+            throw e;
+        }
+        return Optional.of(emitter);
+    }
+
+    private synchronized void ensureListening() {
+        if (bugListener == null) {
+            bugsLoaded = false;
+            bugListener = bugRepository.listenForSummaryChanges(this::onBugChanges, this::onBugListenerError);
+        }
+        if (commentListener == null) {
+            if (commentsSince == null) {
+                commentsSince = LocalDateTime.now();
+            }
+            recentCommentsSince = commentsSince.toString();
+            commentListener = commentRepository.listenForChanges(commentsSince,
+                    this::onCommentChanges, this::onCommentListenerError);
+            commentsSince = null;
+        }
+    }
+
+    /**
+     * Fără abonați nu mai ținem listenerele (și copia tag-urilor) deschise; primul abonat nou le repornește
+     */
+    private synchronized void stopListeningIfIdle() {
+        if (!subscribers.isEmpty()) {
+            return;
+        }
+        if (bugListener != null) {
+            bugListener.remove();
+            bugListener = null;
+        }
+        if (commentListener != null) {
+            commentListener.remove();
+            commentListener = null;
+        }
+        commentsSince = null;
+        recentCommentsSince = null;
+        tagsByBug.clear();
+    }
+
+    /**
+     * Listenerele pe thread-urile bug-urilor urmărite de abonat, numărate pe abonați; peste
+     * app.stream.max-thread-listeners bug-ul primește doar comentariile noi
+     */
+    private void watchThreads(Subscriber subscriber) {
+        if (subscriber.bugIds.isEmpty()) {
+            return;
+        }
+        synchronized (threadLock) {
+            // Închis între timp: close() a trecut deja de unwatchThreads
+            if (subscriber.closed.get()) {
+                return;
+            }
+            for (String bugId : subscriber.bugIds) {
+                ThreadListener thread = threadListeners.get(bugId);
+                if (thread == null) {
+                    if (threadListeners.size() >= maxThreadListeners) {
+                        threadListenersRejected.incrementAndGet();
+                        continue;
+                    }
+                    thread = new ThreadListener(bugId);
+                    thread.start();
+                    threadListeners.put(bugId, thread);
+                }
+                thread.watchers++;
+                subscriber.watchedThreads.add(bugId);
+            }
+        }
+    }
+
+    private void unwatchThreads(Subscriber subscriber) {
+        synchronized (threadLock) {
+            for (String bugId : subscriber.watchedThreads) {
+                ThreadListener thread = threadListeners.get(bugId);
+                if (thread != null && --thread.watchers == 0) {
+                    threadListeners.remove(bugId);
+                    thread.stop();
+                }
+            }
+            subscriber.watchedThreads.clear();
+        }
+    }
+
+    private void restartThreadListeners() {
+        synchronized (threadLock) {
+            for (ThreadListener thread : threadListeners.values()) {
+                if (thread.registration == null) {
+                    thread.start();
+                }
+            }
+        }
+    }
+
+    private void onBugChanges(List<SnapshotChange<BugSummary>> changes) {
+        boolean initial = !bugsLoaded;
+        bugsLoaded = true;
+        for (SnapshotChange<BugSummary> change : changes) {
+            if (change.getType() == SnapshotChange.Type.REMOVED) {
+                // Cu tag-urile de dinainte de ștergere, ca abonații filtrați pe tag să primească și ștergerea
+                List<String> tags = tagsByBug.remove(change.getId());
+                if (!initial) {
+                    publish("bug", change, change.getId(), tags);
+                }
+                continue;
+            }
+            tagsByBug.put(change.getId(), change.getValue().getTagNames().stream()
+                    .map(LiveFeed::normalizeTag).collect(Collectors.toUnmodifiableList()));
+            if (!initial) {
+                publish("bug", change, change.getId());
+            }
+        }
+    }
+
+    // Și primul snapshot: conține doar comentariile create după pornirea listenerului (recentCommentsSince)
+    private void onCommentChanges(List<SnapshotChange<Comment>> changes) {
+        for (SnapshotChange<Comment> change : changes) {
+            publish("comment", change, change.getValue() == null ? null : change.getValue().getBugId());
+        }
+    }
+
+    private synchronized void onBugListenerError(RuntimeException error) {
+        listenerErrors.incrementAndGet();
+        System.err.println(error.getMessage() + ": " + error.getCause());
+        bugListener = null; // repornit la următorul tick dacă mai sunt abonați
+    }
+
+    private synchronized void onCommentListenerError(RuntimeException error) {
+        listenerErrors.incrementAndGet();
+        System.err.println(error.getMessage() + ": " + error.getCause());
+        commentListener = null;
+        // Comentariile create până la repornire vin în primul snapshot al noului listener; modificările celor mai
+        // vechi, de acum încolo, din listenerele pe thread
+        commentsSince = LocalDateTime.now();
+        recentCommentsSince = commentsSince.toString();
+    }
+
+    private void publish(String kind, SnapshotChange<?> change, String bugId) {
+        publish(kind, change, bugId, bugId == null ? null : tagsByBug.get(bugId));
+    }
+
+    private void publish(String kind, SnapshotChange<?> change, String bugId, List<String> bugTags) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        String type = kind + "." + change.getType().name().toLowerCase(Locale.ROOT);
+        Set<DataWithMediaType> frame;
+        try {
+            String json = objectMapper.writeValueAsString(new LiveEvent(type, change.getId(), bugId, change.getValue()));
+            frame = SseEmitter.event()
+                    .id(Long.toString(sequence.incrementAndGet()))
+                    .name(type)
+                    .data(json, MediaType.APPLICATION_JSON)
+                    .build();
+        } catch (JsonProcessingException e) {
+            System.err.println("Failed to serialize live event " + type + ": " + e.getMessage());
+            return;
+        }
+        published.incrementAndGet();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.matches(bugId, bugTags)) {
+                subscriber.offer(frame);
+            }
+        }
+    }
+
+    /**
+     * Heartbeat (închide conexiunile moarte, ține proxy-urile deschise), deconectarea clienților blocați în send(),
+     * repornirea listenerelor căzute și oprirea lor când nu mai sunt abonați
+     */
+    private void tick() {
+        try {
+            if (subscribers.isEmpty()) {
+                stopListeningIfIdle();
+                return;
+            }
+            ensureListening();
+            restartThreadListeners();
+            long now = System.nanoTime();
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.isWriteStuck(now)) {
+                    writeTimeouts.incrementAndGet();
+                    subscriber.close();
+                } else {
+                    subscriber.offer(HEARTBEAT);
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("Live feed heartbeat failed: " + e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        heartbeats.shutdownNow();
+        if (bugListener != null) {
+            bugListener.remove();
+        }
+        if (commentListener != null) {
+            commentListener.remove();
+        }
+        for (Subscriber subscriber : new ArrayList<>(subscribers)) {
+            subscriber.close();
+        }
+        if (senders instanceof ExecutorService pool) {
+            pool.shutdownNow();
+        } else if (senders instanceof SimpleAsyncTaskExecutor executor) {
+            executor.close();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("subscribers", subscribers.size());
+        result.put("listening", bugListener != null && commentListener != null);
+        result.put("published", published.get());
+        result.put("delivered", delivered.get());
+        result.put("evicted", evicted.get());
+        result.put("writeTimeouts", writeTimeouts.get());
+        result.put("rejected", rejected.get());
+        result.put("listenerErrors", listenerErrors.get());
+        synchronized (threadLock) {
+            result.put("threadListeners", threadListeners.size());
+        }
+        result.put("threadListenersRejected", threadListenersRejected.get());
+        return result;
+    }
+
+    private static String normalizeTag(String tag) {
+        return tag == null ? "" : tag.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Listenerul pe comentariile unui bug urmărit. Trimite doar modificările comentariilor create înainte de
+     * recentCommentsSince; pe cele mai noi le trimite listenerul de comentarii, deci niciunul nu apare de două ori.
+     */
+    private final class ThreadListener {
+        private final String bugId;
+        private int watchers;                    // sub threadLock
+        private ChangeRegistration registration; // sub threadLock; null după o eroare, până la repornirea din tick
+        private boolean stopped;                 // sub threadLock
+
+        private ThreadListener(String bugId) {
+            this.bugId = bugId;
+        }
+
+        // Sub threadLock
+        private void start() {
+            ThreadState state = new ThreadState();
+            try {
+                registration = commentRepository.listenForThreadChanges(bugId,
+                        changes -> onChanges(state, changes), this::onError);
+            } catch (RuntimeException e) {
+                onError(e);
+            }
+        }
+
+        // Sub threadLock
+        private void stop() {
+            stopped = true;
+            if (registration != null) {
+                registration.remove();
+                registration = null;
+            }
+        }
+
+        private void onChanges(ThreadState state, List<SnapshotChange<Comment>> changes) {
+            synchronized (state) {
+                // Primul snapshot e thread-ul existent, nu modificări
+                boolean initial = !state.loaded;
+                state.loaded = true;
+                String since = recentCommentsSince;
+                for (SnapshotChange<Comment> change : changes) {
+                    // Ștergerile vin fără valoare; creationDate-ul îl știm din snapshot-urile anterioare
+                    String creationDate = change.getType() == SnapshotChange.Type.REMOVED
+                            ? state.creationDates.remove(change.getId())
+                            : change.getValue().getCreationDate();
+                    if (change.getType() != SnapshotChange.Type.REMOVED) {
+                        state.creationDates.put(change.getId(), creationDate);
+                    }
+                    boolean older = creationDate == null || since == null || creationDate.compareTo(since) < 0;
+                    if (!initial && older) {
+                        publish("comment", change, bugId);
+                    }
+                }
+            }
+        }
+
+        private void onError(RuntimeException error) {
+            listenerErrors.incrementAndGet();
+            System.err.println(error.getMessage() + ": " + error.getCause());
+            synchronized (threadLock) {
+                if (!stopped) {
+                    registration = null;
+                }
+            }
+        }
+    }
+
+    // Starea unui listener pe thread, nouă la fiecare (re)pornire
+    private static final class ThreadState {
+        private final Map<String, String> creationDates = new HashMap<>();
+        private boolean loaded;
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<String> bugIds;
+        private final Set<String> tags;
+        private final ArrayBlockingQueue<Set<DataWithMediaType>> queue = new ArrayBlockingQueue<>(bufferSize);
+        private final AtomicBoolean draining = new AtomicBoolean(false);
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+        // bugId-urile pentru care ține un listener pe thread (sub threadLock)
+        private final List<String> watchedThreads = new ArrayList<>();
+        // System.nanoTime() la începutul send-ului în curs, 0 dacă nu scrie
+        private volatile long sendStartedNanos;
+
+        private Subscriber(SseEmitter emitter, Set<String> bugIds, Set<String> tags) {
+            this.emitter = emitter;
+            this.bugIds = bugIds;
+            this.tags = tags;
+        }
+
+        private boolean matches(String bugId, List<String> bugTags) {
+            if (bugIds.isEmpty() && tags.isEmpty()) {
+                return true;
+            }
+            if (bugId != null && bugIds.contains(bugId)) {
+                return true;
+            }
+            if (bugTags != null) {
+                for (String tag : bugTags) {
+                    if (tags.contains(tag)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Apelat din thread-ul listenerului: nu blochează niciodată
+         */
+        private void offer(Set<DataWithMediaType> frame) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(frame)) {
+                // Client lent: coada e plină, îl deconectăm
+                evicted.incrementAndGet();
+                close();
+                return;
+            }
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RuntimeException e) {
+                    draining.set(false); // executorul e oprit
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                Set<DataWithMediaType> frame;
+                while (!closed.get() && (frame = queue.poll()) != null) {
+                    sendStartedNanos = System.nanoTime();
+                    emitter.send(frame);
+                    sendStartedNanos = 0;
+                    if (frame != HEARTBEAT) {
+                        delivered.incrementAndGet();
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                close(); // conexiune închisă de client
+            } finally {
+                sendStartedNanos = 0;
+                draining.set(false);
+            }
+            // Un offer sosit între ultimul poll și resetarea flag-ului
+            if (!closed.get() && !queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private boolean isWriteStuck(long now) {
+            long startedAt = sendStartedNanos;
+            return startedAt != 0 && now - startedAt > writeTimeoutNanos;
+        }
+
+        private void close() {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            subscribers.remove(this);
+            unwatchThreads(this);
+            queue.clear();
+            try {
+                emitter.complete();
+            } catch (RuntimeException ignored) {
+                // deja închis
+            }
+        }
+    }
+}
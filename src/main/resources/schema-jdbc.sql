@@ -0,0 +1,70 @@
+-- Schema pentru app.storage.backend=jdbc (rulată la pornire de JdbcStorageConfig; idempotentă)
+-- updated_at = versiunea rândului în microsecunde (ETag-uri și condiționarea voturilor, ca updateTime în Firestore)
+
+CREATE TABLE IF NOT EXISTS users (
+    uid        VARCHAR(128) PRIMARY KEY,
+    username   VARCHAR(255),
+    email      VARCHAR(320),
+    score      DOUBLE PRECISION NOT NULL DEFAULT 0,
+    banned     BOOLEAN NOT NULL DEFAULT FALSE,
+    moderator  BOOLEAN NOT NULL DEFAULT FALSE,
+    updated_at BIGINT NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_users_email ON users (email);
+CREATE INDEX IF NOT EXISTS idx_users_score ON users (score DESC, uid);
+
+CREATE TABLE IF NOT EXISTS tags (
+    id   VARCHAR(64) PRIMARY KEY,
+    name VARCHAR(255) NOT NULL
+);
+CREATE UNIQUE INDEX IF NOT EXISTS idx_tags_name ON tags (name);
+
+CREATE TABLE IF NOT EXISTS bugs (
+    id            VARCHAR(64) PRIMARY KEY,
+    author_id     VARCHAR(128),
+    title         VARCHAR(1000),
+    description   CLOB,
+    creation_date VARCHAR(64),
+    image_url     VARCHAR(2000),
+    status        VARCHAR(32),
+    vote_count    INT NOT NULL DEFAULT 0,
+    updated_at    BIGINT NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_bugs_author ON bugs (author_id);
+CREATE INDEX IF NOT EXISTS idx_bugs_status ON bugs (status, creation_date DESC);
+CREATE INDEX IF NOT EXISTS idx_bugs_creation ON bugs (creation_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_bugs_votes ON bugs (vote_count DESC, id DESC);
+
+-- Tag-urile unui bug, în ordinea din Bug.tags; numele e copiat ca în documentele Firestore
+CREATE TABLE IF NOT EXISTS bug_tags (
+    bug_id   VARCHAR(64) NOT NULL,
+    position INT NOT NULL,
+    tag_id   VARCHAR(64),
+    tag_name VARCHAR(255),
+    PRIMARY KEY (bug_id, position)
+);
+CREATE INDEX IF NOT EXISTS idx_bug_tags_tag ON bug_tags (tag_id, bug_id);
+
+CREATE TABLE IF NOT EXISTS comments (
+    id            VARCHAR(64) PRIMARY KEY,
+    bug_id        VARCHAR(64),
+    author_id     VARCHAR(128),
+    text          CLOB,
+    image_url     VARCHAR(2000),
+    creation_date VARCHAR(64),
+    vote_count    INT NOT NULL DEFAULT 0,
+    updated_at    BIGINT NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_comments_thread ON comments (bug_id, vote_count DESC, creation_date, id);
+CREATE INDEX IF NOT EXISTS idx_comments_author ON comments (author_id);
+
+CREATE TABLE IF NOT EXISTS votes (
+    id         VARCHAR(300) PRIMARY KEY,
+    user_id    VARCHAR(128) NOT NULL,
+    bug_id     VARCHAR(64),
+    comment_id VARCHAR(64),
+    upvote     BOOLEAN NOT NULL,
+    updated_at BIGINT NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_votes_user ON votes (user_id, upvote);
+CREATE INDEX IF NOT EXISTS idx_votes_downvotes ON votes (upvote, user_id);
@@ -0,0 +1,178 @@
+package com.example.bugradar.leaderboard;
+
+import com.example.bugradar.dto.LeaderboardEntry;
+import com.example.bugradar.entity.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LeaderboardTest {
+
+    private static User user(String uid, double score) {
+        User user = new User();
+        user.setUid(uid);
+        user.setUsername("name-" + uid);
+        user.setScore(score);
+        return user;
+    }
+
+    private static List<String> uids(List<LeaderboardEntry> entries) {
+        return entries.stream().map(LeaderboardEntry::getUid).collect(Collectors.toList());
+    }
+
+    // u0 (scor 0) ... u9 (scor 9) => clasament u9, u8, ..., u0
+    private static Leaderboard tenUsers() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            users.add(user("u" + i, i));
+        }
+        Leaderboard leaderboard = new Leaderboard();
+        leaderboard.rebuild(users);
+        return leaderboard;
+    }
+
+    @Test
+    void emptyLeaderboard() {
+        Leaderboard leaderboard = new Leaderboard();
+        leaderboard.rebuild(List.of());
+
+        assertTrue(leaderboard.isReady());
+        assertEquals(0, leaderboard.size());
+        assertTrue(leaderboard.page(0, 10).isEmpty());
+        assertTrue(leaderboard.find("u1").isEmpty());
+        assertTrue(leaderboard.around("u1", 2).isEmpty());
+    }
+
+    @Test
+    void ranksStartAtOneAndTiesAreOrderedByUid() {
+        Leaderboard leaderboard = new Leaderboard();
+        leaderboard.rebuild(List.of(user("b", 5), user("c", 5), user("a", 5), user("top", 7)));
+
+        List<LeaderboardEntry> page = leaderboard.page(0, 10);
+        assertEquals(List.of("top", "a", "b", "c"), uids(page));
+        assertEquals(List.of(1L, 2L, 3L, 4L), page.stream().map(LeaderboardEntry::getRank).collect(Collectors.toList()));
+        assertEquals(3L, leaderboard.find("b").orElseThrow().getRank());
+    }
+
+    @Test
+    void findReturnsRankOfFirstAndLastUser() {
+        Leaderboard leaderboard = tenUsers();
+
+        assertEquals(1L, leaderboard.find("u9").orElseThrow().getRank());
+        assertEquals(10L, leaderboard.find("u0").orElseThrow().getRank());
+        assertFalse(leaderboard.find("unknown").isPresent());
+    }
+
+    @Test
+    void pageClipsAtBothEnds() {
+        Leaderboard leaderboard = tenUsers();
+
+        assertEquals(List.of("u9", "u8", "u7"), uids(leaderboard.page(-5, 3)));
+        assertEquals(List.of("u1", "u0"), uids(leaderboard.page(8, 5)));
+        assertTrue(leaderboard.page(10, 5).isEmpty());
+        assertTrue(leaderboard.page(100, 5).isEmpty());
+        assertTrue(leaderboard.page(0, 0).isEmpty());
+        assertTrue(leaderboard.page(0, -1).isEmpty());
+    }
+
+    @Test
+    void aroundClipsAtTopAndBottom() {
+        Leaderboard leaderboard = tenUsers();
+
+        assertEquals(List.of("u9", "u8", "u7"), uids(leaderboard.around("u9", 2)));
+        assertEquals(List.of("u2", "u1", "u0"), uids(leaderboard.around("u0", 2)));
+        assertEquals(List.of("u6", "u5", "u4"), uids(leaderboard.around("u5", 1)));
+        assertEquals(List.of("u5"), uids(leaderboard.around("u5", 0)));
+        assertEquals(10, leaderboard.around("u5", 100).size());
+    }
+
+    @Test
+    void adjustMovesUserAndIgnoresUnknownUsers() {
+        Leaderboard leaderboard = tenUsers();
+
+        leaderboard.adjust("u0", 100);
+        assertEquals(1L, leaderboard.find("u0").orElseThrow().getRank());
+        assertEquals(2L, leaderboard.find("u9").orElseThrow().getRank());
+
+        leaderboard.adjust("unknown", 5);
+        assertEquals(10, leaderboard.size());
+    }
+
+    @Test
+    void putReplacesAndRemoveShrinks() {
+        Leaderboard leaderboard = tenUsers();
+
+        leaderboard.put("u3", "renamed", 50);
+        LeaderboardEntry entry = leaderboard.find("u3").orElseThrow();
+        assertEquals(1L, entry.getRank());
+        assertEquals("renamed", entry.getUsername());
+        assertEquals(10, leaderboard.size());
+
+        leaderboard.remove("u3");
+        assertEquals(9, leaderboard.size());
+        assertEquals(List.of("u9"), uids(leaderboard.page(0, 1)));
+    }
+
+    @Test
+    void largeLeaderboardSelectMatchesRank() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            users.add(user(String.format("u%05d", i), i % 100));
+        }
+        Leaderboard leaderboard = new Leaderboard();
+        leaderboard.rebuild(users);
+
+        List<LeaderboardEntry> all = leaderboard.page(0, 5000);
+        for (int rank = 0; rank < all.size(); rank += 97) {
+            LeaderboardEntry entry = all.get(rank);
+            assertEquals(rank + 1L, leaderboard.find(entry.getUid()).orElseThrow().getRank());
+        }
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(all.get(i - 1).getScore() >= all.get(i).getScore());
+        }
+    }
+
+    @Test
+    void rebuildReplaysChangesTheScanMissed() {
+        Leaderboard leaderboard = new Leaderboard();
+        Leaderboard.Rebuild rebuild = leaderboard.beginRebuild();
+
+        // Incrementul lui "a" e reținut înainte ca rândul lui să sosească: scanarea îl conține deja
+        leaderboard.adjust("a", 10);
+        rebuild.add(user("a", 10));
+        rebuild.add(user("b", 0));
+        // Incrementul lui "b" vine după rândul lui: scanarea nu îl are
+        leaderboard.adjust("b", 20);
+        // Utilizator creat în timpul scanării, apoi votat
+        leaderboard.put("c", "name-c", 0);
+        leaderboard.adjust("c", 5);
+        rebuild.commit();
+
+        assertEquals(10.0, leaderboard.find("a").orElseThrow().getScore());
+        assertEquals(20.0, leaderboard.find("b").orElseThrow().getScore());
+        assertEquals(5.0, leaderboard.find("c").orElseThrow().getScore());
+
+        // După commit modificările nu mai sunt reținute
+        leaderboard.adjust("a", 1);
+        leaderboard.rebuild(List.of(user("a", 10)));
+        assertEquals(10.0, leaderboard.find("a").orElseThrow().getScore());
+    }
+
+    @Test
+    void cancelledRebuildKeepsCurrentLeaderboard() {
+        Leaderboard leaderboard = tenUsers();
+        Leaderboard.Rebuild rebuild = leaderboard.beginRebuild();
+        rebuild.add(user("other", 1));
+        leaderboard.adjust("u0", 1);
+        rebuild.cancel();
+
+        assertEquals(10, leaderboard.size());
+        assertEquals(1.0, leaderboard.find("u0").orElseThrow().getScore());
+    }
+}
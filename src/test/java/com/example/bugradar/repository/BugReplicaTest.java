@@ -0,0 +1,114 @@
+package com.example.bugradar.repository;
+
+import com.example.bugradar.entity.Bug;
+import com.example.bugradar.entity.BugStatus;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentChange;
+import com.google.cloud.firestore.EventListener;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.ListenerRegistration;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Listenerul e un mock; snapshot-urile sunt date direct callback-ului înregistrat de replică
+ */
+class BugReplicaTest {
+
+    private final AtomicReference<EventListener<QuerySnapshot>> listener = new AtomicReference<>();
+    private BugReplica replica;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void startReplica() {
+        Firestore firestore = mock(Firestore.class);
+        CollectionReference bugs = mock(CollectionReference.class);
+        when(firestore.collection("bugs")).thenReturn(bugs);
+        when(bugs.addSnapshotListener(any(EventListener.class))).thenAnswer(call -> {
+            listener.set(call.getArgument(0));
+            return mock(ListenerRegistration.class);
+        });
+        replica = new BugReplica(firestore, new SimpleMeterRegistry(), true);
+        replica.start();
+    }
+
+    private static Bug bug(String title, int voteCount) {
+        return new Bug("bug-1", "author", title, "description", "2024-01-01T10:00", null, BugStatus.RECEIVED,
+                new ArrayList<>(), voteCount);
+    }
+
+    private static Timestamp at(long seconds) {
+        return Timestamp.ofTimeSecondsAndNanos(seconds, 0);
+    }
+
+    private static QueryDocumentSnapshot document(Bug bug, Timestamp updateTime) {
+        QueryDocumentSnapshot document = mock(QueryDocumentSnapshot.class);
+        when(document.getId()).thenReturn(bug.getId());
+        when(document.toObject(Bug.class)).thenReturn(bug);
+        when(document.getUpdateTime()).thenReturn(updateTime);
+        return document;
+    }
+
+    private void initialSnapshot(QueryDocumentSnapshot... documents) {
+        QuerySnapshot snapshot = mock(QuerySnapshot.class);
+        when(snapshot.getReadTime()).thenReturn(at(1));
+        when(snapshot.getDocuments()).thenReturn(List.of(documents));
+        listener.get().onEvent(snapshot, null);
+    }
+
+    private void modified(QueryDocumentSnapshot document, Timestamp readTime) {
+        DocumentChange change = mock(DocumentChange.class);
+        when(change.getType()).thenReturn(DocumentChange.Type.MODIFIED);
+        when(change.getDocument()).thenReturn(document);
+        QuerySnapshot snapshot = mock(QuerySnapshot.class);
+        when(snapshot.getReadTime()).thenReturn(readTime);
+        when(snapshot.getDocumentChanges()).thenReturn(List.of(change));
+        listener.get().onEvent(snapshot, null);
+    }
+
+    @Test
+    void localUpdateKeepsTheReplicaVoteCount() {
+        initialSnapshot(document(bug("title", 7), at(1)));
+
+        // update() fără voteCount: copia locală are un voteCount vechi
+        replica.written(bug("new title", 2), at(5), false);
+
+        Bug found = replica.find("bug-1").orElseThrow();
+        assertEquals("new title", found.getTitle());
+        assertEquals(7, found.getVoteCount());
+    }
+
+    @Test
+    void listenerSnapshotWithTheSameUpdateTimeReplacesTheLocalWrite() {
+        initialSnapshot(document(bug("title", 7), at(1)));
+        replica.written(bug("new title", 2), at(5), false);
+
+        // Un vot comis între timp: documentul de la updateTime-ul scrierii are voteCount 8
+        modified(document(bug("new title", 8), at(5)), at(6));
+
+        assertEquals(8, replica.find("bug-1").orElseThrow().getVoteCount());
+    }
+
+    @Test
+    void localUpdateOfAnUnknownBugWaitsForTheListener() {
+        initialSnapshot();
+
+        replica.written(bug("title", 2), at(5), false);
+
+        assertTrue(replica.find("bug-1").isEmpty());
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.bugradar.repository;
+
+import com.example.bugradar.config.JdbcStorageConfig;
+import com.example.bugradar.dto.BugSummary;
+import com.example.bugradar.dto.CursorPage;
+import com.example.bugradar.entity.Bug;
+import com.example.bugradar.entity.BugStatus;
+import com.example.bugradar.entity.Tag;
+import com.example.bugradar.search.BugSearchIndex;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@JdbcTest
+@Import({JdbcStorageConfig.class, JdbcBugRepository.class, BugSearchIndex.class})
+@TestPropertySource(properties = "app.storage.backend=jdbc")
+class JdbcBugRepositoryTest {
+
+    @Autowired
+    private JdbcBugRepository bugRepository;
+
+    private Bug save(String id, String creationDate, int voteCount, String... tagIds) {
+        List<Tag> tags = Arrays.stream(tagIds).map(tagId -> new Tag(tagId, "name-" + tagId)).collect(Collectors.toList());
+        return bugRepository.save(new Bug(id, "author", "title " + id, "description", creationDate, null,
+                BugStatus.RECEIVED, tags, voteCount));
+    }
+
+    private static List<String> ids(List<Bug> bugs) {
+        return bugs.stream().map(Bug::getId).collect(Collectors.toList());
+    }
+
+    private static List<String> summaryIds(List<BugSummary> summaries) {
+        return summaries.stream().map(BugSummary::getId).collect(Collectors.toList());
+    }
+
+    private static List<String> walk(PageReader reader) {
+        List<String> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            CursorPage<BugSummary> page = reader.read(cursor);
+            seen.addAll(summaryIds(page.getItems()));
+            cursor = page.getNext();
+        } while (cursor != null);
+        return seen;
+    }
+
+    private interface PageReader {
+        CursorPage<BugSummary> read(String cursor);
+    }
+
+    @Test
+    void feedPagesByCreationDateThenIdAndSkipsBugsWithoutDate() {
+        save("a", "2024-01-01T10:00", 0);
+        save("b", "2024-01-02T10:00", 0);
+        save("c", "2024-01-02T10:00", 0);
+        save("d", "2024-01-03T10:00", 0);
+        save("e", null, 0);
+
+        CursorPage<BugSummary> first = bugRepository.findSummaryPageByCreationDateDesc(2, null);
+        assertEquals(List.of("d", "c"), summaryIds(first.getItems()));
+        CursorPage<BugSummary> second = bugRepository.findSummaryPageByCreationDateDesc(2, first.getNext());
+        assertEquals(List.of("b", "a"), summaryIds(second.getItems()));
+        assertNull(second.getNext());
+
+        assertEquals(List.of("d", "c", "b", "a"), walk(cursor -> bugRepository.findSummaryPageByCreationDateDesc(1, cursor)));
+    }
+
+    @Test
+    void topVotedPagesByVoteCountThenId() {
+        save("a", "2024-01-01T10:00", 5);
+        save("b", "2024-01-01T10:00", 7);
+        save("c", "2024-01-01T10:00", 5);
+        save("d", "2024-01-01T10:00", -1);
+
+        CursorPage<BugSummary> first = bugRepository.findSummaryPageByVoteCountDesc(2, null);
+        assertEquals(List.of("b", "c"), summaryIds(first.getItems()));
+        assertEquals(List.of("b", "c", "a", "d"), walk(cursor -> bugRepository.findSummaryPageByVoteCountDesc(1, cursor)));
+    }
+
+    @Test
+    void rejectsMalformedTopVotedCursor() {
+        String cursor = PageCursor.encode("not-a-number", "a");
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> bugRepository.findSummaryPageByVoteCountDesc(2, cursor));
+        assertEquals("Invalid page cursor", error.getMessage());
+    }
+
+    @Test
+    void versionedFeedPageMatchesVersionOnlyQuery() {
+        save("a", "2024-01-01T10:00", 0);
+        save("b", "2024-01-02T10:00", 0);
+        save("c", "2024-01-03T10:00", 0);
+
+        VersionedContent<CursorPage<BugSummary>> page = bugRepository.findVersionedSummaryPageByCreationDateDesc(2, null);
+        assertEquals(List.of("c", "b"), summaryIds(page.getValue().getItems()));
+        String etag = page.getVersion().getEtag();
+        assertEquals(etag, bugRepository.findFeedPageVersion(2, null).getEtag());
+
+        // Orice scriere pe un bug din pagină (sau pe cel citit în plus) schimbă ETag-ul
+        save("a", "2024-01-01T10:00", 1);
+        assertTrue(!etag.equals(bugRepository.findFeedPageVersion(2, null).getEtag()));
+    }
+
+    @Test
+    void filtersByAllAnyAndNoneTags() {
+        save("a", "2024-01-01T10:00", 0, "t1", "t2");
+        save("b", "2024-01-02T10:00", 0, "t1");
+        save("c", "2024-01-03T10:00", 0, "t2", "t3");
+        save("d", "2024-01-04T10:00", 0);
+
+        assertEquals(List.of("b", "a"), ids(bugRepository.findByTags(List.of("t1"), null, null)));
+        assertEquals(List.of("a"), ids(bugRepository.findByTags(List.of("t1", "t2"), null, null)));
+        // Un tag repetat în all nu cere două rânduri
+        assertEquals(List.of("a"), ids(bugRepository.findByTags(List.of("t1", "t2", "t1"), null, null)));
+        assertEquals(List.of("c", "b", "a"), ids(bugRepository.findByTags(null, List.of("t1", "t3"), null)));
+        assertEquals(List.of("c"), ids(bugRepository.findByTags(null, List.of("t2"), List.of("t1"))));
+        assertEquals(List.of("b"), ids(bugRepository.findByTags(List.of("t1"), List.of("t1", "t3"), List.of("t2"))));
+        assertTrue(bugRepository.findByTags(List.of("missing"), null, null).isEmpty());
+    }
+
+    @Test
+    void saveReplacesTagsInOrder() {
+        save("a", "2024-01-01T10:00", 0, "t1", "t2");
+        save("a", "2024-01-01T10:00", 0, "t3", "t1");
+
+        Bug bug = bugRepository.findById("a").orElseThrow();
+        assertEquals(List.of("t3", "t1"), bug.getTags().stream().map(Tag::getId).collect(Collectors.toList()));
+        assertTrue(bugRepository.findByTags(List.of("t2"), null, null).isEmpty());
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.bugradar.repository;
+
+import com.example.bugradar.config.JdbcStorageConfig;
+import com.example.bugradar.entity.Bug;
+import com.example.bugradar.entity.BugStatus;
+import com.example.bugradar.entity.Comment;
+import com.example.bugradar.entity.User;
+import com.example.bugradar.entity.Vote;
+import com.example.bugradar.search.BugSearchIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fără tranzacția testului: voturile își deschid propria tranzacție, iar atomicitatea se vede doar după rollback-ul ei
+ */
+@JdbcTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({JdbcStorageConfig.class, JdbcBugRepository.class, JdbcCommentRepository.class, JdbcUserRepository.class,
+        JdbcVoteRepository.class, BugSearchIndex.class})
+@TestPropertySource(properties = "app.storage.backend=jdbc")
+class JdbcVoteRepositoryTest {
+
+    @Autowired
+    private JdbcVoteRepository voteRepository;
+    @Autowired
+    private JdbcBugRepository bugRepository;
+    @Autowired
+    private JdbcCommentRepository commentRepository;
+    @Autowired
+    private JdbcUserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void createTargets() {
+        userRepository.save(new User("author", "author", null, 0, false, false));
+        userRepository.save(new User("voter", "voter", null, 0, false, false));
+        bugRepository.save(new Bug("bug-1", "author", "title", "description", "2024-01-01T10:00", null,
+                BugStatus.RECEIVED, new ArrayList<>(), 0));
+        commentRepository.save(new Comment("comment-1", "bug-1", "author", "text", null, "2024-01-01T11:00", 0));
+    }
+
+    @AfterEach
+    void clearTables() {
+        for (String table : List.of("votes", "comments", "bug_tags", "bugs", "users")) {
+            jdbc.update("DELETE FROM " + table);
+        }
+    }
+
+    private static VoteWrite create(String bugId, String commentId, boolean upvote) {
+        VoteWrite write = VoteWrite.create(new Vote(null, "voter", bugId, commentId, upvote));
+        write.setVoteCountDelta(upvote ? 1 : -1);
+        write.setAuthorId("author");
+        write.setAuthorScoreDelta(upvote ? 1 : -1);
+        write.setVoterId("voter");
+        write.setVoterScoreDelta(0.5);
+        return write;
+    }
+
+    private int bugVoteCount() {
+        return bugRepository.findById("bug-1").orElseThrow().getVoteCount();
+    }
+
+    private double score(String uid) {
+        return userRepository.findById(uid).orElseThrow().getScore();
+    }
+
+    @Test
+    void appliesVoteCountAndScoresWithTheVote() {
+        voteRepository.applyVote(create("bug-1", null, true));
+
+        Versioned<Vote> vote = voteRepository.findByUserIdAndBugId("voter", "bug-1").orElseThrow();
+        assertEquals(VoteRepository.bugVoteId("bug-1", "voter"), vote.getValue().getId());
+        assertTrue(vote.getValue().isUpvote());
+        assertEquals(1, bugVoteCount());
+        assertEquals(1.0, score("author"));
+        assertEquals(0.5, score("voter"));
+    }
+
+    @Test
+    void saveAfterVoteKeepsVoteCountAndScores() {
+        // Citite înainte de vot, salvate după (ex. schimbarea statusului, ban-ul): nu rescriu numărătorile
+        Bug bug = bugRepository.findById("bug-1").orElseThrow();
+        User author = userRepository.findById("author").orElseThrow();
+        voteRepository.applyVote(create("bug-1", null, true));
+
+        bug.setStatus(BugStatus.IN_PROGRESS);
+        bugRepository.save(bug);
+        author.setBanned(true);
+        userRepository.save(author);
+
+        assertEquals(1, bugVoteCount());
+        assertEquals(BugStatus.IN_PROGRESS, bugRepository.findById("bug-1").orElseThrow().getStatus());
+        assertEquals(1.0, score("author"));
+        assertTrue(userRepository.findById("author").orElseThrow().isBanned());
+    }
+
+    @Test
+    void secondCreateForSameTargetIsConflict() {
+        voteRepository.applyVote(create("bug-1", null, true));
+
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> voteRepository.applyVote(create("bug-1", null, true)));
+        assertTrue(voteRepository.isConflict(error));
+        assertEquals(1, bugVoteCount());
+        assertEquals(1.0, score("author"));
+    }
+
+    @Test
+    void updateWithStaleVersionIsConflict() {
+        voteRepository.applyVote(create("bug-1", null, true));
+        Versioned<Vote> read = voteRepository.findByUserIdAndBugId("voter", "bug-1").orElseThrow();
+
+        // Altă cerere schimbă votul după citire: versiunea citită nu mai e cea din rând
+        VoteWrite first = VoteWrite.update(read);
+        first.getVote().setUpvote(false);
+        first.setVoteCountDelta(-2);
+        voteRepository.applyVote(first);
+
+        VoteWrite stale = VoteWrite.update(read);
+        stale.setVoteCountDelta(-2);
+        RuntimeException error = assertThrows(RuntimeException.class, () -> voteRepository.applyVote(stale));
+        assertTrue(voteRepository.isConflict(error));
+        assertEquals(-1, bugVoteCount());
+    }
+
+    @Test
+    void deleteWithStaleVersionIsConflict() {
+        voteRepository.applyVote(create("bug-1", null, true));
+        Versioned<Vote> read = voteRepository.findByUserIdAndBugId("voter", "bug-1").orElseThrow();
+        VoteWrite update = VoteWrite.update(read);
+        update.getVote().setUpvote(false);
+        voteRepository.applyVote(update);
+
+        VoteWrite stale = VoteWrite.delete(read);
+        stale.setVoteCountDelta(-1);
+        RuntimeException error = assertThrows(RuntimeException.class, () -> voteRepository.applyVote(stale));
+        assertTrue(voteRepository.isConflict(error));
+        assertTrue(voteRepository.findByUserIdAndBugId("voter", "bug-1").isPresent());
+
+        VoteWrite current = VoteWrite.delete(voteRepository.findByUserIdAndBugId("voter", "bug-1").orElseThrow());
+        current.setVoteCountDelta(-1);
+        voteRepository.applyVote(current);
+        assertFalse(voteRepository.findByUserIdAndBugId("voter", "bug-1").isPresent());
+        assertEquals(0, bugVoteCount());
+    }
+
+    @Test
+    void batchIsAllOrNothing() {
+        voteRepository.applyVote(create("bug-1", null, true));
+
+        // Al doilea vot din batch e în conflict: nici votul pe comentariu, nici scorurile lui nu rămân
+        List<VoteWrite> batch = List.of(create(null, "comment-1", true), create("bug-1", null, true));
+        RuntimeException error = assertThrows(RuntimeException.class, () -> voteRepository.applyVotes(batch));
+        assertTrue(voteRepository.isConflict(error));
+
+        assertFalse(voteRepository.findByUserIdAndCommentId("voter", "comment-1").isPresent());
+        assertEquals(0, commentRepository.findById("comment-1").orElseThrow().getVoteCount());
+        assertEquals(1, bugVoteCount());
+        assertEquals(1.0, score("author"));
+        assertEquals(0.5, score("voter"));
+    }
+
+    @Test
+    void batchOnMissingTargetRollsBack() {
+        List<VoteWrite> batch = List.of(create("bug-1", null, true), create("missing", null, true));
+        RuntimeException error = assertThrows(RuntimeException.class, () -> voteRepository.applyVotes(batch));
+        assertFalse(voteRepository.isConflict(error));
+
+        assertFalse(voteRepository.findByUserIdAndBugId("voter", "bug-1").isPresent());
+        assertEquals(0, bugVoteCount());
+        assertEquals(0.0, score("author"));
+    }
+
+    @Test
+    void batchAddsScoreDeltasPerUser() {
+        voteRepository.applyVotes(List.of(create("bug-1", null, true), create(null, "comment-1", false)));
+
+        assertEquals(1, bugVoteCount());
+        assertEquals(-1, commentRepository.findById("comment-1").orElseThrow().getVoteCount());
+        assertEquals(0.0, score("author"));
+        assertEquals(1.0, score("voter"));
+    }
+
+    @Test
+    void rejectsOversizedBatch() {
+        List<VoteWrite> batch = new ArrayList<>();
+        for (int i = 0; i <= VoteRepository.MAX_VOTES_PER_BATCH; i++) {
+            batch.add(create("bug-1", null, true));
+        }
+        assertThrows(RuntimeException.class, () -> voteRepository.applyVotes(batch));
+        assertEquals(0, bugVoteCount());
+    }
+
+    @Test
+    void migrationDoesNotOverwriteALiveDeterministicVote() {
+        voteRepository.applyVote(create("bug-1", null, true));
+        voteRepository.save(new Vote("legacy-1", "voter", "bug-1", null, false));
+
+        List<Versioned<Vote>> group = voteRepository.findAllVersionedOnSameTarget(new Vote(null, "voter", "bug-1", null, true));
+        assertEquals(2, group.size());
+        Versioned<Vote> legacy = group.stream().filter(vote -> vote.getValue().getId().equals("legacy-1")).findFirst().orElseThrow();
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> voteRepository.moveToDeterministicId(legacy));
+        assertTrue(voteRepository.isConflict(error));
+        // Votul determinist e neatins, iar cel vechi rămâne pentru o nouă încercare
+        assertTrue(voteRepository.findByUserIdAndBugId("voter", "bug-1").orElseThrow().getValue().isUpvote());
+        assertTrue(voteRepository.findById("legacy-1").isPresent());
+        List<String> scanned = new ArrayList<>();
+        assertEquals(2, voteRepository.forEachVersioned(vote -> scanned.add(vote.getValue().getId())));
+    }
+}
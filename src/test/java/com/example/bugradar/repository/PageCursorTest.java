@@ -0,0 +1,47 @@
+package com.example.bugradar.repository;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PageCursorTest {
+
+    @Test
+    void roundTripsValues() {
+        String cursor = PageCursor.encode("2024-05-01T10:15:30", "bug-1");
+        assertArrayEquals(new String[]{"2024-05-01T10:15:30", "bug-1"}, PageCursor.decode(cursor, 2));
+    }
+
+    @Test
+    void keepsEmptyAndNonAsciiValues() {
+        String cursor = PageCursor.encode("", "ăîșț/+=", "");
+        assertArrayEquals(new String[]{"", "ăîșț/+=", ""}, PageCursor.decode(cursor, 3));
+    }
+
+    @Test
+    void rejectsNullValues() {
+        assertThrows(RuntimeException.class, () -> PageCursor.encode(null, "bug-1"));
+    }
+
+    @Test
+    void roundTripsExplicitNullValues() {
+        String cursor = PageCursor.encode("0", PageCursor.nullable(null), "comment-1");
+        String[] values = PageCursor.decode(cursor, 3);
+        assertNull(PageCursor.fromNullable(values[1]));
+        assertEquals("2024-05-01T10:15:30", PageCursor.fromNullable(PageCursor.nullable("2024-05-01T10:15:30")));
+    }
+
+    @Test
+    void rejectsWrongValueCount() {
+        String cursor = PageCursor.encode("5", "bug-1");
+        assertThrows(RuntimeException.class, () -> PageCursor.decode(cursor, 3));
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        assertThrows(RuntimeException.class, () -> PageCursor.decode("not base64!", 2));
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.bugradar.search;
+
+import com.example.bugradar.entity.Bug;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BugSearchIndexTest {
+
+    private static Bug bug(String id, String title, String description, int voteCount) {
+        Bug bug = new Bug();
+        bug.setId(id);
+        bug.setTitle(title);
+        bug.setDescription(description);
+        bug.setVoteCount(voteCount);
+        return bug;
+    }
+
+    private static List<String> ids(List<Bug> bugs) {
+        return bugs.stream().map(Bug::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    void titleMatchRanksAboveDescriptionMatch() {
+        BugSearchIndex index = new BugSearchIndex();
+        index.rebuild(List.of(
+                bug("description", "Pagina se încarcă greu", "aplicatia face crash la login", 0),
+                bug("title", "Crash la login", "pagina se închide", 0)));
+
+        assertEquals(List.of("title", "description"), ids(index.search("crash", 10)));
+    }
+
+    @Test
+    void shorterDocumentRanksHigherForSameTermFrequency() {
+        BugSearchIndex index = new BugSearchIndex();
+        index.rebuild(List.of(
+                bug("long", "upload", "fișierul nu se încarcă deloc după ce aleg imaginea din galerie", 0),
+                bug("short", "upload", "", 0)));
+
+        assertEquals(List.of("short", "long"), ids(index.search("upload", 10)));
+    }
+
+    @Test
+    void exactMatchRanksAbovePrefixExpansion() {
+        BugSearchIndex index = new BugSearchIndex();
+        index.rebuild(List.of(
+                bug("prefix", "crashes", "", 0),
+                bug("exact", "crash", "", 0)));
+
+        assertEquals(List.of("exact", "prefix"), ids(index.search("crash", 10)));
+    }
+
+    @Test
+    void prefixMatchesLongerTermsButNotInnerSubstrings() {
+        BugSearchIndex index = new BugSearchIndex();
+        index.rebuild(List.of(
+                bug("crashing", "App crashing on start", "", 0),
+                bug("autocrash", "autocrash", "", 0)));
+
+        assertEquals(List.of("crashing"), ids(index.search("cras", 10)));
+    }
+
+    @Test
+    void allQueryTermsMustMatch() {
+        BugSearchIndex index = new BugSearchIndex();
+        index.rebuild(List.of(
+                bug("both", "login crash", "", 0),
+                bug("one", "login lent", "", 0)));
+
+        assertEquals(List.of("both"), ids(index.search("login cra", 10)));
+        assertTrue(index.search("login inexistent", 10).isEmpty());
+    }
+
+    @Test
+    void foldsCaseAndDiacritics() {
+        BugSearchIndex index = new BugSearchIndex();
+        index.rebuild(List.of(bug("1", "Eroare la Încărcare", "", 0)));
+
+        assertEquals(List.of("1"), ids(index.search("INCARCARE", 10)));
+        assertEquals(List.of("1"), ids(index.search("încărc", 10)));
+    }
+
+    @Test
+    void voteCountBreaksTiesAndLimitKeepsBest() {
+        BugSearchIndex index = new BugSearchIndex();
+        index.rebuild(List.of(
+                bug("few", "timeout", "", 1),
+                bug("many", "timeout", "", 500),
+                bug("none", "timeout", "", 0)));
+
+        assertEquals(List.of("many", "few"), ids(index.search("timeout", 2)));
+    }
+
+    @Test
+    void writesDuringRebuildSurviveTheOlderScan() {
+        BugSearchIndex index = new BugSearchIndex();
+        index.beginRebuild();
+        List<Bug> scan = List.of(bug("1", "titlu vechi", "", 0), bug("2", "de sters", "", 0));
+        // Scrieri care ajung după ce scanarea le-a citit, dar înainte de înlocuirea indexului
+        index.index(bug("1", "titlu nou", "", 0));
+        index.remove("2");
+        index.rebuild(scan);
+
+        assertEquals(List.of("1"), ids(index.search("nou", 10)));
+        assertTrue(index.search("vechi", 10).isEmpty());
+        assertTrue(index.search("sters", 10).isEmpty());
+
+        // După rebuild scrierile nu mai sunt reținute
+        index.index(bug("3", "nou", "", 0));
+        index.rebuild(List.of());
+        assertTrue(index.search("nou", 10).isEmpty());
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.bugradar.search;
+
+import com.example.bugradar.entity.Bug;
+import com.example.bugradar.entity.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BugTagIndexTest {
+
+    private static Bug bug(String id, String creationDate, String... tagIds) {
+        Bug bug = new Bug();
+        bug.setId(id);
+        bug.setCreationDate(creationDate);
+        List<Tag> tags = new ArrayList<>();
+        for (String tagId : tagIds) {
+            Tag tag = new Tag();
+            tag.setId(tagId);
+            tag.setName(tagId);
+            tags.add(tag);
+        }
+        bug.setTags(tags);
+        return bug;
+    }
+
+    private static List<String> ids(List<Bug> bugs) {
+        return bugs.stream().map(Bug::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    void filtersWithAllAnyAndNoneOrderedByCreationDate() {
+        BugTagIndex index = new BugTagIndex();
+        index.rebuild(List.of(
+                bug("1", "2024-01-01T10:00", "ui", "login"),
+                bug("2", "2024-01-03T10:00", "ui"),
+                bug("3", "2024-01-02T10:00", "api", "login")));
+
+        assertEquals(List.of("2", "1"), ids(index.query(List.of("ui"), null, null)));
+        assertEquals(List.of("3", "1"), ids(index.query(null, List.of("api", "login"), null)));
+        assertEquals(List.of("2"), ids(index.query(List.of("ui"), null, List.of("login"))));
+        assertTrue(index.query(List.of("ui", "api"), null, null).isEmpty());
+    }
+
+    @Test
+    void writesDuringRebuildSurviveTheOlderScan() {
+        BugTagIndex index = new BugTagIndex();
+        index.beginRebuild();
+        List<Bug> scan = List.of(bug("1", "2024-01-01T10:00", "vechi"), bug("2", "2024-01-02T10:00", "ui"));
+        // Scrieri care ajung după ce scanarea le-a citit, dar înainte de înlocuirea indexului
+        index.index(bug("1", "2024-01-01T10:00", "nou"));
+        index.remove("2");
+        index.rebuild(scan);
+
+        assertEquals(List.of("1"), ids(index.query(List.of("nou"), null, null)));
+        assertTrue(index.query(List.of("vechi"), null, null).isEmpty());
+        assertTrue(index.query(List.of("ui"), null, null).isEmpty());
+
+        // După rebuild scrierile nu mai sunt reținute
+        index.index(bug("3", "2024-01-03T10:00", "nou"));
+        index.rebuild(List.of());
+        assertTrue(index.query(List.of("nou"), null, null).isEmpty());
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.bugradar.service;
+
+import com.example.bugradar.entity.Vote;
+import com.example.bugradar.repository.VoteWrite;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScoreChangeJournalTest {
+
+    private final ScoreChangeJournal journal = new ScoreChangeJournal();
+
+    // Upvote pe un bug al lui "author": +2.5 pentru autor
+    private static VoteWrite upvote(String bugId) {
+        Vote vote = new Vote();
+        vote.setUserId("voter");
+        vote.setBugId(bugId);
+        vote.setUpvote(true);
+        VoteWrite write = VoteWrite.create(vote);
+        write.setVoteCountDelta(1);
+        write.setAuthorId("author");
+        write.setAuthorScoreDelta(2.5);
+        write.setVoterId("voter");
+        return write;
+    }
+
+    private void commit(VoteWrite write) {
+        journal.begin(write);
+        journal.committed(write);
+    }
+
+    private static ScoreChangeJournal.Window nothing() {
+        return new ScoreChangeJournal.Window(0, 0);
+    }
+
+    @Test
+    void voteCommittedBetweenReadAndScanIsSubtractedOnce() {
+        try (ScoreChangeJournal.Recording recording = journal.startRecording()) {
+            ScoreChangeJournal.Window read = new ScoreChangeJournal.Window(journal.mark(), journal.mark());
+            commit(upvote("bug-1"));
+            commit(upvote("bug-2"));
+            ScoreChangeJournal.Window bugs = journal.scan(() -> { });
+            // Comis după scanare: nu e în diferență
+            commit(upvote("bug-3"));
+
+            ScoreChangeJournal.Corrections corrections = recording.corrections(Map.of("author", read), bugs, nothing(), nothing());
+
+            assertFalse(corrections.isUncertain("author"));
+            assertEquals(5.0, corrections.observed("author"));
+            assertEquals(0.0, corrections.observed("voter"));
+        }
+    }
+
+    @Test
+    void voteCommittedDuringTheScanMakesTheAuthorUncertain() {
+        try (ScoreChangeJournal.Recording recording = journal.startRecording()) {
+            ScoreChangeJournal.Window read = new ScoreChangeJournal.Window(journal.mark(), journal.mark());
+            VoteWrite write = upvote("bug-1");
+            ScoreChangeJournal.Window bugs = journal.scan(() -> commit(write));
+            // Eșuat: nu contează
+            VoteWrite failed = upvote("bug-2");
+            journal.begin(failed);
+            journal.failed(failed);
+
+            ScoreChangeJournal.Corrections corrections = recording.corrections(Map.of("author", read), bugs, nothing(), nothing());
+
+            assertTrue(corrections.isUncertain("author"));
+        }
+    }
+
+    @Test
+    void voteInFlightWhenTheRecordingStartsIsRecorded() {
+        VoteWrite write = upvote("bug-1");
+        journal.begin(write);
+        try (ScoreChangeJournal.Recording recording = journal.startRecording()) {
+            ScoreChangeJournal.Window read = new ScoreChangeJournal.Window(journal.mark(), journal.mark());
+            journal.committed(write);
+            ScoreChangeJournal.Window bugs = journal.scan(() -> { });
+
+            ScoreChangeJournal.Corrections corrections = recording.corrections(Map.of("author", read), bugs, nothing(), nothing());
+
+            // Poate fi comis înainte sau după citirea scorului
+            assertTrue(corrections.isUncertain("author"));
+        }
+    }
+}
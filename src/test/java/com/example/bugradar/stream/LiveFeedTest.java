@@ -0,0 +1,137 @@
+package com.example.bugradar.stream;
+
+import com.example.bugradar.dto.BugSummary;
+import com.example.bugradar.entity.BugStatus;
+import com.example.bugradar.entity.Comment;
+import com.example.bugradar.repository.BugRepository;
+import com.example.bugradar.repository.ChangeRegistration;
+import com.example.bugradar.repository.CommentRepository;
+import com.example.bugradar.repository.SnapshotChange;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Listenerele sunt înlocuite de mock-uri; modificările sunt date direct callback-urilor primite de LiveFeed
+ */
+class LiveFeedTest {
+
+    private final BugRepository bugRepository = mock(BugRepository.class);
+    private final CommentRepository commentRepository = mock(CommentRepository.class);
+    private final ChangeRegistration threadRegistration = mock(ChangeRegistration.class);
+
+    private final AtomicReference<Consumer<List<SnapshotChange<BugSummary>>>> bugListener = new AtomicReference<>();
+    private final AtomicReference<Consumer<List<SnapshotChange<Comment>>>> commentListener = new AtomicReference<>();
+    private final AtomicReference<Consumer<List<SnapshotChange<Comment>>>> threadListener = new AtomicReference<>();
+
+    private LiveFeed feed;
+
+    @BeforeEach
+    void createFeed() {
+        when(bugRepository.listenForSummaryChanges(any(), any())).thenAnswer(call -> {
+            bugListener.set(call.getArgument(0));
+            return mock(ChangeRegistration.class);
+        });
+        when(commentRepository.listenForChanges(any(), any(), any())).thenAnswer(call -> {
+            commentListener.set(call.getArgument(1));
+            return mock(ChangeRegistration.class);
+        });
+        when(commentRepository.listenForThreadChanges(eq("bug-1"), any(), any())).thenAnswer(call -> {
+            threadListener.set(call.getArgument(1));
+            return threadRegistration;
+        });
+        // Heartbeat-ul nu ajunge să ruleze în timpul testului
+        feed = new LiveFeed(bugRepository, commentRepository, new ObjectMapper(), true, 16, 100, 1,
+                Duration.ofHours(1), Duration.ofMinutes(30), Duration.ofSeconds(10), 10, false);
+    }
+
+    @AfterEach
+    void shutdown() {
+        feed.shutdown();
+    }
+
+    private static BugSummary bug(String id, String tag) {
+        return new BugSummary(id, "author", "title", BugStatus.RECEIVED, 0, "2024-01-01T10:00", List.of(tag));
+    }
+
+    private static Comment comment(String id, String creationDate) {
+        return new Comment(id, "bug-1", "author", "text", null, creationDate, 0);
+    }
+
+    private static <T> SnapshotChange<T> change(SnapshotChange.Type type, String id, T value) {
+        return new SnapshotChange<>(type, id, value);
+    }
+
+    private long stat(String name) {
+        return ((Number) feed.stats().get(name)).longValue();
+    }
+
+    private void awaitDelivered(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (stat("delivered") < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, stat("delivered"));
+    }
+
+    @Test
+    void removedBugReachesSubscribersFilteredOnItsTag() throws InterruptedException {
+        feed.subscribe(Set.of(), Set.of("UI"));
+        bugListener.get().accept(List.of(change(SnapshotChange.Type.ADDED, "bug-1", bug("bug-1", "ui"))));
+
+        bugListener.get().accept(List.of(change(SnapshotChange.Type.REMOVED, "bug-1", null)));
+
+        awaitDelivered(1);
+    }
+
+    @Test
+    void threadListenerSendsChangesOfCommentsOlderThanTheCommentListener() {
+        feed.subscribe(Set.of("bug-1"), Set.of());
+        // Thread-ul existent: nu e publicat
+        threadListener.get().accept(List.of(change(SnapshotChange.Type.ADDED, "old", comment("old", "2020-01-01T10:00"))));
+        assertEquals(0, stat("published"));
+
+        // Vot pe un comentariu creat înainte de pornirea feed-ului: doar listenerul pe thread îl vede
+        threadListener.get().accept(List.of(change(SnapshotChange.Type.MODIFIED, "old", comment("old", "2020-01-01T10:00"))));
+        assertEquals(1, stat("published"));
+
+        // Comentariu nou: vine din listenerul de comentarii, nu de două ori
+        Comment created = comment("new", "2999-01-01T10:00");
+        threadListener.get().accept(List.of(change(SnapshotChange.Type.ADDED, "new", created)));
+        commentListener.get().accept(List.of(change(SnapshotChange.Type.ADDED, "new", created)));
+        assertEquals(2, stat("published"));
+
+        // Ștergerea vine fără valoare; data creării e cea din snapshot-ul anterior
+        threadListener.get().accept(List.of(change(SnapshotChange.Type.REMOVED, "old", null)));
+        threadListener.get().accept(List.of(change(SnapshotChange.Type.REMOVED, "new", null)));
+        assertEquals(3, stat("published"));
+    }
+
+    @Test
+    void threadListenerIsSharedAndRemovedWithTheLastSubscriber() {
+        feed.subscribe(Set.of("bug-1"), Set.of());
+        feed.subscribe(Set.of("bug-1"), Set.of());
+
+        verify(commentRepository, times(1)).listenForThreadChanges(eq("bug-1"), any(), any());
+        assertEquals(1, stat("threadListeners"));
+
+        feed.shutdown();
+        verify(threadRegistration, times(1)).remove();
+        assertEquals(0, stat("threadListeners"));
+    }
+}